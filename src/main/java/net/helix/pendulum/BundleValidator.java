@@ -1,5 +1,6 @@
 package net.helix.pendulum;
 
+import net.helix.pendulum.controllers.BundleViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.crypto.Sha3;
 import net.helix.pendulum.crypto.Sponge;
@@ -10,6 +11,10 @@ import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.storage.Tangle;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Validates bundles.
@@ -21,6 +26,34 @@ import java.util.*;
  */
 public class BundleValidator {
 
+    /**
+     * The maximum amount of transactions with the same bundle hash that are loaded at once to validate a bundle.
+     */
+    private static final int MAX_PREFETCHED_TRANSACTIONS = 1_000;
+
+    /**
+     * The maximum amount of bundles whose verification result is remembered.
+     */
+    private static final int MAX_VERIFIED_BUNDLES = 50_000;
+
+    /**
+     * Results of the bundle hash and signature verification of recently validated bundles (least recently used
+     * bundles are evicted first).
+     */
+    private static final Map<VerifiedBundleKey, Boolean> VERIFIED_BUNDLES = Collections.synchronizedMap(
+            new LinkedHashMap<VerifiedBundleKey, Boolean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<VerifiedBundleKey, Boolean> eldest) {
+                    return size() > MAX_VERIFIED_BUNDLES;
+                }
+            });
+
+    /**
+     * Thread pool that calculates the digests of the signature fragments of a bundle (its threads are daemon threads
+     * that terminate when they are idle).
+     */
+    private static final ForkJoinPool SIGNATURE_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     /**
      * Fetches a bundle of transactions identified by the {@code tailHash} and validates the transactions.
      * Bundle is a group of transactions with the same bundle hash chained by their trunks.
@@ -46,7 +79,8 @@ public class BundleValidator {
      *
      * @implNote if {@code tailHash} was already invalidated/validated by a previous call to this method
      * then we don't validate it
-     * again.
+     * again. The result of the bundle hash and signature verification is also cached in memory (by bundle hash and
+     * tail hash) and the signature fragments are verified in parallel, see {@link #isVerified(List)}.
      *</p>
      * @param tangle used to fetch the bundle's transactions from the persistence layer
      * @param initialSnapshot the initial snapshot that defines the genesis for our ledger state
@@ -79,16 +113,8 @@ public class BundleValidator {
                 final long lastIndex = transactionViewModel.lastIndex();
                 long bundleValue = 0;
                 int i = 0;
-                final Sponge sha3Instance = SpongeFactory.create(SpongeFactory.Mode.S256);
-                final Sponge addressInstance = SpongeFactory.create(SpongeFactory.Mode.S256);
-
-                final byte[] addressBytes = new byte[TransactionViewModel.ADDRESS_SIZE];
-                final byte[] bundleHashBytes = new byte[TransactionViewModel.BUNDLE_SIZE];
-                byte[] normalizedBundle = new byte[TransactionViewModel.BUNDLE_SIZE];
-                byte[] digestBytes = new byte[Sha3.HASH_LENGTH];
 
                 //here we iterate over the txs by checking the trunk of the current transaction
-                MAIN_LOOP:
                 while (true) {
 
                     instanceTransactionViewModels.add(transactionViewModel);
@@ -112,55 +138,11 @@ public class BundleValidator {
                         if (bundleValue == 0) {
 
                             if (instanceTransactionViewModels.get(0).getValidity() == 0) {
-                                sha3Instance.reset();
-                                for (final TransactionViewModel transactionViewModel2 : instanceTransactionViewModels) {
-                                    sha3Instance.absorb(transactionViewModel2.getBytes(), TransactionViewModel.ESSENCE_OFFSET, TransactionViewModel.ESSENCE_SIZE);
-                                }
-                                sha3Instance.squeeze(bundleHashBytes, 0, bundleHashBytes.length);
-                                //verify bundle hash is correct
-                                //System.out.println("Bundle Hash: "  + instanceTransactionViewModels.get(0).getBundleHash());
-                                //System.out.println("recalculated Bundle Hash: " + Hex.toHexString(bundleHashBytes));
-                                if (Arrays.equals(instanceTransactionViewModels.get(0).getBundleHash().bytes(), bundleHashBytes))  {
-                                    //normalizing the bundle in preparation for signature verification
-                                    normalizedBundle = Winternitz.normalizedBundle(bundleHashBytes);
-
-                                    int offset = 0;
-                                    for (int j = 0; j < instanceTransactionViewModels.size(); ) {
-
-                                        transactionViewModel = instanceTransactionViewModels.get(j);
-                                        //if it is a spent transaction that should be signed
-                                        if (transactionViewModel.value() < 0) {
-                                            // let's verify the signature by recalculating the public address
-                                            addressInstance.reset();
-                                            do {
-                                                digestBytes = Winternitz.digest(SpongeFactory.Mode.S256, Arrays.copyOfRange(normalizedBundle, offset*Winternitz.NORMALIZED_FRAGMENT_LENGTH, (offset+1)*Winternitz.NORMALIZED_FRAGMENT_LENGTH),
-                                                        Arrays.copyOfRange(instanceTransactionViewModels.get(j).getBytes(), 0, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE));
-                                                addressInstance.absorb(digestBytes,0, Sha3.HASH_LENGTH);
-                                                offset++;
-                                            } //loop to traverse signature fragments divided between transactions
-                                            while (++j < instanceTransactionViewModels.size()
-                                                    && instanceTransactionViewModels.get(j).getAddressHash().equals(transactionViewModel.getAddressHash())
-                                                    && instanceTransactionViewModels.get(j).value() == 0);
-
-                                            addressInstance.squeeze(addressBytes, 0, addressBytes.length);
-                                            //signature verification
-                                            if (! Arrays.equals(transactionViewModel.getAddressHash().bytes(), addressBytes)) {
-                                                instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, -1);
-                                                //System.out.println("Signature Error!");
-                                                break MAIN_LOOP;
-                                            }
-                                        } else {
-                                            j++;
-                                        }
-                                    }
-                                    //should only be reached after the above for loop is done
+                                if (isVerified(instanceTransactionViewModels)) {
                                     instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, 1);
                                     transactions.add(instanceTransactionViewModels);
-                                }
-                                //bundle hash verification failed
-                                else {
+                                } else {
                                     instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, -1);
-                                    //System.out.println("Bundle Hash Error!");
                                 }
                             }
                             //bundle validity status is known
@@ -191,6 +173,132 @@ public class BundleValidator {
         return transactions;
     }
 
+    /**
+     * Verifies the bundle hash and the signatures of the inputs of a complete bundle.
+     * <p>
+     * The result is remembered in the {@link #VERIFIED_BUNDLES} cache, so bundles whose validity could not be stored
+     * yet (i.e. because they are validated by several threads at the same time) are not verified twice. The digests
+     * of the signature fragments are independent of each other and are calculated by the {@link #SIGNATURE_POOL} if
+     * the bundle has more than one of them.
+     *</p>
+     * @param bundleTransactions the transactions of the bundle ordered by their index (starting with the tail)
+     * @return {@code true} if the bundle hash and all signatures are valid, {@code false} otherwise
+     * @throws Exception if the calculation of a digest failed
+     */
+    private static boolean isVerified(List<TransactionViewModel> bundleTransactions) throws Exception {
+        final TransactionViewModel tail = bundleTransactions.get(0);
+        final VerifiedBundleKey key = new VerifiedBundleKey(tail.getBundleHash(), tail.getHash());
+        Boolean verified = VERIFIED_BUNDLES.get(key);
+        if (verified == null) {
+            verified = verifyBundleHash(bundleTransactions) && verifySignatures(bundleTransactions);
+            VERIFIED_BUNDLES.put(key, verified);
+        }
+
+        return verified;
+    }
+
+    /**
+     * Recalculates the bundle hash by absorbing and squeezing the transactions' essence.
+     */
+    private static boolean verifyBundleHash(List<TransactionViewModel> bundleTransactions) {
+        final Sponge sha3Instance = SpongeFactory.create(SpongeFactory.Mode.S256);
+        final byte[] bundleHashBytes = new byte[TransactionViewModel.BUNDLE_SIZE];
+        for (final TransactionViewModel transactionViewModel : bundleTransactions) {
+            sha3Instance.absorb(transactionViewModel.getBytes(), TransactionViewModel.ESSENCE_OFFSET, TransactionViewModel.ESSENCE_SIZE);
+        }
+        sha3Instance.squeeze(bundleHashBytes, 0, bundleHashBytes.length);
+
+        return Arrays.equals(bundleTransactions.get(0).getBundleHash().bytes(), bundleHashBytes);
+    }
+
+    /**
+     * Validates the signature on input transactions by recalculating their addresses.
+     * <p>
+     * The signature of an input is divided between the input transaction and the following transactions of the same
+     * address that have no value. The fragments of all inputs are collected first, their digests are calculated
+     * (in parallel if there is more than one) and then absorbed per input in their original order.
+     *</p>
+     */
+    private static boolean verifySignatures(List<TransactionViewModel> bundleTransactions) throws Exception {
+        //normalizing the bundle in preparation for signature verification
+        final byte[] normalizedBundle = Winternitz.normalizedBundle(bundleTransactions.get(0).getBundleHash().bytes());
+
+        final List<TransactionViewModel> inputs = new ArrayList<>();
+        final List<Integer> fragmentCounts = new ArrayList<>();
+        final List<byte[]> bundleFragments = new ArrayList<>();
+        final List<byte[]> signatureFragments = new ArrayList<>();
+        int offset = 0;
+        for (int j = 0; j < bundleTransactions.size(); ) {
+            final TransactionViewModel transactionViewModel = bundleTransactions.get(j);
+            //if it is a spent transaction that should be signed
+            if (transactionViewModel.value() < 0) {
+                int fragmentCount = 0;
+                do {
+                    bundleFragments.add(Arrays.copyOfRange(normalizedBundle, offset * Winternitz.NORMALIZED_FRAGMENT_LENGTH, (offset + 1) * Winternitz.NORMALIZED_FRAGMENT_LENGTH));
+                    signatureFragments.add(Arrays.copyOfRange(bundleTransactions.get(j).getBytes(), 0, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE));
+                    fragmentCount++;
+                    offset++;
+                } //loop to traverse signature fragments divided between transactions
+                while (++j < bundleTransactions.size()
+                        && bundleTransactions.get(j).getAddressHash().equals(transactionViewModel.getAddressHash())
+                        && bundleTransactions.get(j).value() == 0);
+                inputs.add(transactionViewModel);
+                fragmentCounts.add(fragmentCount);
+            } else {
+                j++;
+            }
+        }
+
+        final List<byte[]> digests = digests(bundleFragments, signatureFragments);
+        final Sponge addressInstance = SpongeFactory.create(SpongeFactory.Mode.S256);
+        final byte[] addressBytes = new byte[TransactionViewModel.ADDRESS_SIZE];
+        int fragment = 0;
+        for (int input = 0; input < inputs.size(); input++) {
+            addressInstance.reset();
+            for (int end = fragment + fragmentCounts.get(input); fragment < end; fragment++) {
+                addressInstance.absorb(digests.get(fragment), 0, Sha3.HASH_LENGTH);
+            }
+            addressInstance.squeeze(addressBytes, 0, addressBytes.length);
+            //signature verification
+            if (!Arrays.equals(inputs.get(input).getAddressHash().bytes(), addressBytes)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Calculates the Winternitz digests of the signature fragments (in parallel if there is more than one).
+     */
+    private static List<byte[]> digests(List<byte[]> bundleFragments, List<byte[]> signatureFragments)
+            throws Exception {
+        if (signatureFragments.size() <= 1) {
+            final List<byte[]> digests = new ArrayList<>(signatureFragments.size());
+            for (int k = 0; k < signatureFragments.size(); k++) {
+                digests.add(Winternitz.digest(SpongeFactory.Mode.S256, bundleFragments.get(k), signatureFragments.get(k)));
+            }
+            return digests;
+        }
+
+        final List<Callable<byte[]>> tasks = new ArrayList<>(signatureFragments.size());
+        for (int k = 0; k < signatureFragments.size(); k++) {
+            final byte[] bundleFragment = bundleFragments.get(k);
+            final byte[] signatureFragment = signatureFragments.get(k);
+            tasks.add(() -> Winternitz.digest(SpongeFactory.Mode.S256, bundleFragment, signatureFragment));
+        }
+        final List<byte[]> digests = new ArrayList<>(tasks.size());
+        try {
+            for (Future<byte[]> digest : SIGNATURE_POOL.invokeAll(tasks)) {
+                digests.add(digest.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        return digests;
+    }
+
     /**
      * Checks that the bundle's inputs and outputs are balanced.
      *
@@ -224,15 +332,66 @@ public class BundleValidator {
         final Map<Hash, TransactionViewModel> bundleTransactions = new HashMap<>();
         final Hash bundleHash = tail.getBundleHash();
         try {
+            final Map<Hash, TransactionViewModel> prefetchedTransactions = prefetchBundleTransactions(tangle, tail);
             TransactionViewModel tx = tail;
             long i = 0, end = tx.lastIndex();
             do {
                 bundleTransactions.put(tx.getHash(), tx);
-                tx = tx.getTrunkTransaction(tangle);
+                TransactionViewModel trunk = prefetchedTransactions.get(tx.getTrunkTransactionHash());
+                tx = trunk != null ? trunk : tx.getTrunkTransaction(tangle);
             } while (i++ < end && tx.getCurrentIndex() != 0 && tx.getBundleHash().equals(bundleHash));
         } catch (Exception e) {
             e.printStackTrace();
         }
         return bundleTransactions;
     }
+
+    /**
+     * Loads all transactions with the bundle hash of the tail at once, so the trunk chain of the bundle can be
+     * followed without a database read per transaction. Bundle hashes that are shared by too many transactions (i.e.
+     * reattachments) are not prefetched.
+     */
+    private static Map<Hash, TransactionViewModel> prefetchBundleTransactions(Tangle tangle, TransactionViewModel tail)
+            throws Exception {
+        Set<Hash> hashes = BundleViewModel.load(tangle, tail.getBundleHash()).getHashes();
+        if (hashes.size() > MAX_PREFETCHED_TRANSACTIONS) {
+            return Collections.emptyMap();
+        }
+
+        Map<Hash, TransactionViewModel> transactions = new HashMap<>();
+        for (TransactionViewModel transaction : TransactionViewModel.fromHashes(tangle, hashes)) {
+            transactions.put(transaction.getHash(), transaction);
+        }
+        return transactions;
+    }
+
+    /**
+     * Identifies a verified bundle by its bundle hash and the hash of its tail transaction.
+     */
+    private static class VerifiedBundleKey {
+        private final Hash bundleHash;
+        private final Hash tailHash;
+
+        private VerifiedBundleKey(Hash bundleHash, Hash tailHash) {
+            this.bundleHash = bundleHash;
+            this.tailHash = tailHash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            VerifiedBundleKey that = (VerifiedBundleKey) o;
+            return bundleHash.equals(that.bundleHash) && tailHash.equals(that.tailHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bundleHash, tailHash);
+        }
+    }
 }
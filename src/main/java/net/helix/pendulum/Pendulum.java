@@ -30,6 +30,7 @@ import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.PersistenceProvider;
 import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.rocksdb.ColumnFamilyProfile;
 import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
 import net.helix.pendulum.utils.Pair;
 import net.helix.pendulum.zmq.MessageQProviderImpl;
@@ -41,7 +42,9 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  *
@@ -106,6 +109,7 @@ public class Pendulum {
     public final Replicator replicator;
     public final PendulumConfig configuration;
     public final TipsViewModel tipsViewModel;
+    public final IncrementalCumulativeWeightCalculator incrementalCwCalculator;
     public final TipSelector tipsSelector;
     public final Graphstream graph;
     public final TransactionStatsPublisher transactionStatsPublisher;
@@ -160,6 +164,9 @@ public class Pendulum {
         replicator = new Replicator(node, configuration);
         udpReceiver = new UDPReceiver(node, configuration);
         tipsSolidifier = new TipsSolidifier(tangle, transactionValidator, tipsViewModel, configuration);
+        incrementalCwCalculator = configuration.isIncrementalCwEnabled()
+                ? new IncrementalCumulativeWeightCalculator(tangle, snapshotProvider, configuration.getCwWindowSize())
+                : null;
         tipsSelector = createTipSelector(configuration);
         transactionStatsPublisher = new TransactionStatsPublisher(tangle, tipsViewModel, tipsSelector);
 
@@ -188,6 +195,22 @@ public class Pendulum {
             tangle.clearMetadata(net.helix.pendulum.model.persistables.Transaction.class);
         }
 
+        if (configuration.isDbGroupCommitEnabled()) {
+            tangle.enableGroupCommit(configuration.getDbGroupCommitDelay(), configuration.getDbGroupCommitBatchSize());
+        }
+        if (configuration.getApproverIndexSize() > 0) {
+            // random walks start at most max depth milestones back
+            tangle.enableApproverIndex(configuration.getApproverIndexSize(), 2 * configuration.getMaxDepth());
+        }
+        tangle.setDeleteRateLimit(configuration.getDbDeleteRateLimit());
+        if (configuration.getTransactionCacheSize() > 0) {
+            tangle.enableTransactionCache(configuration.getTransactionCacheSize() * 1024L);
+        }
+
+        if (incrementalCwCalculator != null) {
+            transactionValidator.addSolidTransactionListener(incrementalCwCalculator::onSolidTransaction);
+            incrementalCwCalculator.init();
+        }
         transactionValidator.init(configuration.isTestnet(), configuration.getMwm());
         tipsSolidifier.init();
         transactionRequester.init(configuration.getpRemoveRequest());
@@ -236,7 +259,7 @@ public class Pendulum {
         //nomineeTracker.init(tangle, snapshotProvider, nomineeService, nomineeSolidifier, configuration);
         candidateTracker.init(tangle, snapshotProvider, curatorService, candidateSolidifier, configuration);
         latestMilestoneTracker.init(tangle, snapshotProvider, milestoneService, milestoneSolidifier, candidateTracker, configuration);
-        latestSolidMilestoneTracker.init(tangle, snapshotProvider, milestoneService, ledgerService,
+        latestSolidMilestoneTracker.init(tangle, snapshotProvider, snapshotService, milestoneService, ledgerService,
                 latestMilestoneTracker);
         seenMilestonesRetriever.init(tangle, snapshotProvider, transactionRequester);
         milestoneSolidifier.init(snapshotProvider, transactionValidator);
@@ -281,6 +304,7 @@ public class Pendulum {
      */
     public void shutdown() throws Exception {
         transactionStatsPublisher.shutdown();
+        tipsSelector.shutdown();
         transactionRequesterWorker.shutdown();
         milestoneSolidifier.shutdown();
         seenMilestonesRetriever.shutdown();
@@ -299,6 +323,9 @@ public class Pendulum {
         udpReceiver.shutdown();
         replicator.shutdown();
         transactionValidator.shutdown();
+        if (incrementalCwCalculator != null) {
+            incrementalCwCalculator.shutdown();
+        }
         tangle.shutdown();
 
         // free the resources of the snapshot provider last because all other instances need it
@@ -313,7 +340,9 @@ public class Pendulum {
                         configuration.getDbLogPath(),
                         configuration.getDbCacheSize(),
                         Tangle.COLUMN_FAMILIES,
-                        Tangle.METADATA_COLUMN_FAMILY)
+                        Tangle.METADATA_COLUMN_FAMILY,
+                        createColumnFamilyProfiles(),
+                        configuration.getDbCacheShardBits())
                 );
                 break;
             }
@@ -323,10 +352,39 @@ public class Pendulum {
         }
     }
 
+    /**
+     * The transactions and their metadata are read by point lookups while the other columns index them and are
+     * appended to by merges, so both get their own block cache and write buffers.
+     */
+    private Map<String, ColumnFamilyProfile> createColumnFamilyProfiles() {
+        long cacheSize = configuration.getDbCacheSize() * 1024L;
+        long transactionCacheSize = cacheSize * configuration.getDbTransactionCacheShare() / 100;
+        ColumnFamilyProfile transactionProfile = new ColumnFamilyProfile(transactionCacheSize,
+                configuration.getDbTransactionWriteBufferSize() * 1024L,
+                configuration.getDbTransactionCompression(), true);
+        ColumnFamilyProfile indexProfile = new ColumnFamilyProfile(cacheSize - transactionCacheSize,
+                configuration.getDbIndexWriteBufferSize() * 1024L,
+                configuration.getDbIndexCompression(), false);
+
+        Map<String, ColumnFamilyProfile> profiles = new HashMap<>();
+        for (String columnFamily : Tangle.COLUMN_FAMILIES.keySet()) {
+            profiles.put(columnFamily, indexProfile);
+        }
+        profiles.put("transaction", transactionProfile);
+        profiles.put(Tangle.METADATA_COLUMN_FAMILY.getKey(), transactionProfile);
+
+        return profiles;
+    }
+
     private TipSelector createTipSelector(TipSelConfig config) {
         EntryPointSelector entryPointSelector = new EntryPointSelectorImpl(tangle, snapshotProvider,
                 latestMilestoneTracker);
-        RatingCalculator ratingCalculator = new CumulativeWeightCalculator(tangle, snapshotProvider);
+        RatingCalculator ratingCalculator = incrementalCwCalculator != null
+                ? incrementalCwCalculator
+                : new CumulativeWeightCalculator(tangle, snapshotProvider);
+        if (config.isParallelTipSelectionEnabled() && config.getRatingCacheTtl() > 0) {
+            ratingCalculator = new CachingRatingCalculator(ratingCalculator, config.getRatingCacheTtl());
+        }
         TailFinder tailFinder = new TailFinderImpl(tangle);
         Walker walker = new WalkerAlpha(tailFinder, tangle, new SecureRandom(), config);
         return new TipSelectorImpl(tangle, snapshotProvider, ledgerService, entryPointSelector, ratingCalculator,
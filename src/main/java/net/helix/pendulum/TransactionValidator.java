@@ -15,14 +15,26 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static net.helix.pendulum.controllers.TransactionViewModel.*;
 
 public class TransactionValidator {
     private static final Logger log = LoggerFactory.getLogger(TransactionValidator.class);
     private static final int  TESTNET_MWM_CAP = 1;
-    public static final int SOLID_SLEEP_TIME = 500;
+
+    /**
+     * Amount of threads that propagate the solidity of new solid transactions to their approvers.
+     */
+    private static final int SOLIDIFICATION_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum amount of transactions whose missing parents are counted (the counters are dropped if there are more).
+     */
+    private static final int MAX_COUNTED_TRANSACTIONS = 100_000;
 
     private final Tangle tangle;
     private final SnapshotProvider snapshotProvider;
@@ -33,24 +45,46 @@ public class TransactionValidator {
     private static final long MAX_TIMESTAMP_FUTURE = 2L * 60L * 60L;
     private static final long MAX_TIMESTAMP_FUTURE_MS = MAX_TIMESTAMP_FUTURE * 1_000L;
 
-    /////////////////////////////////fields for solidification thread//////////////////////////////////////
+    /////////////////////////////////fields for solidification workers//////////////////////////////////////
 
-    private Thread newSolidThread;
+    /**
+     * Workers that propagate the solidity of new solid transactions to their approvers (null until {@link #init}).
+     */
+    private volatile ExecutorService solidificationPool;
 
     /**
-     * If true use {@link #newSolidTransactionsOne} while solidifying. Else use {@link #newSolidTransactionsTwo}.
+     * Amount of workers that are currently scheduled on the {@link #solidificationPool}.
      */
-    private final AtomicBoolean useFirst = new AtomicBoolean(true);
+    private final AtomicInteger activeSolidificationWorkers = new AtomicInteger();
+
     /**
-     * Is {@link #newSolidThread} shutting down
+     * Are the solidification workers shutting down
      */
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+
     /**
-     * mutex for solidification
+     * Transactions that became solid and whose approvers were not checked yet.
      */
-    private final Object cascadeSync = new Object();
-    private final Set<Hash> newSolidTransactionsOne = new LinkedHashSet<>();
-    private final Set<Hash> newSolidTransactionsTwo = new LinkedHashSet<>();
+    private final Queue<Hash> newSolidTransactions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Amount of transactions that were added to {@link #newSolidTransactions} and were not processed completely yet.
+     */
+    private final AtomicInteger pendingSolidTransactions = new AtomicInteger();
+
+    /**
+     * Counts the parents that are not solid yet for transactions that are waiting to become solid.
+     *
+     * The counters are decremented when a parent becomes solid, so an approver only gets checked again once its last
+     * missing parent arrived. The counters are only an optimization: transactions without a counter (or with a
+     * counter that dropped to 0) are always checked against the database.
+     */
+    private final ConcurrentHashMap<Hash, AtomicInteger> missingParentCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Listeners that get notified about transactions that became solid (before the solid flag is persisted).
+     */
+    private final List<Consumer<TransactionViewModel>> solidTransactionListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor for Tangle Validator
@@ -73,11 +107,11 @@ public class TransactionValidator {
      * <ol>
      *     <li>Sets the minimum weight magnitude (MWM). POW on a transaction is validated by counting a certain
      *     number of consecutive 0s in the end of the transaction hash. The number of 0s is the MWM.</li>
-     *     <li>Starts the transaction solidification thread.</li>
+     *     <li>Starts the workers that propagate the solidity of new solid transactions.</li>
      * </ol>
      *
      *
-     * @see #spawnSolidTransactionsPropagation()
+     * @see #propagateSolidTransactions()
      * @param testnet <tt>true</tt> if we are in testnet mode, this caps {@code mwm} to {@value #TESTNET_MWM_CAP}
      *                regardless of parameter input.
      * @param mwm minimum weight magnitude: the minimal number of 0s that ought to appear at the end of the transaction
@@ -86,11 +120,26 @@ public class TransactionValidator {
     public void init(boolean testnet, int mwm) {
         setMwm(testnet, mwm);
 
-        newSolidThread = new Thread(spawnSolidTransactionsPropagation(), "Solid TX cascader");
-        newSolidThread.start();
+        if (solidificationPool == null) {
+            solidificationPool = Executors.newFixedThreadPool(SOLIDIFICATION_THREADS,
+                    runnable -> new Thread(runnable, "Solid TX cascader"));
+            scheduleSolidificationWorker();
+        }
     }
 
     //Package Private For Testing
+    /**
+     * Registers a listener that gets notified about every transaction that becomes solid.
+     *
+     * The listener is called before the solid flag of the transaction is persisted, so it is always notified about a
+     * transaction before any of its approvers can become solid.
+     *
+     * @param listener consumer of the transactions that became solid
+     */
+    public void addSolidTransactionListener(Consumer<TransactionViewModel> listener) {
+        solidTransactionListeners.add(listener);
+    }
+
     protected void setMwm(boolean testnet, int mwm) {
         minWeightMagnitude = mwm;
 
@@ -101,13 +150,16 @@ public class TransactionValidator {
     }
 
     /**
-     * Shutdown roots to tip solidification thread
+     * Shutdown roots to tip solidification workers
      * @throws InterruptedException
-     * @see #spawnSolidTransactionsPropagation()
+     * @see #propagateSolidTransactions()
      */
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
-        newSolidThread.join();
+        if (solidificationPool != null) {
+            solidificationPool.shutdown();
+            solidificationPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
     }
 
     /**
@@ -191,7 +243,7 @@ public class TransactionValidator {
      * @throws RuntimeException if validation fails
      */
     public TransactionViewModel validateBytes(final byte[] bytes, int minWeightMagnitude) {
-        TransactionViewModel transactionViewModel = new TransactionViewModel(bytes, TransactionHash.calculate(bytes, 0, bytes.length, SpongeFactory.create(SpongeFactory.Mode.S256)));
+        TransactionViewModel transactionViewModel = new TransactionViewModel(bytes, TransactionHash.calculate(bytes, 0, bytes.length, SpongeFactory.getThreadLocal(SpongeFactory.Mode.S256)));
         runValidation(transactionViewModel, minWeightMagnitude);
         return transactionViewModel;
     }
@@ -245,7 +297,8 @@ public class TransactionValidator {
      */
     public boolean checkSolidity(Hash hash, boolean milestone, int maxProcessedTransactions) throws Exception {
         //System.out.println("Check Solidity");
-        if(fromHash(tangle, hash).isSolid()) {
+        final TransactionViewModel checkedTransaction = fromHash(tangle, hash);
+        if(checkedTransaction.isSolid()) {
             return true;
         }
         Set<Hash> analyzedHashes = new HashSet<>(snapshotProvider.getInitialSnapshot().getSolidEntryPoints().keySet());
@@ -253,6 +306,8 @@ public class TransactionValidator {
             maxProcessedTransactions += analyzedHashes.size();
         }
         boolean solid = true;
+        final List<TransactionViewModel> newSolidTransactions = new ArrayList<>();
+        final Map<Hash, Collection<Hash>> newSolidTransactionParents = new HashMap<>();
         final Queue<Hash> nonAnalyzedTransactions = new LinkedList<>(Collections.singleton(hash));
         Hash hashPointer;
         while ((hashPointer = nonAnalyzedTransactions.poll()) != null) {
@@ -261,7 +316,9 @@ public class TransactionValidator {
                     return false;
                 }
 
-                final TransactionViewModel transaction = fromHash(tangle, hashPointer);
+                // every transaction is loaded once, the checked transaction was already loaded above
+                final TransactionViewModel transaction = hashPointer.equals(hash) ? checkedTransaction
+                        : fromHash(tangle, hashPointer);
                 //System.out.println(hashPointer.toString() + ", solid: " + transaction.isSolid() + ", has solid entry point: " + snapshotProvider.getInitialSnapshot().hasSolidEntryPoint(hashPointer));
                 if(!transaction.isSolid() && !snapshotProvider.getInitialSnapshot().hasSolidEntryPoint(hashPointer)) {
                     if (transaction.getType() == PREFILLED_SLOT) {
@@ -272,6 +329,7 @@ public class TransactionValidator {
                             break;
                         }
                     } else {
+                        newSolidTransactions.add(transaction);
                         // transaction of milestone bundle
                         TransactionViewModel milestoneTx;
                         if ((milestoneTx = transaction.isMilestoneBundle(tangle)) != null){
@@ -280,78 +338,136 @@ public class TransactionValidator {
                             for (Hash parent : parents){
                                 nonAnalyzedTransactions.offer(parent);
                             }
+                            newSolidTransactionParents.put(hashPointer, parents);
                         }
                         // normal transaction
                         else {
                             nonAnalyzedTransactions.offer(transaction.getTrunkTransactionHash());
                             nonAnalyzedTransactions.offer(transaction.getBranchTransactionHash());
+                            newSolidTransactionParents.put(hashPointer, Arrays.asList(
+                                    transaction.getTrunkTransactionHash(), transaction.getBranchTransactionHash()));
                         }
                     }
                 }
             }
         }
         if (solid) {
+            sortAncestorsFirst(newSolidTransactions, newSolidTransactionParents)
+                    .forEach(this::notifySolidTransactionListeners);
             updateSolidTransactions(tangle, snapshotProvider.getInitialSnapshot(), analyzedHashes);
         }
         analyzedHashes.clear();
         return solid;
     }
 
-    public void addSolidTransaction(Hash hash) {
-        synchronized (cascadeSync) {
-            if (useFirst.get()) {
-                newSolidTransactionsOne.add(hash);
-            } else {
-                newSolidTransactionsTwo.add(hash);
+    /**
+     * Orders the transactions that became solid together, so that every transaction comes after the transactions it
+     * references. The transactions are collected starting from the approvers, and a transaction can reference both a
+     * transaction and one of its ancestors, so simply reversing the traversal order is not enough.
+     *
+     * @param transactions the transactions that became solid
+     * @param parents the parents of every transaction in {@code transactions}
+     * @return the transactions ordered ancestors first
+     */
+    private static List<TransactionViewModel> sortAncestorsFirst(List<TransactionViewModel> transactions,
+                                                                 Map<Hash, Collection<Hash>> parents) {
+        Map<Hash, TransactionViewModel> transactionsByHash = new HashMap<>();
+        transactions.forEach(transaction -> transactionsByHash.put(transaction.getHash(), transaction));
+
+        List<TransactionViewModel> sortedTransactions = new ArrayList<>(transactions.size());
+        Set<Hash> visitedHashes = new HashSet<>();
+        Deque<Hash> stack = new ArrayDeque<>();
+        for (TransactionViewModel transaction : transactions) {
+            if (!visitedHashes.add(transaction.getHash())) {
+                continue;
+            }
+            stack.push(transaction.getHash());
+            while (!stack.isEmpty()) {
+                Hash unvisitedParent = null;
+                for (Hash parent : parents.getOrDefault(stack.peek(), Collections.emptyList())) {
+                    if (transactionsByHash.containsKey(parent) && visitedHashes.add(parent)) {
+                        unvisitedParent = parent;
+                        break;
+                    }
+                }
+                if (unvisitedParent != null) {
+                    stack.push(unvisitedParent);
+                } else {
+                    sortedTransactions.add(transactionsByHash.get(stack.pop()));
+                }
             }
         }
+
+        return sortedTransactions;
     }
 
     /**
-     * Creates a runnable that runs {@link #propagateSolidTransactions()} in a loop every {@value #SOLID_SLEEP_TIME} ms
-     * @return runnable that is not started
+     * Queues a transaction that became solid, so its approvers get checked for solidity by the solidification workers.
+     *
+     * @param hash hash of the transaction that became solid
      */
-    private Runnable spawnSolidTransactionsPropagation() {
-        return () -> {
-            while(!shuttingDown.get()) {
-                propagateSolidTransactions();
+    public void addSolidTransaction(Hash hash) {
+        pendingSolidTransactions.incrementAndGet();
+        newSolidTransactions.add(hash);
+        scheduleSolidificationWorker();
+    }
+
+    /**
+     * Starts another solidification worker if there is work to do and not all workers are busy.
+     */
+    private void scheduleSolidificationWorker() {
+        ExecutorService pool = solidificationPool;
+        if (pool == null || shuttingDown.get()) {
+            return;
+        }
+
+        int workers;
+        while (!newSolidTransactions.isEmpty() && (workers = activeSolidificationWorkers.get()) < SOLIDIFICATION_THREADS) {
+            if (activeSolidificationWorkers.compareAndSet(workers, workers + 1)) {
                 try {
-                    Thread.sleep(SOLID_SLEEP_TIME);
-                } catch (InterruptedException e) {
-                    // Ignoring InterruptedException. Do not use Thread.currentThread().interrupt() here.
-                    log.error("Thread was interrupted: ", e);
+                    pool.execute(this::runSolidificationWorker);
+                } catch (RejectedExecutionException e) {
+                    activeSolidificationWorkers.decrementAndGet();
                 }
+
+                return;
             }
-        };
+        }
+    }
+
+    /**
+     * Processes the queued solid transactions until the queue is empty.
+     */
+    private void runSolidificationWorker() {
+        try {
+            propagateSolidTransactions();
+        } finally {
+            activeSolidificationWorkers.decrementAndGet();
+        }
+
+        // transactions that were queued while all workers were busy have to be picked up by a new worker
+        scheduleSolidificationWorker();
     }
 
     /**
-     * Iterates over all currently known solid transactions. For each solid transaction, we find
-     * its children (approvers) and try to quickly solidify them with {@link #quietQuickSetSolid}.
-     * If we manage to solidify the transactions, we add them to the solidification queue for a traversal by a later run.
+     * Takes the queued solid transactions until the queue is empty. For each solid transaction, we find its children
+     * (approvers) and try to quickly solidify them with {@link #quietQuickSetSolid}. If we manage to solidify the
+     * transactions, we queue them as well, so the solidity propagates upwards without waiting for another run.
      */
     //Package private for testing
     protected void propagateSolidTransactions() {
-        Set<Hash> newSolidHashes = new HashSet<>();
-        useFirst.set(!useFirst.get());
-        //synchronized to make sure no one is changing the newSolidTransactions collections during addAll
-        synchronized (cascadeSync) {
-            //We are using a collection that doesn't get updated by other threads
-            if (useFirst.get()) {
-                newSolidHashes.addAll(newSolidTransactionsTwo);
-                newSolidTransactionsTwo.clear();
-            } else {
-                newSolidHashes.addAll(newSolidTransactionsOne);
-                newSolidTransactionsOne.clear();
-            }
-        }
-        Iterator<Hash> cascadeIterator = newSolidHashes.iterator();
-        while(cascadeIterator.hasNext() && !shuttingDown.get()) {
+        Hash hash;
+        while(!shuttingDown.get() && (hash = newSolidTransactions.poll()) != null) {
             try {
-                Hash hash = cascadeIterator.next();
                 TransactionViewModel transaction = fromHash(tangle, hash);
                 Set<Hash> approvers = transaction.getApprovers(tangle).getHashes();
                 for(Hash h: approvers) {
+                    // skip the approvers that are known to still wait for other parents
+                    AtomicInteger missingParents = missingParentCounts.get(h);
+                    if (missingParents != null && missingParents.decrementAndGet() > 0) {
+                        continue;
+                    }
+
                     TransactionViewModel tx = fromHash(tangle, h);
                     if(quietQuickSetSolid(tx)) {
                         tx.update(tangle, snapshotProvider.getInitialSnapshot(), "solid|height");
@@ -361,6 +477,8 @@ public class TransactionValidator {
                 }
             } catch (Exception e) {
                 log.error("Error while propagating solidity upwards", e);
+            } finally {
+                pendingSolidTransactions.decrementAndGet();
             }
         }
     }
@@ -454,16 +572,27 @@ public class TransactionValidator {
                     }
                 }
             } else {
+                // the parents of milestone transactions are not all linked as approvers, so we only count the missing
+                // parents of normal transactions
+                int missingParents = 0;
                 if (!checkApproovee(transactionViewModel.getTrunkTransaction(tangle))) {
-                    solid = false;
+                    missingParents++;
+                }
+                if (!transactionViewModel.getBranchTransactionHash().equals(
+                        transactionViewModel.getTrunkTransactionHash()) &&
+                        !checkApproovee(transactionViewModel.getBranchTransaction(tangle))) {
+                    missingParents++;
                 }
-                if (!checkApproovee(transactionViewModel.getBranchTransaction(tangle))) {
+                if (missingParents != 0) {
                     solid = false;
+                    countMissingParents(transactionViewModel.getHash(), missingParents);
                 }
             }
 
             if(solid) {
+                missingParentCounts.remove(transactionViewModel.getHash());
                 transactionViewModel.updateSolid(true);
+                notifySolidTransactionListeners(transactionViewModel);
                 transactionViewModel.updateHeights(tangle, snapshotProvider.getInitialSnapshot());
                 return true;
             }
@@ -471,6 +600,31 @@ public class TransactionValidator {
         return false;
     }
 
+    /**
+     * Stores the amount of missing parents of a transaction that is waiting to become solid.
+     *
+     * A parent might have become solid after we checked it and before the counter is stored, without decrementing
+     * it. The approvers of that parent get checked against the database though (since they had no counter or their
+     * counter dropped to 0), which lowers the counter again, so we only ever keep the smallest known amount.
+     *
+     * @param hash hash of the transaction that is not solid
+     * @param missingParents the amount of parents that are not solid
+     */
+    private void countMissingParents(Hash hash, int missingParents) {
+        if (missingParentCounts.size() >= MAX_COUNTED_TRANSACTIONS) {
+            missingParentCounts.clear();
+        }
+
+        missingParentCounts.computeIfAbsent(hash, key -> new AtomicInteger(missingParents)).accumulateAndGet(
+                missingParents, (current, update) -> current <= 0 ? update : Math.min(current, update));
+    }
+
+    private void notifySolidTransactionListeners(TransactionViewModel transactionViewModel) {
+        for (Consumer<TransactionViewModel> listener : solidTransactionListeners) {
+            listener.accept(transactionViewModel);
+        }
+    }
+
     /**
      * If the the {@code approvee} is missing, request it from a neighbor.
      * @param approovee transaction we check.
@@ -492,7 +646,7 @@ public class TransactionValidator {
 
     //Package Private For Testing
     protected boolean isNewSolidTxSetsEmpty () {
-        return newSolidTransactionsOne.isEmpty() && newSolidTransactionsTwo.isEmpty();
+        return pendingSolidTransactions.get() == 0;
     }
 
     /**
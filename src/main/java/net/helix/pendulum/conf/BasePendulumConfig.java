@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import net.helix.pendulum.model.HashFactory;
 import org.apache.commons.lang3.ArrayUtils;
+import org.rocksdb.CompressionType;
 
 import net.helix.pendulum.Main;
 import net.helix.pendulum.utils.PendulumUtils;
@@ -66,6 +67,18 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected String mainDb = Defaults.ROCKS_DB;
     protected boolean revalidate = Defaults.REVALIDATE;
     protected boolean rescanDb = Defaults.RESCAN_DB;
+    protected boolean dbGroupCommitEnabled = Defaults.DB_GROUP_COMMIT_ENABLED;
+    protected int dbGroupCommitDelay = Defaults.DB_GROUP_COMMIT_DELAY;
+    protected int dbGroupCommitBatchSize = Defaults.DB_GROUP_COMMIT_BATCH_SIZE;
+    protected int approverIndexSize = Defaults.APPROVER_INDEX_SIZE;
+    protected int dbCacheShardBits = Defaults.DB_CACHE_SHARD_BITS;
+    protected int dbTransactionCacheShare = Defaults.DB_TRANSACTION_CACHE_SHARE;
+    protected int dbTransactionWriteBufferSize = Defaults.DB_TRANSACTION_WRITE_BUFFER_SIZE; //KB
+    protected String dbTransactionCompression = Defaults.DB_TRANSACTION_COMPRESSION;
+    protected int dbIndexWriteBufferSize = Defaults.DB_INDEX_WRITE_BUFFER_SIZE; //KB
+    protected String dbIndexCompression = Defaults.DB_INDEX_COMPRESSION;
+    protected int dbDeleteRateLimit = Defaults.DB_DELETE_RATE_LIMIT;
+    protected int transactionCacheSize = Defaults.TRANSACTION_CACHE_SIZE;
 
     //Protocol
     protected double pReplyRandomTip = Defaults.P_REPLY_RANDOM_TIP;
@@ -82,6 +95,10 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected String zmqIpc = Defaults.ZMQ_IPC;
     protected int qSizeNode = Defaults.QUEUE_SIZE;
     protected int cacheSizeBytes = Defaults.CACHE_SIZE_BYTES;
+    protected int receiveThreads = Defaults.RECEIVE_THREADS;
+    protected int replyThreads = Defaults.REPLY_THREADS;
+    protected int udpReceiverThreads = Defaults.UDP_RECEIVER_THREADS;
+    protected int validationThreads = Defaults.VALIDATION_THREADS;
     /**
      * @deprecated This field was replaced by {@link #zmqEnableTcp} and {@link #zmqEnableIpc}. It is only needed
      * for backward compatibility to --zmq-enabled parameter with JCommander.
@@ -96,6 +113,10 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected int maxDepth = Defaults.MAX_DEPTH;
     protected double alpha = Defaults.ALPHA;
     private int maxAnalyzedTransactions = Defaults.MAX_ANALYZED_TXS;
+    protected boolean incrementalCwEnabled = Defaults.INCREMENTAL_CW_ENABLED;
+    protected int cwWindowSize = Defaults.CW_WINDOW_SIZE;
+    protected boolean parallelTipSelectionEnabled = Defaults.PARALLEL_TIP_SELECTION_ENABLED;
+    protected int ratingCacheTtl = Defaults.RATING_CACHE_TTL;
 
     //Tip Solidification
     protected boolean tipSolidifierEnabled = Defaults.TIP_SOLIDIFIER_ENABLED;
@@ -452,6 +473,151 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.rescanDb = rescanDb;
     }
 
+    @Override
+    public boolean isDbGroupCommitEnabled() {
+        return dbGroupCommitEnabled;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-group-commit"}, description = DbConfig.Descriptions.DB_GROUP_COMMIT_ENABLED,
+            arity = 1)
+    protected void setDbGroupCommitEnabled(boolean dbGroupCommitEnabled) {
+        this.dbGroupCommitEnabled = dbGroupCommitEnabled;
+    }
+
+    @Override
+    public int getDbGroupCommitDelay() {
+        return dbGroupCommitDelay;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-group-commit-delay"}, description = DbConfig.Descriptions.DB_GROUP_COMMIT_DELAY)
+    protected void setDbGroupCommitDelay(int dbGroupCommitDelay) {
+        this.dbGroupCommitDelay = dbGroupCommitDelay;
+    }
+
+    @Override
+    public int getDbGroupCommitBatchSize() {
+        return dbGroupCommitBatchSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-group-commit-batch-size"}, description = DbConfig.Descriptions.DB_GROUP_COMMIT_BATCH_SIZE)
+    protected void setDbGroupCommitBatchSize(int dbGroupCommitBatchSize) {
+        this.dbGroupCommitBatchSize = dbGroupCommitBatchSize;
+    }
+
+    @Override
+    public int getApproverIndexSize() {
+        return approverIndexSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--approver-index-size"}, description = DbConfig.Descriptions.APPROVER_INDEX_SIZE)
+    protected void setApproverIndexSize(int approverIndexSize) {
+        this.approverIndexSize = approverIndexSize;
+    }
+
+    @Override
+    public int getDbCacheShardBits() {
+        return dbCacheShardBits;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-cache-shard-bits"}, description = DbConfig.Descriptions.DB_CACHE_SHARD_BITS)
+    protected void setDbCacheShardBits(int dbCacheShardBits) {
+        this.dbCacheShardBits = dbCacheShardBits;
+    }
+
+    @Override
+    public int getDbTransactionCacheShare() {
+        return dbTransactionCacheShare;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-transaction-cache-share"}, description = DbConfig.Descriptions.DB_TRANSACTION_CACHE_SHARE)
+    protected void setDbTransactionCacheShare(int dbTransactionCacheShare) {
+        this.dbTransactionCacheShare = dbTransactionCacheShare;
+    }
+
+    @Override
+    public int getDbTransactionWriteBufferSize() {
+        return dbTransactionWriteBufferSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-transaction-write-buffer-size"},
+            description = DbConfig.Descriptions.DB_TRANSACTION_WRITE_BUFFER_SIZE)
+    protected void setDbTransactionWriteBufferSize(int dbTransactionWriteBufferSize) {
+        this.dbTransactionWriteBufferSize = dbTransactionWriteBufferSize;
+    }
+
+    @Override
+    public String getDbTransactionCompression() {
+        return dbTransactionCompression;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-transaction-compression"}, description = DbConfig.Descriptions.DB_TRANSACTION_COMPRESSION)
+    protected void setDbTransactionCompression(String dbTransactionCompression) {
+        this.dbTransactionCompression = checkCompression("--db-transaction-compression", dbTransactionCompression);
+    }
+
+    @Override
+    public int getDbIndexWriteBufferSize() {
+        return dbIndexWriteBufferSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-index-write-buffer-size"}, description = DbConfig.Descriptions.DB_INDEX_WRITE_BUFFER_SIZE)
+    protected void setDbIndexWriteBufferSize(int dbIndexWriteBufferSize) {
+        this.dbIndexWriteBufferSize = dbIndexWriteBufferSize;
+    }
+
+    @Override
+    public String getDbIndexCompression() {
+        return dbIndexCompression;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-index-compression"}, description = DbConfig.Descriptions.DB_INDEX_COMPRESSION)
+    protected void setDbIndexCompression(String dbIndexCompression) {
+        this.dbIndexCompression = checkCompression("--db-index-compression", dbIndexCompression);
+    }
+
+    /**
+     * Checks the name of a compression, so a typo is reported while parsing the config instead of failing the DB.
+     */
+    private static String checkCompression(String parameter, String compression) {
+        try {
+            return CompressionType.valueOf(compression).name();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ParameterException("Invalid value for " + parameter + ": " + compression, e);
+        }
+    }
+
+    @Override
+    public int getDbDeleteRateLimit() {
+        return dbDeleteRateLimit;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-delete-rate-limit"}, description = DbConfig.Descriptions.DB_DELETE_RATE_LIMIT)
+    protected void setDbDeleteRateLimit(int dbDeleteRateLimit) {
+        this.dbDeleteRateLimit = dbDeleteRateLimit;
+    }
+
+    @Override
+    public int getTransactionCacheSize() {
+        return transactionCacheSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--transaction-cache-size"}, description = DbConfig.Descriptions.TRANSACTION_CACHE_SIZE)
+    protected void setTransactionCacheSize(int transactionCacheSize) {
+        this.transactionCacheSize = transactionCacheSize;
+    }
+
     @Override
     public int getMwm() {
         return Defaults.MWM;
@@ -759,6 +925,50 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.cacheSizeBytes = cacheSizeBytes;
     }
 
+    @Override
+    public int getReceiveThreads() {
+        return receiveThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--receive-threads", description = NetworkConfig.Descriptions.RECEIVE_THREADS)
+    protected void setReceiveThreads(int receiveThreads) {
+        this.receiveThreads = receiveThreads;
+    }
+
+    @Override
+    public int getReplyThreads() {
+        return replyThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--reply-threads", description = NetworkConfig.Descriptions.REPLY_THREADS)
+    protected void setReplyThreads(int replyThreads) {
+        this.replyThreads = replyThreads;
+    }
+
+    @Override
+    public int getUdpReceiverThreads() {
+        return udpReceiverThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--udp-receiver-threads", description = NetworkConfig.Descriptions.UDP_RECEIVER_THREADS)
+    protected void setUdpReceiverThreads(int udpReceiverThreads) {
+        this.udpReceiverThreads = udpReceiverThreads;
+    }
+
+    @Override
+    public int getValidationThreads() {
+        return validationThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--validation-threads", description = NetworkConfig.Descriptions.VALIDATION_THREADS)
+    protected void setValidationThreads(int validationThreads) {
+        this.validationThreads = validationThreads;
+    }
+
     @Override
     public int getMaxDepth() {
         return maxDepth;
@@ -797,6 +1007,50 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.maxAnalyzedTransactions = maxAnalyzedTransactions;
     }
 
+    @Override
+    public boolean isIncrementalCwEnabled() {
+        return incrementalCwEnabled;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--incremental-cw", description = TipSelConfig.Descriptions.INCREMENTAL_CW_ENABLED, arity = 1)
+    protected void setIncrementalCwEnabled(boolean incrementalCwEnabled) {
+        this.incrementalCwEnabled = incrementalCwEnabled;
+    }
+
+    @Override
+    public int getCwWindowSize() {
+        return cwWindowSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--cw-window-size", description = TipSelConfig.Descriptions.CW_WINDOW_SIZE)
+    protected void setCwWindowSize(int cwWindowSize) {
+        this.cwWindowSize = cwWindowSize;
+    }
+
+    @Override
+    public boolean isParallelTipSelectionEnabled() {
+        return parallelTipSelectionEnabled;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--parallel-tip-selection", description = TipSelConfig.Descriptions.PARALLEL_TIP_SELECTION_ENABLED, arity = 1)
+    protected void setParallelTipSelectionEnabled(boolean parallelTipSelectionEnabled) {
+        this.parallelTipSelectionEnabled = parallelTipSelectionEnabled;
+    }
+
+    @Override
+    public int getRatingCacheTtl() {
+        return ratingCacheTtl;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--rating-cache-ttl", description = TipSelConfig.Descriptions.RATING_CACHE_TTL)
+    protected void setRatingCacheTtl(int ratingCacheTtl) {
+        this.ratingCacheTtl = ratingCacheTtl;
+    }
+
     // Curator
     @Override
     public boolean getCuratorEnabled() {return curatorEnabled; }
@@ -984,6 +1238,18 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         String ROCKS_DB = "rocksdb";
         boolean REVALIDATE = false;
         boolean RESCAN_DB = false;
+        boolean DB_GROUP_COMMIT_ENABLED = false;
+        int DB_GROUP_COMMIT_DELAY = 0;
+        int DB_GROUP_COMMIT_BATCH_SIZE = 1_000;
+        int APPROVER_INDEX_SIZE = 262_144;
+        int DB_CACHE_SHARD_BITS = 2;
+        int DB_TRANSACTION_CACHE_SHARE = 60;
+        int DB_TRANSACTION_WRITE_BUFFER_SIZE = 2_048;
+        String DB_TRANSACTION_COMPRESSION = "SNAPPY_COMPRESSION";
+        int DB_INDEX_WRITE_BUFFER_SIZE = 2_048;
+        String DB_INDEX_COMPRESSION = "SNAPPY_COMPRESSION";
+        int DB_DELETE_RATE_LIMIT = 50_000;
+        int TRANSACTION_CACHE_SIZE = 65_536;
 
         //Protocol
         double P_REPLY_RANDOM_TIP = 0.66d;
@@ -997,6 +1263,10 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         int QUEUE_SIZE = 1_000;
         double P_DROP_CACHE_ENTRY = 0.02d;
         int CACHE_SIZE_BYTES = 150_000;
+        int RECEIVE_THREADS = 1;
+        int REPLY_THREADS = 1;
+        int UDP_RECEIVER_THREADS = 2;
+        int VALIDATION_THREADS = 0;
 
         //Zmq
         int ZMQ_THREADS = 1;
@@ -1011,6 +1281,10 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         //TipSel
         int MAX_DEPTH = 15;
         double ALPHA = 0.001d;
+        boolean INCREMENTAL_CW_ENABLED = false;
+        int CW_WINDOW_SIZE = 200_000;
+        boolean PARALLEL_TIP_SELECTION_ENABLED = false;
+        int RATING_CACHE_TTL = 1000;
 
         //Tip solidification
         boolean TIP_SOLIDIFIER_ENABLED = true;
@@ -31,6 +31,66 @@ public interface DbConfig extends Config {
      */
     boolean isRescanDb();
 
+    /**
+     * @return {@value Descriptions#DB_GROUP_COMMIT_ENABLED}
+     */
+    boolean isDbGroupCommitEnabled();
+
+    /**
+     * @return {@value Descriptions#DB_GROUP_COMMIT_DELAY}
+     */
+    int getDbGroupCommitDelay();
+
+    /**
+     * @return {@value Descriptions#DB_GROUP_COMMIT_BATCH_SIZE}
+     */
+    int getDbGroupCommitBatchSize();
+
+    /**
+     * @return {@value Descriptions#APPROVER_INDEX_SIZE}
+     */
+    int getApproverIndexSize();
+
+    /**
+     * @return {@value Descriptions#DB_CACHE_SHARD_BITS}
+     */
+    int getDbCacheShardBits();
+
+    /**
+     * @return {@value Descriptions#DB_TRANSACTION_CACHE_SHARE}
+     */
+    int getDbTransactionCacheShare();
+
+    /**
+     * @return {@value Descriptions#DB_TRANSACTION_WRITE_BUFFER_SIZE}
+     */
+    int getDbTransactionWriteBufferSize();
+
+    /**
+     * @return {@value Descriptions#DB_TRANSACTION_COMPRESSION}
+     */
+    String getDbTransactionCompression();
+
+    /**
+     * @return {@value Descriptions#DB_INDEX_WRITE_BUFFER_SIZE}
+     */
+    int getDbIndexWriteBufferSize();
+
+    /**
+     * @return {@value Descriptions#DB_INDEX_COMPRESSION}
+     */
+    String getDbIndexCompression();
+
+    /**
+     * @return {@value Descriptions#DB_DELETE_RATE_LIMIT}
+     */
+    int getDbDeleteRateLimit();
+
+    /**
+     * @return {@value Descriptions#TRANSACTION_CACHE_SIZE}
+     */
+    int getTransactionCacheSize();
+
     interface Descriptions {
 
         String DB_PATH = "The folder where the DB saves its data.";
@@ -40,5 +100,26 @@ public interface DbConfig extends Config {
         String REVALIDATE = "Reload from the db data about confirmed transaction (milestones), state of the ledger, " +
                 "and transaction metadata.";
         String RESCAN_DB = "Rescan all transaction metadata (Approvees, Bundles, and Tags)";
+        String DB_GROUP_COMMIT_ENABLED = "Write concurrently received transactions together in a single DB write.";
+        String DB_GROUP_COMMIT_DELAY = "The maximum time in milliseconds that received transactions are held back to " +
+                "be written together with other transactions in a single DB write. With 0 only the transactions that " +
+                "arrive while the previous write is running are combined.";
+        String DB_GROUP_COMMIT_BATCH_SIZE = "The amount of queued DB entries that triggers a group commit without " +
+                "waiting for the group commit delay.";
+        String APPROVER_INDEX_SIZE = "The amount of recently stored transactions whose approvers are indexed in " +
+                "memory for random walks and traversals (0 to disable).";
+        String DB_CACHE_SHARD_BITS = "The DB block caches are split into 2^n shards with their own lock.";
+        String DB_TRANSACTION_CACHE_SHARE = "The percentage of the DB cache that is reserved for transactions and " +
+                "their metadata, the rest is used by the index columns (approvees, addresses, bundles, tags, ...).";
+        String DB_TRANSACTION_WRITE_BUFFER_SIZE = "The size of the DB write buffer of the transaction columns in KB.";
+        String DB_TRANSACTION_COMPRESSION = "The compression of the transaction columns (i.e. NO_COMPRESSION, " +
+                "SNAPPY_COMPRESSION, LZ4_COMPRESSION, ZSTD_COMPRESSION).";
+        String DB_INDEX_WRITE_BUFFER_SIZE = "The size of the DB write buffer of the index columns in KB.";
+        String DB_INDEX_COMPRESSION = "The compression of the index columns (i.e. NO_COMPRESSION, " +
+                "SNAPPY_COMPRESSION, LZ4_COMPRESSION, ZSTD_COMPRESSION).";
+        String DB_DELETE_RATE_LIMIT = "The maximum amount of DB entries that are deleted per second by the " +
+                "transaction pruner (0 for unlimited).";
+        String TRANSACTION_CACHE_SIZE = "The size of the in-memory cache of recently stored and loaded transactions " +
+                "in KB (0 disables it).";
     }
 }
@@ -51,6 +51,22 @@ public interface NetworkConfig extends Config {
      * @return Descriptions#CACHE_SIZE_BYTES
      */
     int getCacheSizeBytes();
+    /**
+     * @return Descriptions#RECEIVE_THREADS
+     */
+    int getReceiveThreads();
+    /**
+     * @return Descriptions#REPLY_THREADS
+     */
+    int getReplyThreads();
+    /**
+     * @return Descriptions#UDP_RECEIVER_THREADS
+     */
+    int getUdpReceiverThreads();
+    /**
+     * @return Descriptions#VALIDATION_THREADS
+     */
+    int getValidationThreads();
 
     interface Descriptions {
         String UDP_RECEIVER_PORT = "The UDP Receiver Port.";
@@ -65,5 +81,10 @@ public interface NetworkConfig extends Config {
         String Q_SIZE_NODE = "The size of the REPLY, BROADCAST, and RECEIVE network queues.";
         String P_DROP_CACHE_ENTRY = DescriptionHelper.PROB_OF + "dropping recently seen transactions out of the network cache.";
         String CACHE_SIZE_BYTES = "The size of the network cache in bytes";
+        String RECEIVE_THREADS = "The number of threads that store the transactions of the RECEIVE queue.";
+        String REPLY_THREADS = "The number of threads that answer the requests of the REPLY queue.";
+        String UDP_RECEIVER_THREADS = "The number of threads that read packets from the UDP socket.";
+        String VALIDATION_THREADS = "The number of threads that hash and validate received transactions " +
+                "(0 = one per available processor).";
     }
 }
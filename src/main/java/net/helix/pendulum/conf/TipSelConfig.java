@@ -18,11 +18,35 @@ public interface TipSelConfig extends Config {
      * @return Descriptions#BELOW_MAX_DEPTH_TRANSACTION_LIMIT
      */
     int getBelowMaxDepthTransactionLimit();
+    /**
+     * @return Descriptions#INCREMENTAL_CW_ENABLED
+     */
+    boolean isIncrementalCwEnabled();
+    /**
+     * @return Descriptions#CW_WINDOW_SIZE
+     */
+    int getCwWindowSize();
+    /**
+     * @return Descriptions#PARALLEL_TIP_SELECTION_ENABLED
+     */
+    boolean isParallelTipSelectionEnabled();
+    /**
+     * @return Descriptions#RATING_CACHE_TTL
+     */
+    int getRatingCacheTtl();
     interface Descriptions {
         String MAX_DEPTH = "The maximal number of previous milestones from where you can perform the random walk";
         String ALPHA = "Parameter that defines the randomness of the tip selection. " +
                 "Should be a number between 0 to infinity, where 0 is most random and infinity is most deterministic.";
         String BELOW_MAX_DEPTH_TRANSACTION_LIMIT = "The maximal number of unconfirmed transactions that may be analyzed in " +
                 "order to find the latest milestoneTracker the transaction that we are stepping on during the walk approves";
+        String INCREMENTAL_CW_ENABLED = "Maintain the cumulative weights of new solid transactions incrementally instead of " +
+                "recalculating them for the whole subtangle on every tip selection";
+        String CW_WINDOW_SIZE = "The maximal number of recently solidified transactions whose cumulative weights are " +
+                "maintained incrementally";
+        String PARALLEL_TIP_SELECTION_ENABLED = "Serve concurrent tip selection requests in parallel and perform the random " +
+                "walks of a request at the same time";
+        String RATING_CACHE_TTL = "The time in milliseconds the rating of an entry point is shared between parallel tip " +
+                "selections (0 to disable)";
     }
 }
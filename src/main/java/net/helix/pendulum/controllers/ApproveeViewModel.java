@@ -7,6 +7,7 @@ import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.Pair;
+import net.helix.pendulum.utils.dag.ApproverIndex;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -53,6 +54,24 @@ public class ApproveeViewModel implements HashesViewModel {
         return new ApproveeViewModel((Approvee) tangle.load(Approvee.class, hash), hash);
     }
 
+    /**
+    * Get the hashes of the transactions approving a given transaction. The approvers are read from the
+    * {@link ApproverIndex} of the tangle if possible and loaded from the database otherwise.
+    * @param tangle
+    * @param hash transaction hash
+    * @return <code> Set<Hash> </code> a modifiable set of the approving transaction hashes
+    */
+    public static Set<Hash> loadHashes(Tangle tangle, Hash hash) throws Exception {
+        ApproverIndex approverIndex = tangle.getApproverIndex();
+        if (approverIndex != null) {
+            Set<Hash> approvers = approverIndex.getApprovers(hash);
+            if (approvers != null) {
+                return approvers;
+            }
+        }
+        return load(tangle, hash).getHashes();
+    }
+
     /**
     * Convert a mergable approvee set hash into the approvee model.
     * @param hash transaction hash
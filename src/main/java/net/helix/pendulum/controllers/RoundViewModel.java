@@ -5,6 +5,7 @@ import net.helix.pendulum.crypto.Merkle;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.model.IntegerIndex;
+import net.helix.pendulum.model.persistables.Approvee;
 import net.helix.pendulum.model.persistables.Round;
 import net.helix.pendulum.service.milestone.MilestoneTracker;
 import net.helix.pendulum.storage.Indexable;
@@ -383,11 +384,16 @@ public class RoundViewModel {
     public static void updateApprovees(Tangle tangle, TransactionValidator transactionValidator, List<TransactionViewModel> milestoneBundle, Hash milestone, int security) throws Exception{
         Set<Hash> confirmedTips = getTipSet(tangle, milestone, security);
         TransactionViewModel lastTx = milestoneBundle.get(milestoneBundle.size() - 1);
-        // last transaction references tips
-        for (Hash tip : confirmedTips){
-            ApproveeViewModel approve = new ApproveeViewModel(tip);
-            approve.addHash(lastTx.getHash());
-            approve.store(tangle);
+        // last transaction references tips, its hash is appended to their approvers without rewriting them
+        List<Pair<Indexable, Persistable>> approvees = new ArrayList<>(confirmedTips.size());
+        for (Hash tip : confirmedTips) {
+            approvees.add(new Pair<>(tip, new Approvee(lastTx.getHash())));
+        }
+        tangle.saveBatch(approvees);
+        if (tangle.getApproverIndex() != null) {
+            for (Hash tip : confirmedTips) {
+                tangle.getApproverIndex().addApprover(tip, lastTx.getHash());
+            }
         }
         transactionValidator.updateStatus(TransactionViewModel.fromHash(tangle, lastTx.getHash()));
     }
@@ -9,6 +9,7 @@ import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.Converter;
 import net.helix.pendulum.utils.Pair;
+import net.helix.pendulum.utils.dag.ApproverIndex;
 
 import java.util.*;
 
@@ -94,6 +95,42 @@ public class TransactionViewModel {
         return transactionViewModel;
     }
 
+    /**
+    * Get the TransactionViewModels of multiple transaction hashes at once. Uses @see #Tangle.loadAll(Class<?>, Collection<Indexable>)
+    * @param tangle
+    * @param hashes transaction hashes
+    * @return <code>List<TransactionViewModel></code> of the transactions in the order of the hashes
+    */
+    public static List<TransactionViewModel> fromHashes(Tangle tangle, Collection<Hash> hashes) throws Exception {
+        List<Persistable> transactions = tangle.loadAll(Transaction.class, hashes);
+        List<TransactionViewModel> transactionViewModels = new ArrayList<>(hashes.size());
+        Iterator<Persistable> transactionIterator = transactions.iterator();
+        for (Hash hash : hashes) {
+            TransactionViewModel transactionViewModel = new TransactionViewModel(
+                    (Transaction) transactionIterator.next(), hash);
+            fillMetadata(tangle, transactionViewModel);
+            transactionViewModels.add(transactionViewModel);
+        }
+        return transactionViewModels;
+    }
+
+    /**
+     * Reads only the stored metadata of a transaction and returns a lazy {@link TransactionMetadata} view on it.
+     *
+     * This is a lightweight alternative to {@link #fromHash(Tangle, Hash)} for code that only needs a few of the
+     * metadata fields (i.e. the solid flag or the snapshot index): neither the transaction bytes are read nor are any
+     * of the referenced hashes decoded unless they are explicitly requested. If the transaction is unknown, the
+     * returned view is empty (see {@link TransactionMetadata#isEmpty()}).
+     *
+     * @param tangle Tangle
+     * @param hash transaction hash
+     * @return a view on the metadata of the transaction
+     * @throws Exception if the database read fails
+     */
+    public static TransactionMetadata loadMetadata(Tangle tangle, Hash hash) throws Exception {
+        return new TransactionMetadata(tangle.loadMetadata(Transaction.class, hash));
+    }
+
     /**
     * Get TransactionViewModel of a given transaction hash. Uses @see #Tangle.maybeHas(Class<?>, Indexable),
     * which checks the possible existence of an entry in the database.
@@ -286,15 +323,51 @@ public class TransactionViewModel {
      * @throws Exception Thrown if there is an error fetching the batch or storing in the database.
      */
     public boolean store(Tangle tangle, Snapshot initialSnapshot) throws Exception {
+        return store(tangle, initialSnapshot, null);
+    }
+
+    /**
+     * Does the same as {@link #store(Tangle, Snapshot)} but allows the write to be combined with the writes of other
+     * threads into a single database write (see {@link Tangle#saveBatchGrouped(List, boolean)}). This is used on the
+     * ingest path of gossiped transactions where many transactions are stored concurrently.
+     *
+     * @param tangle The tangle reference for the database.
+     * @param initialSnapshot snapshot that acts as genesis
+     * @param flush true if the pending writes should be committed right away instead of waiting for more writes
+     * @return True if the {@link Transaction} is stored, False if not.
+     * @throws Exception Thrown if there is an error fetching the batch or storing in the database.
+     */
+    public boolean store(Tangle tangle, Snapshot initialSnapshot, boolean flush) throws Exception {
+        return store(tangle, initialSnapshot, Boolean.valueOf(flush));
+    }
+
+    /**
+     * Stores the transaction directly if {@code flush} is null and through {@link Tangle#saveBatchGrouped(List,
+     * boolean)} otherwise.
+     */
+    private boolean store(Tangle tangle, Snapshot initialSnapshot, Boolean flush) throws Exception {
         if (initialSnapshot.hasSolidEntryPoint(hash) || exists(tangle, hash)) {
             return false;
         }
 
         List<Pair<Indexable, Persistable>> batch = getSaveBatch();
-        if (exists(tangle, hash)) {
-            return false;
+        boolean stored = flush == null ? tangle.saveBatch(batch) : tangle.saveBatchGrouped(batch, flush);
+        return addToApproverIndex(tangle, stored);
+    }
+
+    /**
+     * Adds the transaction to the {@link ApproverIndex} of the tangle (if it is enabled) after it was stored.
+     *
+     * @param tangle The tangle reference for the database.
+     * @param stored true if the transaction was stored
+     * @return the value of {@code stored}
+     */
+    private boolean addToApproverIndex(Tangle tangle, boolean stored) {
+        ApproverIndex approverIndex = tangle.getApproverIndex();
+        if (stored && approverIndex != null) {
+            approverIndex.addTransaction(hash, getTrunkTransactionHash(), getBranchTransactionHash());
         }
-        return tangle.saveBatch(batch);
+        return stored;
     }
 
     /**
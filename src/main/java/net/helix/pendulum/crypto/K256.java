@@ -1,17 +1,13 @@
 package net.helix.pendulum.crypto;
 import net.helix.pendulum.exception.IllegalHashLengthException;
-import net.helix.pendulum.exception.ThrowableDigestException;
-import org.bouncycastle.jcajce.provider.digest.Keccak;
-
-import java.security.DigestException;
 
 public final class K256 implements Sponge {
 
     public static final int HASH_LENGTH = 32;
-    private final Keccak.Digest256 keccak;
+    private final Keccak1600 keccak;
 
     protected K256() {
-        this.keccak = new Keccak.Digest256();
+        this.keccak = new Keccak1600(HASH_LENGTH, Keccak1600.KECCAK_PADDING);
     }
 
     @Override
@@ -22,9 +18,7 @@ public final class K256 implements Sponge {
         if (length % HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Illegal length: " + length);
         }
-        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-            keccak.update(bytes, pos, HASH_LENGTH);
-        }
+        keccak.update(bytes, offset, length);
     }
 
     @Override
@@ -35,13 +29,9 @@ public final class K256 implements Sponge {
         if (length % HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Illegal length: " + length);
         }
-        try {
-            for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-                keccak.digest(bytes, pos, HASH_LENGTH);
-                keccak.update(bytes, pos, HASH_LENGTH);
-            }
-        } catch (DigestException e) {
-            throw new ThrowableDigestException(e);
+        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
+            keccak.digest(bytes, pos);
+            keccak.update(bytes, pos, HASH_LENGTH);
         }
     }
 
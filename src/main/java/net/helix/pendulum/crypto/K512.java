@@ -1,18 +1,14 @@
 package net.helix.pendulum.crypto;
 
 import net.helix.pendulum.exception.IllegalHashLengthException;
-import net.helix.pendulum.exception.ThrowableDigestException;
-import org.bouncycastle.jcajce.provider.digest.Keccak;
-
-import java.security.DigestException;
 
 public class K512 implements Sponge {
 
     public static final int HASH_LENGTH = 64;
-    private final Keccak.Digest512 keccak;
+    private final Keccak1600 keccak;
 
     protected K512() {
-        this.keccak = new Keccak.Digest512();
+        this.keccak = new Keccak1600(HASH_LENGTH, Keccak1600.KECCAK_PADDING);
     }
 
     @Override
@@ -23,9 +19,7 @@ public class K512 implements Sponge {
         if (length % HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Illegal length: " + length);
         }
-        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-            keccak.update(bytes, pos, HASH_LENGTH);
-        }
+        keccak.update(bytes, offset, length);
     }
 
     @Override
@@ -36,13 +30,9 @@ public class K512 implements Sponge {
         if (length % HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Illegal length: " + length);
         }
-        try {
-            for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-                keccak.digest(bytes, pos, HASH_LENGTH);
-                keccak.update(bytes, pos, HASH_LENGTH);
-            }
-        } catch (DigestException e) {
-            throw new ThrowableDigestException(e);
+        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
+            keccak.digest(bytes, pos);
+            keccak.update(bytes, pos, HASH_LENGTH);
         }
     }
 
@@ -0,0 +1,213 @@
+package net.helix.pendulum.crypto;
+
+/**
+ * Allocation-free implementation of the Keccak-f[1600] sponge that is used by the SHA3 and Keccak {@link Sponge}s.
+ *
+ * The state is kept in 25 long lanes and the absorbed bytes are xored directly into the lanes (little-endian), so
+ * neither absorbing nor squeezing requires temporary arrays. The SHA3 and the Keccak digests only differ in the
+ * padding byte, the rate is determined by the digest size. An instance is not thread-safe.
+ */
+final class Keccak1600 {
+    /**
+     * Padding of the SHA3 digests (domain separation bits 01 followed by the first bit of the pad10*1 rule).
+     */
+    static final byte SHA3_PADDING = 0x06;
+
+    /**
+     * Padding of the original Keccak digests.
+     */
+    static final byte KECCAK_PADDING = 0x01;
+
+    private static final int STATE_SIZE_IN_BYTES = 200;
+
+    private static final int ROUNDS = 24;
+
+    private static final long[] ROUND_CONSTANTS = {
+            0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL, 0x8000000080008000L,
+            0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+            0x000000000000008aL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+            0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L, 0x8000000000008003L,
+            0x8000000000008002L, 0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL,
+            0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+
+    /**
+     * Rotation offsets of the rho step in the order of the lanes of {@link #PI_LANES}.
+     */
+    private static final int[] RHO_OFFSETS = {
+            1, 3, 6, 10, 15, 21, 28, 36, 45, 55, 2, 14, 27, 41, 56, 8, 25, 43, 62, 18, 39, 61, 20, 44
+    };
+
+    /**
+     * Order in which the pi step moves the lanes (starting with lane 1).
+     */
+    private static final int[] PI_LANES = {
+            10, 7, 11, 17, 18, 3, 5, 16, 8, 21, 24, 4, 15, 23, 19, 13, 12, 2, 20, 14, 22, 9, 6, 1
+    };
+
+    private final long[] state = new long[25];
+    private final int rate;
+    private final int digestSize;
+    private final byte padding;
+
+    /**
+     * Position of the next absorbed byte in the rate part of the state.
+     */
+    private int position = 0;
+
+    /**
+     * @param digestSize size of the digest in bytes
+     * @param padding the padding byte ({@link #SHA3_PADDING} or {@link #KECCAK_PADDING})
+     */
+    Keccak1600(int digestSize, byte padding) {
+        this.digestSize = digestSize;
+        this.rate = rate(digestSize);
+        this.padding = padding;
+    }
+
+    /**
+     * @param digestSize size of the digest in bytes
+     * @return the amount of bytes that are absorbed per permutation
+     */
+    static int rate(int digestSize) {
+        return STATE_SIZE_IN_BYTES - 2 * digestSize;
+    }
+
+    /**
+     * Absorbs the bytes into the state.
+     *
+     * @param bytes array that contains the bytes
+     * @param offset position of the first byte
+     * @param length amount of bytes
+     */
+    void update(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            if ((position & 7) == 0 && end - offset >= Long.BYTES) {
+                // absorb whole lanes as long as the position is aligned
+                while (position < rate && end - offset >= Long.BYTES) {
+                    state[position >>> 3] ^= readLong(bytes, offset);
+                    position += Long.BYTES;
+                    offset += Long.BYTES;
+                }
+            } else {
+                state[position >>> 3] ^= (bytes[offset++] & 0xFFL) << ((position & 7) << 3);
+                position++;
+            }
+            if (position == rate) {
+                permute(state);
+                position = 0;
+            }
+        }
+    }
+
+    /**
+     * Pads the absorbed bytes, writes the digest and resets the state.
+     *
+     * @param bytes array that receives the digest
+     * @param offset position of the first byte of the digest
+     */
+    void digest(byte[] bytes, int offset) {
+        pad();
+        permute(state);
+
+        for (int i = 0; i < digestSize; i++) {
+            bytes[offset + i] = (byte) (state[i >>> 3] >>> ((i & 7) << 3));
+        }
+        reset();
+    }
+
+    /**
+     * Absorbs the padding without applying the final permutation.
+     *
+     * Together with {@link #copyState(long[])} this allows to prepare the final block once and to only vary some of
+     * its bytes afterwards (i.e. the nonce of a proof-of-work search), so the blocks in front of it don't have to be
+     * hashed again.
+     */
+    void pad() {
+        state[position >>> 3] ^= (padding & 0xFFL) << ((position & 7) << 3);
+        state[(rate - 1) >>> 3] ^= 0x80L << (((rate - 1) & 7) << 3);
+    }
+
+    /**
+     * @param lanes array of 25 lanes that receives a copy of the state
+     */
+    void copyState(long[] lanes) {
+        System.arraycopy(state, 0, lanes, 0, state.length);
+    }
+
+    /**
+     * Resets the state, so the next absorbed bytes start a new digest.
+     */
+    void reset() {
+        for (int i = 0; i < state.length; i++) {
+            state[i] = 0;
+        }
+        position = 0;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFFL)
+                | (bytes[offset + 1] & 0xFFL) << 8
+                | (bytes[offset + 2] & 0xFFL) << 16
+                | (bytes[offset + 3] & 0xFFL) << 24
+                | (bytes[offset + 4] & 0xFFL) << 32
+                | (bytes[offset + 5] & 0xFFL) << 40
+                | (bytes[offset + 6] & 0xFFL) << 48
+                | (bytes[offset + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Applies the Keccak-f[1600] permutation to the lanes of a state.
+     *
+     * @param a the 25 lanes of the state
+     */
+    static void permute(long[] a) {
+        for (int round = 0; round < ROUNDS; round++) {
+            // theta
+            long c0 = a[0] ^ a[5] ^ a[10] ^ a[15] ^ a[20];
+            long c1 = a[1] ^ a[6] ^ a[11] ^ a[16] ^ a[21];
+            long c2 = a[2] ^ a[7] ^ a[12] ^ a[17] ^ a[22];
+            long c3 = a[3] ^ a[8] ^ a[13] ^ a[18] ^ a[23];
+            long c4 = a[4] ^ a[9] ^ a[14] ^ a[19] ^ a[24];
+            long d0 = c4 ^ Long.rotateLeft(c1, 1);
+            long d1 = c0 ^ Long.rotateLeft(c2, 1);
+            long d2 = c1 ^ Long.rotateLeft(c3, 1);
+            long d3 = c2 ^ Long.rotateLeft(c4, 1);
+            long d4 = c3 ^ Long.rotateLeft(c0, 1);
+            for (int y = 0; y < 25; y += 5) {
+                a[y] ^= d0;
+                a[y + 1] ^= d1;
+                a[y + 2] ^= d2;
+                a[y + 3] ^= d3;
+                a[y + 4] ^= d4;
+            }
+
+            // rho and pi
+            long lane = a[1];
+            for (int i = 0; i < 24; i++) {
+                int target = PI_LANES[i];
+                long next = a[target];
+                a[target] = Long.rotateLeft(lane, RHO_OFFSETS[i]);
+                lane = next;
+            }
+
+            // chi
+            for (int y = 0; y < 25; y += 5) {
+                long b0 = a[y];
+                long b1 = a[y + 1];
+                long b2 = a[y + 2];
+                long b3 = a[y + 3];
+                long b4 = a[y + 4];
+                a[y] = b0 ^ (~b1 & b2);
+                a[y + 1] = b1 ^ (~b2 & b3);
+                a[y + 2] = b2 ^ (~b3 & b4);
+                a[y + 3] = b3 ^ (~b4 & b0);
+                a[y + 4] = b4 ^ (~b0 & b1);
+            }
+
+            // iota
+            a[0] ^= ROUND_CONSTANTS[round];
+        }
+    }
+}
@@ -22,7 +22,7 @@ public class Merkle {
 
     public static byte[] getMerkleRoot(SpongeFactory.Mode mode, byte[] hash, byte[] bytes, int offset, final int indexIn, int size) {
         int index = indexIn;
-        final Sponge sha3 = SpongeFactory.create(mode);
+        final Sponge sha3 = SpongeFactory.getThreadLocal(mode);
         for (int i = 0; i < size; i++) {
             sha3.reset();
             if ((index & 1) == 0) {
@@ -66,7 +66,7 @@ public class Merkle {
             leaves.add(Hash.NULL_HASH);
         }
         byte[] buffer;
-        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        Sponge sha3 = SpongeFactory.getThreadLocal(SpongeFactory.Mode.S256);
         int depth = (int) Math.ceil(Math.sqrt(leaves.size()));
         List<List<Hash>> merkleTree = new ArrayList<>(depth + 1);
         merkleTree.add(0, leaves);
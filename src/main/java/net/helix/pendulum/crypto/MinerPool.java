@@ -0,0 +1,303 @@
+package net.helix.pendulum.crypto;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent pool of worker threads that search the nonces of proof-of-work jobs.
+ *
+ * The workers take the jobs from a run queue in a round-robin fashion: a worker claims the next batch of nonces of
+ * the job at the head of the queue and puts the job back at the tail once the batch is searched. Concurrent jobs (i.e.
+ * the transactions of the milestone publisher and the ones of user attach requests) therefore share the workers
+ * instead of waiting for each other, and a job can be cancelled between two batches.
+ *
+ * The transaction hash is the SHA3-256 digest of the transaction bytes and the nonce is located in the final block of
+ * the sponge. The state after absorbing all other bytes (including the padding) is prepared once per job, so every
+ * attempt only has to apply a single permutation to a copy of this state.
+ */
+public class MinerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(MinerPool.class);
+
+    /**
+     * Amount of nonces that are searched by a worker before it moves on to the next job.
+     */
+    private static final int BATCH_SIZE = 1 << 12;
+
+    private static final long WORKER_POLL_TIMEOUT = 100L;
+
+    private static final int RATE = Keccak1600.rate(Sha3.HASH_LENGTH);
+
+    /**
+     * Offset of the final block of the sponge (which has to contain the nonce).
+     */
+    private static final int FINAL_BLOCK_OFFSET = TransactionViewModel.SIZE - TransactionViewModel.SIZE % RATE;
+
+    private final BlockingQueue<Job> runQueue = new LinkedBlockingQueue<>();
+
+    private final LongAdder hashCount = new LongAdder();
+
+    private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+
+    private long hashRateTime = System.nanoTime();
+
+    private long hashRateCount = 0;
+
+    /**
+     * Creates the pool and starts its (daemon) worker threads.
+     *
+     * @param threadCount the amount of worker threads
+     */
+    public MinerPool(int threadCount) {
+        if (TransactionViewModel.NONCE_OFFSET < FINAL_BLOCK_OFFSET) {
+            throw new IllegalStateException("the nonce has to be located in the final block of the sponge");
+        }
+
+        for (int i = 1; i <= threadCount; i++) {
+            Thread worker = new Thread(this::runWorker, "miner#" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Submits a proof-of-work job.
+     *
+     * @param txBytes the transaction bytes (the nonce is written into them once it was found)
+     * @param difficulty the amount of leading zero bytes of the hash
+     * @param maxWorkers the maximum amount of workers that search the job at the same time
+     * @return the job
+     */
+    public Job submit(byte[] txBytes, int difficulty, int maxWorkers) {
+        Job job = new Job(txBytes, difficulty, maxWorkers);
+        schedule(job);
+
+        return job;
+    }
+
+    /**
+     * @return the amount of hashes that were calculated since the pool was created
+     */
+    public long getHashCount() {
+        return hashCount.sum();
+    }
+
+    /**
+     * @return the amount of hashes per second that were calculated since the previous call of this method
+     */
+    public synchronized long getHashRate() {
+        long now = System.nanoTime();
+        long count = hashCount.sum();
+        long elapsed = now - hashRateTime;
+        long hashRate = elapsed <= 0 ? 0 : (count - hashRateCount) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        hashRateTime = now;
+        hashRateCount = count;
+
+        return hashRate;
+    }
+
+    /**
+     * Cancels all jobs and stops the worker threads.
+     *
+     * Jobs that are searched at the moment (or submitted afterwards) are cancelled instead of being queued again.
+     */
+    public void shutdown() {
+        shuttingDown.set(true);
+        Job job;
+        while ((job = runQueue.poll()) != null) {
+            job.cancel();
+        }
+    }
+
+    private void schedule(Job job) {
+        if (shuttingDown.get()) {
+            job.cancel();
+            return;
+        }
+        if (!job.isDone() && job.queued.compareAndSet(false, true)) {
+            runQueue.offer(job);
+            // the queue might have been drained by a concurrent shutdown already
+            if (shuttingDown.get()) {
+                job.cancel();
+            }
+        }
+    }
+
+    private void runWorker() {
+        long[] lanes = new long[25];
+
+        while (!shuttingDown.get()) {
+            try {
+                Job job = runQueue.poll(WORKER_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (job == null) {
+                    continue;
+                }
+                job.queued.set(false);
+                if (job.isDone()) {
+                    continue;
+                }
+
+                // let further workers join the job while this one searches its batch
+                if (job.activeWorkers.incrementAndGet() < job.maxWorkers) {
+                    schedule(job);
+                }
+                try {
+                    search(job, lanes);
+                } finally {
+                    job.activeWorkers.decrementAndGet();
+                }
+                schedule(job);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Miner Thread Exception:", e);
+            }
+        }
+    }
+
+    private void search(Job job, long[] lanes) {
+        long firstNonce = job.nextNonce.getAndAdd(BATCH_SIZE);
+        if (firstNonce < 0) {
+            // all positive nonces were searched without success
+            job.finish(false);
+            return;
+        }
+
+        long lastNonce = firstNonce + BATCH_SIZE;
+        long nonce = firstNonce;
+        for (; nonce < lastNonce && nonce > 0 && !job.isDone(); nonce++) {
+            System.arraycopy(job.preparedState, 0, lanes, 0, lanes.length);
+            for (int i = 0; i < TransactionViewModel.NONCE_SIZE; i++) {
+                // the nonce is stored big-endian, the lanes are little-endian
+                int position = TransactionViewModel.NONCE_OFFSET - FINAL_BLOCK_OFFSET + i;
+                lanes[position >>> 3] ^= ((nonce >>> ((TransactionViewModel.NONCE_SIZE - 1 - i) << 3)) & 0xFFL)
+                        << ((position & 7) << 3);
+            }
+            Keccak1600.permute(lanes);
+
+            if (hasLeadingZeroBytes(lanes, job.difficulty)) {
+                job.found(nonce);
+                break;
+            }
+        }
+        long hashes = nonce - firstNonce;
+        hashCount.add(hashes);
+        job.hashCount.add(hashes);
+    }
+
+    private static boolean hasLeadingZeroBytes(long[] lanes, int count) {
+        for (int i = 0; i < count; i++) {
+            if (((lanes[i >>> 3] >>> ((i & 7) << 3)) & 0xFF) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * A proof-of-work job of the pool.
+     */
+    public static class Job {
+        private final byte[] txBytes;
+        private final int difficulty;
+        private final int maxWorkers;
+        private final long[] preparedState = new long[25];
+        private final long startTime = System.nanoTime();
+
+        private final AtomicLong nextNonce = new AtomicLong(1);
+        private final AtomicInteger activeWorkers = new AtomicInteger();
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private final LongAdder hashCount = new LongAdder();
+
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile boolean successful = false;
+
+        private Job(byte[] txBytes, int difficulty, int maxWorkers) {
+            this.txBytes = txBytes;
+            this.difficulty = difficulty;
+            this.maxWorkers = Math.max(1, maxWorkers);
+
+            // absorb everything but the nonce, so the workers only have to add the nonce and permute
+            byte[] template = txBytes.clone();
+            for (int i = 0; i < TransactionViewModel.NONCE_SIZE; i++) {
+                template[TransactionViewModel.NONCE_OFFSET + i] = 0;
+            }
+            Keccak1600 keccak = new Keccak1600(Sha3.HASH_LENGTH, Keccak1600.SHA3_PADDING);
+            keccak.update(template, 0, template.length);
+            keccak.pad();
+            keccak.copyState(preparedState);
+        }
+
+        /**
+         * Waits until the job is finished.
+         *
+         * @return true if a nonce was found and written into the transaction bytes and false otherwise
+         * @throws InterruptedException if the thread was interrupted while waiting (the job is cancelled)
+         */
+        public boolean await() throws InterruptedException {
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                cancel();
+                throw e;
+            }
+
+            return successful;
+        }
+
+        /**
+         * Cancels the job if it is not finished yet.
+         */
+        public void cancel() {
+            finish(false);
+        }
+
+        /**
+         * @return true if the job was finished (successfully or not)
+         */
+        public boolean isDone() {
+            return done.get();
+        }
+
+        /**
+         * @return the amount of hashes that were calculated for the job
+         */
+        public long getHashCount() {
+            return hashCount.sum();
+        }
+
+        private void found(long nonce) {
+            if (done.compareAndSet(false, true)) {
+                for (int i = 0; i < TransactionViewModel.NONCE_SIZE; i++) {
+                    txBytes[TransactionViewModel.NONCE_OFFSET + i] = (byte) (nonce >>> ((TransactionViewModel.NONCE_SIZE
+                            - 1 - i) << 3));
+                }
+                successful = true;
+                finished.countDown();
+
+                log.debug("found nonce {} in {} ms", nonce,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+            }
+        }
+
+        private void finish(boolean successful) {
+            if (done.compareAndSet(false, true)) {
+                this.successful = successful;
+                finished.countDown();
+            }
+        }
+    }
+}
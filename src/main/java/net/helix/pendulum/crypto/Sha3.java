@@ -1,12 +1,6 @@
 package net.helix.pendulum.crypto;
 
-import java.security.DigestException;
-
 import net.helix.pendulum.exception.IllegalHashLengthException;
-import net.helix.pendulum.exception.ThrowableDigestException;
-import org.bouncycastle.crypto.digests.SHA3Digest;
-import org.bouncycastle.jcajce.provider.digest.SHA3;
-
 import net.helix.pendulum.utils.FastByteComparisons;
 
 // Sha3-256
@@ -15,11 +9,11 @@ public class Sha3 implements Sponge {
 
     public static final int HASH_LENGTH = 32;
 
-    private final SHA3.Digest256 sha;
+    private final Keccak1600 sha;
     private boolean only0 = true;
 
     protected Sha3() {
-        this.sha = new SHA3.Digest256();
+        this.sha = new Keccak1600(HASH_LENGTH, Keccak1600.SHA3_PADDING);
     }
 
     @Override
@@ -30,10 +24,8 @@ public class Sha3 implements Sponge {
         if (length % HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Illegal length: " + length);
         }
-        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-            sha.update(bytes, pos, HASH_LENGTH);
-        }
-        only0 = only0 && (FastByteComparisons.compareTo(bytes, offset, length, new byte[length], 0, length) == 0);
+        sha.update(bytes, offset, length);
+        only0 = only0 && FastByteComparisons.isZero(bytes, offset, length);
     }
 
     @Override
@@ -48,13 +40,9 @@ public class Sha3 implements Sponge {
             java.util.Arrays.fill(bytes, (byte)0);
             return;
         }
-        try {
-            for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
-                sha.digest(bytes, pos, HASH_LENGTH);
-                sha.update(bytes, pos, HASH_LENGTH);
-            }
-        } catch (DigestException e) {
-            throw new ThrowableDigestException(e);
+        for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
+            sha.digest(bytes, pos);
+            sha.update(bytes, pos, HASH_LENGTH);
         }
     }
 
@@ -65,15 +53,14 @@ public class Sha3 implements Sponge {
     }
 
     public static byte[] getStandardHash(byte[] message) {
-        SHA3Digest digest = new SHA3Digest(256);
-        byte[] hash = new byte[digest.getDigestSize()];
+        byte[] hash = new byte[HASH_LENGTH];
         if (message.length != 0) {
-            if ((FastByteComparisons.compareTo(message, 0, message.length,
-                    new byte[message.length], 0, message.length) == 0)) {
+            if (FastByteComparisons.isZero(message, 0, message.length)) {
                 return hash;
             }
+            Keccak1600 digest = new Keccak1600(HASH_LENGTH, Keccak1600.SHA3_PADDING);
             digest.update(message, 0, message.length);
-            digest.doFinal(hash, 0);
+            digest.digest(hash, 0);
         }
         return hash;
     }
@@ -1,5 +1,8 @@
 package net.helix.pendulum.crypto;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * Created by paul on 7/27/17.
  */
@@ -10,6 +13,14 @@ public abstract class SpongeFactory {
         S256,
         S512
     }
+
+    private static final Map<Mode, ThreadLocal<Sponge>> THREAD_LOCAL_SPONGES = new EnumMap<>(Mode.class);
+    static {
+        for (Mode mode : Mode.values()) {
+            THREAD_LOCAL_SPONGES.put(mode, ThreadLocal.withInitial(() -> create(mode)));
+        }
+    }
+
     public static Sponge create(Mode mode){
         switch (mode) {
             case K256: return new K256();
@@ -19,4 +30,20 @@ public abstract class SpongeFactory {
             default: return null;
         }
     }
+
+    /**
+     * Returns the sponge of the given mode that is owned by the current thread, so hot paths like the transaction
+     * hashing don't allocate a new sponge (and its state) for every hash.
+     *
+     * The sponge is reset before it is returned. It must only be used for a calculation that doesn't call other code
+     * that might use the sponge of the current thread as well, and it must not be kept after the calculation.
+     *
+     * @param mode the mode of the sponge
+     * @return the reset sponge of the current thread
+     */
+    public static Sponge getThreadLocal(Mode mode) {
+        Sponge sponge = THREAD_LOCAL_SPONGES.get(mode).get();
+        sponge.reset();
+        return sponge;
+    }
 }
@@ -32,7 +32,7 @@ public class Winternitz {
         if (index < 0 || index > Integer.MAX_VALUE - 255) {
             throw new IllegalHashLengthException("Invalid subseed index: " + index);
         }
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
         if (seed.length % hash.HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Invalid seed length: " + seed.length);
         }
@@ -60,7 +60,7 @@ public class Winternitz {
      * @return <code> byte[] </code> private key
      */
     public static byte[] key(SpongeFactory.Mode mode, final byte[] subseed, final int numberOfFragments) {
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
         if (subseed.length != hash.HASH_LENGTH) {
             throw new IllegalHashLengthException("Invalid subseed length: " + subseed.length);
         }
@@ -85,7 +85,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid private key length: " + key.length);
         }
 
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
         final byte[] digests = new byte[key.length / FRAGMENT_LENGTH * hash.HASH_LENGTH];
 
 
@@ -117,7 +117,7 @@ public class Winternitz {
      * @return <code> byte[] </code> address
      */
     public static byte[] address(SpongeFactory.Mode mode, final byte[] digests) {
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
         if (digests.length == 0 || digests.length %  hash.HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Invalid public key length: " + digests.length);
         }
@@ -142,7 +142,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid key fragment length: " + keyFragment.length);
         }
         final byte[] signatureFragment = Arrays.copyOf(keyFragment, keyFragment.length);
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
 
         for (int j = 0; j < NUMBER_OF_FRAGMENT_CHUNKS; j++) {
             for (int k = (bundleFragment[j] < 0) ? rounds - (bundleFragment[j] + 256) : rounds - bundleFragment[j]; k-- > 0; ) {
@@ -166,7 +166,7 @@ public class Winternitz {
      */
     public static byte[] signatureFragments(SpongeFactory.Mode mode, final byte[] seed, final int index, final int numberOfFragments, final byte[] bundleHash) {
 
-        if (bundleHash.length != SpongeFactory.create(mode).HASH_LENGTH) {
+        if (bundleHash.length != Sponge.HASH_LENGTH) {
             throw new IllegalHashLengthException("Invalid bundle fragment length: " + bundleHash.length);
         }
         if (seed.length == 0) {
@@ -201,7 +201,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid signature fragment length: " + signatureFragment.length);
         }
 
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.getThreadLocal(mode);
         final byte[] digest = new byte[hash.HASH_LENGTH];
         final byte[] buffer = Arrays.copyOfRange(signatureFragment, 0, FRAGMENT_LENGTH);
             for (int j = 0; j < NUMBER_OF_FRAGMENT_CHUNKS; j++) {
@@ -20,7 +20,7 @@ public class TransactionHash extends AbstractHash {
      * @return The {@link TransactionHash}
      */
     public static TransactionHash calculate(SpongeFactory.Mode mode, byte[] bytes) {
-        return calculate(bytes, 0, bytes.length, SpongeFactory.create(mode));
+        return calculate(bytes, 0, bytes.length, SpongeFactory.getThreadLocal(mode));
     }
 
     @Override
@@ -3,7 +3,6 @@ package net.helix.pendulum.model.persistables;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.storage.Persistable;
-import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -17,20 +16,45 @@ import java.util.Set;
  * It contains a set <code> LinkedHashSet </code> and delimiter <code> byte </code>.
  * The <code> LinkedHashSet </code> is a hash table with linked entries, which can be converted into a byte array.
  * The delimiter is used as indicator for next element of the LinkedHashSet.
+ *
+ * The hashes are stored as fixed-width entries, every entry but the first one is prefixed by the delimiter. This is
+ * the layout the <code> StringAppendOperator </code> of the database produces when it merges two values, so a hash
+ * can be appended to a stored set by merging a set with that single hash instead of reading and rewriting the whole
+ * set. Since all entries have the same width, the amount of hashes is known from the length of the value.
  */
 public class Hashes implements Persistable {
     public Set<Hash> set = new LinkedHashSet<>();
     static final byte delimiter = ",".getBytes()[0];
 
+    /**
+     * Size of an entry including the delimiter that precedes it.
+     */
+    static final int ENTRY_SIZE = 1 + Hash.SIZE_IN_BYTES;
+
     /**
     * Get byte array of the set.
     * @return a <code> byte[] </code>
     */
     public byte[] bytes() {
-        return set.parallelStream()
-                .map(Hash::bytes)
-                .reduce((a,b) -> ArrayUtils.addAll(ArrayUtils.add(a, delimiter), b))
-                .orElse(new byte[0]);
+        return bytes(0);
+    }
+
+    /**
+    * Get byte array of the set preceded by a header of the given size.
+    * @param headerSize the amount of bytes that are reserved in front of the hashes
+    * @return a <code> byte[] </code>
+    */
+    protected byte[] bytes(int headerSize) {
+        byte[] bytes = new byte[headerSize + (set.isEmpty() ? 0 : set.size() * ENTRY_SIZE - 1)];
+        int position = headerSize;
+        for (Hash hash : set) {
+            if (position > headerSize) {
+                bytes[position++] = delimiter;
+            }
+            System.arraycopy(hash.bytes(), 0, bytes, position, Hash.SIZE_IN_BYTES);
+            position += Hash.SIZE_IN_BYTES;
+        }
+        return bytes;
     }
 
     /**
@@ -49,13 +73,27 @@ public class Hashes implements Persistable {
     */
     protected void read(byte[] bytes, int offset) {
         if (bytes != null) {
-            set = new LinkedHashSet<>((bytes.length - offset) / (1 + Hash.SIZE_IN_BYTES) + 1);
-            for (int i = offset; i < bytes.length; i += 1 + Hash.SIZE_IN_BYTES) {
+            set = new LinkedHashSet<>(count(bytes, offset) * 4 / 3 + 1);
+            for (int i = offset; i + Hash.SIZE_IN_BYTES <= bytes.length; i += ENTRY_SIZE) {
                 set.add(HashFactory.TRANSACTION.create(bytes, i, Hash.SIZE_IN_BYTES));
             }
         }
     }
 
+    /**
+    * Get the amount of hashes in a byte array without reading them.
+    * Duplicates that were appended by separate merges are counted as well.
+    * @param bytes is a <code> byte[] </code>
+    * @param offset the offset defining the start point for hash objects in the array
+    * @return the amount of entries
+    */
+    public static int count(byte[] bytes, int offset) {
+        if (bytes == null || bytes.length - offset < Hash.SIZE_IN_BYTES) {
+            return 0;
+        }
+        return (bytes.length - offset + 1) / ENTRY_SIZE;
+    }
+
     /**
     * Get metadata: a zero byte stream
     * @return a <code> byte[] </code>
@@ -2,14 +2,15 @@ package net.helix.pendulum.model.persistables;
 
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.utils.Serializer;
-import org.apache.commons.lang3.ArrayUtils;
 
 public class Nominees extends Hashes {
     public IntegerIndex index;
 
     @Override
     public byte[] bytes() {
-        return ArrayUtils.addAll(index.bytes(), super.bytes());
+        byte[] bytes = bytes(Integer.BYTES);
+        System.arraycopy(index.bytes(), 0, bytes, 0, Integer.BYTES);
+        return bytes;
     }
 
     @Override
@@ -3,8 +3,6 @@ package net.helix.pendulum.model.persistables;
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.utils.Serializer;
 
-import org.apache.commons.lang3.ArrayUtils;
-
  /**
  * The Round model class consists of a set of milestone hashes and a corresponding index.
  */
@@ -13,7 +11,9 @@ public class Round extends Hashes {
 
     @Override
     public byte[] bytes() {
-        return ArrayUtils.addAll(index.bytes(), super.bytes());
+        byte[] bytes = bytes(Integer.BYTES);
+        System.arraycopy(index.bytes(), 0, bytes, 0, Integer.BYTES);
+        return bytes;
     }
 
     @Override
@@ -35,6 +35,32 @@ public class Transaction implements Persistable {
       */
      public static final int IS_MILESTONE_BITMASK = 0b10;
 
+     /**
+      * Offsets of the fields inside the fixed-size part of the serialized metadata (see {@link #metadata()}). The
+      * variable-length sender is appended after {@link #METADATA_FIXED_SIZE} bytes. These offsets allow
+      * {@link TransactionMetadata} to read single fields without decoding the whole record.
+      */
+     public static final int METADATA_ADDRESS_OFFSET = 0;
+     public static final int METADATA_BUNDLE_OFFSET = METADATA_ADDRESS_OFFSET + Hash.SIZE_IN_BYTES;
+     public static final int METADATA_TRUNK_OFFSET = METADATA_BUNDLE_OFFSET + Hash.SIZE_IN_BYTES;
+     public static final int METADATA_BRANCH_OFFSET = METADATA_TRUNK_OFFSET + Hash.SIZE_IN_BYTES;
+     public static final int METADATA_BUNDLE_NONCE_OFFSET = METADATA_BRANCH_OFFSET + Hash.SIZE_IN_BYTES;
+     public static final int METADATA_VALUE_OFFSET = METADATA_BUNDLE_NONCE_OFFSET + Hash.SIZE_IN_BYTES;
+     public static final int METADATA_CURRENT_INDEX_OFFSET = METADATA_VALUE_OFFSET + Long.BYTES;
+     public static final int METADATA_LAST_INDEX_OFFSET = METADATA_CURRENT_INDEX_OFFSET + Long.BYTES;
+     public static final int METADATA_TIMESTAMP_OFFSET = METADATA_LAST_INDEX_OFFSET + Long.BYTES;
+     public static final int METADATA_TAG_OFFSET = METADATA_TIMESTAMP_OFFSET + Long.BYTES;
+     public static final int METADATA_ATTACHMENT_TIMESTAMP_OFFSET = METADATA_TAG_OFFSET + TAG_SIZE;
+     public static final int METADATA_ATTACHMENT_TIMESTAMP_LOWER_BOUND_OFFSET = METADATA_ATTACHMENT_TIMESTAMP_OFFSET + Long.BYTES;
+     public static final int METADATA_ATTACHMENT_TIMESTAMP_UPPER_BOUND_OFFSET = METADATA_ATTACHMENT_TIMESTAMP_LOWER_BOUND_OFFSET + Long.BYTES;
+     public static final int METADATA_VALIDITY_OFFSET = METADATA_ATTACHMENT_TIMESTAMP_UPPER_BOUND_OFFSET + Long.BYTES;
+     public static final int METADATA_TYPE_OFFSET = METADATA_VALIDITY_OFFSET + Integer.BYTES;
+     public static final int METADATA_ARRIVAL_TIME_OFFSET = METADATA_TYPE_OFFSET + Integer.BYTES;
+     public static final int METADATA_HEIGHT_OFFSET = METADATA_ARRIVAL_TIME_OFFSET + Long.BYTES;
+     public static final int METADATA_FLAGS_OFFSET = METADATA_HEIGHT_OFFSET + Long.BYTES;
+     public static final int METADATA_SNAPSHOT_OFFSET = METADATA_FLAGS_OFFSET + 1;
+     public static final int METADATA_FIXED_SIZE = METADATA_SNAPSHOT_OFFSET + Integer.BYTES;
+
     public byte[] bytes;
 
     public Hash address;
@@ -83,33 +109,28 @@ public class Transaction implements Persistable {
 
     @Override
     public byte[] metadata() {
-        int allocateSize =
-                Hash.SIZE_IN_BYTES * 5 + //address,bundle,trunk,branch,bundleNonce 160
-                        TAG_SIZE + //tag 8
-                        Long.BYTES * 9 + //value,currentIndex,lastIndex,timestamp,attachmentTimestampLowerBound,attachmentTimestampUpperBound,arrivalTime,height 72
-                        Integer.BYTES * 3 + //validity,type,snapshot 12
-                        1 + //solid
-                        sender.getBytes().length; //sender
-        ByteBuffer buffer = ByteBuffer.allocate(allocateSize);
+        byte[] senderBytes = sender.getBytes();
+        byte[] metadata = new byte[METADATA_FIXED_SIZE + senderBytes.length];
+        ByteBuffer buffer = ByteBuffer.wrap(metadata);
         buffer.put(address.bytes());
         buffer.put(bundle.bytes());
         buffer.put(trunk.bytes());
         buffer.put(branch.bytes());
         buffer.put(bundleNonce.bytes());
-        buffer.put(Serializer.serialize(value));
-        buffer.put(Serializer.serialize(currentIndex));
-        buffer.put(Serializer.serialize(lastIndex));
-        buffer.put(Serializer.serialize(timestamp));
+        buffer.putLong(value);
+        buffer.putLong(currentIndex);
+        buffer.putLong(lastIndex);
+        buffer.putLong(timestamp);
 
         buffer.put(tag.bytes());
-        buffer.put(Serializer.serialize(attachmentTimestamp));
-        buffer.put(Serializer.serialize(attachmentTimestampLowerBound));
-        buffer.put(Serializer.serialize(attachmentTimestampUpperBound));
-
-        buffer.put(Serializer.serialize(validity));
-        buffer.put(Serializer.serialize(type));
-        buffer.put(Serializer.serialize(arrivalTime));
-        buffer.put(Serializer.serialize(height));
+        buffer.putLong(attachmentTimestamp);
+        buffer.putLong(attachmentTimestampLowerBound);
+        buffer.putLong(attachmentTimestampUpperBound);
+
+        buffer.putInt(validity);
+        buffer.putInt(type);
+        buffer.putLong(arrivalTime);
+        buffer.putLong(height);
         //buffer.put((byte) (confirmed ? 1:0));
 
         byte flags = 0;
@@ -117,68 +138,42 @@ public class Transaction implements Persistable {
         flags |= milestone ? IS_MILESTONE_BITMASK : 0;
         buffer.put(flags);
 
-        buffer.put(Serializer.serialize(snapshot));
-        buffer.put(sender.getBytes());
-        return buffer.array();
+        buffer.putInt(snapshot);
+        buffer.put(senderBytes);
+        return metadata;
     }
 
     @Override
     public void readMetadata(byte[] bytes) {
-        int i = 0;
         if(bytes != null) {
-            address = HashFactory.ADDRESS.create(bytes, i, Hash.SIZE_IN_BYTES);
-            i += Hash.SIZE_IN_BYTES;
-            bundle = HashFactory.BUNDLE.create(bytes, i, Hash.SIZE_IN_BYTES);
-            i += Hash.SIZE_IN_BYTES;
-            trunk = HashFactory.TRANSACTION.create(bytes, i, Hash.SIZE_IN_BYTES);
-            i += Hash.SIZE_IN_BYTES;
-            branch = HashFactory.TRANSACTION.create(bytes, i, Hash.SIZE_IN_BYTES);
-            i += Hash.SIZE_IN_BYTES;
-            bundleNonce = HashFactory.BUNDLENONCE.create(bytes, i, Hash.SIZE_IN_BYTES);
-            i += Hash.SIZE_IN_BYTES;
-            value = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            currentIndex = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            lastIndex = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            timestamp = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-
-            tag = HashFactory.TAG.create(bytes, i, TAG_SIZE);
-            i += TAG_SIZE;
-            attachmentTimestamp = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            attachmentTimestampLowerBound = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            attachmentTimestampUpperBound = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-
-            validity = Serializer.getInteger(bytes, i);
-            i += Integer.BYTES;
-            type = Serializer.getInteger(bytes, i);
-            i += Integer.BYTES;
-            arrivalTime = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            height = Serializer.getLong(bytes, i);
-            i += Long.BYTES;
-            /*
-            confirmed = bytes[i] == 1;
-            i++;
-            */
+            address = HashFactory.ADDRESS.create(bytes, METADATA_ADDRESS_OFFSET, Hash.SIZE_IN_BYTES);
+            bundle = HashFactory.BUNDLE.create(bytes, METADATA_BUNDLE_OFFSET, Hash.SIZE_IN_BYTES);
+            trunk = HashFactory.TRANSACTION.create(bytes, METADATA_TRUNK_OFFSET, Hash.SIZE_IN_BYTES);
+            branch = HashFactory.TRANSACTION.create(bytes, METADATA_BRANCH_OFFSET, Hash.SIZE_IN_BYTES);
+            bundleNonce = HashFactory.BUNDLENONCE.create(bytes, METADATA_BUNDLE_NONCE_OFFSET, Hash.SIZE_IN_BYTES);
+            value = Serializer.getLong(bytes, METADATA_VALUE_OFFSET);
+            currentIndex = Serializer.getLong(bytes, METADATA_CURRENT_INDEX_OFFSET);
+            lastIndex = Serializer.getLong(bytes, METADATA_LAST_INDEX_OFFSET);
+            timestamp = Serializer.getLong(bytes, METADATA_TIMESTAMP_OFFSET);
+
+            tag = HashFactory.TAG.create(bytes, METADATA_TAG_OFFSET, TAG_SIZE);
+            attachmentTimestamp = Serializer.getLong(bytes, METADATA_ATTACHMENT_TIMESTAMP_OFFSET);
+            attachmentTimestampLowerBound = Serializer.getLong(bytes, METADATA_ATTACHMENT_TIMESTAMP_LOWER_BOUND_OFFSET);
+            attachmentTimestampUpperBound = Serializer.getLong(bytes, METADATA_ATTACHMENT_TIMESTAMP_UPPER_BOUND_OFFSET);
+
+            validity = Serializer.getInteger(bytes, METADATA_VALIDITY_OFFSET);
+            type = Serializer.getInteger(bytes, METADATA_TYPE_OFFSET);
+            arrivalTime = Serializer.getLong(bytes, METADATA_ARRIVAL_TIME_OFFSET);
+            height = Serializer.getLong(bytes, METADATA_HEIGHT_OFFSET);
 
             // decode the boolean byte by checking the bitmasks
-            solid = (bytes[i] & IS_SOLID_BITMASK) != 0;
-            milestone = (bytes[i] & IS_MILESTONE_BITMASK) != 0;
-            i++;
-
-            snapshot = Serializer.getInteger(bytes, i);
-            i += Integer.BYTES;
-            byte[] senderBytes = new byte[bytes.length - i];
-            if (senderBytes.length != 0) {
-                System.arraycopy(bytes, i, senderBytes, 0, senderBytes.length);
-            }
-            sender = new String(senderBytes);
+            solid = (bytes[METADATA_FLAGS_OFFSET] & IS_SOLID_BITMASK) != 0;
+            milestone = (bytes[METADATA_FLAGS_OFFSET] & IS_MILESTONE_BITMASK) != 0;
+
+            snapshot = Serializer.getInteger(bytes, METADATA_SNAPSHOT_OFFSET);
+            sender = bytes.length > METADATA_FIXED_SIZE
+                    ? new String(bytes, METADATA_FIXED_SIZE, bytes.length - METADATA_FIXED_SIZE)
+                    : "";
             parsed = true;
         }
     }
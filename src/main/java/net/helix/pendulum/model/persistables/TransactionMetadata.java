@@ -0,0 +1,136 @@
+package net.helix.pendulum.model.persistables;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.utils.Serializer;
+
+import static net.helix.pendulum.model.persistables.Transaction.*;
+
+/**
+ * Flyweight view on the serialized metadata of a {@link Transaction} (the value stored in the
+ * <code>transaction-metadata</code> column).
+ *
+ * In contrast to {@link Transaction#readMetadata(byte[])}, which decodes every field and materializes all of the
+ * referenced hashes, this class only keeps a reference to the raw bytes and decodes a field when it is accessed. Hot
+ * paths that only need a flag or a number (i.e. the solid flag or the snapshot index) can therefore check a
+ * transaction without allocating any intermediate objects.
+ *
+ * A single instance can be re-used for several records by calling {@link #wrap(byte[])}. Instances are not thread
+ * safe.
+ */
+public class TransactionMetadata {
+    private byte[] bytes;
+
+    /**
+     * Creates an empty view that can be pointed at serialized metadata via {@link #wrap(byte[])}.
+     */
+    public TransactionMetadata() {
+        this(null);
+    }
+
+    /**
+     * Creates a view on the given serialized metadata.
+     *
+     * @param bytes serialized metadata as produced by {@link Transaction#metadata()} (can be null)
+     */
+    public TransactionMetadata(byte[] bytes) {
+        wrap(bytes);
+    }
+
+    /**
+     * Points this view to a new serialized metadata record.
+     *
+     * The bytes are not copied, so the caller must not modify them while they are being accessed through this view.
+     *
+     * @param bytes serialized metadata as produced by {@link Transaction#metadata()} (can be null)
+     * @return the view itself to allow the chaining of calls
+     */
+    public TransactionMetadata wrap(byte[] bytes) {
+        this.bytes = bytes;
+
+        return this;
+    }
+
+    /**
+     * Checks if this view points to a complete metadata record.
+     *
+     * If the record is missing (i.e. the transaction is unknown or its metadata was never written), all numeric
+     * accessors return 0, the flags are false and the hash accessors return null.
+     *
+     * @return true if there is no metadata to read from and false otherwise
+     */
+    public boolean isEmpty() {
+        return bytes == null || bytes.length < METADATA_FIXED_SIZE;
+    }
+
+    public boolean isSolid() {
+        return !isEmpty() && (bytes[METADATA_FLAGS_OFFSET] & IS_SOLID_BITMASK) != 0;
+    }
+
+    public boolean isMilestone() {
+        return !isEmpty() && (bytes[METADATA_FLAGS_OFFSET] & IS_MILESTONE_BITMASK) != 0;
+    }
+
+    /**
+     * Returns the stored type of the transaction, or {@link TransactionViewModel#PREFILLED_SLOT} if the metadata is
+     * missing (which mirrors the behaviour of {@link TransactionViewModel#getType()} for unknown transactions).
+     *
+     * @return the type of the transaction
+     */
+    public int getType() {
+        return isEmpty() ? TransactionViewModel.PREFILLED_SLOT : Serializer.getInteger(bytes, METADATA_TYPE_OFFSET);
+    }
+
+    public int getValidity() {
+        return isEmpty() ? 0 : Serializer.getInteger(bytes, METADATA_VALIDITY_OFFSET);
+    }
+
+    public int getSnapshot() {
+        return isEmpty() ? 0 : Serializer.getInteger(bytes, METADATA_SNAPSHOT_OFFSET);
+    }
+
+    public long getValue() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_VALUE_OFFSET);
+    }
+
+    public long getCurrentIndex() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_CURRENT_INDEX_OFFSET);
+    }
+
+    public long getLastIndex() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_LAST_INDEX_OFFSET);
+    }
+
+    public long getTimestamp() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_TIMESTAMP_OFFSET);
+    }
+
+    public long getAttachmentTimestamp() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_ATTACHMENT_TIMESTAMP_OFFSET);
+    }
+
+    public long getArrivalTime() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_ARRIVAL_TIME_OFFSET);
+    }
+
+    public long getHeight() {
+        return isEmpty() ? 0 : Serializer.getLong(bytes, METADATA_HEIGHT_OFFSET);
+    }
+
+    public Hash getAddressHash() {
+        return isEmpty() ? null : HashFactory.ADDRESS.create(bytes, METADATA_ADDRESS_OFFSET);
+    }
+
+    public Hash getBundleHash() {
+        return isEmpty() ? null : HashFactory.BUNDLE.create(bytes, METADATA_BUNDLE_OFFSET);
+    }
+
+    public Hash getTrunkTransactionHash() {
+        return isEmpty() ? null : HashFactory.TRANSACTION.create(bytes, METADATA_TRUNK_OFFSET);
+    }
+
+    public Hash getBranchTransactionHash() {
+        return isEmpty() ? null : HashFactory.TRANSACTION.create(bytes, METADATA_BRANCH_OFFSET);
+    }
+}
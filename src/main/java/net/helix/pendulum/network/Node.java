@@ -8,14 +8,13 @@ import net.helix.pendulum.controllers.BundleViewModel;
 import net.helix.pendulum.controllers.TipsViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.controllers.RoundViewModel;
-import net.helix.pendulum.crypto.SpongeFactory;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
-import net.helix.pendulum.model.TransactionHash;
 import net.helix.pendulum.service.Graphstream;
 import net.helix.pendulum.service.milestone.MilestoneTracker;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.utils.collections.impl.WeightBucketQueue;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -25,8 +24,6 @@ import org.slf4j.LoggerFactory;
 
 import java.net.*;
 import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
@@ -53,23 +50,21 @@ public class Node {
     private final int reqHashSize;
 
 
-    private int BROADCAST_QUEUE_SIZE;
-    private int RECV_QUEUE_SIZE;
-    private int REPLY_QUEUE_SIZE;
     private static final int PAUSE_BETWEEN_TRANSACTIONS = 1;
+    private static final int WEIGHT_BUCKETS = Hash.SIZE_IN_BYTES + 1;
 
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
 
     private final List<Neighbor> neighbors = new CopyOnWriteArrayList<>();
-    private final ConcurrentSkipListSet<TransactionViewModel> broadcastQueue = weightQueue();
-    private final ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>> receiveQueue = weightQueueTxPair();
-    private final ConcurrentSkipListSet<Pair<Hash, Neighbor>> replyQueue = weightQueueHashPair();
+    private final WeightBucketQueue<TransactionViewModel> broadcastQueue;
+    private final WeightBucketQueue<Pair<TransactionViewModel, Neighbor>> receiveQueue;
+    private final WeightBucketQueue<Pair<Hash, Neighbor>> replyQueue;
 
 
     private final DatagramPacket sendingPacket;
     private final DatagramPacket tipRequestingPacket;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(5);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
     private final NodeConfig configuration;
     private final Tangle tangle;
     private final SnapshotProvider snapshotProvider;
@@ -82,10 +77,11 @@ public class Node {
     private static final SecureRandom rnd = new SecureRandom();
 
 
-    private FIFOCache<ByteBuffer, Hash> recentSeenBytes;
+    private SeenBytesCache recentSeenBytes;
 
-    private static AtomicLong recentSeenBytesMissCount = new AtomicLong(0L);
-    private static AtomicLong recentSeenBytesHitCount = new AtomicLong(0L);
+    private TransactionValidationStage validationStage;
+
+    private final TransactionValidationStage.Latency storeLatency = new TransactionValidationStage.Latency();
 
     private static long sendLimit = -1;
     private static AtomicLong sendPacketsCounter = new AtomicLong(0L);
@@ -127,6 +123,12 @@ public class Node {
         this.tipRequestingPacket = new DatagramPacket(new byte[packetSize], packetSize);
         this.graph = graph;
 
+        int queueSize = configuration.getqSizeNode();
+        this.broadcastQueue = new WeightBucketQueue<>(queueSize, WEIGHT_BUCKETS,
+                transactionViewModel -> transactionViewModel.weightMagnitude, TransactionViewModel::getHash);
+        this.receiveQueue = new WeightBucketQueue<>(queueSize, WEIGHT_BUCKETS,
+                receivedData -> receivedData.getLeft().weightMagnitude, receivedData -> receivedData.getLeft().getHash());
+        this.replyQueue = new WeightBucketQueue<>(queueSize);
     }
 
     /**
@@ -138,16 +140,24 @@ public class Node {
         //TODO ask Alon
         sendLimit = (long) ((configuration.getSendLimit() * 1000000) / (configuration.getTransactionPacketSize() * 8));
 
-        BROADCAST_QUEUE_SIZE = RECV_QUEUE_SIZE = REPLY_QUEUE_SIZE = configuration.getqSizeNode();
-        recentSeenBytes = new FIFOCache<>(configuration.getCacheSizeBytes(), configuration.getpDropCacheEntry());
+        recentSeenBytes = new SeenBytesCache(configuration.getCacheSizeBytes(), configuration.getpDropCacheEntry(),
+                TransactionViewModel.SIZE);
+
+        validationStage = new TransactionValidationStage(transactionValidator, this::processValidatedTransaction,
+                configuration.getqSizeNode(), configuration.getValidationThreads());
+        validationStage.init();
 
         parseNeighborsConfig();
 
         executor.submit(spawnBroadcasterThread());
         executor.submit(spawnTipRequesterThread());
         executor.submit(spawnNeighborDNSRefresherThread());
-        executor.submit(spawnProcessReceivedThread());
-        executor.submit(spawnReplyToRequestThread());
+        for (int i = 0; i < Math.max(1, configuration.getReceiveThreads()); i++) {
+            executor.submit(spawnProcessReceivedThread());
+        }
+        for (int i = 0; i < Math.max(1, configuration.getReplyThreads()); i++) {
+            executor.submit(spawnReplyToRequestThread());
+        }
 
         executor.shutdown();
     }
@@ -274,16 +284,29 @@ public class Node {
      * First Entry point for receiving any incoming transactions from TCP/UDP Receivers.
      * At this point, the transport protocol (UDP/TCP) is irrelevant. We check if we have
      * already received this packet by taking a hash of incoming payload and
-     * comparing it against a saved hash set. If the packet is new, we construct
-     * a {@link TransactionViewModel} object from it and perform some basic validation
-     * on the received transaction via  {@link TransactionValidator#runValidation}
+     * comparing it against a saved hash set. If the packet is new, it is handed to the
+     * {@link TransactionValidationStage} that constructs a {@link TransactionViewModel} object
+     * from it and performs some basic validation on the received transaction via
+     * {@link TransactionValidator#runValidation}. Copies of a packet that arrive while it still waits for the
+     * validation are not validated again, they get the result of the first copy.
      *
-     * The packet is then added to receiveQueue for further processing.
+     * Valid transactions are then added to receiveQueue for further processing (see
+     * {@link #processValidatedTransaction}).
      */
 
     public void preProcessReceivedData(byte[] receivedData, SocketAddress senderAddress, String uriScheme) {
-        TransactionViewModel receivedTransactionViewModel = null;
-        Hash receivedTransactionHash = null;
+        preProcessReceivedData(ByteBuffer.wrap(receivedData), senderAddress, uriScheme);
+    }
+
+    /**
+     * Same as {@link #preProcessReceivedData(byte[], SocketAddress, String)} but reads the packet from a buffer (i.e.
+     * a pooled receive buffer of the {@link UDPReceiver}).
+     *
+     * The packet is read from position 0 of the buffer and only copied if it contains a transaction that was not seen
+     * recently, so the buffer can be re-used once this method returns.
+     */
+    public void preProcessReceivedData(ByteBuffer receivedData, SocketAddress senderAddress, String uriScheme) {
+        Hash receivedTransactionHash;
 
         boolean addressMatch = false;
         boolean cached = false;
@@ -298,78 +321,27 @@ public class Node {
                     //log.info("Randomly dropping transaction. Stand by... ");
                     break;
                 }
-                try {
-
-                    //Transaction bytes
-                    ByteBuffer digest = getBytesDigest(receivedData);
-
-                    //check if cached
-                    synchronized (recentSeenBytes) {
-                        cached = (receivedTransactionHash = recentSeenBytes.get(digest)) != null;
-                    }
+                //check if cached
+                cached = (receivedTransactionHash = recentSeenBytes.get(receivedData)) != null;
 
-                    //if not cached, then validate
-                    if (!cached) {
-                        receivedTransactionViewModel = new TransactionViewModel(receivedData, TransactionHash.calculate(receivedData, TransactionViewModel.SIZE, SpongeFactory.create(SpongeFactory.Mode.S256)));
-                        receivedTransactionHash = receivedTransactionViewModel.getHash();
-                        transactionValidator.runValidation(receivedTransactionViewModel, transactionValidator.getMinWeightMagnitude());
-
-                        synchronized (recentSeenBytes) {
-                            recentSeenBytes.put(digest, receivedTransactionHash);
-                        }
+                //Request bytes
+                byte[] requestedHashBytes = new byte[reqHashSize];
+                ((ByteBuffer) receivedData.duplicate().position(TransactionViewModel.SIZE)).get(requestedHashBytes);
+                Hash requestedHash = HashFactory.TRANSACTION.create(requestedHashBytes, 0, reqHashSize);
 
-                        //if valid - add to receive queue (receivedTransactionViewModel, neighbor)
-                        addReceivedDataToReceiveQueue(receivedTransactionViewModel, neighbor);
+                //if not cached, then validate (the request is answered once the transaction was validated)
+                if (!cached) {
+                    byte[] transactionBytes = new byte[TransactionViewModel.SIZE];
+                    ((ByteBuffer) receivedData.duplicate().position(0)).get(transactionBytes);
+                    validationStage.submit(new TransactionValidationStage.ReceivedTransaction(transactionBytes,
+                            requestedHash, neighbor));
 
-                    }
-
-                } catch (NoSuchAlgorithmException e) {
-                    log.error("MessageDigest: " + e);
-                } catch (final TransactionValidator.StaleTimestampException e) {
-                    log.debug(e.getMessage());
-                    try {
-                        transactionRequester.clearTransactionRequest(receivedTransactionHash);
-                    } catch (Exception e1) {
-                        log.error(e1.getMessage());
-                    }
-                    neighbor.incStaleTransactions();
-
-                } catch (final RuntimeException e) {
-                    log.error(e.getMessage());
-                    log.error("Received an Invalid TransactionViewModel. Dropping it...");
-                    neighbor.incInvalidTransactions();
                     break;
                 }
 
-                //Request bytes
-
                 //add request to reply queue (requestedHash, neighbor)
-                Hash requestedHash = HashFactory.TRANSACTION.create(receivedData, TransactionViewModel.SIZE, reqHashSize);
-                if (requestedHash.equals(receivedTransactionHash)) {
-                    //requesting a random tip
-                    requestedHash = Hash.NULL_HASH;
-                }
-
-                addReceivedDataToReplyQueue(requestedHash, neighbor);
-
-                //recentSeenBytes statistics
-
-                if (log.isDebugEnabled()) {
-                    long hitCount, missCount;
-                    if (cached) {
-                        hitCount = recentSeenBytesHitCount.incrementAndGet();
-                        missCount = recentSeenBytesMissCount.get();
-                    } else {
-                        hitCount = recentSeenBytesHitCount.get();
-                        missCount = recentSeenBytesMissCount.incrementAndGet();
-                    }
-                    if (((hitCount + missCount) % 50000L == 0)) {
-                        log.info("RecentSeenBytes cache hit/miss ratio: " + hitCount + "/" + missCount);
-                        tangle.publish("hmr %d/%d", hitCount, missCount);
-                        recentSeenBytesMissCount.set(0L);
-                        recentSeenBytesHitCount.set(0L);
-                    }
-                }
+                addReceivedDataToReplyQueue(requestedHash.equals(receivedTransactionHash) ? Hash.NULL_HASH :
+                        requestedHash, neighbor);
 
                 break;
             }
@@ -406,46 +378,92 @@ public class Node {
     }
 
     /**
-     * Adds incoming transactions to the {@link Node#receiveQueue} to be processed later.
+     * Handles a transaction that was hashed and validated by the {@link TransactionValidationStage}.
+     *
+     * Valid transactions are remembered as recently seen and added to the {@link Node#receiveQueue}. Invalid
+     * transactions are dropped without answering the request of the packet, while transactions with a stale timestamp
+     * are not stored but the request is still answered.
      */
-    public void addReceivedDataToReceiveQueue(TransactionViewModel receivedTransactionViewModel, Neighbor neighbor) {
-        receiveQueue.add(new ImmutablePair<>(receivedTransactionViewModel, neighbor));
-        if (receiveQueue.size() > RECV_QUEUE_SIZE) {
-            receiveQueue.pollLast();
+    private void processValidatedTransaction(TransactionValidationStage.ReceivedTransaction receivedTransaction) {
+        TransactionViewModel receivedTransactionViewModel = receivedTransaction.getTransaction();
+        Hash receivedTransactionHash = receivedTransactionViewModel.getHash();
+        Neighbor neighbor = receivedTransaction.getNeighbor();
+        RuntimeException validationError = receivedTransaction.getValidationError();
+
+        if (validationError instanceof TransactionValidator.StaleTimestampException) {
+            log.debug(validationError.getMessage());
+            try {
+                transactionRequester.clearTransactionRequest(receivedTransactionHash);
+            } catch (Exception e) {
+                log.error(e.getMessage());
+            }
+            neighbor.incStaleTransactions();
+        } else if (validationError != null) {
+            log.error(validationError.getMessage());
+            log.error("Received an Invalid TransactionViewModel. Dropping it...");
+            neighbor.incInvalidTransactions();
+
+            return;
+        } else {
+            recentSeenBytes.put(ByteBuffer.wrap(receivedTransaction.getTransactionBytes()), receivedTransactionHash);
+
+            //if valid - add to receive queue (receivedTransactionViewModel, neighbor)
+            addReceivedDataToReceiveQueue(receivedTransactionViewModel, neighbor);
         }
 
+        //add request to reply queue (requestedHash, neighbor)
+        Hash requestedHash = receivedTransaction.getRequestedHash();
+        if (requestedHash.equals(receivedTransactionHash)) {
+            //requesting a random tip
+            requestedHash = Hash.NULL_HASH;
+        }
+        addReceivedDataToReplyQueue(requestedHash, neighbor);
+    }
+
+    /**
+     * Adds incoming transactions to the {@link Node#receiveQueue} to be processed later.
+     */
+    public void addReceivedDataToReceiveQueue(TransactionViewModel receivedTransactionViewModel, Neighbor neighbor) {
+        receiveQueue.offer(new ImmutablePair<>(receivedTransactionViewModel, neighbor));
     }
 
     /**
      * Adds incoming transactions to the {@link Node#replyQueue} to be processed later
      */
     public void addReceivedDataToReplyQueue(Hash requestedHash, Neighbor neighbor) {
-        replyQueue.add(new ImmutablePair<>(requestedHash, neighbor));
-        if (replyQueue.size() > REPLY_QUEUE_SIZE) {
-            replyQueue.pollLast();
-        }
+        replyQueue.offer(new ImmutablePair<>(requestedHash, neighbor));
     }
 
     /**
      * Picks up a transaction and neighbor pair from receive queue. Calls
      * {@link Node#processReceivedData} on the pair.
+     *
+     * @return true if a pair was processed and false if the queue was empty
      */
-    public void processReceivedDataFromQueue() {
-        final Pair<TransactionViewModel, Neighbor> receivedData = receiveQueue.pollFirst();
+    public boolean processReceivedDataFromQueue() {
+        final Pair<TransactionViewModel, Neighbor> receivedData = receiveQueue.poll();
         if (receivedData != null) {
+            long startTime = System.nanoTime();
             processReceivedData(receivedData.getLeft(), receivedData.getRight());
+            storeLatency.record(System.nanoTime() - startTime);
+            return true;
         }
+        return false;
     }
 
     /**
      * Picks up a transaction hash and neighbor pair from reply queue. Calls
      * {@link Node#replyToRequest} on the pair.
+     *
+     * @return true if a pair was processed and false if the queue was empty
      */
-    public void replyToRequestFromQueue() {
-        final Pair<Hash, Neighbor> receivedData = replyQueue.pollFirst();
+    public boolean replyToRequestFromQueue() {
+        final Pair<Hash, Neighbor> receivedData = replyQueue.poll();
         if (receivedData != null) {
             replyToRequest(receivedData.getLeft(), receivedData.getRight());
+            return true;
         }
+        return false;
     }
 
     /**
@@ -460,7 +478,7 @@ public class Node {
 
         //store new transaction
         try {
-            stored = receivedTransactionViewModel.store(tangle, snapshotProvider.getInitialSnapshot());
+            stored = receivedTransactionViewModel.store(tangle, snapshotProvider.getInitialSnapshot(), false);
             if (this.graph != null) {
                 this.graph.addNode(receivedTransactionViewModel.getHash().toString(), receivedTransactionViewModel.getTrunkTransactionHash().toString(), receivedTransactionViewModel.getBranchTransactionHash().toString());
             }
@@ -560,10 +578,7 @@ public class Node {
             try {
                 sendPacket(sendingPacket, transactionViewModel, neighbor);
 
-                ByteBuffer digest = getBytesDigest(transactionViewModel.getBytes());
-                synchronized (recentSeenBytes) {
-                    recentSeenBytes.put(digest, transactionViewModel.getHash());
-                }
+                recentSeenBytes.put(ByteBuffer.wrap(transactionViewModel.getBytes()), transactionViewModel.getHash());
             } catch (Exception e) {
                 log.error("Error fetching transaction to request.", e);
             }
@@ -592,7 +607,7 @@ public class Node {
     /**
      * Sends a Datagram to the neighbour. Also appends a random hash request
      * to the outgoing packet. Note that this is only used for UDP handling. For TCP
-     * the outgoing packets are sent by ReplicatorSinkProcessor
+     * the outgoing packets are sent by {@link net.helix.pendulum.network.replicator.ReplicatorTransport}
      *
      * @param {@link DatagramPacket} sendingPacket the UDP payload buffer
      * @param {@link TransactionViewModel} transactionViewModel which should be sent.
@@ -653,7 +668,7 @@ public class Node {
             while (!shuttingDown.get()) {
 
                 try {
-                    final TransactionViewModel transactionViewModel = broadcastQueue.pollFirst();
+                    final TransactionViewModel transactionViewModel = broadcastQueue.poll();
                     if (transactionViewModel != null) {
 
                         for (final Neighbor neighbor : neighbors) {
@@ -705,6 +720,20 @@ public class Node {
                                 getReceiveQueueSize(), getBroadcastQueueSize(),
                                 transactionRequester.numberOfTransactionsToRequest(), getReplyQueueSize(),
                                 TransactionViewModel.getNumberOfStoredTransactions(tangle));
+                        log.info("dropped: toProcess = {} , toBroadcast = {} , toReply = {} / duplicates: " +
+                                        "toProcess = {} , toBroadcast = {}",
+                                receiveQueue.getDropCount(), broadcastQueue.getDropCount(),
+                                replyQueue.getDropCount(), receiveQueue.getDuplicateCount(),
+                                broadcastQueue.getDuplicateCount());
+                        log.info("RecentSeenBytes cache hit/miss ratio: {}/{}", getRecentSeenBytesHitCount(),
+                                getRecentSeenBytesMissCount());
+                        log.info("toValidate = {} , dropped = {} , duplicates = {} / latency: queued = {} µs , " +
+                                        "validation = {} µs , store = {} µs", getValidationQueueSize(),
+                                getValidationQueueDropCount(), getValidationQueueDuplicateCount(),
+                                validationStage.getQueueLatency().averageMicrosAndReset(),
+                                validationStage.getValidationLatency().averageMicrosAndReset(),
+                                storeLatency.averageMicrosAndReset());
+                        tangle.publish("hmr %d/%d", getRecentSeenBytesHitCount(), getRecentSeenBytesMissCount());
                     }
 
                     Thread.sleep(5000);
@@ -724,8 +753,9 @@ public class Node {
             while (!shuttingDown.get()) {
 
                 try {
-                    processReceivedDataFromQueue();
-                    Thread.sleep(1);
+                    if (!processReceivedDataFromQueue()) {
+                        Thread.sleep(1);
+                    }
                 } catch (final Exception e) {
                     log.error("Process Received Data Thread Exception:", e);
                 }
@@ -742,8 +772,9 @@ public class Node {
             while (!shuttingDown.get()) {
 
                 try {
-                    replyToRequestFromQueue();
-                    Thread.sleep(1);
+                    if (!replyToRequestFromQueue()) {
+                        Thread.sleep(1);
+                    }
                 } catch (final Exception e) {
                     log.error("Reply To Request Thread Exception:", e);
                 }
@@ -753,72 +784,18 @@ public class Node {
     }
 
 
-    private static ConcurrentSkipListSet<TransactionViewModel> weightQueue() {
-        return new ConcurrentSkipListSet<>((transaction1, transaction2) -> {
-            if (transaction1.weightMagnitude == transaction2.weightMagnitude) {
-                for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                    if (transaction1.getHash().bytes()[i] != transaction2.getHash().bytes()[i]) {
-                        return transaction2.getHash().bytes()[i] - transaction1.getHash().bytes()[i];
-                    }
-                }
-                return 0;
-            }
-            return transaction2.weightMagnitude - transaction1.weightMagnitude;
-        });
-    }
-
-    //TODO generalize these weightQueues
-    private static ConcurrentSkipListSet<Pair<Hash, Neighbor>> weightQueueHashPair() {
-        return new ConcurrentSkipListSet<Pair<Hash, Neighbor>>((transaction1, transaction2) -> {
-            Hash tx1 = transaction1.getLeft();
-            Hash tx2 = transaction2.getLeft();
-
-            for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                if (tx1.bytes()[i] != tx2.bytes()[i]) {
-                    return tx2.bytes()[i] - tx1.bytes()[i];
-                }
-            }
-            return 0;
-
-        });
-    }
-
-    private static ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>> weightQueueTxPair() {
-        return new ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>>((transaction1, transaction2) -> {
-            TransactionViewModel tx1 = transaction1.getLeft();
-            TransactionViewModel tx2 = transaction2.getLeft();
-
-            if (tx1.weightMagnitude == tx2.weightMagnitude) {
-                for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                    if (tx1.getHash().bytes()[i] != tx2.getHash().bytes()[i]) {
-                        return tx2.getHash().bytes()[i] - tx1.getHash().bytes()[i];
-                    }
-                }
-                return 0;
-            }
-            return tx2.weightMagnitude - tx1.weightMagnitude;
-        });
-    }
-
-
     public void broadcast(final TransactionViewModel transactionViewModel) {
-        broadcastQueue.add(transactionViewModel);
-        if (broadcastQueue.size() > BROADCAST_QUEUE_SIZE) {
-            broadcastQueue.pollLast();
-        }
+        broadcastQueue.offer(transactionViewModel);
     }
 
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
+        if (validationStage != null) {
+            validationStage.shutdown();
+        }
         executor.awaitTermination(6, TimeUnit.SECONDS);
     }
 
-    private ByteBuffer getBytesDigest(byte[] receivedData) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        digest.update(receivedData, 0, TransactionViewModel.SIZE);
-        return ByteBuffer.wrap(digest.digest());
-    }
-
     // helpers methods
 
     public boolean removeNeighbor(final URI uri, boolean isConfigured) {
@@ -907,39 +884,50 @@ public class Node {
         return replyQueue.size();
     }
 
-    public class FIFOCache<K, V> {
+    public long getBroadcastQueueDropCount() {
+        return broadcastQueue.getDropCount();
+    }
 
-        private final int capacity;
-        private final double dropRate;
-        private LinkedHashMap<K, V> map;
-        private final SecureRandom rnd = new SecureRandom();
+    public long getReceiveQueueDropCount() {
+        return receiveQueue.getDropCount();
+    }
 
-        public FIFOCache(int capacity, double dropRate) {
-            this.capacity = capacity;
-            this.dropRate = dropRate;
-            this.map = new LinkedHashMap<>();
-        }
+    public long getReplyQueueDropCount() {
+        return replyQueue.getDropCount();
+    }
 
-        public V get(K key) {
-            V value = this.map.get(key);
-            if (value != null && (rnd.nextDouble() < this.dropRate)) {
-                this.map.remove(key);
-                return null;
-            }
-            return value;
-        }
+    /**
+     * @return the amount of received transactions that wait for the validation
+     */
+    public int getValidationQueueSize() {
+        return validationStage == null ? 0 : validationStage.getQueueSize();
+    }
 
-        public V put(K key, V value) {
-            if (this.map.containsKey(key)) {
-                return value;
-            }
-            if (this.map.size() >= this.capacity) {
-                Iterator<K> it = this.map.keySet().iterator();
-                it.next();
-                it.remove();
-            }
-            return this.map.put(key, value);
-        }
+    /**
+     * @return the amount of received transactions that were dropped because the validation queue was full
+     */
+    public long getValidationQueueDropCount() {
+        return validationStage == null ? 0 : validationStage.getDroppedCount();
+    }
+
+    /**
+     * @return the amount of received transactions that were received again while they were waiting for the validation
+     */
+    public long getValidationQueueDuplicateCount() {
+        return validationStage == null ? 0 : validationStage.getDuplicateCount();
+    }
+
+    /**
+     * @return the amount of received packets that were recognized as recently seen
+     */
+    public long getRecentSeenBytesHitCount() {
+        return recentSeenBytes == null ? 0 : recentSeenBytes.getHitCount();
     }
 
+    /**
+     * @return the amount of received packets that were not seen recently
+     */
+    public long getRecentSeenBytesMissCount() {
+        return recentSeenBytes == null ? 0 : recentSeenBytes.getMissCount();
+    }
 }
@@ -0,0 +1,174 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.model.Hash;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the transaction hashes of recently seen packets, so packets that are received several times (i.e. from
+ * different neighbors) don't have to be hashed and validated again.
+ *
+ * The cache is a lock-free, set-associative table: a packet is mapped to a set of {@link #WAYS} slots by a cheap
+ * 64-bit hash of its bytes, which is seeded randomly per instance so it can't be targeted from outside. Every slot
+ * keeps a copy of the packet bytes, which are only compared to the looked up packet if the slot has the same 64-bit
+ * hash, so a colliding packet is never mistaken for a seen one. New entries take a free slot of their set or replace a
+ * pseudo-randomly chosen entry of it.
+ *
+ * Like the previous FIFO cache, a hit is turned into a miss (and the entry is removed) with a configurable probability,
+ * so transactions eventually get processed again.
+ */
+public class SeenBytesCache {
+    /**
+     * Amount of slots that a 64-bit hash can be stored in.
+     */
+    private static final int WAYS = 4;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int setMask;
+    private final int length;
+    private final double dropRate;
+    private final long seed = new SecureRandom().nextLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param capacity the minimum amount of packets that can be remembered (rounded up to a power of two)
+     * @param dropRate probability of forgetting a packet when it is looked up
+     * @param length the amount of bytes at the start of the packet that identify it
+     */
+    public SeenBytesCache(int capacity, double dropRate, int length) {
+        int sets = Integer.highestOneBit(Math.max(1, (capacity + WAYS - 1) / WAYS - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+        this.setMask = sets - 1;
+        this.length = length;
+        this.dropRate = dropRate;
+    }
+
+    /**
+     * Looks up the transaction hash of a packet.
+     *
+     * @param packet buffer that holds the packet starting at position 0 (its position is not modified)
+     * @return the hash of the transaction or null if the packet was not seen recently
+     */
+    public Hash get(ByteBuffer packet) {
+        long key = hash(packet);
+        int set = set(key);
+        for (int i = set; i < set + WAYS; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.key == key) {
+                if (ByteBuffer.wrap(entry.bytes).equals(bytes(packet))) {
+                    if (dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate) {
+                        slots.compareAndSet(i, entry, null);
+                        break;
+                    }
+                    hitCount.increment();
+
+                    return entry.hash;
+                }
+            }
+        }
+        missCount.increment();
+
+        return null;
+    }
+
+    /**
+     * Remembers the transaction hash of a packet.
+     *
+     * @param packet buffer that holds the packet starting at position 0 (its position is not modified)
+     * @param hash the hash of the transaction contained in the packet
+     */
+    public void put(ByteBuffer packet, Hash hash) {
+        long key = hash(packet);
+        int set = set(key);
+        for (int i = set; i < set + WAYS; i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.key == key && entry.hash.equals(hash)) {
+                return;
+            }
+        }
+
+        // prefer a free slot and evict a pseudo-random entry of the set otherwise
+        int way = (int) ((key >>> 32) + System.nanoTime()) & (WAYS - 1);
+        for (int i = 0; i < WAYS; i++) {
+            if (slots.get(set + i) == null) {
+                way = i;
+                break;
+            }
+        }
+        byte[] bytes = new byte[length];
+        bytes(packet).get(bytes);
+        slots.set(set + way, new Entry(key, bytes, hash));
+    }
+
+    /**
+     * @return the amount of lookups that found the packet
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the amount of lookups that did not find the packet
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private int set(long key) {
+        return ((int) key & setMask) * WAYS;
+    }
+
+    /**
+     * Seeded 64-bit hash of the first {@link #length} bytes of the packet (following the structure of xxHash64).
+     */
+    private long hash(ByteBuffer packet) {
+        long hash = seed + PRIME_3 + length;
+        int offset = 0;
+        for (; offset + Long.BYTES <= length; offset += Long.BYTES) {
+            long k = packet.getLong(offset) * PRIME_2;
+            hash ^= Long.rotateLeft(k, 31) * PRIME_1;
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_3;
+        }
+        for (; offset < length; offset++) {
+            hash ^= (packet.get(offset) & 0xFF) * PRIME_3;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+
+        return hash;
+    }
+
+    /**
+     * @return a view on the first {@link #length} bytes of the packet
+     */
+    private ByteBuffer bytes(ByteBuffer packet) {
+        return (ByteBuffer) packet.duplicate().position(0).limit(length);
+    }
+
+    private static class Entry {
+        private final long key;
+        private final byte[] bytes;
+        private final Hash hash;
+
+        private Entry(long key, byte[] bytes, Hash hash) {
+            this.key = key;
+            this.bytes = bytes;
+            this.hash = hash;
+        }
+    }
+}
@@ -6,10 +6,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Created by paul on 4/15/17.
@@ -18,7 +17,8 @@ import java.util.concurrent.TimeUnit;
 /**
  * This class Extends {@link Neighbor} base class with TCP specific functionality.
  * It keeps reference of Source and Sink while maintaining a sendQueue for keeping
- * outgoing requests.
+ * outgoing requests. The queue is bounded and drops its oldest packet when it is full,
+ * which acts as backpressure for neighbors that don't keep up with our outgoing traffic.
  *
  */
 public class TCPNeighbor extends Neighbor {
@@ -28,15 +28,17 @@ public class TCPNeighbor extends Neighbor {
     private final ArrayBlockingQueue<ByteBuffer> sendQueue = new ArrayBlockingQueue<>(10);
     private boolean stopped = false;
 
-    private Socket source = null;
-    private Socket sink = null;
+    private SocketChannel source = null;
+    private SocketChannel sink = null;
+
+    private volatile Runnable writeListener = null;
 
     public TCPNeighbor(InetSocketAddress address, boolean isConfigured) {
         super(address, isConfigured);
         this.tcpPort = address.getPort();
     }
 
-    public Socket getSource() {
+    public SocketChannel getSource() {
         return source;
     }
 
@@ -50,9 +52,9 @@ public class TCPNeighbor extends Neighbor {
         return stopped;
     }
 
-    public void setSource(Socket source) {
+    public void setSource(SocketChannel source) {
         if (source == null) {
-            if (this.source != null && !this.source.isClosed()) {
+            if (this.source != null && this.source.isOpen()) {
                 try {
                     this.source.close();
                     log.info("Source {} closed", this.getHostAddress());
@@ -64,13 +66,14 @@ public class TCPNeighbor extends Neighbor {
         this.source = source;
     }
 
-    public Socket getSink() {
+    public SocketChannel getSink() {
         return sink;
     }
 
-    public void setSink(Socket sink) {
+    public void setSink(SocketChannel sink) {
         if (sink == null) {
-            if (this.sink != null && !this.sink.isClosed()) {
+            writeListener = null;
+            if (this.sink != null && this.sink.isOpen()) {
                 try {
                     this.sink.close();
                     log.info("Sink {} closed", this.getHostAddress());
@@ -98,6 +101,20 @@ public class TCPNeighbor extends Neighbor {
             sendQueue.add(ByteBuffer.wrap(bytes));
         }
 
+        Runnable listener = writeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Registers a callback that is notified whenever a packet is queued for sending (i.e. to wake up the transport
+     * that writes to the sink).
+     *
+     * @param writeListener callback that is run by {@link #send(DatagramPacket)} or null to remove the callback
+     */
+    public void setWriteListener(Runnable writeListener) {
+        this.writeListener = writeListener;
     }
 
     @Override
@@ -114,8 +131,15 @@ public class TCPNeighbor extends Neighbor {
         this.tcpPort = tcpPort;
     }
 
-    public ByteBuffer getNextMessage() throws InterruptedException {
-        return (this.sendQueue.poll(10000, TimeUnit.MILLISECONDS));
+    /**
+     * @return the oldest queued packet or null if there is nothing to send
+     */
+    public ByteBuffer pollMessage() {
+        return sendQueue.poll();
+    }
+
+    public boolean hasQueuedMessages() {
+        return !sendQueue.isEmpty();
     }
 
 }
\ No newline at end of file
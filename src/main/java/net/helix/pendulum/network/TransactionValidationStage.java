@@ -0,0 +1,342 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.TransactionValidator;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.crypto.Sponge;
+import net.helix.pendulum.crypto.SpongeFactory;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.TransactionHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Hashes and validates the transactions of received packets on a pool of worker threads, so the threads that read
+ * the packets from the network don't have to wait for the hash calculation and the weight magnitude check.
+ *
+ * The received transactions are handed over through a bounded queue (transactions are dropped if the queue is full).
+ * A transaction that is received again while it waits for the validation is not queued a second time. It is
+ * attached to the pending one instead and passed to the consumer with the same result, so the request of every packet
+ * is still answered.
+ * The worker threads drain the queue in batches, calculate the hashes with their own {@link Sponge} instance, run
+ * {@link TransactionValidator#runValidation} and pass the result to the consumer of the stage (the {@link Node}, which
+ * adds the valid transactions to the receive queue of the store stage and answers the request of the packet).
+ *
+ * The stage keeps track of the time the transactions spend in the queue and in the validation.
+ */
+public class TransactionValidationStage {
+    private static final Logger log = LoggerFactory.getLogger(TransactionValidationStage.class);
+
+    private static final int BATCH_SIZE = 32;
+
+    private static final long WORKER_POLL_TIMEOUT = 100L;
+
+    private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
+    private final TransactionValidator transactionValidator;
+    private final Consumer<ReceivedTransaction> consumer;
+    private final int workerThreads;
+
+    private final BlockingQueue<ReceivedTransaction> queue;
+
+    /**
+     * The queued transactions by their bytes, until they were passed to the consumer.
+     */
+    private final Map<ByteBuffer, ReceivedTransaction> pendingTransactions = new ConcurrentHashMap<>();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+
+    private final Latency queueLatency = new Latency();
+    private final Latency validationLatency = new Latency();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * Creates the stage without starting its threads.
+     *
+     * @param transactionValidator validator that checks the received transactions
+     * @param consumer consumer of the hashed and validated transactions (called by the worker threads)
+     * @param queueSize the maximum amount of transactions that wait for the validation
+     * @param workerThreads the amount of worker threads (0 = one per available processor)
+     */
+    public TransactionValidationStage(TransactionValidator transactionValidator,
+                                      Consumer<ReceivedTransaction> consumer, int queueSize, int workerThreads) {
+        this.transactionValidator = transactionValidator;
+        this.consumer = consumer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.workerThreads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    public void init() {
+        for (int i = 0; i < workerThreads; i++) {
+            Thread thread = new Thread(spawnWorkerThread(), "Transaction validation thread " + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * Queues a received transaction for the validation, or attaches it to the same transaction if that one is
+     * already waiting for the validation.
+     *
+     * @param receivedTransaction the received transaction
+     * @return true if the transaction was queued and false if it was dropped because the queue is full
+     */
+    public boolean submit(ReceivedTransaction receivedTransaction) {
+        receivedTransaction.queuedTime = System.nanoTime();
+        ByteBuffer key = receivedTransaction.getKey();
+        ReceivedTransaction pendingTransaction;
+        while ((pendingTransaction = pendingTransactions.putIfAbsent(key, receivedTransaction)) != null) {
+            if (pendingTransaction.addDuplicate(receivedTransaction)) {
+                duplicateCount.incrementAndGet();
+
+                return true;
+            }
+            // the pending transaction was passed to the consumer in the meantime
+            pendingTransactions.remove(key, pendingTransaction);
+        }
+
+        if (!queue.offer(receivedTransaction)) {
+            droppedCount.incrementAndGet();
+            pendingTransactions.remove(key, receivedTransaction);
+            droppedCount.addAndGet(receivedTransaction.completeDuplicates().size());
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private Runnable spawnWorkerThread() {
+        return () -> {
+            log.info("Spawning Transaction Validation Thread");
+
+            Sponge sponge = SpongeFactory.create(SpongeFactory.Mode.S256);
+            List<ReceivedTransaction> batch = new ArrayList<>(BATCH_SIZE);
+
+            while (!shuttingDown.get()) {
+                try {
+                    ReceivedTransaction first = queue.poll(WORKER_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+
+                    for (ReceivedTransaction receivedTransaction : batch) {
+                        try {
+                            validate(receivedTransaction, sponge);
+                            consumer.accept(receivedTransaction);
+                        } catch (final Exception e) {
+                            log.error("Transaction Validation Thread Exception:", e);
+                        } finally {
+                            pendingTransactions.remove(receivedTransaction.getKey(), receivedTransaction);
+                        }
+                        processDuplicates(receivedTransaction);
+                    }
+                    batch.clear();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            log.info("Shutting down Transaction Validation Thread");
+        };
+    }
+
+    private void validate(ReceivedTransaction receivedTransaction, Sponge sponge) {
+        long startTime = System.nanoTime();
+        queueLatency.record(startTime - receivedTransaction.queuedTime);
+
+        byte[] transactionBytes = receivedTransaction.transactionBytes;
+        receivedTransaction.transaction = new TransactionViewModel(transactionBytes,
+                TransactionHash.calculate(transactionBytes, TransactionViewModel.SIZE, sponge));
+        try {
+            transactionValidator.runValidation(receivedTransaction.transaction,
+                    transactionValidator.getMinWeightMagnitude());
+        } catch (final RuntimeException e) {
+            receivedTransaction.validationError = e;
+        }
+
+        validationLatency.record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Passes the transactions that were received again during the validation to the consumer with the result of the
+     * validated transaction.
+     */
+    private void processDuplicates(ReceivedTransaction receivedTransaction) {
+        for (ReceivedTransaction duplicate : receivedTransaction.completeDuplicates()) {
+            duplicate.transaction = receivedTransaction.transaction;
+            duplicate.validationError = receivedTransaction.validationError;
+            try {
+                consumer.accept(duplicate);
+            } catch (final Exception e) {
+                log.error("Transaction Validation Thread Exception:", e);
+            }
+        }
+    }
+
+    /**
+     * @return the amount of transactions that wait for the validation
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the amount of transactions that were dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return the amount of transactions that were received again while they were waiting for the validation
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    /**
+     * @return the time the transactions spend in the queue
+     */
+    public Latency getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * @return the time it takes to hash and validate the transactions
+     */
+    public Latency getValidationLatency() {
+        return validationLatency;
+    }
+
+    public void shutdown() throws InterruptedException {
+        shuttingDown.set(true);
+        for (Thread thread : threads) {
+            thread.join(6000L);
+        }
+    }
+
+    /**
+     * A received transaction together with the neighbor that sent it and the transaction that was requested by the
+     * packet. The transaction and the validation error are set by the stage.
+     */
+    public static class ReceivedTransaction {
+        private final byte[] transactionBytes;
+        private final Hash requestedHash;
+        private final Neighbor neighbor;
+
+        private long queuedTime;
+        private TransactionViewModel transaction;
+        private RuntimeException validationError;
+
+        /**
+         * The same transactions that were received while this one was pending (null once they were taken).
+         */
+        private List<ReceivedTransaction> duplicates = new ArrayList<>();
+
+        /**
+         * @param transactionBytes the bytes of the transaction (not shared with the receive buffer)
+         * @param requestedHash hash of the transaction that was requested by the packet
+         * @param neighbor the neighbor that sent the packet
+         */
+        public ReceivedTransaction(byte[] transactionBytes, Hash requestedHash, Neighbor neighbor) {
+            this.transactionBytes = transactionBytes;
+            this.requestedHash = requestedHash;
+            this.neighbor = neighbor;
+        }
+
+        public byte[] getTransactionBytes() {
+            return transactionBytes;
+        }
+
+        private ByteBuffer getKey() {
+            return ByteBuffer.wrap(transactionBytes);
+        }
+
+        private synchronized boolean addDuplicate(ReceivedTransaction duplicate) {
+            if (duplicates == null) {
+                return false;
+            }
+            duplicates.add(duplicate);
+
+            return true;
+        }
+
+        /**
+         * Takes the duplicates, further duplicates can't be added afterwards.
+         */
+        private synchronized List<ReceivedTransaction> completeDuplicates() {
+            List<ReceivedTransaction> completedDuplicates = duplicates == null ? Collections.emptyList() : duplicates;
+            duplicates = null;
+
+            return completedDuplicates;
+        }
+
+        public Hash getRequestedHash() {
+            return requestedHash;
+        }
+
+        public Neighbor getNeighbor() {
+            return neighbor;
+        }
+
+        /**
+         * @return the hashed transaction or null if it was not validated yet
+         */
+        public TransactionViewModel getTransaction() {
+            return transaction;
+        }
+
+        /**
+         * @return the exception of the validation or null if the transaction is valid
+         */
+        public RuntimeException getValidationError() {
+            return validationError;
+        }
+    }
+
+    /**
+     * Accumulates the durations of a processing step. The averages are calculated for the durations that were
+     * recorded since the previous call of {@link #averageMicrosAndReset()}, so the periodic status log reports the
+     * latency of the last interval.
+     */
+    public static class Latency {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        /**
+         * @param duration the duration of a processing step in nanoseconds
+         */
+        public void record(long duration) {
+            count.increment();
+            nanos.add(duration);
+        }
+
+        /**
+         * @return the average duration in microseconds (0 if nothing was recorded)
+         */
+        public long averageMicrosAndReset() {
+            long recorded = count.sumThenReset();
+            long total = nanos.sumThenReset();
+
+            return recorded == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(total / recorded);
+        }
+    }
+}
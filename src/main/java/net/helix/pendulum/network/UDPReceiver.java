@@ -6,88 +6,125 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.Arrays;
-import java.util.concurrent.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Created by paul on 4/16/17.
+ *
+ * Receives the gossip packets of the UDP neighbors.
+ *
+ * The receiver threads read the datagrams of a {@link DatagramChannel} directly into direct {@link ByteBuffer}s that
+ * are taken from a fixed pool and hand them to the processor threads through a bounded queue. The processor threads
+ * drain the queue in batches, pass the packets to {@link Node#preProcessReceivedData(ByteBuffer, SocketAddress, String)}
+ * and return the buffers to the pool, so no memory is allocated per received packet. If all buffers are in use, the
+ * received packets are dropped.
  */
 public class UDPReceiver {
     private static final Logger log = LoggerFactory.getLogger(UDPReceiver.class);
 
-    private final DatagramPacket receivingPacket;
+    private static final int BATCH_SIZE = 32;
+
+    private static final long PROCESSOR_POLL_TIMEOUT = 100L;
 
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
     private final int port;
     private final Node node;
     private final int packetSize;
+    private final int receiverThreads;
 
-    private DatagramSocket socket;
+    private DatagramChannel channel;
 
     private final int PROCESSOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() * 4 );
 
-    private final ExecutorService processor = new ThreadPoolExecutor(PROCESSOR_THREADS, PROCESSOR_THREADS, 5000L,
-            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(PROCESSOR_THREADS, true),
-            new ThreadPoolExecutor.AbortPolicy());
+    private final BlockingQueue<ReceivedPacket> freePackets;
+    private final BlockingQueue<ReceivedPacket> receivedPackets;
+
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
 
-    private Thread receivingThread;
+    private final List<Thread> threads = new ArrayList<>();
 
     public UDPReceiver(Node node, NodeConfig config) {
         this.node = node;
         this.port = config.getUdpReceiverPort();
         this.packetSize = config.getTransactionPacketSize();
-        this.receivingPacket = new DatagramPacket(new byte[packetSize], packetSize);
+        this.receiverThreads = Math.max(1, config.getUdpReceiverThreads());
+
+        int poolSize = PROCESSOR_THREADS * BATCH_SIZE;
+        this.freePackets = new ArrayBlockingQueue<>(poolSize);
+        this.receivedPackets = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            freePackets.add(new ReceivedPacket(ByteBuffer.allocateDirect(packetSize)));
+        }
     }
 
     public void init() throws Exception {
 
-        socket = new DatagramSocket(port);
-        node.setUDPSocket(socket);
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        node.setUDPSocket(channel.socket());
         log.info("UDP replicator is accepting connections on udp port " + port);
 
-        receivingThread = new Thread(spawnReceiverThread(), "UDP receiving thread");
-        receivingThread.start();
+        for (int i = 0; i < receiverThreads; i++) {
+            spawnThread(spawnReceiverThread(), "UDP receiving thread " + i);
+        }
+        for (int i = 0; i < PROCESSOR_THREADS; i++) {
+            spawnThread(spawnProcessorThread(), "UDP processing thread " + i);
+        }
+    }
+
+    private void spawnThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.start();
+        threads.add(thread);
     }
 
+    /**
+     * Several receiver threads can share the channel: the system calls are serialized by the channel, but a thread can
+     * hand off its packet while the next one is already waiting for data.
+     */
     private Runnable spawnReceiverThread() {
         return () -> {
 
-
             log.info("Spawning Receiver Thread");
 
-            int processed = 0, dropped = 0;
+            ByteBuffer dropBuffer = ByteBuffer.allocateDirect(packetSize);
 
             while (!shuttingDown.get()) {
-
-                if (((processed + dropped) % 50000 == 49999)) {
-                    log.info("Receiver thread processed/dropped ratio: "+processed+"/"+dropped);
-                    processed = 0;
-                    dropped = 0;
-                }
-
                 try {
-                    socket.receive(receivingPacket);
-
-                    if (receivingPacket.getLength() == packetSize) {
-
-                        byte[] bytes = Arrays.copyOf(receivingPacket.getData(), receivingPacket.getLength());
-                        SocketAddress address = receivingPacket.getSocketAddress();
-
-                        processor.submit(() -> node.preProcessReceivedData(bytes, address, "udp"));
-                        processed++;
-
-                        Thread.yield();
+                    ReceivedPacket packet = freePackets.poll();
+                    if (packet == null) {
+                        // no free buffer, packet dropped
+                        dropBuffer.clear();
+                        channel.receive(dropBuffer);
+                        countPacket(droppedCount);
+                        continue;
+                    }
 
+                    packet.buffer.clear();
+                    packet.address = channel.receive(packet.buffer);
+                    if (packet.buffer.position() == packetSize) {
+                        packet.buffer.flip();
+                        receivedPackets.put(packet);
                     } else {
-                        receivingPacket.setLength(packetSize);
+                        freePackets.offer(packet);
                     }
-                } catch (final RejectedExecutionException e) {
-                    //no free thread, packet dropped
-                    dropped++;
-
+                } catch (final ClosedChannelException e) {
+                    break;
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 } catch (final Exception e) {
                     log.error("Receiver Thread Exception:", e);
                 }
@@ -96,10 +133,66 @@ public class UDPReceiver {
         };
     }
 
+    private Runnable spawnProcessorThread() {
+        return () -> {
+            List<ReceivedPacket> batch = new ArrayList<>(BATCH_SIZE);
+
+            while (!shuttingDown.get()) {
+                try {
+                    ReceivedPacket first = receivedPackets.poll(PROCESSOR_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    receivedPackets.drainTo(batch, BATCH_SIZE - 1);
+
+                    for (ReceivedPacket packet : batch) {
+                        try {
+                            node.preProcessReceivedData(packet.buffer, packet.address, "udp");
+                            countPacket(processedCount);
+                        } catch (final Exception e) {
+                            log.error("Processor Thread Exception:", e);
+                        } finally {
+                            packet.address = null;
+                            freePackets.offer(packet);
+                        }
+                    }
+                    batch.clear();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        };
+    }
+
+    private void countPacket(AtomicLong counter) {
+        counter.incrementAndGet();
+        long processed = processedCount.get();
+        long dropped = droppedCount.get();
+        if ((processed + dropped) % 50000 == 49999) {
+            log.info("Receiver processed/dropped ratio: " + processed + "/" + dropped);
+        }
+    }
+
+    /**
+     * @return the amount of packets that were passed to the {@link Node}
+     */
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    /**
+     * @return the amount of packets that were dropped because all receive buffers were in use
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
     public void send(final DatagramPacket packet) {
         try {
-            if (socket != null) {
-                socket.send(packet);
+            if (channel != null) {
+                channel.socket().send(packet);
             }
         } catch (IOException e) {
             // ignore
@@ -108,14 +201,32 @@ public class UDPReceiver {
 
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
-        processor.shutdown();
-        processor.awaitTermination(6, TimeUnit.SECONDS);
         try {
-            receivingThread.join(6000L);
-        }
-        catch (Exception e) {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
             // ignore
         }
+        for (Thread thread : threads) {
+            try {
+                thread.join(6000L);
+            }
+            catch (Exception e) {
+                // ignore
+            }
+        }
     }
 
-}
\ No newline at end of file
+    /**
+     * A pooled receive buffer together with the address of the sender of the packet it currently holds.
+     */
+    private static class ReceivedPacket {
+        private final ByteBuffer buffer;
+        private SocketAddress address;
+
+        private ReceivedPacket(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -5,47 +5,39 @@ import net.helix.pendulum.network.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 
 /**
- * This class manages a set of Source and Sink pool workers {@link ReplicatorSourceProcessor}
- * and {@link ReplicatorSinkProcessor}. The workers are managed by the Pool manager threads
- * {@link ReplicatorSourcePool} and {@link ReplicatorSinkPool}
+ * This class manages the TCP connections to the neighbors through a {@link ReplicatorTransport}.
+ * <br>
+ * A **Sink** is the outgoing connection to a peer, which we use to send transactions to it.
  * <br>
- * A **Sink** is basically a received end point for TCP where all  the peers send
- * trnasactions to. Since there is only one global endpoint for all the peers, we need
- * only a single thread to manage all the incoming messages.
+ * A **Source** is the incoming connection of a peer, which sends packets to us through our
+ * global TCP endpoint.
  * <br>
- * A **Source** is a single peer which sends packets to us, therefore we need multiple worker
- * threads to manage sending transaction to multiple peers.
+ * Both kinds of connections of all peers are served by a single selector thread, so the
+ * amount of threads does not grow with the amount of neighbors.
  *
  */
 
 public class Replicator {
 
-    public static final int NUM_THREADS = 32;
-
     private static final Logger log = LoggerFactory.getLogger(Replicator.class);
-    private final ReplicatorSinkPool replicatorSinkPool;
-    private final int port;
-    private ReplicatorSourcePool replicatorSourcePool;
+    private final ReplicatorTransport replicatorTransport;
 
     public Replicator(Node node, NodeConfig configuration) {
-        this.port = configuration.getTcpReceiverPort();
-        replicatorSinkPool = new ReplicatorSinkPool(node, port, configuration.getTransactionPacketSize());
-        replicatorSourcePool = new ReplicatorSourcePool(replicatorSinkPool, node, configuration.getMaxPeers(),
-                configuration.isTestnet());
+        replicatorTransport = new ReplicatorTransport(node, configuration.getTcpReceiverPort(),
+                configuration.getTransactionPacketSize(), configuration.getMaxPeers(), configuration.isTestnet());
     }
 
-    public void init() {
-        new Thread(replicatorSinkPool).start();
-        new Thread(replicatorSourcePool.init(port)).start();
-        log.info("Started ReplicatorSourcePool");
+    public void init() throws IOException {
+        replicatorTransport.init();
+        log.info("Started ReplicatorTransport");
     }
 
     public void shutdown() throws InterruptedException {
-        // TODO
-        replicatorSourcePool.shutdown();
-        replicatorSinkPool.shutdown();
+        replicatorTransport.shutdown();
     }
 
-}
\ No newline at end of file
+}
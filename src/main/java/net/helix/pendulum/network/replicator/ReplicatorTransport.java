@@ -0,0 +1,600 @@
+package net.helix.pendulum.network.replicator;
+
+import net.helix.pendulum.network.Neighbor;
+import net.helix.pendulum.network.Node;
+import net.helix.pendulum.network.TCPNeighbor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Non-blocking TCP transport of the {@link Replicator}.
+ *
+ * A single thread multiplexes the listening socket, the sources (incoming connections) and the sinks (outgoing
+ * connections) of all TCP neighbors with a {@link Selector}. The wire format is unchanged: a sink first sends our tcp
+ * listener port as {@link #PORT_BYTES} ascii digits, followed by frames that consist of a packet and its CRC32
+ * checksum as {@link #CRC32_BYTES} hex digits.
+ *
+ * Received frames are verified on the selector thread and handed to a small pool of processor threads that pass them
+ * to {@link Node#preProcessReceivedData(byte[], java.net.SocketAddress, String)}. If a neighbor has more than
+ * {@link #MAX_PENDING_PACKETS} packets waiting for processing, we stop reading from its source until the backlog is
+ * halved, so a fast neighbor can't flood the processors.
+ *
+ * Packets queued for sending via {@link TCPNeighbor#send} are coalesced into one buffer and written with a single
+ * system call once the sink becomes writable.
+ */
+public class ReplicatorTransport implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicatorTransport.class);
+
+    public static final int PORT_BYTES = 10;
+
+    public static final int CRC32_BYTES = 16;
+
+    private static final int PROCESSOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private static final int MAX_PENDING_PACKETS = 64;
+
+    private static final int FRAMES_PER_BUFFER = 32;
+
+    private static final long SELECT_TIMEOUT = 1000L;
+
+    private static final long SINK_RETRY_INTERVAL = 30000L;
+
+    private static final long SINK_CONNECT_TIMEOUT = 30000L;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+    private final Node node;
+    private final int port;
+    private final int packetSize;
+    private final int frameSize;
+    private final int maxPeers;
+    private final boolean testnet;
+
+    private final ExecutorService processor = Executors.newFixedThreadPool(PROCESSOR_THREADS);
+    private final Queue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    // only accessed by the selector thread
+    private final Set<SinkConnection> connectingSinks = new HashSet<>();
+    private final Map<TCPNeighbor, Long> lastSinkAttempts = new HashMap<>();
+
+    private volatile boolean shutdown = false;
+    private volatile Selector selector;
+    private Thread thread;
+
+    public ReplicatorTransport(Node node, int port, int packetSize, int maxPeers, boolean testnet) {
+        this.node = node;
+        this.port = port;
+        this.packetSize = packetSize;
+        this.frameSize = packetSize + CRC32_BYTES;
+        this.maxPeers = maxPeers;
+        this.testnet = testnet;
+    }
+
+    public void init() throws IOException {
+        selector = Selector.open();
+        thread = new Thread(this, "TCP Replicator");
+        thread.start();
+    }
+
+    public void shutdown() throws InterruptedException {
+        shutdown = true;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (thread != null) {
+            thread.join(6000L);
+        }
+        processor.shutdown();
+        processor.awaitTermination(6, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void run() {
+        ServerSocketChannel server = openServer();
+        long nextSinkCheck = System.currentTimeMillis() + SELECT_TIMEOUT;
+
+        while (!shutdown) {
+            try {
+                selector.select(SELECT_TIMEOUT);
+
+                Runnable task;
+                while ((task = pendingTasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handle(key, server);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextSinkCheck) {
+                    checkSinks(now);
+                    nextSinkCheck = now + SELECT_TIMEOUT;
+                }
+            } catch (final Exception e) {
+                log.error("Replicator Thread Exception:", e);
+            }
+        }
+
+        closeAll(server);
+        log.info("ReplicatorTransport shutting down");
+    }
+
+    private ServerSocketChannel openServer() {
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            log.info("TCP replicator is accepting connections on tcp port " + port);
+
+            return server;
+        } catch (IOException e) {
+            log.error("***** NETWORK ALERT ***** Cannot create server socket on port {}, {}", port, e.getMessage());
+
+            return null;
+        }
+    }
+
+    private void handle(SelectionKey key, ServerSocketChannel server) {
+        try {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                accept(server);
+            } else if (key.isConnectable()) {
+                finishConnect((SinkConnection) key.attachment());
+            } else if (key.isReadable()) {
+                read((SourceConnection) key.attachment());
+            } else if (key.isWritable()) {
+                write((SinkConnection) key.attachment());
+            }
+        } catch (CancelledKeyException e) {
+            // the connection was closed by another thread (i.e. the neighbor got removed)
+        }
+    }
+
+    //region [SOURCE] //////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private void accept(ServerSocketChannel server) {
+        SocketChannel channel = null;
+        try {
+            channel = server.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+
+            InetSocketAddress address = (InetSocketAddress) channel.getRemoteAddress();
+            TCPNeighbor neighbor = findNeighbor(address);
+            if (neighbor == null) {
+                channel.close();
+                return;
+            }
+
+            synchronized (neighbor) {
+                if (neighbor.getSource() != null) {
+                    log.info("Source {} already connected", address.getAddress().getHostAddress());
+                    channel.close();
+                    return;
+                }
+                neighbor.setSource(channel);
+            }
+
+            SourceConnection source = new SourceConnection(neighbor, channel, address);
+            source.key = channel.register(selector, SelectionKey.OP_READ, source);
+        } catch (IOException e) {
+            log.error("Error accepting connection", e);
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Looks up the neighbor with the address of an incoming connection and adds a new neighbor if we are allowed to
+     * accept connections of unknown neighbors.
+     *
+     * @return the matching neighbor or null if the connection shall be refused
+     */
+    private TCPNeighbor findNeighbor(InetSocketAddress address) {
+        String hisAddress = address.getAddress().getHostAddress();
+        for (Neighbor neighbor : node.getNeighbors()) {
+            if (neighbor instanceof TCPNeighbor && neighbor.getHostAddress().equals(hisAddress)) {
+                return (TCPNeighbor) neighbor;
+            }
+        }
+
+        if (!testnet || Neighbor.getNumPeers() >= maxPeers) {
+            String hostAndPort = address.getHostName() + ":" + String.valueOf(address.getPort());
+            if (Node.rejectedAddresses.add(address.getHostName())) {
+                String sb = "***** NETWORK ALERT ***** Got connected from unknown neighbor tcp://"
+                        + hostAndPort
+                        + " (" + hisAddress + ") - closing connection";
+                if (testnet && Neighbor.getNumPeers() >= maxPeers) {
+                    sb = sb + (" (max-peers allowed is "+String.valueOf(maxPeers)+")");
+                }
+                log.info(sb);
+            }
+
+            return null;
+        }
+
+        TCPNeighbor freshNeighbor = new TCPNeighbor(address, false);
+        node.getNeighbors().add(freshNeighbor);
+        Neighbor.incNumPeers();
+
+        return freshNeighbor;
+    }
+
+    private void read(SourceConnection source) {
+        TCPNeighbor neighbor = source.neighbor;
+        ByteBuffer buffer = source.buffer;
+        try {
+            if (source.channel.read(buffer) == -1) {
+                log.info("----- NETWORK INFO ----- Source {} got disconnected", neighbor.getHostAddress());
+                closeConnections(neighbor);
+                return;
+            }
+        } catch (IOException e) {
+            log.error("***** NETWORK ALERT ***** TCP connection reset by neighbor {}, source closed, {}",
+                    neighbor.getHostAddress(), e.getMessage());
+            closeConnections(neighbor);
+            return;
+        }
+
+        buffer.flip();
+        if (!source.portReceived) {
+            if (buffer.remaining() < PORT_BYTES) {
+                buffer.compact();
+                return;
+            }
+            if (!readPort(source)) {
+                closeConnections(neighbor);
+                return;
+            }
+        }
+        while (buffer.remaining() >= frameSize) {
+            byte[] packet = new byte[packetSize];
+            buffer.get(packet);
+            if (hasValidChecksum(packet, buffer)) {
+                dispatch(source, packet);
+            }
+        }
+        buffer.compact();
+    }
+
+    private boolean readPort(SourceConnection source) {
+        byte[] portBytes = new byte[PORT_BYTES];
+        source.buffer.get(portBytes);
+        try {
+            source.neighbor.setTcpPort((int) Long.parseLong(new String(portBytes)));
+        } catch (NumberFormatException e) {
+            log.error("Did not receive neighbors listener port");
+            return false;
+        }
+        source.portReceived = true;
+        log.info("----- NETWORK INFO ----- Source {} is connected", source.neighbor.getHostAddress());
+
+        if (source.neighbor.getSink() == null) {
+            log.info("Creating sink for {}", source.neighbor.getHostAddress());
+            openSink(source.neighbor);
+        }
+
+        return true;
+    }
+
+    /**
+     * Compares the checksum of the packet with the checksum digits that follow it in the buffer (and consumes them).
+     */
+    private static boolean hasValidChecksum(byte[] packet, ByteBuffer buffer) {
+        long checksum = checksum(packet);
+        boolean valid = true;
+        for (int i = CRC32_BYTES - 1; i >= 0; i--) {
+            if (buffer.get() != HEX_DIGITS[(int) (checksum >>> (i * 4)) & 0xF]) {
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    private void dispatch(SourceConnection source, byte[] packet) {
+        if (source.pendingPackets.incrementAndGet() >= MAX_PENDING_PACKETS && source.paused.compareAndSet(false, true)) {
+            source.key.interestOps(0);
+            // the processors might have caught up before we paused
+            if (source.pendingPackets.get() <= MAX_PENDING_PACKETS / 2) {
+                resume(source);
+            }
+        }
+
+        try {
+            processor.execute(() -> {
+                try {
+                    node.preProcessReceivedData(packet, source.address, "tcp");
+                } catch (final RuntimeException e) {
+                    log.error("Transaction processing runtime exception ", e);
+                    source.neighbor.incInvalidTransactions();
+                } finally {
+                    if (source.pendingPackets.decrementAndGet() <= MAX_PENDING_PACKETS / 2 && source.paused.get()) {
+                        submitTask(() -> resume(source));
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            source.pendingPackets.decrementAndGet();
+        }
+    }
+
+    private void resume(SourceConnection source) {
+        if (source.paused.compareAndSet(true, false) && source.key.isValid()) {
+            source.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    //region [SINK] ////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Opens the sinks of the configured neighbors that are not connected (at most once every
+     * {@link #SINK_RETRY_INTERVAL} per neighbor) and drops sinks that don't manage to connect in time.
+     */
+    private void checkSinks(long now) {
+        node.getNeighbors().stream()
+                .filter(n -> n instanceof TCPNeighbor && n.isFlagged())
+                .map(n -> ((TCPNeighbor) n))
+                .filter(n -> n.getSink() == null && !n.isStopped())
+                .filter(n -> now - lastSinkAttempts.getOrDefault(n, 0L) >= SINK_RETRY_INTERVAL)
+                .forEach(this::openSink);
+        lastSinkAttempts.keySet().removeIf(TCPNeighbor::isStopped);
+
+        Iterator<SinkConnection> connecting = connectingSinks.iterator();
+        while (connecting.hasNext()) {
+            SinkConnection sink = connecting.next();
+            if (!sink.channel.isOpen()) {
+                connecting.remove();
+            } else if (now - sink.connectStart >= SINK_CONNECT_TIMEOUT) {
+                connecting.remove();
+                closeSink(sink, "connect timed out");
+            }
+        }
+    }
+
+    private void openSink(TCPNeighbor neighbor) {
+        lastSinkAttempts.put(neighbor, System.currentTimeMillis());
+
+        SocketChannel channel;
+        String remoteAddress = neighbor.getHostAddress();
+        try {
+            synchronized (neighbor) {
+                if (neighbor.getSink() != null) {
+                    // Sink already created
+                    log.info("Sink {} already created", remoteAddress);
+                    return;
+                }
+                log.info("Opening sink {}", remoteAddress);
+                channel = SocketChannel.open();
+                neighbor.setSink(channel);
+            }
+        } catch (IOException e) {
+            log.error("***** NETWORK ALERT ***** No sink to apiHost {}:{}, reason: {}", remoteAddress,
+                    neighbor.getPort(), e.getMessage());
+            return;
+        }
+
+        SinkConnection sink = new SinkConnection(neighbor, channel, frameSize * FRAMES_PER_BUFFER);
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            sink.key = channel.register(selector, SelectionKey.OP_CONNECT, sink);
+
+            log.info("Connecting sink {}", remoteAddress);
+            if (channel.connect(new InetSocketAddress(remoteAddress, neighbor.getPort()))) {
+                finishConnect(sink);
+            } else {
+                connectingSinks.add(sink);
+            }
+        } catch (IOException e) {
+            closeSink(sink, e.getMessage());
+        }
+    }
+
+    private void finishConnect(SinkConnection sink) {
+        try {
+            if (!sink.channel.finishConnect()) {
+                return;
+            }
+        } catch (IOException e) {
+            connectingSinks.remove(sink);
+            closeSink(sink, e.getMessage());
+            return;
+        }
+        connectingSinks.remove(sink);
+        log.info("----- NETWORK INFO ----- Sink {} is connected", sink.neighbor.getHostAddress());
+
+        // Let neighbor know our tcp listener port
+        String fmt = "%0"+String.valueOf(PORT_BYTES)+"d";
+        sink.buffer.put(String.format(fmt, port).getBytes(), 0, PORT_BYTES);
+        sink.neighbor.setWriteListener(() -> requestWrite(sink));
+        sink.key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    private void requestWrite(SinkConnection sink) {
+        if (sink.writeRequested.compareAndSet(false, true)) {
+            submitTask(() -> {
+                if (sink.key.isValid()) {
+                    sink.key.interestOps(SelectionKey.OP_WRITE);
+                }
+            });
+        }
+    }
+
+    /**
+     * Coalesces the queued packets of the neighbor into the write buffer and writes as much as the socket accepts.
+     */
+    private void write(SinkConnection sink) {
+        TCPNeighbor neighbor = sink.neighbor;
+        ByteBuffer buffer = sink.buffer;
+        sink.writeRequested.set(false);
+
+        ByteBuffer message;
+        while (buffer.remaining() >= frameSize && (message = neighbor.pollMessage()) != null) {
+            byte[] bytes = message.array();
+            // packets are only relayed while the neighbor is connected in both directions
+            if (bytes.length == packetSize && isSourceConnected(neighbor)) {
+                buffer.put(bytes);
+                putChecksum(buffer, checksum(bytes));
+                neighbor.incSentTransactions();
+            }
+        }
+
+        buffer.flip();
+        try {
+            sink.channel.write(buffer);
+        } catch (IOException e) {
+            buffer.clear();
+            closeSink(sink, e.getMessage());
+            return;
+        }
+        boolean drained = !buffer.hasRemaining();
+        buffer.compact();
+
+        sink.key.interestOps(drained && !neighbor.hasQueuedMessages() ? 0 : SelectionKey.OP_WRITE);
+    }
+
+    private static boolean isSourceConnected(TCPNeighbor neighbor) {
+        SocketChannel source = neighbor.getSource();
+        return source != null && source.isConnected();
+    }
+
+    private static void putChecksum(ByteBuffer buffer, long checksum) {
+        for (int i = CRC32_BYTES - 1; i >= 0; i--) {
+            buffer.put(HEX_DIGITS[(int) (checksum >>> (i * 4)) & 0xF]);
+        }
+    }
+
+    private void closeSink(SinkConnection sink, String reason) {
+        if (reason == null || reason.equals("null")) {
+            reason = "closed";
+        }
+        TCPNeighbor neighbor = sink.neighbor;
+        log.error("***** NETWORK ALERT ***** No sink to apiHost {}:{}, reason: {}", neighbor.getHostAddress(),
+                neighbor.getPort(), reason);
+        synchronized (neighbor) {
+            SocketChannel source = neighbor.getSource();
+            if (source != null && (!source.isOpen() || !source.isConnected())) {
+                neighbor.setSource(null);
+            }
+            if (neighbor.getSink() == sink.channel) {
+                neighbor.setSink(null);
+            } else {
+                closeQuietly(sink.channel);
+            }
+        }
+    }
+
+    //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    private static long checksum(byte[] packet) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(packet);
+        return crc32.getValue();
+    }
+
+    private void closeConnections(TCPNeighbor neighbor) {
+        synchronized (neighbor) {
+            neighbor.setSource(null);
+            neighbor.setSink(null);
+        }
+    }
+
+    private void submitTask(Runnable task) {
+        pendingTasks.add(task);
+        selector.wakeup();
+    }
+
+    private void closeAll(ServerSocketChannel server) {
+        closeQuietly(server);
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key.channel());
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // don't care.
+        }
+    }
+
+    private static void closeQuietly(java.nio.channels.Channel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // don't care.
+            }
+        }
+    }
+
+    /**
+     * State of an incoming connection.
+     */
+    private class SourceConnection {
+        private final TCPNeighbor neighbor;
+        private final SocketChannel channel;
+        private final InetSocketAddress address;
+        private final ByteBuffer buffer = ByteBuffer.allocate(frameSize * FRAMES_PER_BUFFER);
+        private final AtomicInteger pendingPackets = new AtomicInteger();
+        private final AtomicBoolean paused = new AtomicBoolean(false);
+        private SelectionKey key;
+        private boolean portReceived = false;
+
+        private SourceConnection(TCPNeighbor neighbor, SocketChannel channel, InetSocketAddress address) {
+            this.neighbor = neighbor;
+            this.channel = channel;
+            this.address = address;
+        }
+    }
+
+    /**
+     * State of an outgoing connection.
+     */
+    private static class SinkConnection {
+        private final TCPNeighbor neighbor;
+        private final SocketChannel channel;
+        private final ByteBuffer buffer;
+        private final long connectStart = System.currentTimeMillis();
+        private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+        private SelectionKey key;
+
+        private SinkConnection(TCPNeighbor neighbor, SocketChannel channel, int bufferSize) {
+            this.neighbor = neighbor;
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+    }
+}
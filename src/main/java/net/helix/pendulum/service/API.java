@@ -27,6 +27,7 @@ import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.service.spentaddresses.SpentAddressesService;
 import net.helix.pendulum.service.tipselection.TipSelector;
 import net.helix.pendulum.service.tipselection.impl.WalkValidatorImpl;
+import net.helix.pendulum.storage.TransactionCache;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.bundle.BundleTypes;
 import net.helix.pendulum.utils.bundle.BundleUtils;
@@ -121,7 +122,16 @@ public class API {
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private final Gson gson = new GsonBuilder().create();
-    private GreedyMiner miner = new GreedyMiner();
+    /**
+     * Does the proof-of-work of the <tt>attachToTangle</tt> requests (cancelled by <tt>interruptAttachingToTangle</tt>).
+     */
+    private final GreedyMiner miner = new GreedyMiner();
+
+    /**
+     * Does the proof-of-work of the bundles that are published by the node itself (i.e. milestones and nominees), so
+     * interrupting the attach requests doesn't cancel them.
+     */
+    private final GreedyMiner nodeMiner = new GreedyMiner();
 
     private final AtomicInteger counter = new AtomicInteger(0);
     private Pattern hexPattern = Pattern.compile("[0-9a-f]*");
@@ -485,16 +495,17 @@ public class API {
      * @return {@link GetTransactionStringsResponse}
      **/
     private synchronized AbstractResponse getTransactionStringsStatement(List<String> hashes) throws Exception {
-        final List<String> elements = new LinkedList<>();
-        for (final String hash : hashes) {
-            final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle, HashFactory.TRANSACTION.create(hash));
-            if (transactionViewModel != null) {
-                elements.add(Hex.toHexString(transactionViewModel.getBytes()));
-            }
-        }
-        if (elements.size() > maxGetTransactionStrings){
+        // every requested hash results in an element
+        if (hashes.size() > maxGetTransactionStrings){
             return ErrorResponse.create(OVER_MAX_ERROR_MESSAGE);
         }
+        final List<Hash> transactionHashes = hashes.stream()
+                .map(hash -> HashFactory.TRANSACTION.create(hash))
+                .collect(Collectors.toList());
+        final List<String> elements = new LinkedList<>();
+        for (final TransactionViewModel transactionViewModel : TransactionViewModel.fromHashes(tangle, transactionHashes)) {
+            elements.add(Hex.toHexString(transactionViewModel.getBytes()));
+        }
         return GetTransactionStringsResponse.create(elements);
     }
 
@@ -511,7 +522,17 @@ public class API {
      * @return {@link net.helix.pendulum.service.dto.GetTransactionsToApproveResponse}
      * @throws Exception When tip selection has failed. Currently caught and returned as an {@link ErrorResponse}.
      **/
-    private synchronized AbstractResponse getTransactionsToApproveStatement(int depth, Optional<Hash> reference) {
+    private AbstractResponse getTransactionsToApproveStatement(int depth, Optional<Hash> reference) {
+        // concurrent requests are only served in parallel if parallel tip selection is enabled
+        if (configuration.isParallelTipSelectionEnabled()) {
+            return selectTransactionsToApprove(depth, reference);
+        }
+        synchronized (this) {
+            return selectTransactionsToApprove(depth, reference);
+        }
+    }
+
+    private AbstractResponse selectTransactionsToApprove(int depth, Optional<Hash> reference) {
         if (depth < 0 || depth > configuration.getMaxDepth()) {
             return ErrorResponse.create("Invalid depth input");
         }
@@ -605,7 +626,7 @@ public class API {
 
         for (final TransactionViewModel transactionViewModel : elements) {
             //store transactions
-            if(transactionViewModel.store(tangle, snapshotProvider.getInitialSnapshot())) { // v
+            if(transactionViewModel.store(tangle, snapshotProvider.getInitialSnapshot(), true)) { // v
                 transactionViewModel.setArrivalTime(System.currentTimeMillis() / 1000L);
                 if (transactionViewModel.isMilestoneBundle(tangle) == null) {
                     transactionValidator.updateStatus(transactionViewModel);
@@ -639,6 +660,7 @@ public class API {
     private AbstractResponse getNodeInfoStatement() throws Exception {
         String name = configuration.isTestnet() ? Main.TESTNET_NAME : Main.MAINNET_NAME;
         RoundViewModel round = RoundViewModel.first(tangle);
+        TransactionCache transactionCache = tangle.getTransactionCache();
         return GetNodeInfoResponse.create(name, Main.VERSION,
                 Runtime.getRuntime().availableProcessors(),
                 Runtime.getRuntime().freeMemory(),
@@ -655,6 +677,10 @@ public class API {
 
                 node.howManyNeighbors(),
                 node.queuedTransactionsSize(),
+                node.getRecentSeenBytesHitCount(),
+                node.getRecentSeenBytesMissCount(),
+                transactionCache != null ? transactionCache.getHitCount() : 0,
+                transactionCache != null ? transactionCache.getMissCount() : 0,
                 System.currentTimeMillis(),
                 tipsViewModel.size(),
                 transactionRequester.numberOfTransactionsToRequest(),
@@ -1161,11 +1187,20 @@ public class API {
      * @return The list of transactions in bytes, ready to be broadcast to the network.
      **/
 
-    public synchronized List<String> attachToTangleStatement(final Hash trunkTransaction, final Hash branchTransaction, int minWeightMagnitude, final List<String> txs) {
+    public List<String> attachToTangleStatement(final Hash trunkTransaction, final Hash branchTransaction, int minWeightMagnitude, final List<String> txs) {
+        return attachToTangleStatement(trunkTransaction, branchTransaction, minWeightMagnitude, txs, miner);
+    }
+
+    /**
+     * Same as {@link #attachToTangleStatement(Hash, Hash, int, List)} but does the proof of work with the given miner.
+     *
+     * The miners share the workers of the {@link GreedyMiner#getPool()}, so concurrent calls are processed side by
+     * side.
+     */
+    private List<String> attachToTangleStatement(final Hash trunkTransaction, final Hash branchTransaction, int minWeightMagnitude, final List<String> txs, GreedyMiner miner) {
         final List<TransactionViewModel> transactionViewModels = new LinkedList<>();
 
         Hash prevTransaction = null;
-        miner = new GreedyMiner();
 
         byte[] txBytes = new byte[BYTES_SIZE];
 
@@ -1212,15 +1247,17 @@ public class API {
                 transactionViewModels.add(transactionViewModel);
                 prevTransaction = transactionViewModel.getHash();
             } finally {
-                API.incEllapsedTimePoW(System.nanoTime() - startTime);
-                API.incCounterPoW();
-                if ( ( API.getCounterPoW() % 100) == 0 ) {
-                    String sb = "Last 100 PoW consumed " +
-                            API.getEllapsedTimePoW() / 1000000000L +
-                            " seconds processing time.";
-                    log.info(sb);
-                    counter_PoW = 0;
-                    ellapsedTime_PoW = 0L;
+                synchronized (API.class) {
+                    API.incEllapsedTimePoW(System.nanoTime() - startTime);
+                    API.incCounterPoW();
+                    if ( ( API.getCounterPoW() % 100) == 0 ) {
+                        String sb = "Last 100 PoW consumed " +
+                                API.getEllapsedTimePoW() / 1000000000L +
+                                " seconds processing time (" + GreedyMiner.getPool().getHashRate() + " H/s).";
+                        log.info(sb);
+                        counter_PoW = 0;
+                        ellapsedTime_PoW = 0L;
+                    }
                 }
             }
         }
@@ -1454,7 +1491,7 @@ public class API {
         final String bundleHash = Hex.toHexString(essenceHash);
         transactions = transactions.stream().map(tx -> StringUtils.rightPad(tx + bundleHash + StringUtils.repeat('0', 128) + tagHex, BYTES_SIZE, '0')).collect(Collectors.toList());
         Collections.reverse(transactions);
-        List<String> powResult = attachToTangleStatement(txToApprove.get(0), txToApprove.get(1), minWeightMagnitude, transactions);
+        List<String> powResult = attachToTangleStatement(txToApprove.get(0), txToApprove.get(1), minWeightMagnitude, transactions, nodeMiner);
         storeTransactionsStatement(powResult);
         broadcastTransactionsStatement(powResult);
     }
@@ -1468,7 +1505,7 @@ public class API {
      * @throws Exception if storing fails
      */
     private void storeAndBroadcast(Hash tip1, Hash tip2, int mwm, List<String> txs) throws Exception{
-        List<String> powResult = attachToTangleStatement(tip1, tip2, mwm, txs);
+        List<String> powResult = attachToTangleStatement(tip1, tip2, mwm, txs, nodeMiner);
         storeTransactionsStatement(powResult);
         broadcastTransactionsStatement(powResult);
     }
@@ -86,6 +86,26 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	 */
 	private int packetsQueueSize;
 
+	/**
+	 * The amount of received packets that were recognized as recently seen and did not have to be validated again.
+	 */
+	private long recentSeenBytesHits;
+
+	/**
+	 * The amount of received packets that were not seen recently.
+	 */
+	private long recentSeenBytesMisses;
+
+	/**
+	 * The amount of transaction loads that were served by the in-memory transaction cache.
+	 */
+	private long transactionCacheHits;
+
+	/**
+	 * The amount of transaction loads that had to be served by the database.
+	 */
+	private long transactionCacheMisses;
+
 	/**
 	 * The difference, measured in milliseconds, between the current time and midnight, January 1, 1970 UTC
 	 */
@@ -130,6 +150,10 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	 * @param lastSnapshottedRoundIndex {@link #lastSnapshottedRoundIndex}
 	 * @param neighbors {@link #neighbors}
 	 * @param packetsQueueSize {@link #packetsQueueSize}
+	 * @param recentSeenBytesHits {@link #recentSeenBytesHits}
+	 * @param recentSeenBytesMisses {@link #recentSeenBytesMisses}
+	 * @param transactionCacheHits {@link #transactionCacheHits}
+	 * @param transactionCacheMisses {@link #transactionCacheMisses}
 	 * @param currentTimeMillis {@link #time}
 	 * @param tips {@link #tips}
 	 * @param numberOfTransactionsToRequest {@link #transactionsToRequest}
@@ -139,8 +163,8 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	public static AbstractResponse create(String appName, String appVersion, int jreAvailableProcessors, long jreFreeMemory,
 	        String jreVersion, long maxMemory, long totalMemory, int currentRoundIndex,
 	        Hash latestSolidRoundHash, int latestSolidRoundIndex, int roundStartIndex, int lastSnapshottedRoundIndex,
-	        int neighbors, int packetsQueueSize,
-	        long currentTimeMillis, int tips, int numberOfTransactionsToRequest, String[] features) {
+	        int neighbors, int packetsQueueSize, long recentSeenBytesHits, long recentSeenBytesMisses,
+	        long transactionCacheHits, long transactionCacheMisses, long currentTimeMillis, int tips, int numberOfTransactionsToRequest, String[] features) {
 		final GetNodeInfoResponse res = new GetNodeInfoResponse();
 		res.appName = appName;
 		res.appVersion = appVersion;
@@ -160,6 +184,10 @@ public class GetNodeInfoResponse extends AbstractResponse {
 
 		res.neighbors = neighbors;
 		res.packetsQueueSize = packetsQueueSize;
+		res.recentSeenBytesHits = recentSeenBytesHits;
+		res.recentSeenBytesMisses = recentSeenBytesMisses;
+		res.transactionCacheHits = transactionCacheHits;
+		res.transactionCacheMisses = transactionCacheMisses;
 		res.time = currentTimeMillis;
 		res.tips = tips;
 		res.transactionsToRequest = numberOfTransactionsToRequest;
@@ -273,6 +301,38 @@ public class GetNodeInfoResponse extends AbstractResponse {
 		return packetsQueueSize;
 	}
 
+	/**
+	 *
+	 * @return {@link #recentSeenBytesHits}
+	 */
+	public long getRecentSeenBytesHits() {
+		return recentSeenBytesHits;
+	}
+
+	/**
+	 *
+	 * @return {@link #recentSeenBytesMisses}
+	 */
+	public long getRecentSeenBytesMisses() {
+		return recentSeenBytesMisses;
+	}
+
+	/**
+	 *
+	 * @return {@link #transactionCacheHits}
+	 */
+	public long getTransactionCacheHits() {
+		return transactionCacheHits;
+	}
+
+	/**
+	 *
+	 * @return {@link #transactionCacheMisses}
+	 */
+	public long getTransactionCacheMisses() {
+		return transactionCacheMisses;
+	}
+
 	/**
 	 *
 	 * @return {@link #time}
@@ -18,6 +18,11 @@ import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.conf.PendulumConfig;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * Creates a service instance that allows us to perform ledger state specific operations.<br />
@@ -25,6 +30,24 @@ import java.util.*;
  * This class is stateless and does not hold any domain specific models.<br />
  */
 public class LedgerServiceImpl implements LedgerService {
+    /**
+     * Minimum amount of transactions of a level of the traversal that are loaded in parallel (smaller levels are loaded
+     * by the calling thread).<br />
+     */
+    private static final int PARALLEL_LEVEL_SIZE = 32;
+
+    /**
+     * Thread pool that loads the transactions of the levels of the traversal in {@link #generateBalanceDiff(Set, Set,
+     * int)} (its threads are daemon threads that terminate when they are idle).<br />
+     */
+    private final ForkJoinPool traversalPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Thread pool that validates the bundles that are found while traversing the tangle in {@link
+     * #generateBalanceDiff(Set, Set, int)}, so the validation doesn't hold up the traversal.<br />
+     */
+    private final ForkJoinPool bundleValidationPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
     /**
      * Holds the tangle object which acts as a database interface.<br />
      */
@@ -198,12 +221,22 @@ public class LedgerServiceImpl implements LedgerService {
         return isConsistent;
     }
 
+    /**
+     * {@inheritDoc}
+     * <br />
+     * The tangle is traversed level by level (in the same order as a breadth-first search), where the transactions of
+     * large levels are loaded in parallel by the {@link #traversalPool}. The bundles of the unconfirmed tails are
+     * validated by the {@link #bundleValidationPool} while the traversal continues and their values are summed up in
+     * the order in which the tails were found, so the result doesn't depend on the order in which the validations
+     * finish.<br />
+     * <br />
+     * As soon as a bundle turns out to be invalid, the traversal stops before its next level and the pending
+     * validations are cancelled, since the diff is discarded anyway.<br />
+     */
     @Override
     public Map<Hash, Long> generateBalanceDiff(Set<Hash> visitedTransactions, Set<Hash> startTransactions, int milestoneIndex)
             throws LedgerException {
 
-        //System.out.println("Generate balance diff for round " + milestoneIndex);
-
         Map<Hash, Long> state = new HashMap<>();
         Set<Hash> countedTx = new HashSet<>();
 
@@ -212,68 +245,130 @@ public class LedgerServiceImpl implements LedgerService {
             countedTx.add(solidEntryPointHash);
         });
 
-        final Queue<Hash> nonAnalyzedTransactions = new LinkedList<>(startTransactions);
-        Hash transactionPointer;
-        while ((transactionPointer = nonAnalyzedTransactions.poll()) != null) {
-            if (visitedTransactions.add(transactionPointer)) {
-                try {
-                    final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle,
-                            transactionPointer);
+        List<Future<List<TransactionViewModel>>> bundleValidations = new ArrayList<>();
+        AtomicBoolean invalidBundleFound = new AtomicBoolean(false);
+        try {
+            List<Hash> currentLevel = startTransactions.stream().filter(visitedTransactions::add)
+                    .collect(Collectors.toList());
+            while (!currentLevel.isEmpty()) {
+                if (invalidBundleFound.get()) {
+                    return null;
+                }
+
+                List<Hash> nextLevel = new ArrayList<>();
+                for (TransactionViewModel transactionViewModel : loadTransactions(currentLevel)) {
                     // only take transactions into account that have not been confirmed by the referenced milestone, yet
-                    //System.out.println("Transaction " + transactionPointer.toString() + " is confirmed: " + milestoneService.isTransactionConfirmed(transactionViewModel, milestoneIndex));
                     if (!milestoneService.isTransactionConfirmed(transactionViewModel, milestoneIndex)) {
                         if (transactionViewModel.getType() == TransactionViewModel.PREFILLED_SLOT) {
                             return null;
-                        } else {
-                            if (transactionViewModel.getCurrentIndex() == 0) {
-                                boolean validBundle = false;
-
-                                final List<List<TransactionViewModel>> bundleTransactions = BundleValidator.validate(
-                                        tangle, snapshotProvider.getInitialSnapshot(), transactionViewModel.getHash());
-
-                                for (final List<TransactionViewModel> bundleTransactionViewModels : bundleTransactions) {
-
-                                    if (BundleValidator.isInconsistent(bundleTransactionViewModels)) {
-                                        break;
-                                    }
-                                    if (bundleTransactionViewModels.get(0).getHash().equals(transactionViewModel.getHash())) {
-                                        validBundle = true;
-
-                                        for (final TransactionViewModel bundleTransactionViewModel : bundleTransactionViewModels) {
-
-                                            if (bundleTransactionViewModel.value() != 0 && countedTx.add(bundleTransactionViewModel.getHash())) {
-
-                                                final Hash address = bundleTransactionViewModel.getAddressHash();
-                                                final Long value = state.get(address);
-                                                state.put(address, value == null ? bundleTransactionViewModel.value()
-                                                        : Math.addExact(value, bundleTransactionViewModel.value()));
-                                            }
-                                        }
-
-                                        break;
-                                    }
-                                }
-                                if (!validBundle) {
-                                    return null;
-                                }
-                            }
-                            if (!visitedTransactions.contains(transactionViewModel.getTrunkTransactionHash())) {
-                                nonAnalyzedTransactions.offer(transactionViewModel.getTrunkTransactionHash());
-                            }
-                            if (!visitedTransactions.contains(transactionViewModel.getBranchTransactionHash())) {
-                                nonAnalyzedTransactions.offer(transactionViewModel.getBranchTransactionHash());
-                            }
                         }
+                        if (transactionViewModel.getCurrentIndex() == 0) {
+                            bundleValidations.add(bundleValidationPool.submit(() -> validateBundle(
+                                    transactionViewModel, invalidBundleFound)));
+                        }
+                        nextLevel.add(transactionViewModel.getTrunkTransactionHash());
+                        nextLevel.add(transactionViewModel.getBranchTransactionHash());
                     }
-                } catch (Exception e) {
-                    throw new LedgerException("unexpected error while generating the balance diff", e);
                 }
+                currentLevel = nextLevel.stream().filter(visitedTransactions::add).collect(Collectors.toList());
             }
+
+            for (Future<List<TransactionViewModel>> bundleValidation : bundleValidations) {
+                if (invalidBundleFound.get()) {
+                    return null;
+                }
+
+                List<TransactionViewModel> bundleTransactionViewModels = bundleValidation.get();
+                if (bundleTransactionViewModels == null) {
+                    return null;
+                }
+
+                for (final TransactionViewModel bundleTransactionViewModel : bundleTransactionViewModels) {
+                    if (bundleTransactionViewModel.value() != 0 && countedTx.add(bundleTransactionViewModel.getHash())) {
+                        final Hash address = bundleTransactionViewModel.getAddressHash();
+                        final Long value = state.get(address);
+                        state.put(address, value == null ? bundleTransactionViewModel.value()
+                                : Math.addExact(value, bundleTransactionViewModel.value()));
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new LedgerException("unexpected error while generating the balance diff", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new LedgerException("interrupted while generating the balance diff", e);
+        } catch (Exception e) {
+            throw new LedgerException("unexpected error while generating the balance diff", e);
+        } finally {
+            // stop the validations that are not needed anymore if we returned early
+            bundleValidations.forEach(bundleValidation -> bundleValidation.cancel(false));
         }
 
         return state;
     }
 
+    /**
+     * Loads the transactions of a level of the traversal (in parallel if the level is large enough).<br />
+     *
+     * @param transactionHashes hashes of the transactions that shall be loaded
+     * @return the loaded transactions in the order of the given hashes
+     * @throws Exception if anything goes wrong while loading the transactions
+     */
+    private List<TransactionViewModel> loadTransactions(List<Hash> transactionHashes) throws Exception {
+        if (transactionHashes.size() < PARALLEL_LEVEL_SIZE) {
+            List<TransactionViewModel> transactionViewModels = new ArrayList<>(transactionHashes.size());
+            for (Hash transactionHash : transactionHashes) {
+                transactionViewModels.add(TransactionViewModel.fromHash(tangle, transactionHash));
+            }
+
+            return transactionViewModels;
+        }
+
+        return traversalPool.submit(() -> transactionHashes.parallelStream().map(transactionHash -> {
+            try {
+                return TransactionViewModel.fromHash(tangle, transactionHash);
+            } catch (Exception e) {
+                throw new IllegalStateException("failed to load transaction " + transactionHash, e);
+            }
+        }).collect(Collectors.toList())).get();
+    }
+
+    /**
+     * Validates the bundle of the given tail transaction.<br />
+     * <br />
+     * The validation is skipped if another bundle of the same traversal was found to be invalid already.<br />
+     *
+     * @param tail the tail transaction of the bundle
+     * @param invalidBundleFound flag that is shared by the validations of a traversal and set by the first one that
+     *                           finds an invalid bundle
+     * @return the transactions of the bundle or {@code null} if the bundle is not valid
+     * @throws Exception if anything goes wrong while loading the bundle
+     */
+    private List<TransactionViewModel> validateBundle(TransactionViewModel tail, AtomicBoolean invalidBundleFound)
+            throws Exception {
+
+        if (invalidBundleFound.get()) {
+            return null;
+        }
+
+        final List<List<TransactionViewModel>> bundleTransactions = BundleValidator.validate(
+                tangle, snapshotProvider.getInitialSnapshot(), tail.getHash());
+
+        for (final List<TransactionViewModel> bundleTransactionViewModels : bundleTransactions) {
+            if (BundleValidator.isInconsistent(bundleTransactionViewModels)) {
+                break;
+            }
+            if (bundleTransactionViewModels.get(0).getHash().equals(tail.getHash())) {
+                return bundleTransactionViewModels;
+            }
+        }
+
+        invalidBundleFound.set(true);
+
+        return null;
+    }
+
     /**
      * Generates the {@link net.helix.pendulum.model.StateDiff} that belongs to the given milestone in the database and marks
      * all transactions that have been approved by the milestone accordingly by setting their {@code snapshotIndex}
@@ -10,6 +10,7 @@ import net.helix.pendulum.service.milestone.MilestoneException;
 import net.helix.pendulum.service.milestone.MilestoneService;
 import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.SnapshotService;
 import net.helix.pendulum.service.utils.RoundIndexUtil;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.log.interval.IntervalLogger;
@@ -51,6 +52,11 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
      */
     private SnapshotProvider snapshotProvider;
 
+    /**
+     * Holds a reference to the service that records the solid entry point candidates of the applied rounds.<br />
+     */
+    private SnapshotService snapshotService;
+
     /**
      * Holds a reference to the service instance containing the business logic of the milestone package.<br />
      */
@@ -101,17 +107,19 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
      *
      * @param tangle Tangle object which acts as a database interface
      * @param snapshotProvider manager for the snapshots that allows us to retrieve the relevant snapshots of this node
+     * @param snapshotService service that records the solid entry point candidates of the applied rounds
      * @param milestoneService contains the important business logic when dealing with milestones
      * @param ledgerService the manager for
      * @param milestoneTracker the manager that keeps track of the latest milestone
      * @return the initialized instance itself to allow chaining
      */
     public LatestSolidMilestoneTrackerImpl init(Tangle tangle, SnapshotProvider snapshotProvider,
-                                                MilestoneService milestoneService, LedgerService ledgerService,
-                                                MilestoneTracker milestoneTracker) {
+                                                SnapshotService snapshotService, MilestoneService milestoneService,
+                                                LedgerService ledgerService, MilestoneTracker milestoneTracker) {
 
         this.tangle = tangle;
         this.snapshotProvider = snapshotProvider;
+        this.snapshotService = snapshotService;
         this.milestoneService = milestoneService;
         this.ledgerService = ledgerService;
         this.milestoneTracker = milestoneTracker;
@@ -164,6 +172,9 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
                     applyRoundToLedger(nextRound);
                     logChange(currentSolidRoundIndex);
                     currentSolidRoundIndex = snapshotProvider.getLatestSnapshot().getIndex();
+                    if (tangle.getApproverIndex() != null) {
+                        tangle.getApproverIndex().onSolidMilestone(currentSolidRoundIndex);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -176,7 +187,8 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
         boolean allSolid = true;
         try {
             for (Hash milestoneHash : round.getHashes()) {
-                if (!TransactionViewModel.fromHash(tangle, milestoneHash).isSolid()) {
+                // only the solid flag is needed here, so the transaction itself is not loaded
+                if (!TransactionViewModel.loadMetadata(tangle, milestoneHash).isSolid()) {
                     allSolid = false;
                 }
             }
@@ -211,6 +223,9 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
     /**
      * Applies the given milestone to the ledger.<br />
      * <br />
+     * Once the milestone was applied, the transactions it confirmed are recorded as the candidates for the solid entry
+     * points of the following local snapshots (see {@link SnapshotService#updateSolidEntryPointCandidates}).<br />
+     * <br />
      * If the application of the milestone fails, we start a repair routine which will revert the milestones preceding
      * our current milestone and consequently try to reapply them in the next iteration of the {@link
      * #trackLatestSolidMilestones()} method (until the problem is solved).<br />
@@ -220,6 +235,8 @@ public class LatestSolidMilestoneTrackerImpl implements LatestSolidMilestoneTrac
      */
     private void applyRoundToLedger(RoundViewModel round) throws Exception {
         if (ledgerService.applyRoundToLedger(round)) {
+            snapshotService.updateSolidEntryPointCandidates(round);
+
             if (isRepairRunning() && isRepairSuccessful(round)) {
                 stopRepair();
             }
@@ -108,4 +108,16 @@ public interface SnapshotService {
      */
     Map<Integer, Hash> generateSeenRounds(MilestoneTracker milestoneTracker,
                                               RoundViewModel targetRound) throws SnapshotException;
+
+    /**
+     * This method records the transactions that were confirmed by a round that was just applied to the ledger.
+     *
+     * The recorded transactions are used as the candidates for the solid entry points of the following local snapshots,
+     * so {@link #generateSolidEntryPoints(RoundViewModel)} and {@link #generateSeenRounds(MilestoneTracker,
+     * RoundViewModel)} don't have to walk the tangle again for the rounds that were applied while the node was
+     * running. Errors are logged and only cause the snapshot generation to fall back to the database.
+     *
+     * @param round the round that was applied to the ledger
+     */
+    void updateSolidEntryPointCandidates(RoundViewModel round);
 }
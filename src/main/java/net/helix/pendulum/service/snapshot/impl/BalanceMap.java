@@ -0,0 +1,380 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Open-addressing hash map from addresses to balances that stores the addresses inline in a {@code long[]} (four
+ * longs per 32-byte address) and the balances as primitive longs, so the ledger state doesn't need a {@link Hash} and
+ * a {@link Long} object (plus a map node) per address.
+ *
+ * Addresses are compared by their bytes, so {@link Hash} objects of different types that have the same bytes are
+ * treated as the same address. The {@link Hash} objects that are returned by {@link #toMap()} and
+ * {@link #forEach(ObjLongConsumer)} are created as address hashes.
+ *
+ * Collisions are resolved by linear probing and removals shift the following entries back, so no tombstones are
+ * needed. Copies that are created with {@link #copy()} share the arrays with the original map until one of them is
+ * modified (copy-on-write), which makes cloning a snapshot cheap if the clone is only read or only changed in a few
+ * places. The map is not thread-safe.
+ */
+public class BalanceMap {
+    private static final int LONGS_PER_KEY = Hash.SIZE_IN_BYTES / Long.BYTES;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * True if the arrays might be shared with a copy and have to be copied before they are modified.
+     */
+    private boolean shared = false;
+
+    /**
+     * Creates an empty map.
+     */
+    public BalanceMap() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty map that can hold the given amount of addresses without being resized.
+     *
+     * @param expectedSize the expected amount of addresses
+     */
+    public BalanceMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Creates a map with the balances of the given map.
+     *
+     * @param balances the balances of the addresses
+     */
+    public BalanceMap(Map<Hash, Long> balances) {
+        this(balances.size());
+        balances.forEach(this::put);
+    }
+
+    /**
+     * @return the amount of addresses in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param address the address
+     * @return the balance of the address or null if the map doesn't contain the address
+     */
+    public Long get(Hash address) {
+        int slot = find(address);
+
+        return slot < 0 ? null : values[slot];
+    }
+
+    /**
+     * @param address the address
+     * @param defaultBalance the balance that is returned if the map doesn't contain the address
+     * @return the balance of the address or {@code defaultBalance} if the map doesn't contain the address
+     */
+    public long getOrDefault(Hash address, long defaultBalance) {
+        int slot = find(address);
+
+        return slot < 0 ? defaultBalance : values[slot];
+    }
+
+    /**
+     * Sets the balance of an address.
+     *
+     * @param address the address
+     * @param balance the new balance
+     */
+    public void put(Hash address, long balance) {
+        // the slot has to be determined first, since inserting the address might replace the array
+        int slot = findOrInsert(address);
+        values[slot] = balance;
+    }
+
+    /**
+     * Adds a value to the balance of an address. Addresses that are not contained in the map start with a balance of
+     * 0.
+     *
+     * @param address the address
+     * @param delta the value that is added to the balance
+     * @return the new balance of the address
+     */
+    public long add(Hash address, long delta) {
+        int slot = findOrInsert(address);
+        values[slot] += delta;
+
+        return values[slot];
+    }
+
+    /**
+     * Removes an address from the map.
+     *
+     * @param address the address
+     */
+    public void remove(Hash address) {
+        int slot = find(address);
+        if (slot < 0) {
+            return;
+        }
+        ensureExclusive();
+
+        // shift the following entries of the probe sequence back, so lookups don't stop at the removed slot
+        int freeSlot = slot;
+        int nextSlot = (slot + 1) & mask;
+        while (used[nextSlot]) {
+            int idealSlot = slotOf(nextSlot);
+            if (((nextSlot - idealSlot) & mask) >= ((nextSlot - freeSlot) & mask)) {
+                System.arraycopy(keys, nextSlot * LONGS_PER_KEY, keys, freeSlot * LONGS_PER_KEY, LONGS_PER_KEY);
+                values[freeSlot] = values[nextSlot];
+                freeSlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        used[freeSlot] = false;
+        size--;
+    }
+
+    /**
+     * Removes all addresses from the map.
+     */
+    public void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+        shared = false;
+    }
+
+    /**
+     * Creates a copy of the map that shares the arrays with this map until one of the maps is modified.
+     *
+     * @return the copy of the map
+     */
+    public BalanceMap copy() {
+        BalanceMap copy = new BalanceMap(this);
+        shared = true;
+
+        return copy;
+    }
+
+    /**
+     * Passes all addresses and their balances to the consumer.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(ObjLongConsumer<Hash> consumer) {
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(getAddress(slot), values[slot]);
+            }
+        }
+    }
+
+    /**
+     * @return the balances of all addresses (without creating the address objects)
+     */
+    public LongStream balances() {
+        long[] values = this.values;
+        boolean[] used = this.used;
+
+        return IntStream.range(0, used.length).filter(slot -> used[slot]).mapToLong(slot -> values[slot]);
+    }
+
+    /**
+     * @return a new map with the balances of all addresses
+     */
+    public Map<Hash, Long> toMap() {
+        Map<Hash, Long> balances = new HashMap<>(size * 4 / 3 + 1);
+        forEach(balances::put);
+
+        return balances;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                hashCode += hashKey(keys, slot * LONGS_PER_KEY) ^ Long.hashCode(values[slot]);
+            }
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof BalanceMap)) {
+            return false;
+        }
+
+        BalanceMap other = (BalanceMap) obj;
+        if (other.size != size) {
+            return false;
+        }
+        for (int slot = 0; slot < used.length; slot++) {
+            if (used[slot]) {
+                int otherSlot = other.find(keys, slot * LONGS_PER_KEY);
+                if (otherSlot < 0 || other.values[otherSlot] != values[slot]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private BalanceMap(BalanceMap original) {
+        keys = original.keys;
+        values = original.values;
+        used = original.used;
+        mask = original.mask;
+        size = original.size;
+        shared = true;
+    }
+
+    private int find(Hash address) {
+        if (address == null) {
+            return -1;
+        }
+
+        return find(toKey(address), 0);
+    }
+
+    private int find(long[] key, int offset) {
+        int slot = hashKey(key, offset) & mask;
+        while (used[slot]) {
+            if (keyEquals(slot, key, offset)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private int findOrInsert(Hash address) {
+        ensureExclusive();
+        if ((size + 1) * 4L > used.length * 3L) {
+            resize(used.length * 2);
+        }
+
+        long[] key = toKey(address);
+        int slot = hashKey(key, 0) & mask;
+        while (used[slot]) {
+            if (keyEquals(slot, key, 0)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        System.arraycopy(key, 0, keys, slot * LONGS_PER_KEY, LONGS_PER_KEY);
+        values[slot] = 0;
+        used[slot] = true;
+        size++;
+
+        return slot;
+    }
+
+    private void ensureExclusive() {
+        if (shared) {
+            keys = keys.clone();
+            values = values.clone();
+            used = used.clone();
+            shared = false;
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+
+        for (int oldSlot = 0; oldSlot < oldUsed.length; oldSlot++) {
+            if (oldUsed[oldSlot]) {
+                int slot = hashKey(oldKeys, oldSlot * LONGS_PER_KEY) & mask;
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                System.arraycopy(oldKeys, oldSlot * LONGS_PER_KEY, keys, slot * LONGS_PER_KEY, LONGS_PER_KEY);
+                values[slot] = oldValues[oldSlot];
+                used[slot] = true;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * LONGS_PER_KEY];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slotOf(int slot) {
+        return hashKey(keys, slot * LONGS_PER_KEY) & mask;
+    }
+
+    private boolean keyEquals(int slot, long[] key, int offset) {
+        int keyOffset = slot * LONGS_PER_KEY;
+        for (int i = 0; i < LONGS_PER_KEY; i++) {
+            if (keys[keyOffset + i] != key[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Hash getAddress(int slot) {
+        ByteBuffer address = ByteBuffer.allocate(Hash.SIZE_IN_BYTES);
+        for (int i = 0; i < LONGS_PER_KEY; i++) {
+            address.putLong(keys[slot * LONGS_PER_KEY + i]);
+        }
+
+        return HashFactory.ADDRESS.create(address.array());
+    }
+
+    private static long[] toKey(Hash address) {
+        ByteBuffer bytes = ByteBuffer.wrap(address.bytes());
+        long[] key = new long[LONGS_PER_KEY];
+        for (int i = 0; i < LONGS_PER_KEY; i++) {
+            key[i] = bytes.getLong(i * Long.BYTES);
+        }
+
+        return key;
+    }
+
+    private static int hashKey(long[] key, int offset) {
+        long hash = 0;
+        for (int i = 0; i < LONGS_PER_KEY; i++) {
+            hash = (hash ^ key[offset + i]) * 0x9E3779B97F4A7C15L;
+        }
+
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
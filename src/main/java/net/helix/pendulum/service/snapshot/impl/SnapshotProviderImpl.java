@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
@@ -142,7 +143,7 @@ public class SnapshotProviderImpl implements SnapshotProvider {
 
         try {
             // write new temp files
-            writeSnapshotStateToDisk(snapshot, basePath + ".snapshot.state.tmp");
+            writeSnapshotStateToDisk(snapshot, basePath + ".snapshot.state.tmp", basePath + ".snapshot.state");
             writeSnapshotMetaDataToDisk(snapshot, basePath + ".snapshot.meta.tmp");
 
             // rename current files by appending ".bkp"
@@ -318,14 +319,23 @@ public class SnapshotProviderImpl implements SnapshotProvider {
     /**
      * This method reads the balances from the given file on the disk and creates the corresponding SnapshotState.
      *
-     * It simply creates the corresponding reader and for the file on the given location and passes it on to
-     * {@link #readSnapshotState(BufferedReader)}.
+     * Files in the binary format (see {@link SnapshotStateFile}) are memory-mapped and decoded directly. For files in
+     * the text format it simply creates the corresponding reader and for the file on the given location and passes it
+     * on to {@link #readSnapshotState(BufferedReader)}.
      *
      * @param snapshotStateFilePath location of the snapshot state file
      * @return the unserialized version of the state file
      * @throws SnapshotException if anything goes wrong while reading the state file
      */
     private SnapshotState readSnapshotStatefromFile(String snapshotStateFilePath) throws SnapshotException {
+        try {
+            if (SnapshotStateFile.isBinary(Paths.get(snapshotStateFilePath))) {
+                return new SnapshotStateImpl(SnapshotStateFile.open(Paths.get(snapshotStateFilePath)).toBalanceMap());
+            }
+        } catch (IOException e) {
+            throw new SnapshotException("failed to read the snapshot file at " + snapshotStateFilePath, e);
+        }
+
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new BufferedInputStream(new FileInputStream(snapshotStateFilePath))))) {
             return readSnapshotState(reader);
         } catch (IOException e) {
@@ -379,28 +389,66 @@ public class SnapshotProviderImpl implements SnapshotProvider {
     }
 
     /**
-     * This method dumps the current state to a file.
+     * This method dumps the current state to a file in the binary format (see {@link SnapshotStateFile}).
      *
      * It is used by local snapshots to persist the in memory states and allow IRI to resume from the local snapshot.
+     * If the previous state file is a valid binary file, only the balances that changed since then are written and the
+     * remaining entries are copied from the previous file.
      *
      * @param snapshotState state object that shall be written
      * @param snapshotPath location of the file that shall be written
+     * @param previousSnapshotPath location of the previous state file
      * @throws SnapshotException if anything goes wrong while writing the file
      */
-    private void writeSnapshotStateToDisk(SnapshotState snapshotState, String snapshotPath) throws SnapshotException {
+    private void writeSnapshotStateToDisk(SnapshotState snapshotState, String snapshotPath,
+            String previousSnapshotPath) throws SnapshotException {
+
+        Map<Hash, Long> balances = snapshotState.getBalances();
+        SnapshotStateFile previousStateFile = openPreviousSnapshotStateFile(Paths.get(previousSnapshotPath));
+        if (previousStateFile == null) {
+            SnapshotStateFile.write(Paths.get(snapshotPath), balances);
+
+            return;
+        }
+
+        Map<Hash, Long> changes = new HashMap<>();
+        int retainedAddresses = 0;
+        for (Map.Entry<Hash, Long> entry : balances.entrySet()) {
+            Long previousBalance = previousStateFile.getBalance(entry.getKey());
+            if (previousBalance != null) {
+                retainedAddresses++;
+            }
+            if (previousBalance == null ? entry.getValue() != 0 : !previousBalance.equals(entry.getValue())) {
+                changes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (retainedAddresses < previousStateFile.size()) {
+            previousStateFile.forEach((address, balance) -> {
+                if (!balances.containsKey(address)) {
+                    changes.put(address, 0L);
+                }
+            });
+        }
+
+        SnapshotStateFile.write(Paths.get(snapshotPath), previousStateFile, changes);
+    }
+
+    /**
+     * Opens the previous state file, so the next state file can be written incrementally.
+     *
+     * @param previousSnapshotPath location of the previous state file
+     * @return the opened file or null if it doesn't exist or is not a valid binary state file
+     */
+    private SnapshotStateFile openPreviousSnapshotStateFile(Path previousSnapshotPath) {
         try {
-            Files.write(
-                    Paths.get(snapshotPath),
-                    () -> snapshotState.getBalances().entrySet()
-                            .stream()
-                            .filter(entry -> entry.getValue() != 0)
-                            .<CharSequence>map(entry -> entry.getKey().toString() + ";" + entry.getValue())
-                            .sorted()
-                            .iterator()
-            );
-        } catch (IOException e) {
-            throw new SnapshotException("failed to write the snapshot state file at " + snapshotPath, e);
+            if (Files.isRegularFile(previousSnapshotPath) && SnapshotStateFile.isBinary(previousSnapshotPath)) {
+                return SnapshotStateFile.open(previousSnapshotPath);
+            }
+        } catch (IOException | SnapshotException e) {
+            log.warn("failed to open the previous snapshot state file, writing the full state", e);
         }
+
+        return null;
     }
 
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -23,8 +23,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Creates a service instance that allows us to access the business logic for {@link Snapshot}s.<br />
@@ -61,6 +66,26 @@ public class SnapshotServiceImpl implements SnapshotService {
      */
     private static final int SOLID_ENTRY_POINT_LIFETIME = 1000;
 
+    /**
+     * Amount of rounds whose state diffs are loaded and summed up by a single worker when replaying or rolling back
+     * rounds.<br />
+     * <br />
+     * Ranges that are not larger than a single batch are processed by the calling thread.<br />
+     */
+    private static final int REPLAY_BATCH_SIZE = 100;
+
+    /**
+     * Thread pool that loads and sums up the state diffs of the batches of rounds (its threads are daemon threads that
+     * terminate when they are idle, so the pool doesn't have to be shut down).<br />
+     */
+    private final ExecutorService replayPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Holds the transactions that were confirmed by the recently applied rounds (see {@link
+     * #updateSolidEntryPointCandidates(RoundViewModel)}).<br />
+     */
+    private SolidEntryPointCandidates solidEntryPointCandidates;
+
     /**
      * Holds the tangle object which acts as a database interface.<br />
      */
@@ -106,6 +131,8 @@ public class SnapshotServiceImpl implements SnapshotService {
         this.spentAddressesService = spentAddressesService;
         this.spentAddressesProvider = spentAddressesProvider;
         this.config = config;
+        this.solidEntryPointCandidates = new SolidEntryPointCandidates(config.getLocalSnapshotsDepth() +
+                OUTER_SHELL_SIZE + 1);
 
         return this;
     }
@@ -117,37 +144,23 @@ public class SnapshotServiceImpl implements SnapshotService {
      * accumulate all the necessary changes and then apply it to the snapshot in a single run. This allows us to
      * modify its values without having to create a "copy" of the initial state to possibly roll back the changes if
      * anything unexpected happens (creating a backup of the state requires a lot of memory).<br />
+     * <br />
+     * The state diffs of the rounds are loaded and summed up in batches by a pool of workers (see
+     * {@link #replayRounds(List, String)}), so the snapshot is only locked while the combined changes are applied.<br />
      */
     @Override
     public void replayMilestones(Snapshot snapshot, int targetRoundIndex) throws SnapshotException {
-        Map<Hash, Long> balanceChanges = new HashMap<>();
-        Set<Integer> skippedMilestones = new HashSet<>();
-        RoundViewModel lastAppliedRound = null;
-
         try {
-            for (int currentRoundIndex = snapshot.getIndex() + 1; currentRoundIndex <= targetRoundIndex;
-                 currentRoundIndex++) {
-
-                RoundViewModel currentRound = RoundViewModel.get(tangle, currentRoundIndex);
-                if (currentRound != null) {
-                    StateDiffViewModel stateDiffViewModel = StateDiffViewModel.load(tangle, currentRoundIndex);
-                    if(!stateDiffViewModel.isEmpty()) {
-                        stateDiffViewModel.getDiff().forEach((address, change) -> {
-                            balanceChanges.compute(address, (k, balance) -> (balance == null ? 0 : balance) + change);
-                        });
-                    }
-
-                    lastAppliedRound = currentRound;
-                } else {
-                    skippedMilestones.add(currentRoundIndex);
-                }
-            }
+            List<Integer> roundIndexes = IntStream.rangeClosed(snapshot.getIndex() + 1, targetRoundIndex).boxed()
+                    .collect(Collectors.toList());
+            ReplayedRounds replayedRounds = replayRounds(roundIndexes, "Replaying rounds");
+            RoundViewModel lastAppliedRound = replayedRounds.lastRound;
 
             if (lastAppliedRound != null) {
                 try {
                     snapshot.lockWrite();
 
-                    snapshot.applyStateDiff(new SnapshotStateDiffImpl(balanceChanges));
+                    snapshot.applyStateDiff(new SnapshotStateDiffImpl(replayedRounds.balanceChanges));
 
                     snapshot.setIndex(lastAppliedRound.index());
 
@@ -159,7 +172,7 @@ public class SnapshotServiceImpl implements SnapshotService {
                     snapshot.setTimestamp(config.getGenesisTime() + (lastAppliedRound.index() * config.getRoundDuration()));
 
 
-                    for (int skippedMilestoneIndex : skippedMilestones) {
+                    for (int skippedMilestoneIndex : replayedRounds.skippedRounds) {
                         snapshot.addSkippedMilestone(skippedMilestoneIndex);
                     }
                 } finally {
@@ -173,6 +186,10 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     /**
      * {@inheritDoc}
+     * <br />
+     * Instead of reverting the milestones one by one, we first determine the milestones that were applied since the
+     * target milestone (taking the skipped milestones into account), sum up their state diffs in parallel (see
+     * {@link #replayRounds(List, String)}) and revert the combined changes in a single run.<br />
      */
     @Override
     public void rollBackMilestones(Snapshot snapshot, int targetMilestoneIndex) throws SnapshotException {
@@ -185,18 +202,51 @@ public class SnapshotServiceImpl implements SnapshotService {
         Snapshot snapshotBeforeChanges = snapshot.clone();
 
         try {
-            boolean rollbackSuccessful = true;
-            while (targetMilestoneIndex <= snapshot.getIndex() && rollbackSuccessful) {
-                rollbackSuccessful = rollbackLastMilestone(tangle, snapshot);
+            // determine the milestones that were applied (skipped milestones did not change the balances)
+            List<Integer> appliedRoundIndexes = new ArrayList<>();
+            int currentIndex = snapshot.getIndex();
+            while (targetMilestoneIndex <= currentIndex && currentIndex > snapshot.getInitialIndex()) {
+                appliedRoundIndexes.add(currentIndex);
+
+                currentIndex--;
+                while (snapshot.removeSkippedMilestone(currentIndex)) {
+                    currentIndex--;
+                }
+            }
+
+            // revert the combined balance changes (the state diff of a missing round would silently be left applied)
+            ReplayedRounds revertedRounds = replayRounds(appliedRoundIndexes, "Rolling back rounds");
+            if (!revertedRounds.skippedRounds.isEmpty()) {
+                throw new SnapshotException("failed to find the applied rounds " +
+                        new TreeSet<>(revertedRounds.skippedRounds) + " when rolling back milestones");
+            }
+            Map<Hash, Long> balanceChanges = revertedRounds.balanceChanges;
+            balanceChanges.replaceAll((address, change) -> -change);
+            SnapshotStateDiffImpl snapshotStateDiff = new SnapshotStateDiffImpl(balanceChanges);
+            if (!snapshotStateDiff.isConsistent()) {
+                throw new SnapshotException("the StateDiffs belonging to the milestones #" + targetMilestoneIndex +
+                        " to #" + snapshot.getIndex() + " are inconsistent");
+            } else if (!snapshot.patchedState(snapshotStateDiff).isConsistent()) {
+                throw new SnapshotException("failed to apply patch belonging to the milestones #" +
+                        targetMilestoneIndex + " to #" + snapshot.getIndex());
             }
+            snapshot.applyStateDiff(snapshotStateDiff);
 
-            if(targetMilestoneIndex < snapshot.getIndex()) {
-                throw new SnapshotException("failed to reach the target milestone index when rolling back milestones");
+            // set the metadata of the milestone before the reverted ones
+            if (currentIndex <= snapshot.getInitialIndex()) {
+                snapshot.setIndex(snapshot.getInitialIndex());
+                snapshot.setHash(snapshot.getInitialHash());
+                snapshot.setTimestamp(snapshot.getInitialTimestamp());
+            } else {
+                snapshot.setIndex(currentIndex);
             }
-        } catch(SnapshotException e) {
+        } catch (Exception e) {
             snapshot.update(snapshotBeforeChanges);
 
-            throw e;
+            if (e instanceof SnapshotException) {
+                throw (SnapshotException) e;
+            }
+            throw new SnapshotException("failed to roll back the milestones", e);
         } finally {
             snapshot.unlockWrite();
         }
@@ -238,30 +288,34 @@ public class SnapshotServiceImpl implements SnapshotService {
             throw new SnapshotException("the snapshot target " + targetRound + " is too old");
         }
 
+        // the snapshots are only locked while they are cloned (which is cheap since the clones share the balances until
+        // they are modified), so the ledger can be updated while we replay or roll back the milestones on the clone
         snapshotProvider.getInitialSnapshot().lockRead();
         snapshotProvider.getLatestSnapshot().lockRead();
 
         Snapshot snapshot;
+        boolean replayFromInitialSnapshot;
         try {
             int distanceFromInitialSnapshot = Math.abs(snapshotProvider.getInitialSnapshot().getIndex() -
                     targetRound.index());
             int distanceFromLatestSnapshot = Math.abs(snapshotProvider.getLatestSnapshot().getIndex() -
                     targetRound.index());
 
-            if (distanceFromInitialSnapshot <= distanceFromLatestSnapshot) {
-                snapshot = snapshotProvider.getInitialSnapshot().clone();
-
-                replayMilestones(snapshot, targetRound.index());
-            } else {
-                snapshot = snapshotProvider.getLatestSnapshot().clone();
-
-                rollBackMilestones(snapshot, targetRound.index() + 1);
-            }
+            replayFromInitialSnapshot = distanceFromInitialSnapshot <= distanceFromLatestSnapshot;
+            snapshot = replayFromInitialSnapshot
+                    ? snapshotProvider.getInitialSnapshot().clone()
+                    : snapshotProvider.getLatestSnapshot().clone();
         } finally {
             snapshotProvider.getInitialSnapshot().unlockRead();
             snapshotProvider.getLatestSnapshot().unlockRead();
         }
 
+        if (replayFromInitialSnapshot) {
+            replayMilestones(snapshot, targetRound.index());
+        } else {
+            rollBackMilestones(snapshot, targetRound.index() + 1);
+        }
+
         snapshot.setSolidEntryPoints(generateSolidEntryPoints(targetRound));
         snapshot.setSeenRounds(generateSeenRounds(milestoneTracker, targetRound));
 
@@ -295,11 +349,16 @@ public class SnapshotServiceImpl implements SnapshotService {
 
         Map<Integer, Hash> seenRounds = new HashMap<>();
         try {
-            RoundViewModel seenRound = targetRound;
-            while ((seenRound = RoundViewModel.findClosestNextRound(tangle, seenRound.index(),
+            // use the merkle roots that were recorded when the rounds were applied and only look up the newer ones
+            int lastSeenRoundIndex = solidEntryPointCandidates.collectSeenRounds(targetRound.index(), seenRounds);
+            progressLogger.progress(seenRounds.size());
+
+            RoundViewModel seenRound;
+            while ((seenRound = RoundViewModel.findClosestNextRound(tangle, lastSeenRoundIndex,
                     milestoneTracker.getCurrentRoundIndex())) != null) {
 
                 seenRounds.put(seenRound.index(), seenRound.getMerkleRoot());
+                lastSeenRoundIndex = seenRound.index();
 
                 progressLogger.progress();
             }
@@ -315,76 +374,149 @@ public class SnapshotServiceImpl implements SnapshotService {
     }
 
     /**
-     * This method reverts the changes caused by the last milestone that was applied to this snapshot.
-     *
-     * It first checks if we didn't arrive at the initial index yet and then reverts the balance changes that were
-     * caused by the last milestone. Then it checks if any milestones were skipped while applying the last milestone and
-     * determines the {@link SnapshotMetaData} that this Snapshot had before and restores it.
-     *
-     * @param tangle Tangle object which acts as a database interface
-     * @return true if the snapshot was rolled back or false otherwise
-     * @throws SnapshotException if anything goes wrong while accessing the database
+     * {@inheritDoc}
+     * <br />
+     * The confirmed transactions are collected with the same traversal that {@link #processNewSolidEntryPoints(Tangle,
+     * SnapshotProvider, RoundViewModel, Map)} uses for the rounds that are not known, so this spreads the work over
+     * the application of the rounds instead of doing it all at once when the local snapshot is taken.<br />
      */
-    private boolean rollbackLastMilestone(Tangle tangle, Snapshot snapshot) throws SnapshotException {
-        if (snapshot.getIndex() == snapshot.getInitialIndex()) {
-            return false;
+    @Override
+    public void updateSolidEntryPointCandidates(RoundViewModel round) {
+        if (!config.getLocalSnapshotsEnabled()) {
+            return;
         }
 
-        snapshot.lockWrite();
-
         try {
-            // revert the last balance changes
-            StateDiffViewModel stateDiffViewModel = StateDiffViewModel.load(tangle, snapshot.getIndex());
-            if (!stateDiffViewModel.isEmpty()) {
-                SnapshotStateDiffImpl snapshotStateDiff = new SnapshotStateDiffImpl(
-                        stateDiffViewModel.getDiff().entrySet().stream().map(
-                                hashLongEntry -> new HashMap.SimpleEntry<>(
-                                        hashLongEntry.getKey(), -1 * hashLongEntry.getValue()
-                                )
-                        ).collect(
-                                Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)
-                        )
+            Set<Hash> confirmedTips = round.getConfirmedTips(tangle, config.getNomineeSecurity());
+            Map<Hash, TransactionViewModel> confirmedTransactions = new HashMap<>();
+            Set<Hash> processedTransactions = new HashSet<>();
+            for (Hash confirmedTip : confirmedTips) {
+                confirmedTransactions.put(confirmedTip, TransactionViewModel.fromHash(tangle, confirmedTip));
+                DAGHelper.get(tangle).traverseApprovees(
+                        confirmedTip,
+                        currentTransaction -> currentTransaction.snapshotIndex() >= round.index(),
+                        currentTransaction -> confirmedTransactions.put(currentTransaction.getHash(),
+                                currentTransaction),
+                        processedTransactions
                 );
+            }
+
+            solidEntryPointCandidates.addRound(round.index(), round.getHashes().isEmpty() ? null :
+                    round.getMerkleRoot(), confirmedTips, confirmedTransactions.values());
+        } catch (Exception e) {
+            log.error("failed to record the solid entry point candidates of round #" + round.index(), e);
+
+            solidEntryPointCandidates.clear();
+        }
+    }
+
+    /**
+     * This method loads the rounds with the given indexes and sums up the balance changes of their state diffs.
+     *
+     * The rounds are split into batches of {@link #REPLAY_BATCH_SIZE} rounds that are loaded and summed up by the
+     * workers of the {@link #replayPool}. To limit the memory usage, only a bounded amount of batches is in flight at
+     * the same time and the results of the finished batches are merged by the calling thread while the workers process
+     * the following ones.
+     *
+     * @param roundIndexes indexes of the rounds that shall be loaded
+     * @param taskName name of the task that is used to report the progress
+     * @return the summed up balance changes, the skipped rounds and the last round that was found
+     * @throws Exception if anything goes wrong while accessing the database
+     */
+    private ReplayedRounds replayRounds(List<Integer> roundIndexes, String taskName) throws Exception {
+        if (roundIndexes.size() <= REPLAY_BATCH_SIZE) {
+            return loadRounds(roundIndexes);
+        }
 
-                if (!snapshotStateDiff.isConsistent()) {
-                    throw new SnapshotException("the StateDiff belonging to milestone #" + snapshot.getIndex() +
-                            " (" + snapshot.getHash() + ") is inconsistent");
-                } else if (!snapshot.patchedState(snapshotStateDiff).isConsistent()) {
-                    throw new SnapshotException("failed to apply patch belonging to milestone #" + snapshot.getIndex() +
-                            " (" + snapshot.getHash() + ")");
+        ProgressLogger progressLogger = new IntervalProgressLogger(taskName, log).start(roundIndexes.size());
+        int maxPendingBatches = 2 * Runtime.getRuntime().availableProcessors();
+        Deque<Future<ReplayedRounds>> pendingBatches = new ArrayDeque<>();
+        ReplayedRounds replayedRounds = new ReplayedRounds();
+        int nextBatchStart = 0;
+        try {
+            while (nextBatchStart < roundIndexes.size() || !pendingBatches.isEmpty()) {
+                while (nextBatchStart < roundIndexes.size() && pendingBatches.size() < maxPendingBatches) {
+                    List<Integer> batch = roundIndexes.subList(nextBatchStart,
+                            Math.min(nextBatchStart + REPLAY_BATCH_SIZE, roundIndexes.size()));
+                    pendingBatches.add(replayPool.submit(() -> loadRounds(batch)));
+                    nextBatchStart += batch.size();
                 }
 
-                snapshot.applyStateDiff(snapshotStateDiff);
+                replayedRounds.add(pendingBatches.poll().get());
+                progressLogger.progress(replayedRounds.roundCount);
             }
+        } catch (ExecutionException | InterruptedException e) {
+            pendingBatches.forEach(pendingBatch -> pendingBatch.cancel(true));
 
-            // jump skipped milestones
-            int currentIndex = snapshot.getIndex() - 1;
-            while (snapshot.removeSkippedMilestone(currentIndex)) {
-                currentIndex--;
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            progressLogger.abort(cause);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
             }
 
-            // check if we arrived at the start
-            if (currentIndex <= snapshot.getInitialIndex()) {
-                snapshot.setIndex(snapshot.getInitialIndex());
-                snapshot.setHash(snapshot.getInitialHash());
-                snapshot.setTimestamp(snapshot.getInitialTimestamp());
+            throw new SnapshotException("failed to load the state diffs of the rounds", cause);
+        }
+
+        progressLogger.finish();
+
+        return replayedRounds;
+    }
+
+    /**
+     * This method loads the rounds with the given indexes and sums up the balance changes of their state diffs in the
+     * calling thread.
+     *
+     * @param roundIndexes indexes of the rounds that shall be loaded
+     * @return the summed up balance changes, the skipped rounds and the last round that was found
+     * @throws Exception if anything goes wrong while accessing the database
+     */
+    private ReplayedRounds loadRounds(List<Integer> roundIndexes) throws Exception {
+        ReplayedRounds replayedRounds = new ReplayedRounds();
+        for (int roundIndex : roundIndexes) {
+            RoundViewModel round = RoundViewModel.get(tangle, roundIndex);
+            if (round != null) {
+                StateDiffViewModel stateDiffViewModel = StateDiffViewModel.load(tangle, roundIndex);
+                if (!stateDiffViewModel.isEmpty()) {
+                    stateDiffViewModel.getDiff().forEach((address, change) ->
+                            replayedRounds.balanceChanges.merge(address, change, Long::sum));
+                }
 
-                return true;
+                replayedRounds.lastRound = round;
+            } else {
+                replayedRounds.skippedRounds.add(roundIndex);
             }
+            replayedRounds.roundCount++;
+        }
 
-            // otherwise set metadata of the previous milestone
-            RoundViewModel currentMilestone = RoundViewModel.get(tangle, currentIndex);
-            snapshot.setIndex(currentMilestone.index());
+        return replayedRounds;
+    }
 
-            //TODO: see above
-            //snapshot.setHash(currentMilestone.getHash());
-            //snapshot.setTimestamp(TransactionViewModel.fromHash(tangle, currentMilestone.getHash()).getTimestamp());
+    /**
+     * Result of loading a range of rounds, that can be merged with the results of the other ranges.
+     */
+    private static class ReplayedRounds {
+        private Map<Hash, Long> balanceChanges = new HashMap<>();
 
-            return true;
-        } catch (Exception e) {
-            throw new SnapshotException("failed to rollback last milestone", e);
-        } finally {
-            snapshot.unlockWrite();
+        private final Set<Integer> skippedRounds = new HashSet<>();
+
+        private RoundViewModel lastRound = null;
+
+        private int roundCount = 0;
+
+        private void add(ReplayedRounds other) {
+            // merge the smaller map into the larger one
+            Map<Hash, Long> otherBalanceChanges = other.balanceChanges;
+            if (otherBalanceChanges.size() > balanceChanges.size()) {
+                otherBalanceChanges = balanceChanges;
+                balanceChanges = other.balanceChanges;
+            }
+            otherBalanceChanges.forEach((address, change) -> balanceChanges.merge(address, change, Long::sum));
+
+            skippedRounds.addAll(other.skippedRounds);
+            if (lastRound == null || (other.lastRound != null && other.lastRound.index() > lastRound.index())) {
+                lastRound = other.lastRound;
+            }
+            roundCount += other.roundCount;
         }
     }
 
@@ -649,6 +781,10 @@ public class SnapshotServiceImpl implements SnapshotService {
      * Every transaction is checked for being a solid entry point and added to the passed in map (if it was found to be
      * one).
      *
+     * For the rounds that were recorded by {@link #updateSolidEntryPointCandidates(RoundViewModel)} we use the
+     * recorded transactions instead of traversing the tangle, and transactions that are known to have an approver that
+     * was confirmed after the target milestone are accepted without checking their approvers.
+     *
      * @param tangle Tangle object which acts as a database interface
      * @param snapshotProvider data provider for the {@link Snapshot}s that are relevant for the node
      * @param targetMilestone milestone that is used to generate the solid entry points
@@ -670,17 +806,32 @@ public class SnapshotServiceImpl implements SnapshotService {
                     progressLogger.getCurrentStep() < progressLogger.getStepCount()) {
 
                 RoundViewModel currentMilestone = nextMilestone;
-                for (Hash confirmedTip : currentMilestone.getConfirmedTips(tangle, config.getNomineeSecurity())) {
-                    DAGHelper.get(tangle).traverseApprovees(
-                            confirmedTip,
-                            currentTransaction -> currentTransaction.snapshotIndex() >= currentMilestone.index(),
-                            currentTransaction -> {
-                                if (isSolidEntryPoint(tangle, currentTransaction.getHash(), targetMilestone)) {
-                                    solidEntryPoints.put(currentTransaction.getHash(), targetMilestone.index());
+                Set<Hash> confirmedTips = solidEntryPointCandidates.getConfirmedTips(currentMilestone.index());
+                Set<Hash> candidates = solidEntryPointCandidates.getConfirmedTransactions(currentMilestone.index());
+                if (confirmedTips != null && candidates != null) {
+                    for (Hash candidate : candidates) {
+                        if (!confirmedTips.contains(candidate) && (solidEntryPointCandidates.isApprovedAfter(
+                                candidate, targetMilestone.index()) || isSolidEntryPoint(tangle, candidate,
+                                targetMilestone))) {
+
+                            solidEntryPoints.put(candidate, targetMilestone.index());
+                        }
+                    }
+                    confirmedTips.forEach(confirmedTip -> solidEntryPoints.put(confirmedTip,
+                            targetMilestone.index()));
+                } else {
+                    for (Hash confirmedTip : currentMilestone.getConfirmedTips(tangle, config.getNomineeSecurity())) {
+                        DAGHelper.get(tangle).traverseApprovees(
+                                confirmedTip,
+                                currentTransaction -> currentTransaction.snapshotIndex() >= currentMilestone.index(),
+                                currentTransaction -> {
+                                    if (isSolidEntryPoint(tangle, currentTransaction.getHash(), targetMilestone)) {
+                                        solidEntryPoints.put(currentTransaction.getHash(), targetMilestone.index());
+                                    }
                                 }
-                            }
-                    );
-                    solidEntryPoints.put(confirmedTip, targetMilestone.index());
+                        );
+                        solidEntryPoints.put(confirmedTip, targetMilestone.index());
+                    }
                 }
 
                 nextMilestone = RoundViewModel.findClosestPrevRound(tangle, currentMilestone.index(),
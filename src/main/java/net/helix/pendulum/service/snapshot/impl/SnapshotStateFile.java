@@ -0,0 +1,341 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.SnapshotException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Binary representation of the balances of a {@link net.helix.pendulum.service.snapshot.SnapshotState} on the disk.
+ *
+ * The file starts with a header (magic number, format version, amount of entries and the CRC32 checksum of the
+ * entries) that is followed by fixed-size entries of an address and its balance, sorted by the unsigned bytes of the
+ * address. The file is memory-mapped when it is opened, so opening it only requires the checksum to be verified and
+ * single balances can be looked up by binary search without reading the whole file.
+ *
+ * Since the entries are sorted, a new file can be written from an existing one by only encoding the changed balances
+ * and copying the unchanged runs of entries in between (see {@link #write(Path, SnapshotStateFile, Map)}).
+ */
+public class SnapshotStateFile {
+    /**
+     * Magic number that distinguishes the binary format from the text format ("HXSS").
+     */
+    private static final int MAGIC = 0x48585353;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static final int ENTRY_SIZE = Hash.SIZE_IN_BYTES + Long.BYTES;
+
+    /**
+     * Size of the buffer that is used to write the entries.
+     */
+    private static final int WRITE_BUFFER_SIZE = 1024 * ENTRY_SIZE;
+
+    private static final Comparator<Hash> ADDRESS_ORDER = (address1, address2) -> compareAddresses(address1.bytes(),
+            address2.bytes(), 0);
+
+    private final Path path;
+    private final ByteBuffer entries;
+    private final int size;
+
+    private SnapshotStateFile(Path path, ByteBuffer entries, int size) {
+        this.path = path;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Checks if a file is written in the binary format (and not in the text format of the builtin snapshot).
+     *
+     * @param path location of the snapshot state file
+     * @return true if the file starts with the magic number of the binary format
+     * @throws IOException if the file can't be read
+     */
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // read until the buffer is full or the file ends
+            }
+
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot state file and verifies its header and checksum.
+     *
+     * @param path location of the snapshot state file
+     * @return the opened file
+     * @throws SnapshotException if the file can't be read or is corrupted
+     */
+    public static SnapshotStateFile open(Path path) throws SnapshotException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new SnapshotException("the snapshot state file at " + path + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new SnapshotException("the snapshot state file at " + path + " is not a binary state file");
+            }
+            if (buffer.getInt(Integer.BYTES) != VERSION) {
+                throw new SnapshotException("the snapshot state file at " + path + " has an unsupported version");
+            }
+            int size = buffer.getInt(2 * Integer.BYTES);
+            if (size < 0 || channel.size() != HEADER_SIZE + (long) size * ENTRY_SIZE) {
+                throw new SnapshotException("the snapshot state file at " + path + " is truncated");
+            }
+
+            buffer.position(HEADER_SIZE);
+            ByteBuffer entries = buffer.slice();
+            CRC32 checksum = new CRC32();
+            checksum.update(entries.duplicate());
+            if (checksum.getValue() != buffer.getLong(3 * Integer.BYTES)) {
+                throw new SnapshotException("the snapshot state file at " + path + " has an invalid checksum");
+            }
+
+            return new SnapshotStateFile(path, entries, size);
+        } catch (IOException e) {
+            throw new SnapshotException("failed to open the snapshot state file at " + path, e);
+        }
+    }
+
+    /**
+     * Writes the balances to a new snapshot state file. Addresses with a balance of 0 are omitted.
+     *
+     * @param path location of the file that shall be written
+     * @param balances the balances of the addresses
+     * @throws SnapshotException if the file can't be written
+     */
+    public static void write(Path path, Map<Hash, Long> balances) throws SnapshotException {
+        List<Hash> addresses = new ArrayList<>(balances.keySet());
+        addresses.sort(ADDRESS_ORDER);
+
+        try (Writer writer = new Writer(path)) {
+            for (Hash address : addresses) {
+                writer.writeEntry(address, balances.get(address));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new SnapshotException("failed to write the snapshot state file at " + path, e);
+        }
+    }
+
+    /**
+     * Writes a new snapshot state file that contains the balances of an existing file with the given changes applied.
+     *
+     * Only the changed balances are encoded, the unchanged entries of the existing file are copied in bulk.
+     *
+     * @param path location of the file that shall be written
+     * @param base the existing file
+     * @param changes the new balances of the changed addresses (0 if the address shall be removed)
+     * @throws SnapshotException if the file can't be written
+     */
+    public static void write(Path path, SnapshotStateFile base, Map<Hash, Long> changes) throws SnapshotException {
+        List<Hash> changedAddresses = new ArrayList<>(changes.keySet());
+        changedAddresses.sort(ADDRESS_ORDER);
+
+        try (Writer writer = new Writer(path)) {
+            int index = 0;
+            for (Hash address : changedAddresses) {
+                int position = base.search(address.bytes());
+                int end = position >= 0 ? position : -position - 1;
+                writer.copyEntries(base.entries, index, end);
+                writer.writeEntry(address, changes.get(address));
+                index = position >= 0 ? position + 1 : end;
+            }
+            writer.copyEntries(base.entries, index, base.size);
+            writer.finish();
+        } catch (IOException e) {
+            throw new SnapshotException("failed to write the snapshot state file at " + path, e);
+        }
+    }
+
+    /**
+     * @return the location of the file
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the amount of addresses in the file
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks up the balance of an address by binary search.
+     *
+     * @param address the address
+     * @return the balance of the address or null if the address has no balance
+     */
+    public Long getBalance(Hash address) {
+        int index = search(address.bytes());
+
+        return index < 0 ? null : entries.getLong(index * ENTRY_SIZE + Hash.SIZE_IN_BYTES);
+    }
+
+    /**
+     * Passes all addresses and their balances to the consumer in the order of the file.
+     *
+     * @param consumer the consumer of the entries
+     */
+    public void forEach(BiConsumer<Hash, Long> consumer) {
+        for (int index = 0; index < size; index++) {
+            consumer.accept(getAddress(index), entries.getLong(index * ENTRY_SIZE + Hash.SIZE_IN_BYTES));
+        }
+    }
+
+    /**
+     * @return a new map with the balances of all addresses
+     */
+    public Map<Hash, Long> toMap() {
+        Map<Hash, Long> balances = new HashMap<>(size * 4 / 3 + 1);
+        forEach(balances::put);
+
+        return balances;
+    }
+
+    /**
+     * @return a new {@link BalanceMap} with the balances of all addresses
+     */
+    public BalanceMap toBalanceMap() {
+        BalanceMap balances = new BalanceMap(size);
+        forEach(balances::put);
+
+        return balances;
+    }
+
+    private Hash getAddress(int index) {
+        byte[] address = new byte[Hash.SIZE_IN_BYTES];
+        ByteBuffer entry = entries.duplicate();
+        entry.position(index * ENTRY_SIZE);
+        entry.get(address);
+
+        return HashFactory.ADDRESS.create(address);
+    }
+
+    /**
+     * @return the index of the entry of the address or (-(insertion point) - 1) if the file doesn't contain it
+     */
+    private int search(byte[] address) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareAddresses(address, entries, middle * ENTRY_SIZE);
+            if (comparison > 0) {
+                low = middle + 1;
+            } else if (comparison < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    private static int compareAddresses(byte[] address, ByteBuffer buffer, int offset) {
+        for (int i = 0; i < Hash.SIZE_IN_BYTES; i++) {
+            int comparison = Integer.compare(address[i] & 0xFF, buffer.get(offset + i) & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int compareAddresses(byte[] address1, byte[] address2, int offset) {
+        return compareAddresses(address1, ByteBuffer.wrap(address2), offset);
+    }
+
+    /**
+     * Writes the entries through a buffer and the header with the checksum once all entries were written.
+     */
+    private static class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        private final CRC32 checksum = new CRC32();
+        private int size = 0;
+
+        private Writer(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            channel.position(HEADER_SIZE);
+        }
+
+        private void writeEntry(Hash address, long balance) throws IOException {
+            if (balance == 0) {
+                return;
+            }
+            if (buffer.remaining() < ENTRY_SIZE) {
+                flush();
+            }
+            buffer.put(address.bytes(), 0, Hash.SIZE_IN_BYTES);
+            buffer.putLong(balance);
+            size++;
+        }
+
+        private void copyEntries(ByteBuffer entries, int from, int to) throws IOException {
+            if (from >= to) {
+                return;
+            }
+            flush();
+            ByteBuffer run = entries.duplicate();
+            run.position(from * ENTRY_SIZE);
+            run.limit(to * ENTRY_SIZE);
+            checksum.update(run.duplicate());
+            while (run.hasRemaining()) {
+                channel.write(run);
+            }
+            size += to - from;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void finish() throws IOException {
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(size).putLong(checksum.getValue());
+            header.flip();
+            long position = 0;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+            channel.force(true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
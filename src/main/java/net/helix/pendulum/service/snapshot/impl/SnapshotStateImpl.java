@@ -11,7 +11,6 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Implements the basic contract of the {@link SnapshotState} interface.
@@ -25,15 +24,18 @@ public class SnapshotStateImpl implements SnapshotState {
     /**
      * Holds the balances of the addresses.
      */
-    private final Map<Hash, Long> balances;
+    private BalanceMap balances;
 
     /**
      * Creates a deep clone of the passed in {@link SnapshotState}.
      *
+     * The balances of a {@link SnapshotStateImpl} are copied on write, so the clone only copies them once either of
+     * the states is modified.
+     *
      * @param snapshotState the object that shall be cloned
      */
     public SnapshotStateImpl(SnapshotState snapshotState) {
-        this(snapshotState.getBalances());
+        this(copyBalances(snapshotState));
     }
 
     /**
@@ -45,6 +47,15 @@ public class SnapshotStateImpl implements SnapshotState {
      * @param balances map with the addresses associated to their balance
      */
     protected SnapshotStateImpl(Map<Hash, Long> balances) {
+        this(new BalanceMap(balances));
+    }
+
+    /**
+     * Creates a {@link SnapshotState} that uses the passed in {@link BalanceMap} to store its balances.
+     *
+     * @param balances map with the addresses associated to their balance
+     */
+    SnapshotStateImpl(BalanceMap balances) {
         this.balances = balances;
     }
 
@@ -61,7 +72,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public Map<Hash, Long> getBalances() {
-        return new HashMap<>(balances);
+        return balances.toMap();
     }
 
     /**
@@ -77,8 +88,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public boolean hasCorrectSupply() {
-        long supply = balances.values()
-                .stream()
+        long supply = balances.balances()
                 .reduce(Math::addExact)
                 .orElse(Long.MAX_VALUE);
 
@@ -90,8 +100,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public void update(SnapshotState newState) {
-        balances.clear();
-        balances.putAll(newState.getBalances());
+        balances = copyBalances(newState);
     }
 
     /**
@@ -104,11 +113,7 @@ public class SnapshotStateImpl implements SnapshotState {
         }
 
         diff.getBalanceChanges().forEach((addressHash, balance) -> {
-            if (balances.computeIfPresent(addressHash, (hash, aLong) -> balance + aLong) == null) {
-                balances.putIfAbsent(addressHash, balance);
-            }
-
-            if (balances.get(addressHash) == 0) {
+            if (balances.add(addressHash, balance) == 0) {
                 balances.remove(addressHash);
             }
         });
@@ -119,12 +124,10 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public SnapshotState patchedState(SnapshotStateDiff snapshotStateDiff) {
-        Map<Hash, Long> patchedBalances = snapshotStateDiff.getBalanceChanges()
-                .entrySet()
-                .stream()
-                .map(hashLongEntry -> new HashMap.SimpleEntry<>(hashLongEntry.getKey(),
-                        balances.getOrDefault(hashLongEntry.getKey(), 0L) + hashLongEntry.getValue()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<Hash, Long> balanceChanges = snapshotStateDiff.getBalanceChanges();
+        BalanceMap patchedBalances = new BalanceMap(balanceChanges.size());
+        balanceChanges.forEach((address, change) -> patchedBalances.put(address,
+                balances.getOrDefault(address, 0L) + change));
 
         return new SnapshotStateImpl(patchedBalances);
     }
@@ -147,6 +150,20 @@ public class SnapshotStateImpl implements SnapshotState {
         return Objects.equals(balances, ((SnapshotStateImpl) obj).balances);
     }
 
+    /**
+     * Returns the balances of a {@link SnapshotState} as a map that can be used by a new state.
+     *
+     * @param snapshotState the state whose balances shall be copied
+     * @return a copy-on-write copy of the balances of a {@link SnapshotStateImpl} or a new map otherwise
+     */
+    private static BalanceMap copyBalances(SnapshotState snapshotState) {
+        if (snapshotState instanceof SnapshotStateImpl) {
+            return ((SnapshotStateImpl) snapshotState).balances.copy();
+        }
+
+        return new BalanceMap(snapshotState.getBalances());
+    }
+
     /**
      * Returns all addresses that have a negative balance.
      *
@@ -158,6 +175,10 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     private Map<Hash, Long> getInconsistentAddresses() {
         HashMap<Hash, Long> result = new HashMap<>();
+        if (balances.balances().allMatch(value -> value >= 0)) {
+            return result;
+        }
+
         balances.forEach((key, value) -> {
             if (value < 0) {
                 log.info("negative value for address " + key + ": " + value);
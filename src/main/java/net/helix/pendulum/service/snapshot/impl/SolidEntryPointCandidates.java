@@ -0,0 +1,193 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+
+import java.util.*;
+
+/**
+ * Keeps track of the transactions that were confirmed by the most recently applied rounds, so the solid entry points
+ * and the seen rounds of a local snapshot can be determined without walking the tangle again.
+ *
+ * For every round it stores the confirmed tips, the other confirmed transactions (the candidates for solid entry
+ * points) and the merkle root of the round. In addition it remembers for every candidate the latest round that
+ * confirmed one of its direct approvers, which allows us to recognize most solid entry points without loading their
+ * approvers. This information is only used as a shortcut: a candidate without a recorded approving round still gets
+ * checked against the database.
+ *
+ * Rounds have to be added in order. If a round is added that doesn't directly follow the last added round (because
+ * rounds were reset or the ledger was restored) the information about the affected rounds is discarded. Only the last
+ * {@code maxRounds} rounds are kept. All methods are thread-safe.
+ */
+public class SolidEntryPointCandidates {
+    /**
+     * The amount of rounds that are kept.
+     */
+    private final int maxRounds;
+
+    private final NavigableMap<Integer, Round> rounds = new TreeMap<>();
+
+    /**
+     * Maps the candidates to the round that confirmed them.
+     */
+    private final Map<Hash, Integer> candidateRounds = new HashMap<>();
+
+    /**
+     * Maps the candidates to the latest round that confirmed one of their direct approvers.
+     */
+    private final Map<Hash, Integer> latestApprovingRounds = new HashMap<>();
+
+    /**
+     * Creates an empty instance.
+     *
+     * @param maxRounds the amount of rounds that are kept
+     */
+    public SolidEntryPointCandidates(int maxRounds) {
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Adds the transactions that were confirmed by a round.
+     *
+     * @param roundIndex index of the round
+     * @param merkleRoot merkle root of the milestones of the round or null if the round has no milestones
+     * @param confirmedTips tips that were confirmed by the round
+     * @param confirmedTransactions transactions that were confirmed by the round (including the confirmed tips)
+     */
+    public synchronized void addRound(int roundIndex, Hash merkleRoot, Set<Hash> confirmedTips,
+                                      Collection<TransactionViewModel> confirmedTransactions) {
+
+        if (!rounds.isEmpty()) {
+            if (roundIndex <= rounds.lastKey()) {
+                removeRoundsFrom(roundIndex);
+            } else if (roundIndex > rounds.lastKey() + 1) {
+                clear();
+            }
+        }
+
+        Set<Hash> candidates = new HashSet<>();
+        for (TransactionViewModel transaction : confirmedTransactions) {
+            candidates.add(transaction.getHash());
+            candidateRounds.putIfAbsent(transaction.getHash(), roundIndex);
+        }
+        for (TransactionViewModel transaction : confirmedTransactions) {
+            recordApprovingRound(transaction.getTrunkTransactionHash(), roundIndex);
+            recordApprovingRound(transaction.getBranchTransactionHash(), roundIndex);
+        }
+        rounds.put(roundIndex, new Round(merkleRoot, new HashSet<>(confirmedTips), candidates));
+
+        while (rounds.size() > maxRounds) {
+            removeRound(rounds.firstKey());
+        }
+    }
+
+    /**
+     * @param roundIndex index of the round
+     * @return true if the transactions that were confirmed by the round are known
+     */
+    public synchronized boolean containsRound(int roundIndex) {
+        return rounds.containsKey(roundIndex);
+    }
+
+    /**
+     * @param roundIndex index of the round
+     * @return the tips that were confirmed by the round or null if the round is not known
+     */
+    public synchronized Set<Hash> getConfirmedTips(int roundIndex) {
+        Round round = rounds.get(roundIndex);
+
+        return round == null ? null : round.confirmedTips;
+    }
+
+    /**
+     * @param roundIndex index of the round
+     * @return the transactions that were confirmed by the round or null if the round is not known
+     */
+    public synchronized Set<Hash> getConfirmedTransactions(int roundIndex) {
+        Round round = rounds.get(roundIndex);
+
+        return round == null ? null : round.confirmedTransactions;
+    }
+
+    /**
+     * Checks if one of the direct approvers of a transaction is known to be confirmed by a round after the given
+     * one.
+     *
+     * @param transactionHash hash of the transaction
+     * @param roundIndex index of the round
+     * @return true if an approver was confirmed after the round and false if this is not known
+     */
+    public synchronized boolean isApprovedAfter(Hash transactionHash, int roundIndex) {
+        Integer latestApprovingRound = latestApprovingRounds.get(transactionHash);
+
+        return latestApprovingRound != null && latestApprovingRound > roundIndex;
+    }
+
+    /**
+     * Collects the merkle roots of the known rounds with milestones that follow the given round.
+     *
+     * The rounds are only collected if all rounds following the given round are known.
+     *
+     * @param roundIndex index of the round after which the rounds are collected
+     * @param seenRounds map that is used to collect the merkle roots of the rounds
+     * @return the index of the last known round or {@code roundIndex} if the rounds following it are not known
+     */
+    public synchronized int collectSeenRounds(int roundIndex, Map<Integer, Hash> seenRounds) {
+        if (rounds.isEmpty() || rounds.firstKey() > roundIndex + 1 || rounds.lastKey() <= roundIndex) {
+            return roundIndex;
+        }
+
+        rounds.tailMap(roundIndex, false).forEach((index, round) -> {
+            if (round.merkleRoot != null) {
+                seenRounds.put(index, round.merkleRoot);
+            }
+        });
+
+        return rounds.lastKey();
+    }
+
+    /**
+     * Removes all rounds.
+     */
+    public synchronized void clear() {
+        rounds.clear();
+        candidateRounds.clear();
+        latestApprovingRounds.clear();
+    }
+
+    private void recordApprovingRound(Hash approveeHash, int roundIndex) {
+        Integer approveeRound = candidateRounds.get(approveeHash);
+        if (approveeRound != null && approveeRound < roundIndex) {
+            latestApprovingRounds.merge(approveeHash, roundIndex, Math::max);
+        }
+    }
+
+    private void removeRoundsFrom(int roundIndex) {
+        while (!rounds.isEmpty() && rounds.lastKey() >= roundIndex) {
+            removeRound(rounds.lastKey());
+        }
+        latestApprovingRounds.values().removeIf(approvingRound -> approvingRound >= roundIndex);
+    }
+
+    private void removeRound(int roundIndex) {
+        for (Hash candidate : rounds.remove(roundIndex).confirmedTransactions) {
+            if (candidateRounds.remove(candidate, roundIndex)) {
+                latestApprovingRounds.remove(candidate);
+            }
+        }
+    }
+
+    private static class Round {
+        private final Hash merkleRoot;
+
+        private final Set<Hash> confirmedTips;
+
+        private final Set<Hash> confirmedTransactions;
+
+        private Round(Hash merkleRoot, Set<Hash> confirmedTips, Set<Hash> confirmedTransactions) {
+            this.merkleRoot = merkleRoot;
+            this.confirmedTips = Collections.unmodifiableSet(confirmedTips);
+            this.confirmedTransactions = Collections.unmodifiableSet(confirmedTransactions);
+        }
+    }
+}
@@ -26,4 +26,9 @@ public interface TipSelector {
      * @throws Exception If DB fails to retrieve transactions
      */
     List<Hash> getTransactionsToApprove(int depth, Optional<Hash> reference) throws Exception;
+
+    /**
+     * Frees the resources of the tip selector, it can't be used afterwards.
+     */
+    void shutdown();
 }
@@ -0,0 +1,82 @@
+package net.helix.pendulum.service.tipselection.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashId;
+import net.helix.pendulum.service.tipselection.RatingCalculator;
+import net.helix.pendulum.utils.collections.interfaces.UnIterableMap;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Implementation of {@link RatingCalculator} that shares the ratings of another calculator between the tip selections
+ * that use the same entry point within a short time. <br>
+ *
+ * The rating of an entry point is calculated by the first caller that requests it, all callers that request it while
+ * it is being calculated wait for the same result. The result is reused for {@code ttl} milliseconds, so transactions
+ * that arrive in the meantime are not rated (and can't be selected as tips) until the rating is calculated again.
+ * The returned maps are shared and must not be modified by the callers.
+ */
+public class CachingRatingCalculator implements RatingCalculator {
+
+    private final RatingCalculator delegate;
+    private final long ttl;
+
+    private final Map<Hash, CachedRating> cachedRatings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for the Caching Rating Calculator
+     * @param delegate calculates the ratings that are cached
+     * @param ttl the time in milliseconds a rating is reused
+     */
+    public CachingRatingCalculator(RatingCalculator delegate, long ttl) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public UnIterableMap<HashId, Integer> calculate(Hash entryPoint) throws Exception {
+        long now = System.currentTimeMillis();
+        cachedRatings.values().removeIf(cachedRating -> cachedRating.isExpired(now));
+
+        CachedRating newRating = new CachedRating(now + ttl);
+        CachedRating cachedRating = cachedRatings.merge(entryPoint, newRating,
+                (oldRating, rating) -> oldRating.isExpired(now) ? rating : oldRating);
+        if (cachedRating == newRating) {
+            try {
+                newRating.rating.complete(delegate.calculate(entryPoint));
+            } catch (Throwable e) {
+                // failed ratings are not cached, the waiting callers receive the same error
+                cachedRatings.remove(entryPoint, newRating);
+                newRating.rating.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return cachedRating.rating.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class CachedRating {
+        private final long expirationTime;
+        private final CompletableFuture<UnIterableMap<HashId, Integer>> rating = new CompletableFuture<>();
+
+        private CachedRating(long expirationTime) {
+            this.expirationTime = expirationTime;
+        }
+
+        private boolean isExpired(long time) {
+            return time >= expirationTime;
+        }
+    }
+}
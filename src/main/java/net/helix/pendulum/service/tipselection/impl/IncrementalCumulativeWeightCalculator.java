@@ -0,0 +1,280 @@
+package net.helix.pendulum.service.tipselection.impl;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashId;
+import net.helix.pendulum.model.HashPrefix;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.tipselection.RatingCalculator;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.utils.collections.impl.TransformingMap;
+import net.helix.pendulum.utils.collections.interfaces.UnIterableMap;
+import net.helix.pendulum.utils.thread.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link RatingCalculator} that maintains the cumulative weights of the recently solidified
+ * transactions incrementally, instead of recalculating them for the whole subtangle of the entry point on every
+ * request. <br>
+ *
+ * The {@link net.helix.pendulum.TransactionValidator} reports every transaction that becomes solid to
+ * {@link #onSolidTransaction(TransactionViewModel)}. A dedicated thread adds it to the tracked transactions and
+ * increments the weight of every tracked transaction in its past cone once. Since the cumulative weight of a
+ * transaction is never smaller than the one of its approvers, the traversal stops at transactions that already reached
+ * the same upper bound that {@link CumulativeWeightCalculator} uses, so the cost per transaction only depends on the
+ * amount of recent transactions and not on the size of the subtangle.<br>
+ *
+ * Transactions are reported before their solid flag is persisted and the transactions that become solid together are
+ * reported ancestors first, so a transaction is always queued before its approvers. Queued parents of a transaction are
+ * added before it, so its weight is counted for every tracked transaction in its past cone. If more than
+ * {@code windowSize} transactions are tracked, the oldest ones are forgotten. Ratings for entry points that are not tracked (they were solidified before
+ * the calculator was started or were already forgotten) are calculated by the {@link CumulativeWeightCalculator}.
+ */
+public class IncrementalCumulativeWeightCalculator implements RatingCalculator {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalCumulativeWeightCalculator.class);
+
+    /**
+     * Upper bound of the cumulative weight (see {@link CumulativeWeightCalculator}).
+     */
+    private static final int MAX_WEIGHT = 5001;
+
+    private static final long QUEUE_POLL_TIMEOUT = 500L;
+
+    private final SnapshotProvider snapshotProvider;
+    private final RatingCalculator fallbackCalculator;
+    private final int windowSize;
+
+    private final Map<Hash, Rating> ratings = new ConcurrentHashMap<>();
+    private final Map<Hash, TransactionViewModel> pendingTransactions = new ConcurrentHashMap<>();
+    private final BlockingQueue<Hash> queue = new LinkedBlockingQueue<>();
+
+    /**
+     * The tracked transactions in the order they were added (only accessed by the update thread).
+     */
+    private final Deque<Hash> trackedHashes = new ArrayDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running = false;
+    private Thread updateThread;
+
+    /**
+     * Constructor for the Incremental Cumulative Weight Calculator
+     * @param tangle Tangle object which acts as a database interface
+     * @param snapshotProvider acceses ledger's snapshots
+     * @param windowSize the maximum amount of transactions whose weights are tracked
+     */
+    public IncrementalCumulativeWeightCalculator(Tangle tangle, SnapshotProvider snapshotProvider, int windowSize) {
+        this(snapshotProvider, new CumulativeWeightCalculator(tangle, snapshotProvider), windowSize);
+    }
+
+    /**
+     * Constructor for the Incremental Cumulative Weight Calculator
+     * @param snapshotProvider acceses ledger's snapshots
+     * @param fallbackCalculator calculates the ratings for entry points that are not tracked
+     * @param windowSize the maximum amount of transactions whose weights are tracked
+     */
+    public IncrementalCumulativeWeightCalculator(SnapshotProvider snapshotProvider,
+                                                 RatingCalculator fallbackCalculator, int windowSize) {
+        this.snapshotProvider = snapshotProvider;
+        this.fallbackCalculator = fallbackCalculator;
+        this.windowSize = windowSize;
+    }
+
+    public void init() {
+        running = true;
+        updateThread = ThreadUtils.spawnThread(this::updateThread, "Cumulative Weight Updater");
+    }
+
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (updateThread != null) {
+            updateThread.join();
+        }
+    }
+
+    /**
+     * Queues a transaction that became solid for the weight update.
+     *
+     * It has to be called before the solid flag of the transaction is persisted, so the transaction is known to the
+     * calculator before any of its approvers can become solid.
+     *
+     * @param transaction the transaction that became solid
+     */
+    public void onSolidTransaction(TransactionViewModel transaction) {
+        Hash hash = transaction.getHash();
+        if (!ratings.containsKey(hash) && pendingTransactions.putIfAbsent(hash, transaction) == null) {
+            queue.offer(hash);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * If the entry point is tracked, the returned map contains the current weights of the tracked transactions in
+     * the future cone of the entry point. It is collected by following the tracked approvers, so its cost only
+     * depends on the size of the future cone. Transactions that were added after this call are not part of it.
+     */
+    @Override
+    public UnIterableMap<HashId, Integer> calculate(Hash entryPoint) throws Exception {
+        if (!ratings.containsKey(entryPoint)) {
+            log.debug("Entry point {} is not tracked, calculating cw from scratch", entryPoint);
+
+            return fallbackCalculator.calculate(entryPoint);
+        }
+
+        long toSequence = sequence.get();
+        UnIterableMap<HashId, Integer> futureCone = new TransformingMap<>(HashPrefix::createPrefix, null);
+        Deque<Hash> hashesToVisit = new ArrayDeque<>(Collections.singleton(entryPoint));
+        Hash hash;
+        while ((hash = hashesToVisit.poll()) != null) {
+            Rating rating = ratings.get(hash);
+            if (rating == null || rating.sequence > toSequence || futureCone.containsKey(hash)) {
+                continue;
+            }
+            futureCone.put(hash, rating.weight);
+            hashesToVisit.addAll(rating.approvers);
+        }
+
+        return futureCone;
+    }
+
+    /**
+     * @return the amount of transactions whose weights are tracked
+     */
+    public int getTrackedTransactionCount() {
+        return ratings.size();
+    }
+
+    private void updateThread() {
+        while (running) {
+            try {
+                Hash hash = queue.poll(QUEUE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (hash != null) {
+                    processTransaction(hash);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Error while updating cumulative weights", e);
+            }
+        }
+    }
+
+    //Package private for testing
+    void processQueuedTransactions() {
+        Hash hash;
+        while ((hash = queue.poll()) != null) {
+            processTransaction(hash);
+        }
+    }
+
+    /**
+     * Adds the transaction (and its queued parents first) to the tracked transactions.
+     */
+    private void processTransaction(Hash hash) {
+        Deque<TransactionViewModel> stack = new ArrayDeque<>();
+        TransactionViewModel transaction = pendingTransactions.remove(hash);
+        if (transaction != null) {
+            stack.push(transaction);
+        }
+        while (!stack.isEmpty()) {
+            TransactionViewModel current = stack.peek();
+            TransactionViewModel trunk = pendingTransactions.remove(current.getTrunkTransactionHash());
+            if (trunk != null) {
+                stack.push(trunk);
+                continue;
+            }
+            TransactionViewModel branch = pendingTransactions.remove(current.getBranchTransactionHash());
+            if (branch != null) {
+                stack.push(branch);
+                continue;
+            }
+            addTransaction(stack.pop());
+        }
+    }
+
+    private void addTransaction(TransactionViewModel transaction) {
+        Hash hash = transaction.getHash();
+        //if not genesis (the tx that confirms itself)
+        if (ratings.containsKey(hash) || snapshotProvider.getInitialSnapshot().hasSolidEntryPoint(hash)) {
+            return;
+        }
+
+        Hash trunk = transaction.getTrunkTransactionHash();
+        Hash branch = transaction.getBranchTransactionHash();
+        ratings.put(hash, new Rating(sequence.incrementAndGet(), trunk, branch));
+        trackedHashes.addLast(hash);
+        addApprover(trunk, hash);
+        if (!branch.equals(trunk)) {
+            addApprover(branch, hash);
+        }
+        updatePastCone(transaction);
+
+        while (trackedHashes.size() > windowSize) {
+            ratings.remove(trackedHashes.pollFirst());
+        }
+    }
+
+    private void addApprover(Hash parent, Hash approver) {
+        Rating rating = ratings.get(parent);
+        if (rating != null) {
+            rating.approvers.add(approver);
+        }
+    }
+
+    /**
+     * Increments the weight of every tracked transaction that is referenced by the new transaction.
+     */
+    private void updatePastCone(TransactionViewModel transaction) {
+        Set<Hash> visitedHashes = new HashSet<>();
+        Deque<Hash> hashesToVisit = new ArrayDeque<>();
+        hashesToVisit.add(transaction.getTrunkTransactionHash());
+        hashesToVisit.add(transaction.getBranchTransactionHash());
+
+        Hash hash;
+        while ((hash = hashesToVisit.poll()) != null) {
+            if (!visitedHashes.add(hash)) {
+                continue;
+            }
+            Rating rating = ratings.get(hash);
+            // the weights of the ancestors of a transaction with the maximum weight are maximal as well
+            if (rating == null || rating.weight >= MAX_WEIGHT) {
+                continue;
+            }
+            rating.weight++;
+            hashesToVisit.add(rating.trunk);
+            hashesToVisit.add(rating.branch);
+        }
+    }
+
+    private static class Rating {
+        private final long sequence;
+        private final Hash trunk;
+        private final Hash branch;
+        /**
+         * The tracked direct approvers (forgotten approvers are not removed).
+         */
+        private final Collection<Hash> approvers = new ConcurrentLinkedQueue<>();
+        /**
+         * Only modified by the update thread.
+         */
+        private volatile int weight = 1;
+
+        private Rating(long sequence, Hash trunk, Hash branch) {
+            this.sequence = sequence;
+            this.trunk = trunk;
+            this.branch = branch;
+        }
+    }
+}
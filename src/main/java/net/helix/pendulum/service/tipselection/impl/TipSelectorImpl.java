@@ -5,6 +5,7 @@ import net.helix.pendulum.controllers.RoundViewModel;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashId;
 import net.helix.pendulum.service.ledger.LedgerService;
+import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.service.tipselection.*;
 import net.helix.pendulum.storage.Tangle;
@@ -16,6 +17,9 @@ import java.security.InvalidAlgorithmParameterException;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Implementation of <tt>TipSelector</tt> that selects 2 tips,
@@ -37,6 +41,11 @@ public class TipSelectorImpl implements TipSelector {
     private final SnapshotProvider snapshotProvider;
     private final TipSelConfig config;
 
+    /**
+     * Pool that performs the random walks in parallel (null if the walks are performed sequentially).
+     */
+    private final ForkJoinPool walkPool;
+
     /**
      * Constructor for Tip Selector.
      *
@@ -66,6 +75,21 @@ public class TipSelectorImpl implements TipSelector {
         this.tangle = tangle;
         this.snapshotProvider = snapshotProvider;
         this.config = config;
+        this.walkPool = config.isParallelTipSelectionEnabled()
+                ? new ForkJoinPool(Runtime.getRuntime().availableProcessors())
+                : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Shuts down the pool of the parallel random walks, walks that are in progress are completed.
+     */
+    @Override
+    public void shutdown() {
+        if (walkPool != null) {
+            walkPool.shutdown();
+        }
     }
 
     /**
@@ -82,6 +106,9 @@ public class TipSelectorImpl implements TipSelector {
      * <li><b>Validate:</b> check that both tips are not contradicting.
      * </ol>
      * @param depth  The depth that the transactions will be found from.
+     * If parallel tip selection is enabled, both walks are performed at the same time (see
+     * {@link #getTransactionsToApproveInParallel(int, Optional)}).
+     *
      * @param reference  An optional transaction hash to be referenced by tips.
      * @return  Transactions to approve
      * @throws Exception If DB fails to retrieve transactions
@@ -95,6 +122,14 @@ public class TipSelectorImpl implements TipSelector {
             tips.add(Hash.NULL_HASH);
             return tips;
         }
+        if (walkPool != null) {
+            tips = getTransactionsToApproveInParallel(depth, reference);
+            if (tips != null) {
+                return tips;
+            }
+            log.debug("Latest snapshot changed during the parallel random walks, selecting tips sequentially.");
+            tips = new LinkedList<>();
+        }
         try {
             snapshotProvider.getLatestSnapshot().lockRead();
 
@@ -127,6 +162,107 @@ public class TipSelectorImpl implements TipSelector {
         }
     }
 
+    /**
+     * Performs the two random walks of {@link #getTransactionsToApprove(int, Optional)} at the same time on the
+     * {@link #walkPool}.
+     *
+     * The walks can't share a {@link WalkValidator}, so each of them uses its own one and the consistency of the
+     * selected tips is checked afterwards. If they are not consistent with each other, the second walk is repeated with
+     * the validator of the first walk (like in the sequential tip selection).
+     *
+     * Other threads must not wait for the read lock of the latest snapshot while it is held by this thread, so the
+     * lock is acquired separately for the preparation, each walk and the validation. If a milestone is applied in
+     * between, the tips are discarded.
+     *
+     * @param depth  The depth that the transactions will be found from.
+     * @param reference  An optional transaction hash to be referenced by tips.
+     * @return  Transactions to approve or null if the latest snapshot changed during the walks
+     * @throws Exception If DB fails to retrieve transactions
+     */
+    private List<Hash> getTransactionsToApproveInParallel(int depth, Optional<Hash> reference) throws Exception {
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int snapshotIndex;
+        Hash entryPoint;
+        UnIterableMap<HashId, Integer> rating;
+        latestSnapshot.lockRead();
+        try {
+            snapshotIndex = latestSnapshot.getIndex();
+
+            //preparation
+            entryPoint = entryPointSelector.getEntryPoint(depth);
+            rating = ratingCalculator.calculate(entryPoint);
+            if (reference.isPresent()) {
+                checkReference(reference.get(), rating);
+            }
+        } finally {
+            latestSnapshot.unlockRead();
+        }
+
+        //random walks
+        WalkValidator firstWalkValidator = new WalkValidatorImpl(tangle, snapshotProvider, ledgerService, config);
+        WalkValidator secondWalkValidator = new WalkValidatorImpl(tangle, snapshotProvider, ledgerService, config);
+        ForkJoinTask<Hash> firstWalk = walkPool.submit(() -> walk(entryPoint, rating, firstWalkValidator,
+                latestSnapshot, snapshotIndex));
+        ForkJoinTask<Hash> secondWalk = walkPool.submit(() -> walk(reference.orElse(entryPoint), rating,
+                secondWalkValidator, latestSnapshot, snapshotIndex));
+        Hash firstTip = getWalkResult(firstWalk);
+        Hash secondTip = getWalkResult(secondWalk);
+        if (firstTip == null || secondTip == null) {
+            return null;
+        }
+
+        List<Hash> tips = new LinkedList<>();
+        tips.add(firstTip);
+        tips.add(secondTip);
+        latestSnapshot.lockRead();
+        try {
+            if (!isSnapshotUnchanged(latestSnapshot, snapshotIndex)) {
+                return null;
+            }
+
+            //validate
+            if (!ledgerService.tipsConsistent(tips)) {
+                tips.set(1, walker.walk(reference.orElse(entryPoint), rating, firstWalkValidator));
+                if (!ledgerService.tipsConsistent(tips)) {
+                    throw new IllegalStateException(TIPS_NOT_CONSISTENT);
+                }
+            }
+
+            return tips;
+        } finally {
+            latestSnapshot.unlockRead();
+        }
+    }
+
+    private Hash walk(Hash entryPoint, UnIterableMap<HashId, Integer> rating, WalkValidator walkValidator,
+                      Snapshot latestSnapshot, int snapshotIndex) throws Exception {
+        latestSnapshot.lockRead();
+        try {
+            if (!isSnapshotUnchanged(latestSnapshot, snapshotIndex)) {
+                return null;
+            }
+
+            return walker.walk(entryPoint, rating, walkValidator);
+        } finally {
+            latestSnapshot.unlockRead();
+        }
+    }
+
+    private boolean isSnapshotUnchanged(Snapshot latestSnapshot, int snapshotIndex) {
+        return snapshotProvider.getLatestSnapshot() == latestSnapshot && latestSnapshot.getIndex() == snapshotIndex;
+    }
+
+    private static Hash getWalkResult(ForkJoinTask<Hash> walk) throws Exception {
+        try {
+            return walk.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private boolean isTangleReadyForRandomWalk() throws Exception {
         return RoundViewModel.latest(tangle) != null;
     }
@@ -91,8 +91,7 @@ public class WalkerAlpha implements Walker {
     }
 
     private Set<Hash> getApprovers(Hash tailHash) throws Exception {
-        ApproveeViewModel approveeViewModel = ApproveeViewModel.load(tangle, tailHash);
-        return approveeViewModel.getHashes();
+        return ApproveeViewModel.loadHashes(tangle, tailHash);
     }
 
     private Optional<Hash> findNextValidTail(UnIterableMap<HashId, Integer> ratings, Set<Hash> approvers, WalkValidator walkValidator) throws Exception {
@@ -0,0 +1,257 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.utils.Pair;
+import net.helix.pendulum.utils.thread.ThreadUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces the save batches of many concurrent writers into a single database write ("group commit").
+ *
+ * Writers hand their batch to {@link #write(List, boolean)} and block until the batch was committed, so the data is
+ * visible to subsequent reads once the method returns (i.e. the {@code exists} check in
+ * {@link net.helix.pendulum.controllers.TransactionViewModel#store}). A dedicated thread collects the pending batches
+ * until either {@link #maxDelay} milliseconds passed since the first pending batch, {@link #maxBatchSize} entries are
+ * queued or a writer requests an immediate flush, and then issues one combined
+ * {@link PersistenceProvider#saveBatch(List)} call for all of them. With a {@link #maxDelay} of 0 the writes are not
+ * held back at all and only the batches that queue up while the previous commit is running get combined.
+ *
+ * If two pending batches write the same non-mergeable model under the same key (the same transaction was received
+ * twice in the same commit window), only the first one is written and the second one is reported as not stored.
+ */
+public class GroupCommitWriter {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitWriter.class);
+
+    /**
+     * Interface of the function that writes the combined batch to the database.
+     */
+    @FunctionalInterface
+    public interface BatchCommitter {
+        boolean commit(List<Pair<Indexable, Persistable>> models) throws Exception;
+    }
+
+    private final BatchCommitter committer;
+    private final int maxDelay;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    private List<PendingWrite> pendingWrites = new ArrayList<>();
+    private int pendingEntries = 0;
+    private boolean flushRequested = false;
+    private volatile boolean running = false;
+
+    private Thread commitThread;
+
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * @param committer function that writes the combined batch to the database
+     * @param maxDelay the maximum time in milliseconds a batch waits for other batches before being committed
+     * @param maxBatchSize the amount of queued entries that triggers a commit without waiting for {@code maxDelay}
+     */
+    public GroupCommitWriter(BatchCommitter committer, int maxDelay, int maxBatchSize) {
+        this.committer = committer;
+        this.maxDelay = maxDelay;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void start() {
+        running = true;
+        commitThread = ThreadUtils.spawnThread(this::commitThread, "Tangle Group Commit");
+    }
+
+    /**
+     * Stops the commit thread after writing all batches that are still pending.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the commit thread
+     */
+    public void shutdown() throws InterruptedException {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        if (commitThread != null) {
+            commitThread.join();
+        }
+    }
+
+    /**
+     * Queues the given batch for the next group commit and waits until it was written.
+     *
+     * If the writer is not running, the batch is written directly.
+     *
+     * @param models the entries that shall be written atomically
+     * @param flush true if the batch (and all other pending batches) should be written right away instead of waiting
+     *              for more batches to arrive
+     * @return true if the batch was written and false if it was dropped as a duplicate of another pending batch or
+     *         the database did not store the combined batch
+     * @throws Exception if the database write fails
+     */
+    public boolean write(List<Pair<Indexable, Persistable>> models, boolean flush) throws Exception {
+        PendingWrite pendingWrite = new PendingWrite(models);
+        boolean queued;
+        synchronized (lock) {
+            queued = running;
+            if (queued) {
+                pendingWrites.add(pendingWrite);
+                pendingEntries += models.size();
+                if (flush) {
+                    flushRequested = true;
+                }
+                if (flushRequested || pendingEntries >= maxBatchSize || pendingWrites.size() == 1) {
+                    lock.notifyAll();
+                }
+            }
+        }
+        if (!queued) {
+            return committer.commit(models);
+        }
+
+        try {
+            return pendingWrite.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the amount of database writes issued by this writer
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * @return the amount of batches that were written by this writer
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void commitThread() {
+        while (true) {
+            List<PendingWrite> writes = awaitPendingWrites();
+            if (writes == null) {
+                break;
+            }
+            commit(writes);
+        }
+    }
+
+    /**
+     * Waits until the collected batches should be committed and takes them from the queue.
+     *
+     * @return the batches to commit or null if the writer was shut down and there is nothing left to write
+     */
+    private List<PendingWrite> awaitPendingWrites() {
+        synchronized (lock) {
+            try {
+                while (running && pendingWrites.isEmpty()) {
+                    lock.wait();
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelay);
+                long remaining;
+                while (running && !flushRequested && pendingEntries < maxBatchSize
+                        && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+
+            if (pendingWrites.isEmpty()) {
+                return null;
+            }
+            List<PendingWrite> writes = pendingWrites;
+            pendingWrites = new ArrayList<>();
+            pendingEntries = 0;
+            flushRequested = false;
+
+            return writes;
+        }
+    }
+
+    private void commit(List<PendingWrite> writes) {
+        List<Pair<Indexable, Persistable>> combinedBatch = new ArrayList<>();
+        List<PendingWrite> acceptedWrites = new ArrayList<>(writes.size());
+        Set<ByteBuffer> writtenKeys = new HashSet<>();
+        for (PendingWrite pendingWrite : writes) {
+            if (isDuplicate(pendingWrite, writtenKeys)) {
+                pendingWrite.result.complete(false);
+            } else {
+                combinedBatch.addAll(pendingWrite.models);
+                acceptedWrites.add(pendingWrite);
+            }
+        }
+
+        try {
+            boolean committed = committer.commit(combinedBatch);
+            commitCount.incrementAndGet();
+            if (committed) {
+                batchCount.addAndGet(acceptedWrites.size());
+            } else {
+                log.warn("Group commit of {} batches was not stored", acceptedWrites.size());
+            }
+            acceptedWrites.forEach(pendingWrite -> pendingWrite.result.complete(committed));
+        } catch (Exception e) {
+            log.error("Group commit of {} batches failed, writing them one by one", acceptedWrites.size(), e);
+
+            // write the batches separately so only the writer whose batch is broken receives the error
+            for (PendingWrite pendingWrite : acceptedWrites) {
+                try {
+                    pendingWrite.result.complete(committer.commit(pendingWrite.models));
+                } catch (Exception singleException) {
+                    pendingWrite.result.completeExceptionally(singleException);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if one of the non-mergeable entries of the batch was already written by a previous batch of the same
+     * commit and registers the keys of the batch otherwise.
+     */
+    private static boolean isDuplicate(PendingWrite pendingWrite, Set<ByteBuffer> writtenKeys) {
+        List<ByteBuffer> keys = new ArrayList<>();
+        for (Pair<Indexable, Persistable> entry : pendingWrite.models) {
+            if (!entry.hi.merge()) {
+                ByteBuffer key = uniqueKey(entry);
+                if (writtenKeys.contains(key)) {
+                    return true;
+                }
+                keys.add(key);
+            }
+        }
+        writtenKeys.addAll(keys);
+
+        return false;
+    }
+
+    private static ByteBuffer uniqueKey(Pair<Indexable, Persistable> entry) {
+        byte[] className = entry.hi.getClass().getName().getBytes();
+        byte[] key = entry.low.bytes();
+
+        return (ByteBuffer) ByteBuffer.allocate(className.length + key.length).put(className).put(key).flip();
+    }
+
+    private static class PendingWrite {
+        private final List<Pair<Indexable, Persistable>> models;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingWrite(List<Pair<Indexable, Persistable>> models) {
+            this.models = models;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import net.helix.pendulum.utils.Pair;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Created by paul on 3/2/17 for iri.
@@ -32,8 +33,47 @@ public interface PersistenceProvider {
 
       Set<Indexable> keysWithMissingReferences(Class<?> modelClass, Class<?> otherClass) throws Exception;
 
+      /**
+       * Visits the keys of a model in key order without loading them into memory at once. The keys are read from a
+       * consistent snapshot of the database.
+       * @param model the model class whose keys should be visited
+       * @param prefix only the keys starting with the prefix are visited (null for all keys)
+       * @param visitor receives the keys and returns false to stop the iteration
+       * @throws Exception if the database read fails
+       */
+      void forEachKey(Class<?> model, byte[] prefix, Predicate<byte[]> visitor) throws Exception;
+
+      /**
+       * Visits the keys of a model that have no entry with the same key in the column of another model, like
+       * {@link #forEachKey(Class, byte[], Predicate)}.
+       * @param model the model class whose keys should be visited
+       * @param otherClass the model class whose entries are referenced by the keys
+       * @param visitor receives the keys without reference and returns false to stop the iteration
+       * @throws Exception if the database read fails
+       */
+      void forEachKeyWithMissingReference(Class<?> model, Class<?> otherClass, Predicate<byte[]> visitor)
+              throws Exception;
+
       Persistable get(Class<?> model, Indexable index) throws Exception;
 
+      /**
+       * Reads multiple entries (and their metadata) at once like {@link #get(Class, Indexable)}.
+       * @param model the model class of the entries
+       * @param indexes the keys of the entries
+       * @return the entries in the order of the keys (entries that don't exist are read from null)
+       * @throws Exception if the database read fails
+       */
+      List<Persistable> getAll(Class<?> model, Collection<? extends Indexable> indexes) throws Exception;
+
+      /**
+       * Reads the raw metadata of an entry without reading or decoding the entry itself.
+       * @param model the model class whose metadata column should be read
+       * @param index the key of the entry
+       * @return the serialized metadata or null if the model has no metadata or the entry doesn't exist
+       * @throws Exception if the database read fails
+       */
+      byte[] getMetadata(Class<?> model, Indexable index) throws Exception;
+
       boolean mayExist(Class<?> model, Indexable index) throws Exception;
 
       long count(Class<?> model) throws Exception;
@@ -3,12 +3,15 @@ package net.helix.pendulum.storage;
 import net.helix.pendulum.model.StateDiff;
 import net.helix.pendulum.model.persistables.*;
 import net.helix.pendulum.utils.Pair;
+import net.helix.pendulum.utils.dag.ApproverIndex;
 import net.helix.pendulum.zmq.MessageQProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +39,14 @@ public class Tangle {
     private final List<PersistenceProvider> persistenceProviders = new ArrayList<>();
     private final List<MessageQProvider> messageQProviders = new ArrayList<>();
 
+    private GroupCommitWriter groupCommitWriter;
+    private volatile ApproverIndex approverIndex;
+    private volatile TransactionCache transactionCache;
+
+    private final Object deleteRateLock = new Object();
+    private volatile int deleteRateLimit = 0;
+    private long nextDeleteTime = 0;
+
 
     public void addPersistenceProvider(PersistenceProvider provider) {
         this.persistenceProviders.add(provider);
@@ -56,19 +67,210 @@ public class Tangle {
     }
 
 
+    /**
+     * Enables the coalescing of the writes issued through {@link #saveBatchGrouped(List, boolean)} into combined
+     * database writes.
+     *
+     * @param maxDelay the maximum time in milliseconds a write waits for other writes before being committed
+     * @param maxBatchSize the amount of queued entries that triggers a commit without waiting for {@code maxDelay}
+     * @see GroupCommitWriter
+     */
+    public void enableGroupCommit(int maxDelay, int maxBatchSize) {
+        if (groupCommitWriter == null) {
+            groupCommitWriter = new GroupCommitWriter(this::saveBatch, maxDelay, maxBatchSize);
+            groupCommitWriter.start();
+        }
+    }
+
+    /**
+     * Enables the in-memory index of the approvers of recently stored transactions.
+     *
+     * @param capacity the amount of transactions that can be indexed
+     * @param retainedMilestones the amount of solid milestones whose transactions are kept in the index
+     * @see ApproverIndex
+     */
+    public void enableApproverIndex(int capacity, int retainedMilestones) {
+        if (approverIndex == null) {
+            approverIndex = new ApproverIndex(capacity, retainedMilestones, hash -> {
+                Approvee approvers = (Approvee) load(Approvee.class, hash);
+                return approvers == null || approvers.set == null ? new LinkedHashSet<>() : approvers.set;
+            });
+        }
+    }
+
+    /**
+     * Enables the in-memory cache of recently stored and loaded transactions.
+     *
+     * @param maxSize the maximum amount of bytes used by the cached transactions
+     * @see TransactionCache
+     */
+    public void enableTransactionCache(long maxSize) {
+        if (transactionCache == null) {
+            transactionCache = new TransactionCache(maxSize);
+        }
+    }
+
+    /**
+     * Limits the rate of the deletions issued through {@link #deleteBatch(Collection)}, so bulk deletions (i.e. of the
+     * transaction pruner) don't saturate the database.
+     *
+     * The limit is enforced by blocking the thread that calls {@link #deleteBatch(Collection)}. Its only callers are
+     * the jobs of the transaction pruner, which run on the dedicated threads of the
+     * {@link net.helix.pendulum.service.transactionpruning.async.AsyncTransactionPruner}, so the waiting is already
+     * done off the threads that process transactions and milestones.
+     *
+     * @param deletesPerSecond the maximum amount of deleted entries per second (0 for unlimited)
+     */
+    public void setDeleteRateLimit(int deletesPerSecond) {
+        deleteRateLimit = deletesPerSecond;
+    }
+
+    /**
+     * @return the index of the approvers of recently stored transactions or null if it is not enabled
+     */
+    public ApproverIndex getApproverIndex() {
+        return approverIndex;
+    }
+
+    /**
+     * @return the cache of recently stored and loaded transactions or null if it is not enabled
+     */
+    public TransactionCache getTransactionCache() {
+        return transactionCache;
+    }
+
     public void shutdown() throws Exception {
+        if (groupCommitWriter != null) {
+            log.info("Flushing pending Tangle writes... ");
+            groupCommitWriter.shutdown();
+        }
+        if (transactionCache != null) {
+            log.info("Transaction cache: {} hits, {} misses", transactionCache.getHitCount(),
+                    transactionCache.getMissCount());
+        }
         log.info("Shutting down Tangle Persistence Providers... ");
         this.persistenceProviders.forEach(PersistenceProvider::shutdown);
         this.persistenceProviders.clear();
     }
 
     public Persistable load(Class<?> model, Indexable index) throws Exception {
+        TransactionCache cache = transactionCache;
+        long stamp = 0;
+        if (cache != null && model == Transaction.class) {
+            Transaction transaction = cache.get(index);
+            if (transaction != null) {
+                return transaction;
+            }
+            stamp = cache.stamp(index);
+        }
+
         Persistable out = null;
         for(PersistenceProvider provider: this.persistenceProviders) {
             if((out = provider.get(model, index)) != null) {
                 break;
             }
         }
+        if (cache != null && model == Transaction.class) {
+            cache.putLoaded(index, (Transaction) out, stamp);
+        }
+        return out;
+    }
+
+    /**
+     * Loads multiple models at once, which saves the round trips of loading them one by one.
+     *
+     * @param model the model class of the entries
+     * @param indexes the keys of the entries
+     * @return the models in the order of the keys
+     * @throws Exception if the database read fails
+     * @see PersistenceProvider#getAll(Class, Collection)
+     */
+    public List<Persistable> loadAll(Class<?> model, Collection<? extends Indexable> indexes) throws Exception {
+        TransactionCache cache = transactionCache;
+        if (cache != null && model == Transaction.class) {
+            return loadAllTransactions(cache, indexes);
+        }
+
+        List<Persistable> out = null;
+        for(PersistenceProvider provider: this.persistenceProviders) {
+            if((out = provider.getAll(model, indexes)) != null) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Serves the cached transactions from the {@link TransactionCache} and loads only the other ones from the
+     * database.
+     */
+    private List<Persistable> loadAllTransactions(TransactionCache cache, Collection<? extends Indexable> indexes)
+            throws Exception {
+        List<Persistable> out = new ArrayList<>(indexes.size());
+        List<Indexable> missingIndexes = new ArrayList<>();
+        List<Long> stamps = new ArrayList<>();
+        for (Indexable index : indexes) {
+            Transaction transaction = cache.get(index);
+            if (transaction == null) {
+                missingIndexes.add(index);
+                stamps.add(cache.stamp(index));
+            }
+            out.add(transaction);
+        }
+        if (missingIndexes.isEmpty()) {
+            return out;
+        }
+
+        List<Persistable> loaded = null;
+        for(PersistenceProvider provider: this.persistenceProviders) {
+            if((loaded = provider.getAll(Transaction.class, missingIndexes)) != null) {
+                break;
+            }
+        }
+        if (loaded == null) {
+            return null;
+        }
+
+        Iterator<Persistable> loadedIterator = loaded.iterator();
+        int missingIndex = 0;
+        for (ListIterator<Persistable> iterator = out.listIterator(); iterator.hasNext();) {
+            if (iterator.next() == null) {
+                Persistable transaction = loadedIterator.next();
+                cache.putLoaded(missingIndexes.get(missingIndex), (Transaction) transaction, stamps.get(missingIndex));
+                missingIndex++;
+                iterator.set(transaction);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Reads the raw metadata of a model without loading the model itself. The result can be inspected through a
+     * flyweight like {@link TransactionMetadata} to only decode the fields that are actually needed.
+     *
+     * The metadata of cached transactions is served by the {@link TransactionCache}. A read from the database is not
+     * cached, since the cache needs the whole transaction.
+     *
+     * @param model the model class whose metadata should be read
+     * @param index the key of the entry
+     * @return the serialized metadata or null if no provider has metadata for the entry
+     * @throws Exception if the database read fails
+     */
+    public byte[] loadMetadata(Class<?> model, Indexable index) throws Exception {
+        TransactionCache cache = transactionCache;
+        if (cache != null && model == Transaction.class) {
+            byte[] metadata = cache.getMetadata(index);
+            if (metadata != null) {
+                return metadata;
+            }
+        }
+
+        byte[] out = null;
+        for(PersistenceProvider provider: this.persistenceProviders) {
+            if((out = provider.getMetadata(model, index)) != null) {
+                break;
+            }
+        }
         return out;
     }
 
@@ -81,8 +283,36 @@ public class Tangle {
                 exists = provider.saveBatch(models);
             }
         }
+        TransactionCache cache = transactionCache;
+        if (cache != null) {
+            for (Pair<Indexable, Persistable> entry : models) {
+                if (entry.hi instanceof Transaction) {
+                    cache.put(entry.low, (Transaction) entry.hi);
+                }
+            }
+        }
         return exists;
     }
+    /**
+     * Saves the batch like {@link #saveBatch(List)} but allows it to be combined with the batches of other threads into
+     * a single database write if group commits are enabled (see {@link #enableGroupCommit(int, int)}).
+     *
+     * The method returns once the batch was written, so it can be read right after.
+     *
+     * @param models the entries that shall be written atomically
+     * @param flush true if the batch should be written immediately (together with all other pending batches), i.e.
+     *              for latency sensitive API calls
+     * @return true if the batch was written and false if it was dropped because the same entry was written by a
+     *         concurrent batch
+     * @throws Exception if the database write fails
+     */
+    public Boolean saveBatchGrouped(List<Pair<Indexable, Persistable>> models, boolean flush) throws Exception {
+        if (groupCommitWriter == null) {
+            return saveBatch(models);
+        }
+        return groupCommitWriter.write(models, flush);
+    }
+
     public Boolean save(Persistable model, Indexable index) throws Exception {
         boolean exists = false;
         for(PersistenceProvider provider: persistenceProviders) {
@@ -92,19 +322,57 @@ public class Tangle {
                 exists = provider.save(model, index);
             }
         }
+        TransactionCache cache = transactionCache;
+        if (cache != null && model instanceof Transaction) {
+            cache.put(index, (Transaction) model);
+        }
         return exists;
     }
 
     public void deleteBatch(Collection<Pair<Indexable, ? extends Class<? extends Persistable>>> models) throws Exception {
+        throttleDeletes(models.size());
         for(PersistenceProvider provider: persistenceProviders) {
             provider.deleteBatch(models);
         }
+        // invalidated after the deletion, so concurrent loads can't cache the deleted transactions again
+        TransactionCache cache = transactionCache;
+        if (cache != null) {
+            for (Pair<Indexable, ? extends Class<? extends Persistable>> entry : models) {
+                if (entry.hi == Transaction.class) {
+                    cache.invalidate(entry.low);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the given amount of deletions can be issued without exceeding the delete rate limit.
+     */
+    private void throttleDeletes(int amount) throws InterruptedException {
+        int rateLimit = deleteRateLimit;
+        if (rateLimit <= 0) {
+            return;
+        }
+
+        long startTime;
+        synchronized (deleteRateLock) {
+            startTime = Math.max(System.nanoTime(), nextDeleteTime);
+            nextDeleteTime = startTime + amount * TimeUnit.SECONDS.toNanos(1) / rateLimit;
+        }
+        long delay = startTime - System.nanoTime();
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
     }
 
     public void delete(Class<?> model, Indexable index) throws Exception {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.delete(model, index);
         }
+        TransactionCache cache = transactionCache;
+        if (cache != null && model == Transaction.class) {
+            cache.invalidate(index);
+        }
     }
 
     public Pair<Indexable, Persistable> getLatest(Class<?> model, Class<?> index) throws Exception {
@@ -126,6 +394,10 @@ public class Tangle {
         for(PersistenceProvider provider: this.persistenceProviders) {
             provider.update(model, index, item);
         }
+        TransactionCache cache = transactionCache;
+        if (cache != null && model instanceof Transaction) {
+            cache.put(index, (Transaction) model);
+        }
     }
 
     private void updateMessageQueueProvider(Persistable model, Indexable index, String item) {
@@ -159,6 +431,52 @@ public class Tangle {
         return output;
     }
 
+    /**
+     * Visits the keys of a model without loading them into memory at once.
+     *
+     * @param modelClass the model class whose keys should be visited
+     * @param prefix only the keys starting with the prefix are visited (null for all keys)
+     * @param visitor receives the keys and returns false to stop the iteration
+     * @throws Exception if the database read fails
+     * @see PersistenceProvider#forEachKey(Class, byte[], Predicate)
+     */
+    public void forEachKey(Class<?> modelClass, byte[] prefix, Predicate<byte[]> visitor) throws Exception {
+        boolean[] stopped = {false};
+        for (PersistenceProvider provider : this.persistenceProviders) {
+            provider.forEachKey(modelClass, prefix, key -> {
+                stopped[0] = !visitor.test(key);
+                return !stopped[0];
+            });
+            if (stopped[0]) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Visits the keys of a model that have no entry in the column of another model without loading them into memory
+     * at once.
+     *
+     * @param modelClass the model class whose keys should be visited
+     * @param referencedClass the model class whose entries are referenced by the keys
+     * @param visitor receives the keys without reference and returns false to stop the iteration
+     * @throws Exception if the database read fails
+     * @see PersistenceProvider#forEachKeyWithMissingReference(Class, Class, Predicate)
+     */
+    public void forEachKeyWithMissingReference(Class<?> modelClass, Class<?> referencedClass,
+                                               Predicate<byte[]> visitor) throws Exception {
+        boolean[] stopped = {false};
+        for (PersistenceProvider provider : this.persistenceProviders) {
+            provider.forEachKeyWithMissingReference(modelClass, referencedClass, key -> {
+                stopped[0] = !visitor.test(key);
+                return !stopped[0];
+            });
+            if (stopped[0]) {
+                break;
+            }
+        }
+    }
+
     public Set<Indexable> keysStartingWith(Class<?> modelClass, byte[] value) {
         Set<Indexable> output = null;
         for(PersistenceProvider provider: this.persistenceProviders) {
@@ -188,6 +506,10 @@ public class Tangle {
     }
 
     public Boolean exists(Class<?> modelClass, Indexable hash) throws Exception {
+        TransactionCache cache = transactionCache;
+        if (cache != null && modelClass == Transaction.class && cache.contains(hash)) {
+            return true;
+        }
         for(PersistenceProvider provider: this.persistenceProviders) {
             if (provider.exists(modelClass, hash)) {
                 return true;
@@ -197,6 +519,10 @@ public class Tangle {
     }
 
     public Boolean maybeHas(Class<?> model, Indexable index) throws Exception {
+        TransactionCache cache = transactionCache;
+        if (cache != null && model == Transaction.class && cache.contains(index)) {
+            return true;
+        }
         for(PersistenceProvider provider: this.persistenceProviders) {
             if (provider.mayExist(model, index)) {
                 return true;
@@ -259,12 +585,21 @@ public class Tangle {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.clear(column);
         }
+        clearTransactionCache(column);
     }
 
     public void clearMetadata(Class<?> column) throws Exception {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.clearMetadata(column);
         }
+        clearTransactionCache(column);
+    }
+
+    private void clearTransactionCache(Class<?> column) {
+        TransactionCache cache = transactionCache;
+        if (cache != null && column == Transaction.class) {
+            cache.clear();
+        }
     }
 
     /*
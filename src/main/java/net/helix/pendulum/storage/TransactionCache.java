@@ -0,0 +1,280 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.model.persistables.Transaction;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of the serialized transactions in front of the database, so the transactions that are read over and
+ * over (i.e. milestones, bundle tails and recently received transactions) don't have to be read from the database for
+ * every {@link Tangle#load(Class, Indexable)}.
+ *
+ * The cache stores the transaction bytes together with the serialized metadata and creates a new {@link Transaction}
+ * for every hit, so callers can modify the returned objects like the ones loaded from the database. The size of the
+ * cache is bounded by the sum of the serialized sizes of its entries. The entries are distributed over
+ * {@link #SEGMENTS} independently locked segments that each evict their least recently used entries.
+ *
+ * Writes to the database are written through to the cache (see {@link #put(Indexable, Transaction)}), so recently
+ * stored transactions are served from the cache. Transactions that are loaded from the database are only cached if
+ * their segment was not modified in the meantime (see {@link #stamp(Indexable)}), which prevents a slow read from
+ * replacing a newer version that was written through concurrently.
+ */
+public class TransactionCache {
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Estimated amount of memory used by an entry in addition to its serialized transaction (key, entry and map node).
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * @param maxSize the maximum amount of bytes used by the cached transactions
+     */
+    public TransactionCache(long maxSize) {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(maxSize / SEGMENTS);
+        }
+    }
+
+    /**
+     * Returns a copy of a cached transaction.
+     *
+     * @param hash the hash of the transaction
+     * @return a new transaction object or null if the transaction is not cached
+     */
+    public Transaction get(Indexable hash) {
+        ByteBuffer key = key(hash);
+        Entry entry = segment(key).get(key);
+        if (entry == null) {
+            missCount.increment();
+
+            return null;
+        }
+        hitCount.increment();
+
+        Transaction transaction = new Transaction();
+        transaction.read(entry.bytes);
+        transaction.readMetadata(entry.metadata);
+
+        return transaction;
+    }
+
+    /**
+     * Returns a copy of the serialized metadata of a cached transaction without creating the transaction itself.
+     *
+     * @param hash the hash of the transaction
+     * @return the serialized metadata or null if the transaction is not cached
+     */
+    public byte[] getMetadata(Indexable hash) {
+        ByteBuffer key = key(hash);
+        Entry entry = segment(key).get(key);
+        if (entry == null) {
+            missCount.increment();
+
+            return null;
+        }
+        hitCount.increment();
+
+        return entry.metadata.clone();
+    }
+
+    /**
+     * @param hash the hash of the transaction
+     * @return true if the transaction is cached
+     */
+    public boolean contains(Indexable hash) {
+        ByteBuffer key = key(hash);
+
+        return segment(key).get(key) != null;
+    }
+
+    /**
+     * Returns the version of the segment of a transaction, which has to be read before a transaction is loaded from
+     * the database and passed to {@link #putLoaded(Indexable, Transaction, long)}.
+     *
+     * @param hash the hash of the transaction
+     * @return the current version of the segment
+     */
+    public long stamp(Indexable hash) {
+        return segment(key(hash)).getVersion();
+    }
+
+    /**
+     * Caches a transaction that was loaded from the database unless its segment was modified since the given stamp
+     * was taken (the loaded transaction might be outdated in that case).
+     *
+     * @param hash the hash of the transaction
+     * @param transaction the loaded transaction
+     * @param stamp the version of the segment before the transaction was loaded
+     */
+    public void putLoaded(Indexable hash, Transaction transaction, long stamp) {
+        if (transaction == null || transaction.bytes == null || transaction.address == null) {
+            return;
+        }
+
+        ByteBuffer key = key(hash);
+        segment(key).put(key, new Entry(transaction.bytes(), transaction.metadata()), stamp);
+    }
+
+    /**
+     * Caches the current state of a transaction after it was written to the database. Transactions that can't be
+     * serialized completely are removed from the cache instead.
+     *
+     * @param hash the hash of the transaction
+     * @param transaction the written transaction
+     */
+    public void put(Indexable hash, Transaction transaction) {
+        if (transaction.bytes == null || transaction.address == null) {
+            invalidate(hash);
+
+            return;
+        }
+
+        ByteBuffer key = key(hash);
+        segment(key).put(key, new Entry(transaction.bytes(), transaction.metadata()), -1);
+    }
+
+    /**
+     * Removes a transaction from the cache after it was deleted from the database.
+     *
+     * @param hash the hash of the transaction
+     */
+    public void invalidate(Indexable hash) {
+        ByteBuffer key = key(hash);
+        segment(key).remove(key);
+    }
+
+    /**
+     * Removes all transactions from the cache.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return the amount of bytes used by the cached transactions
+     */
+    public long getSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.getSize();
+        }
+
+        return size;
+    }
+
+    /**
+     * @return the amount of lookups that were served by the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the amount of lookups that had to be served by the database
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static ByteBuffer key(Indexable hash) {
+        // the bytes are compared instead of the hashes, since the same transaction can be referenced by different hash
+        // types
+        return ByteBuffer.wrap(hash.bytes());
+    }
+
+    private Segment segment(ByteBuffer key) {
+        int hashCode = key.hashCode();
+
+        return segments[(hashCode ^ (hashCode >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static class Segment {
+        private final long maxSize;
+        private final Map<ByteBuffer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long size = 0;
+        private long version = 0;
+
+        private Segment(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        private synchronized Entry get(ByteBuffer key) {
+            return entries.get(key);
+        }
+
+        private synchronized long getVersion() {
+            return version;
+        }
+
+        private synchronized long getSize() {
+            return size;
+        }
+
+        /**
+         * Adds the entry if the segment is still at the expected version (or unconditionally if it is negative).
+         */
+        private synchronized void put(ByteBuffer key, Entry entry, long expectedVersion) {
+            if (expectedVersion >= 0 && expectedVersion != version) {
+                return;
+            }
+            version++;
+            if (entry.size > maxSize) {
+                removeEntry(key);
+
+                return;
+            }
+
+            Entry previousEntry = entries.put(key, entry);
+            size += entry.size - (previousEntry == null ? 0 : previousEntry.size);
+
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                size -= iterator.next().size;
+                iterator.remove();
+            }
+        }
+
+        private synchronized void remove(ByteBuffer key) {
+            version++;
+            removeEntry(key);
+        }
+
+        private synchronized void clear() {
+            version++;
+            entries.clear();
+            size = 0;
+        }
+
+        private void removeEntry(ByteBuffer key) {
+            Entry previousEntry = entries.remove(key);
+            if (previousEntry != null) {
+                size -= previousEntry.size;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final byte[] bytes;
+        private final byte[] metadata;
+        private final long size;
+
+        private Entry(byte[] bytes, byte[] metadata) {
+            this.bytes = bytes.clone();
+            this.metadata = metadata;
+            this.size = this.bytes.length + metadata.length + ENTRY_OVERHEAD;
+        }
+    }
+}
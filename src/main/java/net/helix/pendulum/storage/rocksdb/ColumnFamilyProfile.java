@@ -0,0 +1,47 @@
+package net.helix.pendulum.storage.rocksdb;
+
+/**
+ * Tuning of the column families that are written and read in the same way. <br>
+ *
+ * All column families of a profile share the same options and therefore the same block cache, so the point lookups
+ * of the transactions don't compete with the blocks of the merge heavy index columns (and their compactions) for the
+ * cache.
+ */
+public class ColumnFamilyProfile {
+
+    private final long blockCacheSize;
+    private final long writeBufferSize;
+    private final String compression;
+    private final boolean pinFilterAndIndexBlocks;
+
+    /**
+     * @param blockCacheSize the size of the block cache of the profile in bytes
+     * @param writeBufferSize the size of the write buffer of every column family in bytes
+     * @param compression the name of the {@code CompressionType} or null to use the default compression
+     * @param pinFilterAndIndexBlocks true if the filter and index blocks should be kept in the block cache and the
+     *                                ones of the level 0 files should never be evicted (for point lookups)
+     */
+    public ColumnFamilyProfile(long blockCacheSize, long writeBufferSize, String compression,
+                               boolean pinFilterAndIndexBlocks) {
+        this.blockCacheSize = blockCacheSize;
+        this.writeBufferSize = writeBufferSize;
+        this.compression = compression;
+        this.pinFilterAndIndexBlocks = pinFilterAndIndexBlocks;
+    }
+
+    public long getBlockCacheSize() {
+        return blockCacheSize;
+    }
+
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public boolean isPinFilterAndIndexBlocks() {
+        return pinFilterAndIndexBlocks;
+    }
+}
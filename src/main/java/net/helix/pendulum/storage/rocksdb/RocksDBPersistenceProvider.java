@@ -18,11 +18,21 @@ import java.io.File;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.function.Predicate;
 
 public class RocksDBPersistenceProvider implements PersistenceProvider {
 
     private static final Logger log = LoggerFactory.getLogger(RocksDBPersistenceProvider.class);
     private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
+    private static final int DEFAULT_CACHE_SHARD_BITS = 2;
+    /**
+     * The amount of keys whose references are looked up with a single multi get.
+     */
+    private static final int REFERENCE_BATCH_SIZE = 1_000;
+    /**
+     * The maximum amount of entries that are read with a single multi get.
+     */
+    private static final int MULTI_GET_BATCH_SIZE = 1_000;
 
     private static final Pair<Indexable, Persistable> PAIR_OF_NULLS = new Pair<>(null, null);
 
@@ -34,25 +44,50 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
     private final int cacheSize;
     private final Map<String, Class<? extends Persistable>> columnFamilies;
     private final Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily;
+    private final Map<String, ColumnFamilyProfile> columnFamilyProfiles;
+    private final int cacheShardBits;
 
-    private Map<Class<?>, ColumnFamilyHandle> classTreeMap;
-    private Map<Class<?>, ColumnFamilyHandle> metadataReference = Collections.emptyMap();
+    private volatile Map<Class<?>, ColumnFamilyHandle> classTreeMap;
+    private volatile Map<Class<?>, ColumnFamilyHandle> metadataReference = Collections.emptyMap();
+    private List<ColumnFamilyDescriptor> columnFamilyDescriptors;
 
     private RocksDB db;
     // DBOptions is only used in initDB(). However, it is closeable - so we keep a reference for shutdown.
     private DBOptions options;
     private BloomFilter bloomFilter;
+    private final List<ColumnFamilyOptions> allColumnFamilyOptions = new ArrayList<>();
     private boolean available;
 
     public RocksDBPersistenceProvider(String dbPath, String logPath, int cacheSize,
                                       Map<String, Class<? extends Persistable>> columnFamilies,
                                       Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily) {
+        this(dbPath, logPath, cacheSize, columnFamilies, metadataColumnFamily, Collections.emptyMap(),
+                DEFAULT_CACHE_SHARD_BITS);
+    }
+
+    /**
+     * Creates a provider that tunes the column families according to their profile.
+     *
+     * @param dbPath the folder of the database
+     * @param logPath the folder of the database logs
+     * @param cacheSize the size of the block cache in KB that is used by the column families without a profile
+     * @param columnFamilies the column families and the models they store
+     * @param metadataColumnFamily the column family of the metadata of the models or null
+     * @param columnFamilyProfiles the profiles of the column families by their name, column families of the same
+     *                             profile share their block cache
+     * @param cacheShardBits the block caches are split into 2^n shards
+     */
+    public RocksDBPersistenceProvider(String dbPath, String logPath, int cacheSize,
+                                      Map<String, Class<? extends Persistable>> columnFamilies,
+                                      Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily,
+                                      Map<String, ColumnFamilyProfile> columnFamilyProfiles, int cacheShardBits) {
         this.dbPath = dbPath;
         this.logPath = logPath;
         this.cacheSize = cacheSize;
         this.columnFamilies = columnFamilies;
         this.metadataColumnFamily = metadataColumnFamily;
-
+        this.columnFamilyProfiles = columnFamilyProfiles;
+        this.cacheShardBits = cacheShardBits;
     }
 
     @Override
@@ -75,6 +110,8 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
             PendulumIOUtils.closeQuietly(columnFamilyHandle);
         }
         PendulumIOUtils.closeQuietly(db, options, bloomFilter);
+        allColumnFamilyOptions.forEach(PendulumIOUtils::closeQuietly);
+        allColumnFamilyOptions.clear();
     }
 
     @Override
@@ -111,19 +148,102 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
     @Override
     public Set<Indexable> keysWithMissingReferences(Class<?> model, Class<?> other) throws Exception {
+        Set<Indexable> indexables = new HashSet<>();
+        forEachKeyWithMissingReference(model, other, key -> indexables.add(HashFactory.GENERIC.create(model, key)));
+
+        return indexables.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(indexables);
+    }
+
+    @Override
+    public void forEachKey(Class<?> model, byte[] prefix, Predicate<byte[]> visitor) {
         ColumnFamilyHandle handle = classTreeMap.get(model);
-        ColumnFamilyHandle otherHandle = classTreeMap.get(other);
+        if (handle != null) {
+            Snapshot snapshot = db.getSnapshot();
+            try (ReadOptions readOptions = createScanOptions(snapshot)) {
+                scanKeys(handle, readOptions, prefix, visitor);
+            } finally {
+                db.releaseSnapshot(snapshot);
+            }
+        }
+    }
 
-        try (RocksIterator iterator = db.newIterator(handle)) {
-            Set<Indexable> indexables = null;
+    @Override
+    public void forEachKeyWithMissingReference(Class<?> model, Class<?> other, Predicate<byte[]> visitor)
+            throws Exception {
+        ColumnFamilyHandle handle = classTreeMap.get(model);
+        ColumnFamilyHandle otherHandle = classTreeMap.get(other);
+        if (handle == null || otherHandle == null) {
+            return;
+        }
 
+        Snapshot snapshot = db.getSnapshot();
+        try (ReadOptions readOptions = createScanOptions(snapshot);
+             RocksIterator iterator = db.newIterator(handle, readOptions)) {
+            // the references of the scanned keys are looked up in batches, so the scan is joined with a few multi gets
+            // instead of a point lookup per key
+            List<byte[]> keys = new ArrayList<>(REFERENCE_BATCH_SIZE);
             for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
-                if (db.get(otherHandle, iterator.key()) == null) {
-                    indexables = indexables == null ? new HashSet<>() : indexables;
-                    indexables.add(HashFactory.GENERIC.create(model, iterator.key()));
+                keys.add(iterator.key());
+                if (keys.size() == REFERENCE_BATCH_SIZE) {
+                    if (!visitMissingReferences(readOptions, otherHandle, keys, visitor)) {
+                        return;
+                    }
+                    keys.clear();
+                }
+            }
+            visitMissingReferences(readOptions, otherHandle, keys, visitor);
+        } finally {
+            db.releaseSnapshot(snapshot);
+        }
+    }
+
+    /**
+     * @return false if the visitor stopped the iteration
+     */
+    private boolean visitMissingReferences(ReadOptions readOptions, ColumnFamilyHandle otherHandle, List<byte[]> keys,
+                                           Predicate<byte[]> visitor) throws RocksDBException {
+        if (keys.isEmpty()) {
+            return true;
+        }
+
+        // the returned map only contains the keys that were found (the same instances)
+        Map<byte[], byte[]> references = db.multiGet(readOptions, Collections.nCopies(keys.size(), otherHandle), keys);
+        for (byte[] key : keys) {
+            if (!references.containsKey(key) && !visitor.test(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scans read a consistent snapshot and don't fill the block cache, so they don't evict the blocks of the regular
+     * lookups.
+     */
+    private static ReadOptions createScanOptions(Snapshot snapshot) {
+        return new ReadOptions()
+                .setSnapshot(snapshot)
+                .setFillCache(false);
+    }
+
+    private void scanKeys(ColumnFamilyHandle handle, ReadOptions readOptions, byte[] prefix,
+                          Predicate<byte[]> visitor) {
+        try (RocksIterator iterator = db.newIterator(handle, readOptions)) {
+            if (prefix == null || prefix.length == 0) {
+                iterator.seekToFirst();
+            } else {
+                iterator.seek(prefix);
+            }
+
+            for (; iterator.isValid(); iterator.next()) {
+                byte[] key = iterator.key();
+                if (prefix != null && !keyStartsWithValue(prefix, key)) {
+                    break;
+                }
+                if (!visitor.test(key)) {
+                    break;
                 }
             }
-            return indexables == null ? Collections.emptySet() : Collections.unmodifiableSet(indexables);
         }
     }
 
@@ -148,6 +268,57 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         return object;
     }
 
+    @Override
+    public List<Persistable> getAll(Class<?> model, Collection<? extends Indexable> indexes) throws Exception {
+        ColumnFamilyHandle handle = classTreeMap.get(model);
+        ColumnFamilyHandle referenceHandle = metadataReference.get(model);
+
+        List<Persistable> objects = new ArrayList<>(indexes.size());
+        Iterator<? extends Indexable> indexIterator = indexes.iterator();
+        while (indexIterator.hasNext()) {
+            List<ColumnFamilyHandle> handles = new ArrayList<>(2 * MULTI_GET_BATCH_SIZE);
+            List<byte[]> keys = new ArrayList<>(MULTI_GET_BATCH_SIZE);
+            while (indexIterator.hasNext() && keys.size() < MULTI_GET_BATCH_SIZE) {
+                Indexable index = indexIterator.next();
+                keys.add(index == null ? new byte[0] : index.bytes());
+                handles.add(handle);
+            }
+            // the values and the metadata are read with the same call, the result maps the instances of the keys to
+            // their values, so the metadata needs its own key instances
+            List<byte[]> metadataKeys = new ArrayList<>(keys.size());
+            if (referenceHandle != null) {
+                for (byte[] key : keys) {
+                    metadataKeys.add(key.clone());
+                    handles.add(referenceHandle);
+                }
+            }
+            List<byte[]> allKeys = new ArrayList<>(keys.size() + metadataKeys.size());
+            allKeys.addAll(keys);
+            allKeys.addAll(metadataKeys);
+
+            Map<byte[], byte[]> values = db.multiGet(handles, allKeys);
+            for (int i = 0; i < keys.size(); i++) {
+                Persistable object = (Persistable) model.newInstance();
+                object.read(values.get(keys.get(i)));
+                if (referenceHandle != null) {
+                    object.readMetadata(values.get(metadataKeys.get(i)));
+                }
+                objects.add(object);
+            }
+        }
+
+        return objects;
+    }
+
+    @Override
+    public byte[] getMetadata(Class<?> model, Indexable index) throws Exception {
+        ColumnFamilyHandle referenceHandle = metadataReference.get(model);
+        if (referenceHandle == null || index == null) {
+            return null;
+        }
+        return db.get(referenceHandle, index.bytes());
+    }
+
     @Override
     public boolean mayExist(Class<?> model, Indexable index) {
         ColumnFamilyHandle handle = classTreeMap.get(model);
@@ -167,21 +338,10 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
     @Override
     public Set<Indexable> keysStartingWith(Class<?> modelClass, byte[] value) {
         Objects.requireNonNull(value, "value byte[] cannot be null");
-        ColumnFamilyHandle handle = classTreeMap.get(modelClass);
-        Set<Indexable> keys = null;
-        if (handle != null) {
-            try (RocksIterator iterator = db.newIterator(handle)) {
-                iterator.seek(HashFactory.GENERIC.create(modelClass, value, 0, value.length).bytes());
-
-                byte[] found;
-                while (iterator.isValid() && keyStartsWithValue(value, found = iterator.key())) {
-                    keys = keys == null ? new HashSet<>() : keys;
-                    keys.add(HashFactory.GENERIC.create(modelClass, found));
-                    iterator.next();
-                }
-            }
-        }
-        return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+        Set<Indexable> keys = new HashSet<>();
+        forEachKey(modelClass, value, key -> keys.add(HashFactory.GENERIC.create(modelClass, key)));
+
+        return keys.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(keys);
     }
 
     /**
@@ -290,7 +450,11 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
                 ColumnFamilyHandle referenceHandle = metadataReference.get(value.getClass());
 
                 if (value.merge()) {
-                    writeBatch.merge(handle, key.bytes(), value.bytes());
+                    byte[] bytes = value.bytes();
+                    // an empty operand would leave a dangling delimiter in the appended value
+                    if (bytes.length > 0) {
+                        writeBatch.merge(handle, key.bytes(), bytes);
+                    }
                 } else {
                     writeBatch.put(handle, key.bytes(), value.bytes());
                 }
@@ -319,59 +483,67 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
                     }
                 });
 
-                WriteOptions writeOptions = new WriteOptions()
+                try (WriteOptions writeOptions = new WriteOptions()
                         //We are explicit about what happens if the node reboots before a flush to the db
                         .setDisableWAL(false)
-                        //We want to make sure deleted data was indeed deleted
-                        .setSync(true);
-                db.write(writeOptions, writeBatch);
+                        //Not synced like the other writes: the WAL still survives a crash of the process and a
+                        //delete that is lost in an OS crash only leaves already pruned data behind
+                        .setSync(false)) {
+                    db.write(writeOptions, writeBatch);
+                }
             }
         }
     }
 
+    /**
+     * Removes all entries of the column family by dropping and recreating it, so it must not be used concurrently.
+     */
     @Override
     public void clear(Class<?> column) throws Exception {
         log.info("Deleting: {} entries", column.getSimpleName());
-        flushHandle(classTreeMap.get(column));
+        ColumnFamilyHandle handle = classTreeMap.get(column);
+        if (handle != null) {
+            Map<Class<?>, ColumnFamilyHandle> classMap = new LinkedHashMap<>(classTreeMap);
+            classMap.put(column, recreateColumnFamily(handle));
+            classTreeMap = MapUtils.unmodifiableMap(classMap);
+        }
     }
 
+    /**
+     * Removes all metadata entries by dropping and recreating the column family, so it must not be used concurrently.
+     */
     @Override
     public void clearMetadata(Class<?> column) throws Exception {
         log.info("Deleting: {} metadata", column.getSimpleName());
-        flushHandle(metadataReference.get(column));
+        ColumnFamilyHandle handle = metadataReference.get(column);
+        if (handle != null) {
+            Map<Class<?>, ColumnFamilyHandle> metadataRef = new HashMap<>(metadataReference);
+            metadataRef.put(column, recreateColumnFamily(handle));
+            metadataReference = MapUtils.unmodifiableMap(metadataRef);
+        }
     }
 
     @Override
     public List<byte[]> loadAllKeysFromTable(Class<? extends Persistable> column) {
         List<byte[]> keyBytes = new ArrayList<>();
+        forEachKey(column, null, keyBytes::add);
 
-        ColumnFamilyHandle columnFamilyHandle = classTreeMap.get(column);
-        try (RocksIterator iterator = db.newIterator(columnFamilyHandle)) {
-            for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
-                keyBytes.add(iterator.key());
-            }
-        }
         return keyBytes;
     }
 
-    private void flushHandle(ColumnFamilyHandle handle) throws RocksDBException {
-        List<byte[]> itemsToDelete = new ArrayList<>();
-        try (RocksIterator iterator = db.newIterator(handle)) {
+    /**
+     * Drops the column family and creates it again with the same options, which removes all of its entries at once
+     * instead of loading and deleting every key.
+     */
+    private synchronized ColumnFamilyHandle recreateColumnFamily(ColumnFamilyHandle handle) throws RocksDBException {
+        int index = columnFamilyHandles.indexOf(handle);
+        db.dropColumnFamily(handle);
+        handle.close();
 
-            for (iterator.seekToLast(); iterator.isValid(); iterator.prev()) {
-                itemsToDelete.add(iterator.key());
-            }
-        }
-        if (itemsToDelete.size() > 0) {
-            log.info("Amount to delete: " + itemsToDelete.size());
-        }
-        int counter = 0;
-        for (byte[] itemToDelete : itemsToDelete) {
-            if (++counter % 10000 == 0) {
-                log.info("Deleted: {}", counter);
-            }
-            db.delete(handle, itemToDelete);
-        }
+        ColumnFamilyHandle newHandle = db.createColumnFamily(columnFamilyDescriptors.get(index));
+        columnFamilyHandles.set(index, newHandle);
+
+        return newHandle;
     }
 
     @Override
@@ -458,41 +630,33 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
             bloomFilter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
 
-            BlockBasedTableConfig blockBasedTableConfig = new BlockBasedTableConfig().setFilter(bloomFilter);
-            blockBasedTableConfig
-                    .setFilter(bloomFilter)
-                    .setCacheNumShardBits(2)
-                    .setBlockSizeDeviation(10)
-                    .setBlockRestartInterval(16)
-                    .setBlockCacheSize(cacheSize * SizeUnit.KB)
-                    .setBlockCacheCompressedNumShardBits(10)
-                    .setBlockCacheCompressedSize(32 * SizeUnit.KB);
-
             options.setAllowConcurrentMemtableWrite(true);
 
-            MergeOperator mergeOperator = new StringAppendOperator();
-            ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions()
-                    .setMergeOperator(mergeOperator)
-                    .setTableFormatConfig(blockBasedTableConfig)
-                    .setMaxWriteBufferNumber(2)
-                    .setWriteBufferSize(2 * SizeUnit.MB);
+            // the options (and with them the block cache) are shared by all column families of the same profile
+            ColumnFamilyProfile defaultProfile = new ColumnFamilyProfile(cacheSize * SizeUnit.KB, 2 * SizeUnit.MB,
+                    null, false);
+            Map<ColumnFamilyProfile, ColumnFamilyOptions> profileOptions = new IdentityHashMap<>();
 
             List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
             //Add default column family. Main motivation is to not change legacy code
-            columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnFamilyOptions));
+            columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY,
+                    getColumnFamilyOptions(defaultProfile, profileOptions)));
             for (String name : columnFamilies.keySet()) {
-                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(name.getBytes(), columnFamilyOptions));
+                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(name.getBytes(), getColumnFamilyOptions(
+                        columnFamilyProfiles.getOrDefault(name, defaultProfile), profileOptions)));
             }
             // metadata descriptor is always last
             if (metadataColumnFamily != null) {
-                columnFamilyDescriptors.add(
-                        new ColumnFamilyDescriptor(metadataColumnFamily.getKey().getBytes(), columnFamilyOptions));
+                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(metadataColumnFamily.getKey().getBytes(),
+                        getColumnFamilyOptions(columnFamilyProfiles.getOrDefault(metadataColumnFamily.getKey(),
+                                defaultProfile), profileOptions)));
                 metadataReference = new HashMap<>();
             }
 
 
             db = RocksDB.open(options, path, columnFamilyDescriptors, columnFamilyHandles);
             db.enableFileDeletions(true);
+            this.columnFamilyDescriptors = columnFamilyDescriptors;
 
             initClassTreeMap(columnFamilyDescriptors);
 
@@ -502,6 +666,43 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         }
     }
 
+    private ColumnFamilyOptions getColumnFamilyOptions(ColumnFamilyProfile profile,
+                                                       Map<ColumnFamilyProfile, ColumnFamilyOptions> profileOptions) {
+        ColumnFamilyOptions cachedOptions = profileOptions.get(profile);
+        if (cachedOptions != null) {
+            return cachedOptions;
+        }
+
+        BlockBasedTableConfig blockBasedTableConfig = new BlockBasedTableConfig()
+                .setFilter(bloomFilter)
+                .setCacheNumShardBits(cacheShardBits)
+                .setBlockSizeDeviation(10)
+                .setBlockRestartInterval(16)
+                .setBlockCacheSize(profile.getBlockCacheSize())
+                .setBlockCacheCompressedNumShardBits(10)
+                .setBlockCacheCompressedSize(32 * SizeUnit.KB);
+        if (profile.isPinFilterAndIndexBlocks()) {
+            // the filter and index blocks are charged to the cache of the profile instead of growing unbounded
+            blockBasedTableConfig
+                    .setCacheIndexAndFilterBlocks(true)
+                    .setPinL0FilterAndIndexBlocksInCache(true);
+        }
+
+        ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions()
+                .setMergeOperator(new StringAppendOperator())
+                .setTableFormatConfig(blockBasedTableConfig)
+                .setMaxWriteBufferNumber(2)
+                .setWriteBufferSize(profile.getWriteBufferSize());
+        if (profile.getCompression() != null) {
+            columnFamilyOptions.setCompressionType(CompressionType.valueOf(profile.getCompression()));
+        }
+
+        allColumnFamilyOptions.add(columnFamilyOptions);
+        profileOptions.put(profile, columnFamilyOptions);
+
+        return columnFamilyOptions;
+    }
+
     private void initClassTreeMap(List<ColumnFamilyDescriptor> columnFamilyDescriptors) throws Exception {
         Map<Class<?>, ColumnFamilyHandle> classMap = new LinkedHashMap<>();
         String mcfName = metadataColumnFamily == null ? "" : metadataColumnFamily.getKey();
@@ -525,5 +726,4 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
         classTreeMap = MapUtils.unmodifiableMap(classMap);
     }
-
 }
@@ -48,6 +48,23 @@ public abstract class FastByteComparisons {
         return LexicographicalComparerHolder.BEST_COMPARER.compareTo(b1, s1, l1, b2, s2, l2);
     }
 
+    /**
+     * Checks if a range of a byte array only contains zeros (without allocating a zero array to compare with).
+     *
+     * @param b buffer
+     * @param s offset
+     * @param l length
+     *
+     * @return true if all bytes of the range are 0
+     */
+    public static boolean isZero(byte[] b, int s, int l) {
+        int bits = 0;
+        for (int i = s; i < s + l; i++) {
+            bits |= b[i];
+        }
+        return bits == 0;
+    }
+
     private interface Comparer<T> {
         abstract public int compareTo(T buffer1, int offset1, int length1,
                 T buffer2, int offset2, int length2);
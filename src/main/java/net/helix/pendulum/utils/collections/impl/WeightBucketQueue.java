@@ -0,0 +1,201 @@
+package net.helix.pendulum.utils.collections.impl;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded, thread safe priority queue for elements that are prioritized by a small integer weight (i.e. the weight
+ * magnitude of a transaction).
+ *
+ * Instead of keeping all elements in one sorted structure, the queue keeps one lock-free FIFO bucket per weight, so
+ * adding and polling an element only contends with the threads that access the same weight and never needs to
+ * compare elements. {@link #poll()} returns the oldest element of the heaviest non-empty bucket. If the queue is full,
+ * adding an element evicts the oldest element of the lightest non-empty bucket, unless that bucket is heavier than
+ * the new element, in which case the new element is dropped instead.
+ *
+ * If a key function is given, the keys of the queued elements are tracked in a concurrent set and an element whose
+ * key is already queued is rejected (i.e. the same transaction received from several neighbors is only queued once).
+ *
+ * The size of the queue and the amount of dropped elements are tracked in counters, so they can be queried in O(1).
+ * Since producers don't block each other, the bound is a soft one: under contention the queue can temporarily hold
+ * up to one additional element per concurrent producer.
+ *
+ * @param <E> the type of the queued elements
+ */
+public class WeightBucketQueue<E> {
+    private final Queue<E>[] buckets;
+    private final ToIntFunction<E> weightFunction;
+    private final Function<E, ?> keyFunction;
+    private final Set<Object> queuedKeys;
+    private final int maxSize;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+
+    /**
+     * Creates a queue whose elements are all treated with the same priority (a bounded FIFO queue).
+     *
+     * @param maxSize the maximum amount of queued elements
+     */
+    public WeightBucketQueue(int maxSize) {
+        this(maxSize, 1, element -> 0);
+    }
+
+    /**
+     * @param maxSize the maximum amount of queued elements
+     * @param bucketCount the amount of distinct weights (weights outside of {@code [0, bucketCount)} are clamped)
+     * @param weightFunction function that calculates the weight of an element (higher weights are polled first)
+     */
+    public WeightBucketQueue(int maxSize, int bucketCount, ToIntFunction<E> weightFunction) {
+        this(maxSize, bucketCount, weightFunction, null);
+    }
+
+    /**
+     * @param maxSize the maximum amount of queued elements
+     * @param bucketCount the amount of distinct weights (weights outside of {@code [0, bucketCount)} are clamped)
+     * @param weightFunction function that calculates the weight of an element (higher weights are polled first)
+     * @param keyFunction function that calculates the key that identifies duplicate elements (null to allow
+     *                    duplicates)
+     */
+    @SuppressWarnings("unchecked")
+    public WeightBucketQueue(int maxSize, int bucketCount, ToIntFunction<E> weightFunction,
+            Function<E, ?> keyFunction) {
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("the queue needs at least one bucket");
+        }
+
+        this.maxSize = maxSize;
+        this.weightFunction = weightFunction;
+        this.keyFunction = keyFunction;
+        this.queuedKeys = keyFunction == null ? null : ConcurrentHashMap.newKeySet();
+        this.buckets = new Queue[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Adds an element to the queue, evicting a lighter element if the queue is full.
+     *
+     * @param element the element that shall be queued
+     * @return true if the element was queued and false if it was dropped because the queue is full of heavier elements
+     *         or an element with the same key is already queued
+     */
+    public boolean offer(E element) {
+        if (queuedKeys != null && !queuedKeys.add(keyFunction.apply(element))) {
+            duplicateCount.increment();
+
+            return false;
+        }
+
+        int bucket = bucketOf(element);
+        if (size.get() >= maxSize && !evictUpTo(bucket)) {
+            dropCount.increment();
+            removeKey(element);
+
+            return false;
+        }
+
+        buckets[bucket].offer(element);
+        size.incrementAndGet();
+
+        return true;
+    }
+
+    /**
+     * Removes the oldest element with the highest weight from the queue.
+     *
+     * @return the removed element or null if the queue is empty
+     */
+    public E poll() {
+        for (int i = buckets.length - 1; i >= 0; i--) {
+            E element = buckets[i].poll();
+            if (element != null) {
+                size.decrementAndGet();
+                removeKey(element);
+
+                return element;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the amount of queued elements
+     */
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the amount of elements that were dropped or evicted because the queue was full
+     */
+    public long getDropCount() {
+        return dropCount.sum();
+    }
+
+    /**
+     * @return the amount of elements that were rejected because an element with the same key was already queued
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.sum();
+    }
+
+    /**
+     * Removes all elements from the queue.
+     */
+    public void clear() {
+        while (poll() != null) {
+            // drain the buckets one by one to keep the size counter consistent
+        }
+    }
+
+    /**
+     * Evicts the oldest element of the lightest non-empty bucket that is not heavier than the given one.
+     *
+     * @param maxBucket the heaviest bucket that may be evicted from
+     * @return true if an element was evicted and false otherwise
+     */
+    private boolean evictUpTo(int maxBucket) {
+        for (int i = 0; i <= maxBucket; i++) {
+            E element = buckets[i].poll();
+            if (element != null) {
+                size.decrementAndGet();
+                dropCount.increment();
+                removeKey(element);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void removeKey(E element) {
+        if (queuedKeys != null) {
+            queuedKeys.remove(keyFunction.apply(element));
+        }
+    }
+
+    private int bucketOf(E element) {
+        int weight = weightFunction.applyAsInt(element);
+
+        return Math.max(0, Math.min(buckets.length - 1, weight));
+    }
+}
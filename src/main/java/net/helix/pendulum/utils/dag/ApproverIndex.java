@@ -0,0 +1,334 @@
+package net.helix.pendulum.utils.dag;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the approvers of the recently stored transactions, so random walks and traversals don't have to
+ * load and deserialize the {@link net.helix.pendulum.model.persistables.Approvee} entries from the database for every
+ * step.
+ *
+ * Every transaction hash that is stored or referenced gets an integer id. The ids are assigned sequentially and
+ * address the slots of a ring of fixed size, so the oldest transactions are forgotten when the ring is full or when
+ * they were stored before the oldest retained solid milestone (see {@link #onSolidMilestone(int)}). All slot data is
+ * kept in direct buffers outside of the heap: the hash of every slot, two approvee edges per slot (a transaction
+ * references exactly a trunk and a branch) and the head of its approver list. Since the graph grows with every
+ * transaction, the approver lists are not stored as compressed rows but are threaded through the approvee edges of
+ * the approving transactions, which makes adding a transaction O(1).
+ *
+ * The approvers of transactions that were stored before the index was started are only known to the database, so
+ * the first request for the approvers of a transaction merges its database entry into the index. If the list of a
+ * transaction can't be complete anymore (an approver was forgotten or has more than two approvees), requests for it
+ * return null and the caller has to fall back to the database.
+ */
+public class ApproverIndex {
+    /**
+     * Interface of the function that loads the approvers of a transaction from the database.
+     */
+    @FunctionalInterface
+    public interface ApproversLoader {
+        Set<Hash> load(Hash hash) throws Exception;
+    }
+
+    private static final int NONE = -1;
+
+    private static final byte FLAG_STORED = 1;
+    private static final byte FLAG_LOADED = 2;
+    private static final byte FLAG_INCOMPLETE = 4;
+
+    private final ApproversLoader loader;
+    private final int capacity;
+    private final int mask;
+    private final int retainedMilestones;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Hash, Integer> ids = new HashMap<>();
+
+    private final ByteBuffer hashes;
+    private final ByteBuffer flags;
+    private final IntBuffer slotIds;
+    private final IntBuffer approverHeads;
+    private final IntBuffer edgeApprovees;
+    private final IntBuffer edgeNext;
+
+    /**
+     * Sequence number of the next id and of the oldest id that is not evicted yet.
+     */
+    private long nextSequence = 0;
+    private long oldestSequence = 0;
+
+    /**
+     * Sequence numbers of the first ids that were assigned after the retained solid milestones.
+     */
+    private final Deque<Long> milestoneBoundaries = new ArrayDeque<>();
+
+    /**
+     * @param capacity the amount of transactions that can be indexed (rounded up to a power of two)
+     * @param retainedMilestones the amount of solid milestones whose transactions are kept in the index
+     * @param loader function that loads the approvers of a transaction from the database
+     */
+    public ApproverIndex(int capacity, int retainedMilestones, ApproversLoader loader) {
+        this.capacity = Integer.highestOneBit(Math.max(4, capacity) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.retainedMilestones = retainedMilestones;
+        this.loader = loader;
+
+        hashes = ByteBuffer.allocateDirect(this.capacity * Hash.SIZE_IN_BYTES);
+        flags = ByteBuffer.allocateDirect(this.capacity);
+        slotIds = allocateInts(this.capacity);
+        approverHeads = allocateInts(this.capacity);
+        edgeApprovees = allocateInts(this.capacity * 2);
+        edgeNext = allocateInts(this.capacity * 2);
+    }
+
+    /**
+     * Adds a stored transaction and links it to the approver lists of its trunk and branch.
+     *
+     * @param hash hash of the stored transaction
+     * @param trunk hash of the trunk transaction
+     * @param branch hash of the branch transaction
+     */
+    public void addTransaction(Hash hash, Hash trunk, Hash branch) {
+        lock.writeLock().lock();
+        try {
+            int id = getOrCreateId(hash);
+            if ((flags.get(slot(id)) & FLAG_STORED) != 0) {
+                return;
+            }
+            setFlag(id, FLAG_STORED);
+
+            link(id, getOrCreateId(trunk));
+            link(id, getOrCreateId(branch));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an approver to a transaction that is not referenced as its trunk or branch (i.e. the tips confirmed by a
+     * milestone).
+     *
+     * @param approvee hash of the approved transaction
+     * @param approver hash of the approving transaction
+     */
+    public void addApprover(Hash approvee, Hash approver) {
+        lock.writeLock().lock();
+        try {
+            Integer approveeId = ids.get(approvee);
+            if (approveeId != null) {
+                link(getOrCreateId(approver), approveeId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the approvers of a transaction.
+     *
+     * @param hash hash of the transaction
+     * @return a new set with the hashes of the approvers or null if the transaction is not indexed
+     * @throws Exception if the approvers can't be loaded from the database
+     */
+    public Set<Hash> getApprovers(Hash hash) throws Exception {
+        Integer id;
+        lock.readLock().lock();
+        try {
+            id = ids.get(hash);
+            if (id == null || (flags.get(slot(id)) & FLAG_INCOMPLETE) != 0) {
+                return null;
+            }
+            if ((flags.get(slot(id)) & FLAG_LOADED) != 0) {
+                return collectApprovers(id);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // transactions that were stored before the index was started are only known to the database
+        Set<Hash> storedApprovers = loader.load(hash);
+        lock.writeLock().lock();
+        try {
+            if (!isValid(id)) {
+                return storedApprovers;
+            }
+            for (Hash approver : storedApprovers) {
+                // stored approvers are linked as well, since their edge still points to the old id if the transaction
+                // was evicted and indexed again (linking an approver that is already linked does nothing)
+                link(getOrCreateId(approver), id);
+                if (!isValid(id)) {
+                    return storedApprovers;
+                }
+            }
+            setFlag(id, FLAG_LOADED);
+
+            Set<Hash> approvers = (flags.get(slot(id)) & FLAG_INCOMPLETE) != 0 ? null : collectApprovers(id);
+
+            return approvers == null ? storedApprovers : approvers;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the transactions that were stored before the oldest retained solid milestone.
+     *
+     * @param milestoneIndex index of the new latest solid milestone
+     */
+    public void onSolidMilestone(int milestoneIndex) {
+        lock.writeLock().lock();
+        try {
+            milestoneBoundaries.addLast(nextSequence);
+            while (milestoneBoundaries.size() > retainedMilestones) {
+                long boundary = milestoneBoundaries.pollFirst();
+                while (oldestSequence < boundary) {
+                    evict(oldestSequence++);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the amount of indexed transactions
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int getOrCreateId(Hash hash) {
+        Integer id = ids.get(hash);
+        if (id != null) {
+            return id;
+        }
+
+        if (nextSequence - oldestSequence >= capacity) {
+            evict(oldestSequence++);
+        }
+        int newId = (int) (nextSequence++ & Integer.MAX_VALUE);
+        int slot = slot(newId);
+        hashes.position(slot * Hash.SIZE_IN_BYTES);
+        hashes.put(hash.bytes(), 0, Hash.SIZE_IN_BYTES);
+        flags.put(slot, (byte) 0);
+        slotIds.put(slot, newId);
+        approverHeads.put(slot, NONE);
+        for (int edge = slot * 2; edge < slot * 2 + 2; edge++) {
+            edgeApprovees.put(edge, NONE);
+            edgeNext.put(edge, NONE);
+        }
+        ids.put(hash, newId);
+
+        return newId;
+    }
+
+    private void evict(long sequence) {
+        int id = (int) (sequence & Integer.MAX_VALUE);
+        if (!isValid(id)) {
+            return;
+        }
+
+        int slot = slot(id);
+        ids.remove(getHash(slot));
+        slotIds.put(slot, NONE);
+        // the approver lists of the approvees are threaded through the edges of the evicted transaction
+        for (int edge = slot * 2; edge < slot * 2 + 2; edge++) {
+            int approveeId = edgeApprovees.get(edge);
+            if (isValid(approveeId)) {
+                setFlag(approveeId, FLAG_INCOMPLETE);
+            }
+        }
+    }
+
+    /**
+     * Adds the approver to the approver list of the approvee using a free edge of the approver.
+     */
+    private void link(int approverId, int approveeId) {
+        if (!isValid(approverId) || !isValid(approveeId)) {
+            return;
+        }
+
+        int approverSlot = slot(approverId);
+        int freeEdge = NONE;
+        for (int edge = approverSlot * 2; edge < approverSlot * 2 + 2; edge++) {
+            int linkedApproveeId = edgeApprovees.get(edge);
+            if (linkedApproveeId == approveeId) {
+                return;
+            }
+            if (freeEdge == NONE && !isValid(linkedApproveeId)) {
+                freeEdge = edge;
+            }
+        }
+        if (freeEdge == NONE) {
+            setFlag(approveeId, FLAG_INCOMPLETE);
+
+            return;
+        }
+
+        int approveeSlot = slot(approveeId);
+        edgeApprovees.put(freeEdge, approveeId);
+        edgeNext.put(freeEdge, approverHeads.get(approveeSlot));
+        approverHeads.put(approveeSlot, approverId);
+    }
+
+    private Set<Hash> collectApprovers(int id) {
+        Set<Hash> approvers = new LinkedHashSet<>();
+        int approverId = approverHeads.get(slot(id));
+        while (approverId != NONE) {
+            int approverSlot = slot(approverId);
+            approvers.add(getHash(approverSlot));
+            if (edgeApprovees.get(approverSlot * 2) == id) {
+                approverId = edgeNext.get(approverSlot * 2);
+            } else if (edgeApprovees.get(approverSlot * 2 + 1) == id) {
+                approverId = edgeNext.get(approverSlot * 2 + 1);
+            } else {
+                // the approver doesn't reference the transaction anymore, so the list can't be followed
+                return null;
+            }
+        }
+
+        return approvers;
+    }
+
+    private boolean isValid(int id) {
+        return id >= 0 && slotIds.get(slot(id)) == id;
+    }
+
+    private int slot(int id) {
+        return id & mask;
+    }
+
+    private void setFlag(int id, byte flag) {
+        int slot = slot(id);
+        flags.put(slot, (byte) (flags.get(slot) | flag));
+    }
+
+    private Hash getHash(int slot) {
+        byte[] hash = new byte[Hash.SIZE_IN_BYTES];
+        for (int i = 0; i < Hash.SIZE_IN_BYTES; i++) {
+            hash[i] = hashes.get(slot * Hash.SIZE_IN_BYTES + i);
+        }
+
+        return HashFactory.TRANSACTION.create(hash);
+    }
+
+    private static IntBuffer allocateInts(int size) {
+        IntBuffer buffer = ByteBuffer.allocateDirect(size * Integer.BYTES).asIntBuffer();
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, NONE);
+        }
+
+        return buffer;
+    }
+}
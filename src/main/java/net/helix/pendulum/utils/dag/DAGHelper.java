@@ -106,7 +106,7 @@ public class DAGHelper {
                             currentTransactionConsumer.accept(currentTransaction);
                         }
 
-                        transactionsToExamine.addAll(ApproveeViewModel.load(tangle, currentTransactionHash).getHashes());
+                        transactionsToExamine.addAll(ApproveeViewModel.loadHashes(tangle, currentTransactionHash));
                     }
                 }
             }
@@ -1,7 +1,10 @@
 package net.helix.pendulum;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 
 import org.bouncycastle.util.encoders.Hex;
@@ -12,7 +15,11 @@ import org.junit.Assert;
 import org.junit.rules.TemporaryFolder;
 
 import net.helix.pendulum.conf.MainnetConfig;
+import net.helix.pendulum.crypto.Sha3;
+import net.helix.pendulum.crypto.Sponge;
 import net.helix.pendulum.crypto.SpongeFactory;
+import net.helix.pendulum.crypto.Winternitz;
+import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.TransactionHash;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
@@ -106,4 +113,71 @@ public class BundleValidatorTest {
         Assert.assertTrue(BundleValidator.validate(tangle, snapshotProvider.getInitialSnapshot(), transactions.get(0).getHash()).get(0).size() == transactions.size());
     }
 
+    @Test
+    public void validateSignedBundleTest() throws Exception {
+        byte[] seed = new byte[Sha3.HASH_LENGTH];
+        new Random(1).nextBytes(seed);
+        List<TransactionViewModel> transactions = storeSignedBundle(seed, false);
+        Assert.assertEquals("bundle with a signature of two fragments should be valid", transactions.size(),
+                BundleValidator.validate(tangle, snapshotProvider.getInitialSnapshot(), transactions.get(0).getHash()).get(0).size());
+    }
+
+    @Test
+    public void validateTamperedSignatureTest() throws Exception {
+        byte[] seed = new byte[Sha3.HASH_LENGTH];
+        new Random(2).nextBytes(seed);
+        List<TransactionViewModel> transactions = storeSignedBundle(seed, true);
+        Assert.assertTrue("bundle with a tampered signature should be invalid",
+                BundleValidator.validate(tangle, snapshotProvider.getInitialSnapshot(), transactions.get(0).getHash()).isEmpty());
+    }
+
+    /**
+     * Stores a bundle that transfers a value from the first address (security level 2) of the seed, so its signature
+     * is divided between two transactions.
+     */
+    private static List<TransactionViewModel> storeSignedBundle(byte[] seed, boolean tamper) throws Exception {
+        byte[] input = Winternitz.generateAddress(seed, 0, 2);
+        byte[] output = new byte[TransactionViewModel.ADDRESS_SIZE];
+        byte[][] bundle = {bundleTransaction(input, -5, 0), bundleTransaction(input, 0, 1), bundleTransaction(output, 5, 2)};
+
+        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        for (byte[] bytes : bundle) {
+            sha3.absorb(bytes, TransactionViewModel.ESSENCE_OFFSET, TransactionViewModel.ESSENCE_SIZE);
+        }
+        byte[] bundleHash = new byte[TransactionViewModel.BUNDLE_SIZE];
+        sha3.squeeze(bundleHash, 0, bundleHash.length);
+        byte[] signature = Winternitz.signatureFragments(SpongeFactory.Mode.S256, seed, 0, 2, bundleHash);
+        System.arraycopy(signature, 0, bundle[0], 0, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE);
+        System.arraycopy(signature, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE, bundle[1], 0,
+                TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE);
+        if (tamper) {
+            bundle[1][0] ^= 1;
+        }
+
+        // chain the transactions via their trunks, starting with the last one
+        LinkedList<TransactionViewModel> transactions = new LinkedList<>();
+        Hash trunk = Hash.NULL_HASH;
+        for (int i = bundle.length - 1; i >= 0; i--) {
+            System.arraycopy(bundleHash, 0, bundle[i], TransactionViewModel.BUNDLE_OFFSET, TransactionViewModel.BUNDLE_SIZE);
+            System.arraycopy(trunk.bytes(), 0, bundle[i], TransactionViewModel.TRUNK_TRANSACTION_OFFSET,
+                    TransactionViewModel.TRUNK_TRANSACTION_SIZE);
+            TransactionViewModel transaction = new TransactionViewModel(bundle[i],
+                    TransactionHash.calculate(SpongeFactory.Mode.S256, bundle[i]));
+            transaction.store(tangle, snapshotProvider.getInitialSnapshot());
+            transactions.addFirst(transaction);
+            trunk = transaction.getHash();
+        }
+        return transactions;
+    }
+
+    private static byte[] bundleTransaction(byte[] address, long value, long currentIndex) {
+        byte[] bytes = new byte[TransactionViewModel.SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        System.arraycopy(address, 0, bytes, TransactionViewModel.ADDRESS_OFFSET, TransactionViewModel.ADDRESS_SIZE);
+        buffer.putLong(TransactionViewModel.VALUE_OFFSET, value);
+        buffer.putLong(TransactionViewModel.CURRENT_INDEX_OFFSET, currentIndex);
+        buffer.putLong(TransactionViewModel.LAST_INDEX_OFFSET, 2);
+        return bytes;
+    }
+
 }
@@ -16,6 +16,9 @@ import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static net.helix.pendulum.TransactionTestUtils.*;
 import static org.junit.Assert.*;
 
@@ -202,6 +205,69 @@ public class TransactionValidatorTest {
         assertFalse("GrandParent tx was expected to be not solid", grandParent.isSolid());
     }
 
+    @Test
+    public void approverWaitsForAllMissingParentsTest() throws Exception {
+        TransactionViewModel trunk = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        trunk.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        TransactionViewModel branch = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        branch.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        TransactionViewModel child = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(trunk.getHash(),
+                branch.getHash()), getTransactionHash());
+        child.store(tangle, snapshotProvider.getInitialSnapshot());
+        txValidator.updateStatus(child);
+
+        trunk.updateSolid(true);
+        trunk.update(tangle, snapshotProvider.getInitialSnapshot(), "solid");
+        txValidator.addSolidTransaction(trunk.getHash());
+        while (!txValidator.isNewSolidTxSetsEmpty()) {
+            txValidator.propagateSolidTransactions();
+        }
+        assertFalse("Child tx was expected to wait for its branch",
+                TransactionViewModel.fromHash(tangle, child.getHash()).isSolid());
+
+        branch.updateSolid(true);
+        branch.update(tangle, snapshotProvider.getInitialSnapshot(), "solid");
+        txValidator.addSolidTransaction(branch.getHash());
+        while (!txValidator.isNewSolidTxSetsEmpty()) {
+            txValidator.propagateSolidTransactions();
+        }
+        assertTrue("Child tx was expected to be solid once both parents are solid",
+                TransactionViewModel.fromHash(tangle, child.getHash()).isSolid());
+    }
+
+    @Test
+    public void transactionsThatBecomeSolidTogetherAreReportedAncestorsFirstTest() throws Exception {
+        TransactionViewModel leaf = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        leaf.updateSolid(true);
+        leaf.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        TransactionViewModel grandParent = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(
+                leaf.getHash(), leaf.getHash()), getTransactionHash());
+        grandParent.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        TransactionViewModel parent = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(
+                grandParent.getHash(), grandParent.getHash()), getTransactionHash());
+        parent.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        // the child is traversed before the parent, but it also references the grandparent of the parent
+        TransactionViewModel child = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(
+                grandParent.getHash(), parent.getHash()), getTransactionHash());
+        child.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        List<TransactionViewModel> reportedTransactions = new ArrayList<>();
+        txValidator.addSolidTransactionListener(reportedTransactions::add);
+
+        assertTrue("Child tx was expected to be solid", txValidator.checkSolidity(child.getHash(), false));
+        assertEquals("All new solid transactions should be reported", 3, reportedTransactions.size());
+        assertEquals("Grandparent tx should be reported first", grandParent.getHash(),
+                reportedTransactions.get(0).getHash());
+        assertEquals("Parent tx should be reported before the child", parent.getHash(),
+                reportedTransactions.get(1).getHash());
+        assertEquals("Child tx should be reported last", child.getHash(), reportedTransactions.get(2).getHash());
+    }
+
     private TransactionViewModel getTxWithoutBranchAndTrunk() throws Exception {
         byte[] bytes = getTransactionBytes();
         TransactionViewModel tx = new TransactionViewModel(bytes, TransactionHash.calculate(SpongeFactory.Mode.S256, bytes));
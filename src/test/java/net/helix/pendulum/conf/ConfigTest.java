@@ -1,5 +1,6 @@
 package net.helix.pendulum.conf;
 
+import com.beust.jcommander.ParameterException;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.PropertyNamingStrategy;
@@ -116,6 +117,22 @@ public class ConfigTest {
         Assert.assertEquals("The api interface should be open to the public", "0.0.0.0", pendulumConfig.getApiHost());
     }
 
+    @Test
+    public void dbCompressionTest() {
+        String[] args = {"--db-transaction-compression", "LZ4_COMPRESSION"};
+        PendulumConfig pendulumConfig = ConfigFactory.createPendulumConfig(false);
+        pendulumConfig.parseConfigFromArgs(args);
+        Assert.assertEquals("DB_TRANSACTION_COMPRESSION", "LZ4_COMPRESSION", pendulumConfig.getDbTransactionCompression());
+        Assert.assertEquals("DB_INDEX_COMPRESSION", "SNAPPY_COMPRESSION", pendulumConfig.getDbIndexCompression());
+    }
+
+    @Test(expected = ParameterException.class)
+    public void invalidDbCompressionTest() {
+        String[] args = {"--db-index-compression", "SNAPY_COMPRESSION"};
+        PendulumConfig pendulumConfig = ConfigFactory.createPendulumConfig(false);
+        pendulumConfig.parseConfigFromArgs(args);
+    }
+
     @Test
     public void argsParsingTestnetTest() {
         String[] args = {
@@ -18,6 +18,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
 
@@ -102,6 +103,32 @@ public class TransactionViewModelTest {
         // TODO implementation needed
     }
 
+    @Test
+    public void fromHashesTest() throws Exception {
+        TransactionViewModel storedTx, otherStoredTx;
+        byte[] bytes = getTransactionBytes();
+        storedTx = new TransactionViewModel(bytes, TransactionHash.calculate(SpongeFactory.Mode.S256, bytes));
+        bytes = getTransactionBytes();
+        otherStoredTx = new TransactionViewModel(bytes, TransactionHash.calculate(SpongeFactory.Mode.S256, bytes));
+        storedTx.store(tangle, snapshotProvider.getInitialSnapshot());
+        otherStoredTx.store(tangle, snapshotProvider.getInitialSnapshot());
+        storedTx.setSnapshot(tangle, snapshotProvider.getInitialSnapshot(), 5);
+        Hash missingHash = getTransactionHash();
+
+        List<TransactionViewModel> transactionViewModels = TransactionViewModel.fromHashes(tangle,
+                Arrays.asList(otherStoredTx.getHash(), missingHash, storedTx.getHash()));
+
+        Assert.assertEquals("every hash should have a transaction", 3, transactionViewModels.size());
+        Assert.assertArrayEquals("transactions should be returned in the order of the hashes",
+                otherStoredTx.getBytes(), transactionViewModels.get(0).getBytes());
+        Assert.assertEquals("missing transaction should be empty", TransactionViewModel.PREFILLED_SLOT,
+                transactionViewModels.get(1).getType());
+        Assert.assertEquals("missing transaction should keep its hash", missingHash,
+                transactionViewModels.get(1).getHash());
+        Assert.assertEquals("metadata should be loaded together with the transaction", 5,
+                transactionViewModels.get(2).snapshotIndex());
+    }
+
     //@Test
     public void fromHash1() throws Exception {
         // TODO implementation needed
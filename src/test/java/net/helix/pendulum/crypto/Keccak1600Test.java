@@ -0,0 +1,81 @@
+package net.helix.pendulum.crypto;
+
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class Keccak1600Test {
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void sha3DigestTest() {
+        assertSameDigests(32, Keccak1600.SHA3_PADDING, new SHA3Digest(256));
+        assertSameDigests(64, Keccak1600.SHA3_PADDING, new SHA3Digest(512));
+    }
+
+    @Test
+    public void keccakDigestTest() {
+        assertSameDigests(32, Keccak1600.KECCAK_PADDING, new KeccakDigest(256));
+        assertSameDigests(64, Keccak1600.KECCAK_PADDING, new KeccakDigest(512));
+    }
+
+    @Test
+    public void spongeSqueezesChainedDigestsTest() {
+        byte[] message = new byte[Sha3.HASH_LENGTH * 3];
+        random.nextBytes(message);
+
+        Sponge sponge = SpongeFactory.create(SpongeFactory.Mode.S256);
+        sponge.absorb(message, 0, message.length);
+        byte[] squeezed = new byte[Sha3.HASH_LENGTH * 2];
+        sponge.squeeze(squeezed, 0, squeezed.length);
+
+        // every squeezed block is the digest of the previous one
+        SHA3Digest digest = new SHA3Digest(256);
+        byte[] expected = new byte[Sha3.HASH_LENGTH * 2];
+        digest.update(message, 0, message.length);
+        digest.doFinal(expected, 0);
+        digest.update(expected, 0, Sha3.HASH_LENGTH);
+        digest.doFinal(expected, Sha3.HASH_LENGTH);
+        Assert.assertArrayEquals("squeezed blocks should be chained digests", expected, squeezed);
+    }
+
+    @Test
+    public void threadLocalSpongeIsResetTest() {
+        byte[] message = new byte[Sha3.HASH_LENGTH];
+        random.nextBytes(message);
+        SpongeFactory.getThreadLocal(SpongeFactory.Mode.S256).absorb(message, 0, message.length);
+
+        Sponge sponge = SpongeFactory.getThreadLocal(SpongeFactory.Mode.S256);
+        byte[] hash = new byte[Sha3.HASH_LENGTH];
+        sponge.absorb(message, 0, message.length);
+        sponge.squeeze(hash, 0, hash.length);
+        Assert.assertArrayEquals("thread local sponge should start with an empty state",
+                Sha3.getStandardHash(message), hash);
+    }
+
+    private void assertSameDigests(int digestSize, byte padding, Digest referenceDigest) {
+        Keccak1600 keccak = new Keccak1600(digestSize, padding);
+        for (int length = 0; length < 600; length += 1 + random.nextInt(13)) {
+            byte[] message = new byte[length + 16];
+            random.nextBytes(message);
+            int offset = random.nextInt(16);
+
+            // absorb in two parts, so unaligned positions are covered as well
+            int split = random.nextInt(length + 1);
+            keccak.update(message, offset, split);
+            keccak.update(message, offset + split, length - split);
+            byte[] hash = new byte[digestSize];
+            keccak.digest(hash, 0);
+
+            byte[] expectedHash = new byte[digestSize];
+            referenceDigest.update(message, offset, length);
+            referenceDigest.doFinal(expectedHash, 0);
+            Assert.assertArrayEquals("digest of " + length + " bytes should match the reference", expectedHash, hash);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.helix.pendulum.crypto;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class MinerPoolTest {
+
+    private static final Random RND = new Random();
+
+    private final MinerPool pool = new MinerPool(2);
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void concurrentJobsFindValidNoncesTest() throws Exception {
+        byte[] txBytes1 = randomTransaction();
+        byte[] txBytes2 = randomTransaction();
+
+        MinerPool.Job job1 = pool.submit(txBytes1, 2, 2);
+        MinerPool.Job job2 = pool.submit(txBytes2, 2, 2);
+
+        Assert.assertTrue("first job should find a nonce", job1.await());
+        Assert.assertTrue("second job should find a nonce", job2.await());
+        assertLeadingZeroBytes(txBytes1, 2);
+        assertLeadingZeroBytes(txBytes2, 2);
+        Assert.assertTrue("hashes should be counted", pool.getHashCount() >= job1.getHashCount() + job2.getHashCount());
+    }
+
+    @Test
+    public void cancelledJobDoesNotBlockOtherJobsTest() throws Exception {
+        MinerPool.Job impossibleJob = pool.submit(randomTransaction(), 31, 2);
+        byte[] txBytes = randomTransaction();
+        MinerPool.Job job = pool.submit(txBytes, 1, 2);
+
+        Assert.assertTrue("job should be processed next to the long running job", job.await());
+        assertLeadingZeroBytes(txBytes, 1);
+
+        impossibleJob.cancel();
+        Assert.assertFalse("cancelled job should not be successful", impossibleJob.await());
+    }
+
+    @Test(timeout = 10_000)
+    public void shutdownCancelsJobsThatAreSearchedTest() throws Exception {
+        MinerPool.Job job = pool.submit(randomTransaction(), 31, 2);
+        while (pool.getHashCount() == 0) {
+            Thread.sleep(1);
+        }
+
+        pool.shutdown();
+        Assert.assertFalse("job that was searched during the shutdown should be cancelled", job.await());
+        Assert.assertFalse("job that was submitted after the shutdown should be cancelled",
+                pool.submit(randomTransaction(), 1, 2).await());
+    }
+
+    private static byte[] randomTransaction() {
+        byte[] txBytes = new byte[TransactionViewModel.SIZE];
+        RND.nextBytes(txBytes);
+
+        return txBytes;
+    }
+
+    private static void assertLeadingZeroBytes(byte[] txBytes, int difficulty) {
+        byte[] hash = new byte[Sha3.HASH_LENGTH];
+        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        sha3.absorb(txBytes, 0, txBytes.length);
+        sha3.squeeze(hash, 0, hash.length);
+        for (int i = 0; i < difficulty; i++) {
+            Assert.assertEquals("hash should start with " + difficulty + " zero bytes", 0, hash[i]);
+        }
+    }
+}
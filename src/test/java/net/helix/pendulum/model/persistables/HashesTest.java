@@ -36,4 +36,34 @@ public class HashesTest {
         Assert.assertArrayEquals(dataIN, dataOUT);
     }
 
+    @Test
+    public void readMergedValuesTest() {
+        Hashes first = new Hashes();
+        first.set.add(TransactionTestUtils.getTransactionHash());
+        first.set.add(TransactionTestUtils.getTransactionHash());
+        Hashes second = new Hashes();
+        second.set.add(TransactionTestUtils.getTransactionHash());
+
+        // the merge operator of the database joins the stored values with the delimiter
+        byte[] merged = ByteBuffer.allocate(first.bytes().length + 1 + second.bytes().length)
+                .put(first.bytes()).put(Hashes.delimiter).put(second.bytes()).array();
+        Hashes h = new Hashes();
+        h.read(merged);
+
+        Assert.assertEquals("merged value should contain the hashes of both values", 3, Hashes.count(merged, 0));
+        Assert.assertEquals("merged value should contain the hashes of both values", 3, h.set.size());
+        Assert.assertTrue("merged value should contain the hashes of both values",
+                h.set.containsAll(first.set) && h.set.containsAll(second.set));
+    }
+
+    @Test
+    public void emptySetTest() {
+        Hashes h = new Hashes();
+
+        Assert.assertEquals("empty set should be stored as empty value", 0, h.bytes().length);
+        Assert.assertEquals("empty value should contain no hashes", 0, Hashes.count(new byte[0], 0));
+        h.read(new byte[0]);
+        Assert.assertTrue("empty value should be read as empty set", h.set.isEmpty());
+    }
+
 }
@@ -3,6 +3,8 @@ package net.helix.pendulum.model.persistables;
 import org.junit.Test;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import net.helix.pendulum.TransactionTestUtils;
 import net.helix.pendulum.controllers.TransactionViewModel;
@@ -23,6 +25,33 @@ public class TransactionTest {
         assertArrayEquals("bytes should be the same in the copy", t.bytes(), newtx.bytes());
     }
     
+    @Test
+    public void metadataViewTest() {
+        Transaction t = TransactionTestUtils.getTransaction();
+        t.solid = true;
+        t.snapshot = 42;
+        t.height = 7;
+        t.sender = "neighbor";
+
+        TransactionMetadata metadata = new TransactionMetadata(t.metadata());
+
+        assertEquals("solid flag should be readable from the view", t.solid, metadata.isSolid());
+        assertEquals("milestone flag should be readable from the view", t.milestone, metadata.isMilestone());
+        assertEquals("snapshot should be readable from the view", t.snapshot, metadata.getSnapshot());
+        assertEquals("height should be readable from the view", t.height, metadata.getHeight());
+        assertEquals("type should be readable from the view", t.type, metadata.getType());
+        assertEquals("value should be readable from the view", t.value, metadata.getValue());
+        assertEquals("trunk should be readable from the view", t.trunk, metadata.getTrunkTransactionHash());
+        assertEquals("branch should be readable from the view", t.branch, metadata.getBranchTransactionHash());
+        assertEquals("bundle should be readable from the view", t.bundle, metadata.getBundleHash());
+
+        metadata.wrap(null);
+        assertTrue("view without metadata should be empty", metadata.isEmpty());
+        assertFalse("empty view should not be solid", metadata.isSolid());
+        assertEquals("empty view should report an unknown transaction",
+                TransactionViewModel.PREFILLED_SLOT, metadata.getType());
+    }
+
     @Test
     public void fromBytesTest() {
         byte[] bytes = TransactionTestUtils.getTransactionBytes();
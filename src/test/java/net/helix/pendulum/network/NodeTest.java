@@ -20,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.longThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -61,6 +62,7 @@ public class NodeTest {
         // verify config calls in Node constructor
         verify(nodeConfig).getRequestHashSize();
         verify(nodeConfig).getTransactionPacketSize();
+        verify(nodeConfig).getqSizeNode();
     }
 
     @After
@@ -90,9 +92,9 @@ public class NodeTest {
         TransactionViewModel transaction = mock(TransactionViewModel.class);
         // It is important to stub the getHash method here because processReceivedData will broadcast the transaction.
         // This might sometimes (concurrency issue) lead to a NPE in the process receiver thread.
-        // See executor.submit(spawnProcessReceivedThread()) -> Node.weightQueue -> transaction.getHash().bytes()[i]
+        // See executor.submit(spawnProcessReceivedThread()) -> Node.broadcastQueue -> transaction.weightMagnitude
         when(transaction.getHash()).thenReturn(Hash.NULL_HASH);
-        when(transaction.store(any(), any())).thenReturn(true);
+        when(transaction.store(any(), any(), anyBoolean())).thenReturn(true);
         Neighbor neighbor = mock(Neighbor.class, Answers.RETURNS_SMART_NULLS.get());
         node.processReceivedData(transaction, neighbor);
         verify(transaction).setArrivalTime(longThat(
@@ -0,0 +1,85 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class SeenBytesCacheTest {
+
+    private static final int PACKET_SIZE = 100;
+    private static final int TRANSACTION_SIZE = 90;
+
+    private final Random random = new Random();
+
+    @Test
+    public void findsSeenPacketTest() {
+        SeenBytesCache cache = new SeenBytesCache(16, 0, TRANSACTION_SIZE);
+        ByteBuffer packet = randomPacket();
+        Hash hash = TransactionTestUtils.getTransactionHash();
+
+        Assert.assertNull("unknown packet should not be found", cache.get(packet));
+        cache.put(packet, hash);
+        Assert.assertEquals("seen packet should be found", hash, cache.get(packet));
+        Assert.assertEquals("hit should be counted", 1, cache.getHitCount());
+        Assert.assertEquals("miss should be counted", 1, cache.getMissCount());
+    }
+
+    @Test
+    public void ignoresRequestedHashTest() {
+        SeenBytesCache cache = new SeenBytesCache(16, 0, TRANSACTION_SIZE);
+        ByteBuffer packet = randomPacket();
+        Hash hash = TransactionTestUtils.getTransactionHash();
+        cache.put(packet, hash);
+
+        ByteBuffer sameTransaction = ByteBuffer.allocate(PACKET_SIZE);
+        sameTransaction.put((ByteBuffer) packet.duplicate().limit(TRANSACTION_SIZE));
+        sameTransaction.put((byte) 1);
+        Assert.assertEquals("packet with same transaction should be found", hash, cache.get(sameTransaction));
+    }
+
+    @Test
+    public void distinguishesDifferentPacketsTest() {
+        SeenBytesCache cache = new SeenBytesCache(16, 0, TRANSACTION_SIZE);
+        ByteBuffer packet = randomPacket();
+        cache.put(packet, TransactionTestUtils.getTransactionHash());
+
+        ByteBuffer otherPacket = ByteBuffer.allocate(PACKET_SIZE).put(packet.array());
+        otherPacket.put(0, (byte) (packet.get(0) + 1));
+        Assert.assertNull("different packet should not be found", cache.get(otherPacket));
+    }
+
+    @Test
+    public void evictsOldPacketsTest() {
+        SeenBytesCache cache = new SeenBytesCache(16, 0, TRANSACTION_SIZE);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(randomPacket(), TransactionTestUtils.getTransactionHash());
+        }
+
+        int found = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.get(randomPacket()) != null) {
+                found++;
+            }
+        }
+        Assert.assertEquals("random packets should not be found", 0, found);
+    }
+
+    @Test
+    public void dropsEntriesWithDropRateTest() {
+        SeenBytesCache cache = new SeenBytesCache(16, 1, TRANSACTION_SIZE);
+        ByteBuffer packet = randomPacket();
+        cache.put(packet, TransactionTestUtils.getTransactionHash());
+
+        Assert.assertNull("entry should be dropped on lookup", cache.get(packet));
+    }
+
+    private ByteBuffer randomPacket() {
+        byte[] bytes = new byte[PACKET_SIZE];
+        random.nextBytes(bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+}
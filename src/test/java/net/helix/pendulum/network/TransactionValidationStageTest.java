@@ -0,0 +1,115 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.TransactionValidator;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.crypto.SpongeFactory;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.TransactionHash;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionBytes;
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class TransactionValidationStageTest {
+
+    private TransactionValidationStage validationStage;
+
+    @After
+    public void tearDown() throws Exception {
+        if (validationStage != null) {
+            validationStage.shutdown();
+        }
+    }
+
+    @Test
+    public void hashesAndValidatesTransactionsTest() throws Exception {
+        byte[] validBytes = getTransactionBytes();
+        byte[] invalidBytes = getTransactionBytes();
+        Hash invalidHash = TransactionHash.calculate(invalidBytes, TransactionViewModel.SIZE,
+                SpongeFactory.create(SpongeFactory.Mode.S256));
+
+        TransactionValidator transactionValidator = Mockito.mock(TransactionValidator.class);
+        Mockito.doAnswer(invocation -> {
+            TransactionViewModel transaction = (TransactionViewModel) invocation.getArguments()[0];
+            if (invalidHash.equals(transaction.getHash())) {
+                throw new IllegalStateException("invalid transaction");
+            }
+            return null;
+        }).when(transactionValidator).runValidation(Mockito.any(TransactionViewModel.class), Mockito.anyInt());
+
+        Map<Hash, TransactionValidationStage.ReceivedTransaction> results = new ConcurrentHashMap<>();
+        CountDownLatch processed = new CountDownLatch(2);
+        validationStage = new TransactionValidationStage(transactionValidator, receivedTransaction -> {
+            results.put(receivedTransaction.getRequestedHash(), receivedTransaction);
+            processed.countDown();
+        }, 10, 2);
+        validationStage.init();
+
+        Assert.assertTrue("valid transaction should be queued", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(validBytes, Hash.NULL_HASH, null)));
+        Assert.assertTrue("invalid transaction should be queued", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(invalidBytes, invalidHash, null)));
+        Assert.assertTrue("transactions should be processed", processed.await(5, TimeUnit.SECONDS));
+
+        TransactionValidationStage.ReceivedTransaction valid = results.get(Hash.NULL_HASH);
+        Assert.assertEquals("transaction should be hashed", TransactionHash.calculate(validBytes,
+                TransactionViewModel.SIZE, SpongeFactory.create(SpongeFactory.Mode.S256)),
+                valid.getTransaction().getHash());
+        Assert.assertNull("valid transaction should have no validation error", valid.getValidationError());
+        Assert.assertNotNull("invalid transaction should have a validation error",
+                results.get(invalidHash).getValidationError());
+    }
+
+    @Test
+    public void validatesQueuedDuplicatesOnceTest() throws Exception {
+        byte[] bytes = getTransactionBytes();
+        Hash firstRequest = getTransactionHash();
+        Hash secondRequest = getTransactionHash();
+        TransactionValidator transactionValidator = Mockito.mock(TransactionValidator.class);
+
+        Map<Hash, TransactionValidationStage.ReceivedTransaction> results = new ConcurrentHashMap<>();
+        CountDownLatch processed = new CountDownLatch(2);
+        validationStage = new TransactionValidationStage(transactionValidator, receivedTransaction -> {
+            results.put(receivedTransaction.getRequestedHash(), receivedTransaction);
+            processed.countDown();
+        }, 10, 1);
+
+        // the copy arrives while the first packet still waits for the validation
+        Assert.assertTrue("transaction should be queued", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(bytes, firstRequest, null)));
+        Assert.assertTrue("copy of the transaction should be accepted", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(bytes.clone(), secondRequest, null)));
+        Assert.assertEquals("copy should not be queued", 1, validationStage.getQueueSize());
+        Assert.assertEquals("copy should be counted", 1, validationStage.getDuplicateCount());
+
+        validationStage.init();
+        Assert.assertTrue("both packets should be processed", processed.await(5, TimeUnit.SECONDS));
+        Mockito.verify(transactionValidator, Mockito.times(1))
+                .runValidation(Mockito.any(TransactionViewModel.class), Mockito.anyInt());
+        Assert.assertSame("copy should get the validated transaction", results.get(firstRequest).getTransaction(),
+                results.get(secondRequest).getTransaction());
+        Assert.assertNull("copy should get the validation result", results.get(secondRequest).getValidationError());
+    }
+
+    @Test
+    public void dropsTransactionsIfQueueIsFullTest() {
+        // the threads are not started, so the queue is never drained
+        validationStage = new TransactionValidationStage(Mockito.mock(TransactionValidator.class),
+                receivedTransaction -> { }, 1, 1);
+
+        Assert.assertTrue("first transaction should be queued", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(getTransactionBytes(), Hash.NULL_HASH, null)));
+        Assert.assertFalse("second transaction should be dropped", validationStage.submit(
+                new TransactionValidationStage.ReceivedTransaction(getTransactionBytes(), Hash.NULL_HASH, null)));
+        Assert.assertEquals("dropped transaction should be counted", 1, validationStage.getDroppedCount());
+        Assert.assertEquals("queued transaction should be counted", 1, validationStage.getQueueSize());
+    }
+}
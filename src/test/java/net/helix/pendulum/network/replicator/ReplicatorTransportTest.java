@@ -0,0 +1,252 @@
+package net.helix.pendulum.network.replicator;
+
+import net.helix.pendulum.conf.MainnetConfig;
+import net.helix.pendulum.network.Node;
+import net.helix.pendulum.network.TCPNeighbor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class ReplicatorTransportTest {
+
+    private static final int PACKET_SIZE = 64;
+
+    private static final int FRAME_SIZE = PACKET_SIZE + ReplicatorTransport.CRC32_BYTES;
+
+    private static final int TIMEOUT = 5000;
+
+    private final BlockingQueue<byte[]> receivedPackets = new LinkedBlockingQueue<>();
+
+    private Node node;
+    private ReplicatorTransport transport;
+    private TCPNeighbor neighbor;
+    private ServerSocket peerServer;
+    private Socket source;
+    private Socket sink;
+    private int transportPort;
+
+    @Before
+    public void setUp() throws Exception {
+        node = new Node(null, null, null, null, null, null, new MainnetConfig(), null) {
+            @Override
+            public void preProcessReceivedData(byte[] receivedData, SocketAddress senderAddress, String uriScheme) {
+                receivedPackets.add(receivedData);
+            }
+        };
+        peerServer = new ServerSocket();
+        // a small receive buffer makes the writes of the transport fill up the socket buffers quickly
+        peerServer.setReceiveBufferSize(4096);
+        peerServer.bind(new InetSocketAddress("127.0.0.1", 0));
+        peerServer.setSoTimeout(TIMEOUT);
+        neighbor = new TCPNeighbor(new InetSocketAddress("127.0.0.1", peerServer.getLocalPort()), false);
+        node.getNeighbors().add(neighbor);
+
+        transportPort = freePort();
+        transport = new ReplicatorTransport(node, transportPort, PACKET_SIZE, 1, false);
+        transport.init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.shutdown();
+        closeQuietly(source);
+        closeQuietly(sink);
+        peerServer.close();
+    }
+
+    @Test
+    public void handshakeConnectsSinkToAnnouncedPortTest() throws Exception {
+        connectSource();
+
+        Assert.assertEquals("sink should announce the listener port of the transport", transportPort,
+                Integer.parseInt(new String(readBytes(sink, ReplicatorTransport.PORT_BYTES))));
+        Assert.assertEquals("neighbor should use the announced port", peerServer.getLocalPort(), neighbor.getPort());
+    }
+
+    @Test
+    public void receivesFramesSplitIntoPartialReadsTest() throws Exception {
+        connectSource();
+        byte[] first = packet(1);
+        byte[] second = packet(2);
+        byte[] frames = ByteBuffer.allocate(3 * FRAME_SIZE).put(frame(first)).put(corruptedFrame(packet(3)))
+                .put(frame(second)).array();
+
+        // split the frames at odd positions, so frames and checksums arrive in pieces
+        OutputStream out = source.getOutputStream();
+        for (int offset = 0; offset < frames.length; offset += 37) {
+            out.write(frames, offset, Math.min(37, frames.length - offset));
+            out.flush();
+            Thread.sleep(5);
+        }
+
+        Assert.assertArrayEquals("first packet should be received", first,
+                receivedPackets.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+        Assert.assertArrayEquals("packet with invalid checksum should be skipped", second,
+                receivedPackets.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void sendsCompleteFramesIfWritesArePartialTest() throws Exception {
+        connectSource();
+        readBytes(sink, ReplicatorTransport.PORT_BYTES);
+
+        // queue packets until the socket buffers are full, so the transport has to continue partial writes
+        int sentPackets = 0;
+        long lastDrain = System.currentTimeMillis();
+        while (System.currentTimeMillis() - lastDrain < 200) {
+            if (!neighbor.hasQueuedMessages()) {
+                for (int i = 0; i < 10; i++) {
+                    neighbor.send(new DatagramPacket(packet(++sentPackets), PACKET_SIZE));
+                }
+                lastDrain = System.currentTimeMillis();
+            }
+            Thread.yield();
+        }
+
+        // the send queue drops the oldest packets if it is full, so only the order of the counters can be checked
+        long previous = 0;
+        int receivedFrames = 0;
+        sink.setSoTimeout(500);
+        try {
+            while (true) {
+                byte[] frame = readBytes(sink, FRAME_SIZE);
+                byte[] packet = new byte[PACKET_SIZE];
+                System.arraycopy(frame, 0, packet, 0, PACKET_SIZE);
+                Assert.assertArrayEquals("frame should end with the checksum of the packet", frame(packet), frame);
+                long counter = ByteBuffer.wrap(packet).getLong();
+                Assert.assertTrue("packets should be sent in order", counter > previous);
+                previous = counter;
+                receivedFrames++;
+            }
+        } catch (SocketTimeoutException e) {
+            // all frames were read
+        }
+        Assert.assertTrue("packets should be sent", receivedFrames > 0);
+        Assert.assertEquals("last packet should be sent once the socket is writable again", sentPackets, previous);
+    }
+
+    @Test
+    public void removedNeighborIsDisconnectedTest() throws Exception {
+        connectSource();
+        readBytes(sink, ReplicatorTransport.PORT_BYTES);
+
+        Assert.assertTrue("neighbor should be removed", node.removeNeighbor(
+                new URI("tcp://127.0.0.1:" + peerServer.getLocalPort()), false));
+        Assert.assertTrue("sink should be closed", isClosedByPeer(sink));
+        Assert.assertTrue("source should be closed", isClosedByPeer(source));
+        Assert.assertNull("neighbor should not have a source", neighbor.getSource());
+        Assert.assertNull("neighbor should not have a sink", neighbor.getSink());
+
+        try (Socket unknown = connectToTransport()) {
+            Assert.assertTrue("connections of removed neighbors should be refused", isClosedByPeer(unknown));
+        }
+    }
+
+    /**
+     * Connects to the transport as the neighbor, announces our listener port in two pieces and accepts the sink that
+     * the transport opens in return.
+     */
+    private void connectSource() throws Exception {
+        source = connectToTransport();
+        byte[] port = String.format("%0" + ReplicatorTransport.PORT_BYTES + "d", peerServer.getLocalPort()).getBytes();
+        OutputStream out = source.getOutputStream();
+        out.write(port, 0, 4);
+        out.flush();
+        Thread.sleep(20);
+        out.write(port, 4, port.length - 4);
+        out.flush();
+
+        sink = peerServer.accept();
+        sink.setSoTimeout(TIMEOUT);
+    }
+
+    /**
+     * Connects to the transport (which binds its server socket asynchronously after being started).
+     */
+    private Socket connectToTransport() throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (true) {
+            try {
+                Socket socket = new Socket("127.0.0.1", transportPort);
+                socket.setSoTimeout(TIMEOUT);
+                return socket;
+            } catch (ConnectException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static boolean isClosedByPeer(Socket socket) {
+        try {
+            return socket.getInputStream().read() == -1;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            // connection reset
+            return true;
+        }
+    }
+
+    private static byte[] readBytes(Socket socket, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        new DataInputStream(socket.getInputStream()).readFully(bytes);
+
+        return bytes;
+    }
+
+    private static byte[] packet(long counter) {
+        return ByteBuffer.allocate(PACKET_SIZE).putLong(counter).putLong(PACKET_SIZE - Long.BYTES, ~counter).array();
+    }
+
+    private static byte[] frame(byte[] packet) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(packet);
+        String checksum = String.format("%0" + ReplicatorTransport.CRC32_BYTES + "x", crc32.getValue());
+
+        return ByteBuffer.allocate(FRAME_SIZE).put(packet).put(checksum.getBytes()).array();
+    }
+
+    private static byte[] corruptedFrame(byte[] packet) {
+        byte[] frame = frame(packet);
+        frame[FRAME_SIZE - 1] ^= 1;
+
+        return frame;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // don't care.
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package net.helix.pendulum.service.ledger.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.crypto.Sha3;
+import net.helix.pendulum.crypto.Sponge;
+import net.helix.pendulum.crypto.SpongeFactory;
+import net.helix.pendulum.crypto.Winternitz;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.TransactionHash;
+import net.helix.pendulum.service.milestone.MilestoneService;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.impl.SnapshotMockUtils;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
+
+public class LedgerServiceImplTest {
+
+    private static final Tangle tangle = new Tangle();
+    private static TemporaryFolder dbFolder = new TemporaryFolder();
+    private static TemporaryFolder logFolder = new TemporaryFolder();
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private SnapshotProvider snapshotProvider;
+
+    @Mock
+    private MilestoneService milestoneService;
+
+    private LedgerServiceImpl ledgerService;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        dbFolder.create();
+        logFolder.create();
+        tangle.addPersistenceProvider(
+                new RocksDBPersistenceProvider(dbFolder.getRoot().getAbsolutePath(),
+                        logFolder.getRoot().getAbsolutePath(), 1000, Tangle.COLUMN_FAMILIES,
+                        Tangle.METADATA_COLUMN_FAMILY));
+        tangle.init();
+    }
+
+    @AfterClass
+    public static void shutdown() throws Exception {
+        tangle.shutdown();
+        dbFolder.delete();
+        logFolder.delete();
+    }
+
+    @Before
+    public void setUpLedgerService() {
+        // the genesis is the only solid entry point and no transaction is confirmed by a milestone
+        SnapshotMockUtils.mockSnapshotProvider(snapshotProvider);
+        ledgerService = new LedgerServiceImpl().init(tangle, snapshotProvider, null, milestoneService, null, null);
+    }
+
+    @Test
+    public void generateBalanceDiffValidBundleTest() throws Exception {
+        List<TransactionViewModel> bundle = storeSignedBundle(1, false, Hash.NULL_HASH);
+
+        Map<Hash, Long> balanceDiff = ledgerService.generateBalanceDiff(new HashSet<>(),
+                Collections.singleton(bundle.get(0).getHash()), 1);
+
+        Assert.assertNotNull("a valid bundle should produce a balance diff", balanceDiff);
+        Assert.assertEquals("the input should be debited", -5L, (long) balanceDiff.get(bundle.get(0).getAddressHash()));
+        Assert.assertEquals("the output should be credited", 5L, (long) balanceDiff.get(bundle.get(2).getAddressHash()));
+    }
+
+    @Test
+    public void generateBalanceDiffInvalidBundleTest() throws Exception {
+        List<TransactionViewModel> bundle = storeSignedBundle(2, true, Hash.NULL_HASH);
+
+        Assert.assertNull("an invalid bundle should fail the balance diff", ledgerService.generateBalanceDiff(
+                new HashSet<>(), Collections.singleton(bundle.get(0).getHash()), 1));
+    }
+
+    @Test
+    public void generateBalanceDiffApprovedInvalidBundleTest() throws Exception {
+        List<TransactionViewModel> invalidBundle = storeSignedBundle(3, true, Hash.NULL_HASH);
+        List<TransactionViewModel> validBundle = storeSignedBundle(4, false, invalidBundle.get(0).getHash());
+
+        Assert.assertNull("an invalid bundle deeper in the tangle should fail the balance diff",
+                ledgerService.generateBalanceDiff(new HashSet<>(), Collections.singleton(validBundle.get(0).getHash()),
+                        1));
+    }
+
+    /**
+     * Stores a bundle that transfers 5 tokens from the first address (security level 2) of a random seed, whose last
+     * transaction references the given trunk.
+     */
+    private List<TransactionViewModel> storeSignedBundle(long seedIndex, boolean tamper, Hash trunk)
+            throws Exception {
+
+        byte[] seed = new byte[Sha3.HASH_LENGTH];
+        new Random(seedIndex).nextBytes(seed);
+        byte[] input = Winternitz.generateAddress(seed, 0, 2);
+        byte[] output = new byte[TransactionViewModel.ADDRESS_SIZE];
+        byte[][] bundle = {bundleTransaction(input, -5, 0), bundleTransaction(input, 0, 1), bundleTransaction(output, 5, 2)};
+
+        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        for (byte[] bytes : bundle) {
+            sha3.absorb(bytes, TransactionViewModel.ESSENCE_OFFSET, TransactionViewModel.ESSENCE_SIZE);
+        }
+        byte[] bundleHash = new byte[TransactionViewModel.BUNDLE_SIZE];
+        sha3.squeeze(bundleHash, 0, bundleHash.length);
+        byte[] signature = Winternitz.signatureFragments(SpongeFactory.Mode.S256, seed, 0, 2, bundleHash);
+        System.arraycopy(signature, 0, bundle[0], 0, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE);
+        System.arraycopy(signature, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE, bundle[1], 0,
+                TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE);
+        if (tamper) {
+            bundle[1][0] ^= 1;
+        }
+
+        // chain the transactions via their trunks, starting with the last one
+        LinkedList<TransactionViewModel> transactions = new LinkedList<>();
+        for (int i = bundle.length - 1; i >= 0; i--) {
+            System.arraycopy(bundleHash, 0, bundle[i], TransactionViewModel.BUNDLE_OFFSET, TransactionViewModel.BUNDLE_SIZE);
+            System.arraycopy(trunk.bytes(), 0, bundle[i], TransactionViewModel.TRUNK_TRANSACTION_OFFSET,
+                    TransactionViewModel.TRUNK_TRANSACTION_SIZE);
+            TransactionViewModel transaction = new TransactionViewModel(bundle[i],
+                    TransactionHash.calculate(SpongeFactory.Mode.S256, bundle[i]));
+            transaction.store(tangle, snapshotProvider.getInitialSnapshot());
+            transactions.addFirst(transaction);
+            trunk = transaction.getHash();
+        }
+        return transactions;
+    }
+
+    private static byte[] bundleTransaction(byte[] address, long value, long currentIndex) {
+        byte[] bytes = new byte[TransactionViewModel.SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        System.arraycopy(address, 0, bytes, TransactionViewModel.ADDRESS_OFFSET, TransactionViewModel.ADDRESS_SIZE);
+        buffer.putLong(TransactionViewModel.VALUE_OFFSET, value);
+        buffer.putLong(TransactionViewModel.CURRENT_INDEX_OFFSET, currentIndex);
+        buffer.putLong(TransactionViewModel.LAST_INDEX_OFFSET, 2);
+        return bytes;
+    }
+}
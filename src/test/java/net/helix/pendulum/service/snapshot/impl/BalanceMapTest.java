@@ -0,0 +1,89 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class BalanceMapTest {
+
+    @Test
+    public void putAndRemoveTest() {
+        BalanceMap balanceMap = new BalanceMap();
+        Map<Hash, Long> expectedBalances = new HashMap<>();
+        List<Hash> addresses = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Hash address = createAddress();
+            addresses.add(address);
+            balanceMap.put(address, i);
+            expectedBalances.put(address, (long) i);
+        }
+        // removing every other address shifts the probe sequences of the remaining ones
+        for (int i = 0; i < addresses.size(); i += 2) {
+            balanceMap.remove(addresses.get(i));
+            expectedBalances.remove(addresses.get(i));
+        }
+
+        Assert.assertEquals("map should contain the remaining addresses", expectedBalances.size(), balanceMap.size());
+        Assert.assertEquals("map should contain the remaining balances", expectedBalances, balanceMap.toMap());
+        Assert.assertNull("removed address should not be found", balanceMap.get(addresses.get(0)));
+        Assert.assertEquals("remaining address should be found", Long.valueOf(1), balanceMap.get(addresses.get(1)));
+    }
+
+    @Test
+    public void addressesAreComparedByBytesTest() {
+        BalanceMap balanceMap = new BalanceMap();
+        Hash transactionHash = getTransactionHash();
+        balanceMap.add(transactionHash, 10);
+
+        Assert.assertEquals("balance should be added to the same address", 15,
+                balanceMap.add(HashFactory.ADDRESS.create(transactionHash.bytes()), 5));
+        Assert.assertEquals("addresses with the same bytes should share the balance", 1, balanceMap.size());
+        Assert.assertNull("null address should have no balance", balanceMap.get(null));
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+        BalanceMap original = new BalanceMap();
+        Hash address = createAddress();
+        original.put(address, 10);
+
+        BalanceMap copy = original.copy();
+        copy.put(address, 20);
+        copy.put(createAddress(), 30);
+        original.remove(address);
+
+        Assert.assertEquals("original should not be modified by its copy", 0, original.size());
+        Assert.assertEquals("copy should not be modified by the original", Long.valueOf(20), copy.get(address));
+        Assert.assertEquals("copy should keep its own entries", 2, copy.size());
+    }
+
+    @Test
+    public void equalsTest() {
+        BalanceMap balanceMap1 = new BalanceMap();
+        BalanceMap balanceMap2 = new BalanceMap(1_000);
+        Hash address1 = createAddress();
+        Hash address2 = createAddress();
+        balanceMap1.put(address1, 1);
+        balanceMap1.put(address2, 2);
+        balanceMap2.put(address2, 2);
+        balanceMap2.put(address1, 1);
+
+        Assert.assertEquals("maps with the same balances should be equal", balanceMap1, balanceMap2);
+        Assert.assertEquals("maps with the same balances should have the same hash code", balanceMap1.hashCode(),
+                balanceMap2.hashCode());
+        balanceMap2.put(address1, 3);
+        Assert.assertNotEquals("maps with different balances should not be equal", balanceMap1, balanceMap2);
+    }
+
+    private static Hash createAddress() {
+        return HashFactory.ADDRESS.create(getTransactionHash().bytes());
+    }
+}
@@ -8,9 +8,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.runners.MethodSorters;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
@@ -19,6 +21,9 @@ import net.helix.pendulum.controllers.RoundViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.model.IntegerIndex;
+import net.helix.pendulum.model.StateDiff;
+import net.helix.pendulum.model.persistables.Round;
 import net.helix.pendulum.model.persistables.Transaction;
 import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotException;
@@ -65,6 +70,11 @@ public class SnapshotServiceImplTest {
     private static final Hash ADDRESS_2 = getTransaction().address;
     private static final Hash ADDRESS_3 = getTransaction().address;
 
+    /**
+     * Amount of rounds that exceeds the batches that are replayed by the calling thread.
+     */
+    private static final int BATCHED_ROUND_COUNT = 250;
+
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     //region [BOILERPLATE] /////////////////////////////////////////////////////////////////////////////////////////////
@@ -190,10 +200,113 @@ public class SnapshotServiceImplTest {
         }
     }
 
+    @Test
+    public void replayMilestonesBatchedTest() throws Exception {
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int lastRoundIndex = initialSnapshot.getIndex() + BATCHED_ROUND_COUNT;
+
+        mockRounds(initialSnapshot.getIndex() + 1, lastRoundIndex, ADDRESS_1);
+
+        snapshotService.replayMilestones(latestSnapshot, lastRoundIndex);
+
+        Assert.assertEquals("the snapshot should have the index of the last applied round",
+                lastRoundIndex, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the balance of the addresses should reflect the changes of all batches",
+                TransactionViewModel.SUPPLY - BATCHED_ROUND_COUNT, (long) latestSnapshot.getBalance(Hash.NULL_HASH));
+
+        Assert.assertEquals("the balance of the addresses should reflect the changes of all batches",
+                BATCHED_ROUND_COUNT, (long) latestSnapshot.getBalance(ADDRESS_1));
+
+        snapshotService.rollBackMilestones(latestSnapshot, initialSnapshot.getIndex() + 1);
+
+        Assert.assertEquals("rolling back all batches should revert all changes", initialSnapshot, latestSnapshot);
+    }
+
+    @Test
+    public void replayMilestonesBatchedFailureTest() throws Exception {
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int lastRoundIndex = initialSnapshot.getIndex() + BATCHED_ROUND_COUNT;
+
+        mockRounds(initialSnapshot.getIndex() + 1, lastRoundIndex, ADDRESS_1);
+
+        // fail a round in the middle of the second batch
+        Mockito.when(tangle.load(StateDiff.class, new IntegerIndex(initialSnapshot.getIndex() + 150)))
+                .thenThrow(new Exception("failed to read the state diff"));
+
+        try {
+            snapshotService.replayMilestones(latestSnapshot, lastRoundIndex);
+
+            Assert.fail("a failing round should fail the replay");
+        } catch (SnapshotException e) {
+            Assert.assertEquals("failed replays should not modify the snapshot", initialSnapshot, latestSnapshot);
+        }
+    }
+
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     //region [TEST: rollbackMilestones] ////////////////////////////////////////////////////////////////////////////////
 
+    @Test
+    public void rollbackMilestonesSeveralTest() throws Exception {
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int firstRoundIndex = initialSnapshot.getIndex() + 1;
+
+        // the round after the second one is skipped
+        mockRounds(firstRoundIndex, firstRoundIndex, ADDRESS_1);
+        mockRounds(firstRoundIndex + 1, firstRoundIndex + 1, ADDRESS_2);
+        mockRounds(firstRoundIndex + 3, firstRoundIndex + 4, ADDRESS_3);
+
+        snapshotService.replayMilestones(latestSnapshot, firstRoundIndex + 4);
+
+        Assert.assertEquals("the snapshot should have the index of the last applied round",
+                firstRoundIndex + 4, latestSnapshot.getIndex());
+
+        snapshotService.rollBackMilestones(latestSnapshot, firstRoundIndex + 1);
+
+        Assert.assertEquals("the snapshot should have the index of the round that we rolled back to",
+                firstRoundIndex, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the balance of the addresses should reflect the balances of the remaining round",
+                TransactionViewModel.SUPPLY - 1L, (long) latestSnapshot.getBalance(Hash.NULL_HASH));
+
+        Assert.assertEquals("the balance of the addresses should reflect the balances of the remaining round",
+                1L, (long) latestSnapshot.getBalance(ADDRESS_1));
+
+        Assert.assertNull("the changes of all rolled back rounds should be reverted",
+                latestSnapshot.getBalance(ADDRESS_2));
+
+        Assert.assertNull("the changes of all rolled back rounds should be reverted",
+                latestSnapshot.getBalance(ADDRESS_3));
+    }
+
+    @Test
+    public void rollbackMilestonesMissingRoundTest() throws Exception {
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int firstRoundIndex = initialSnapshot.getIndex() + 1;
+
+        mockRounds(firstRoundIndex, firstRoundIndex + 2, ADDRESS_1);
+        snapshotService.replayMilestones(latestSnapshot, firstRoundIndex + 2);
+
+        Snapshot clonedSnapshot = latestSnapshot.clone();
+
+        // the applied round disappears from the database
+        RoundViewModel.clear();
+        Mockito.when(tangle.load(Round.class, new IntegerIndex(firstRoundIndex + 1))).thenReturn(null);
+
+        try {
+            snapshotService.rollBackMilestones(latestSnapshot, firstRoundIndex);
+
+            Assert.fail("rolling back a missing round should fail");
+        } catch (SnapshotException e) {
+            Assert.assertEquals("failed rollbacks should not modify the snapshot", clonedSnapshot, latestSnapshot);
+        }
+    }
+
     //@Test
     public void rollbackMilestonesSingleTest() throws Exception {
         Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
@@ -265,6 +378,21 @@ public class SnapshotServiceImplTest {
 
     //region [UTILITY METHODS] /////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * Mocks the rounds in the given range, each of them transferring a single token from the genesis address to the
+     * given address.
+     */
+    private void mockRounds(int firstRoundIndex, int lastRoundIndex, Hash address) {
+        for (int roundIndex = firstRoundIndex; roundIndex <= lastRoundIndex; roundIndex++) {
+            Hash milestoneHash = getTransactionHash();
+            TangleMockUtils.mockRound(tangle, roundIndex, milestoneHash);
+            TangleMockUtils.mockStateDiff(tangle, milestoneHash, createBalanceMap(
+                    Hash.NULL_HASH, -1L,
+                    address,         1L
+            ), roundIndex);
+        }
+    }
+
     private static <KEY, VALUE> Map<KEY, VALUE> createBalanceMap(Object... mapEntries) {
         Map<KEY, VALUE> result = new HashMap<>();
 
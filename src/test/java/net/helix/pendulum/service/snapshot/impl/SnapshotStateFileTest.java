@@ -0,0 +1,90 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.SnapshotException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class SnapshotStateFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndOpenTest() throws Exception {
+        Map<Hash, Long> balances = createBalances(100);
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.write(path, balances);
+
+        Assert.assertTrue("written file should be recognized as binary", SnapshotStateFile.isBinary(path));
+        SnapshotStateFile stateFile = SnapshotStateFile.open(path);
+        Assert.assertEquals("all balances should be read", balances, stateFile.toMap());
+        for (Map.Entry<Hash, Long> entry : balances.entrySet()) {
+            Assert.assertEquals("balance should be found by binary search", entry.getValue(),
+                    stateFile.getBalance(entry.getKey()));
+        }
+        Assert.assertNull("unknown address should have no balance", stateFile.getBalance(createAddress()));
+    }
+
+    @Test
+    public void incrementalWriteTest() throws Exception {
+        Map<Hash, Long> balances = createBalances(100);
+        Path previousPath = folder.newFile().toPath();
+        SnapshotStateFile.write(previousPath, balances);
+
+        Map<Hash, Long> changes = new HashMap<>();
+        Hash removedAddress = balances.keySet().iterator().next();
+        changes.put(removedAddress, 0L);
+        Hash changedAddress = balances.keySet().stream().filter(address -> address != removedAddress)
+                .findFirst().get();
+        changes.put(changedAddress, 42L);
+        Hash addedAddress = createAddress();
+        changes.put(addedAddress, 7L);
+
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.write(path, SnapshotStateFile.open(previousPath), changes);
+
+        balances.remove(removedAddress);
+        balances.put(changedAddress, 42L);
+        balances.put(addedAddress, 7L);
+        Assert.assertEquals("changes should be applied to the previous balances", balances,
+                SnapshotStateFile.open(path).toMap());
+    }
+
+    @Test(expected = SnapshotException.class)
+    public void corruptedFileIsRejectedTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.write(path, createBalances(10));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int lastByte = file.read();
+            file.seek(file.length() - 1);
+            file.write(lastByte + 1);
+        }
+
+        SnapshotStateFile.open(path);
+    }
+
+    private static Map<Hash, Long> createBalances(int amount) {
+        Map<Hash, Long> balances = new HashMap<>();
+        for (int i = 1; i <= amount; i++) {
+            balances.put(createAddress(), (long) i);
+        }
+
+        return balances;
+    }
+
+    private static Hash createAddress() {
+        return HashFactory.ADDRESS.create(getTransactionHash().bytes());
+    }
+}
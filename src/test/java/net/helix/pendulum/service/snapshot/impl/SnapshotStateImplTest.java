@@ -10,6 +10,7 @@ import static org.junit.Assert.*;
 import net.helix.pendulum.TransactionTestUtils;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.service.snapshot.SnapshotException;
 import net.helix.pendulum.service.snapshot.SnapshotState;
 import net.helix.pendulum.service.snapshot.SnapshotStateDiff;
@@ -54,7 +55,10 @@ public class SnapshotStateImplTest {
     @Test
     public void getBalancesTest() {
         assertEquals("State should not have balances", new HashMap<>(), state.getBalances());
-        assertEquals("State should have the balances it was created with", map, balanceState.getBalances());
+        Map<Hash, Long> balances = balanceState.getBalances();
+        assertEquals("State should have the balances it was created with", map.size(), balances.size());
+        map.forEach((address, balance) -> assertEquals("State should have the balances it was created with",
+                balance, balances.get(HashFactory.ADDRESS.create(address.bytes()))));
     }
 
     @Test
@@ -0,0 +1,91 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionBytesWithTrunkAndBranch;
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class SolidEntryPointCandidatesTest {
+
+    @Test
+    public void approvingRoundsAreRecordedTest() {
+        SolidEntryPointCandidates candidates = new SolidEntryPointCandidates(10);
+        TransactionViewModel approvee = createTransaction(getTransactionHash());
+        TransactionViewModel approver = createTransaction(approvee.getHash());
+        candidates.addRound(1, getTransactionHash(), Collections.emptySet(), Collections.singleton(approvee));
+        candidates.addRound(2, getTransactionHash(), Collections.singleton(approver.getHash()),
+                Collections.singleton(approver));
+
+        Assert.assertTrue("approvee should be approved after its own round",
+                candidates.isApprovedAfter(approvee.getHash(), 1));
+        Assert.assertFalse("approvee should not be approved after the round of its approver",
+                candidates.isApprovedAfter(approvee.getHash(), 2));
+        Assert.assertEquals("confirmed transactions should be recorded", Collections.singleton(approver.getHash()),
+                candidates.getConfirmedTransactions(2));
+    }
+
+    @Test
+    public void reappliedRoundDiscardsFollowingRoundsTest() {
+        SolidEntryPointCandidates candidates = new SolidEntryPointCandidates(10);
+        TransactionViewModel approvee = createTransaction(getTransactionHash());
+        candidates.addRound(1, getTransactionHash(), Collections.emptySet(), Collections.singleton(approvee));
+        candidates.addRound(2, getTransactionHash(), Collections.emptySet(),
+                Collections.singleton(createTransaction(approvee.getHash())));
+        candidates.addRound(3, getTransactionHash(), Collections.emptySet(), Collections.emptySet());
+
+        candidates.addRound(2, getTransactionHash(), Collections.emptySet(), Collections.emptySet());
+
+        Assert.assertFalse("rounds after the reapplied round should be discarded", candidates.containsRound(3));
+        Assert.assertTrue("reapplied round should be recorded", candidates.containsRound(2));
+        Assert.assertFalse("approvals of the discarded rounds should be forgotten",
+                candidates.isApprovedAfter(approvee.getHash(), 1));
+    }
+
+    @Test
+    public void oldRoundsAreRemovedTest() {
+        SolidEntryPointCandidates candidates = new SolidEntryPointCandidates(2);
+        TransactionViewModel transaction = createTransaction(getTransactionHash());
+        candidates.addRound(1, getTransactionHash(), Collections.emptySet(), Collections.singleton(transaction));
+        candidates.addRound(2, getTransactionHash(), Collections.emptySet(), Collections.emptySet());
+        candidates.addRound(3, getTransactionHash(), Collections.emptySet(), Collections.emptySet());
+
+        Assert.assertNull("oldest round should be removed", candidates.getConfirmedTransactions(1));
+        Assert.assertTrue("latest rounds should be kept", candidates.containsRound(2) && candidates.containsRound(3));
+    }
+
+    @Test
+    public void seenRoundsAreCollectedTest() {
+        SolidEntryPointCandidates candidates = new SolidEntryPointCandidates(10);
+        Hash merkleRoot5 = getTransactionHash();
+        Hash merkleRoot7 = getTransactionHash();
+        candidates.addRound(5, merkleRoot5, Collections.emptySet(), Collections.emptySet());
+        candidates.addRound(6, null, Collections.emptySet(), Collections.emptySet());
+        candidates.addRound(7, merkleRoot7, Collections.emptySet(), Collections.emptySet());
+
+        Map<Integer, Hash> seenRounds = new HashMap<>();
+        Assert.assertEquals("rounds should be collected up to the last known round", 7,
+                candidates.collectSeenRounds(4, seenRounds));
+        Map<Integer, Hash> expectedSeenRounds = new HashMap<>();
+        expectedSeenRounds.put(5, merkleRoot5);
+        expectedSeenRounds.put(7, merkleRoot7);
+        Assert.assertEquals("only rounds with milestones should be collected", expectedSeenRounds, seenRounds);
+
+        Map<Integer, Hash> incompleteSeenRounds = new HashMap<>();
+        Assert.assertEquals("rounds should not be collected if the following rounds are not known", 2,
+                candidates.collectSeenRounds(2, incompleteSeenRounds));
+        Assert.assertTrue("no rounds should be collected if the following rounds are not known",
+                incompleteSeenRounds.isEmpty());
+    }
+
+    private static TransactionViewModel createTransaction(Hash trunk) {
+        return new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(trunk, getTransactionHash()),
+                getTransactionHash());
+    }
+}
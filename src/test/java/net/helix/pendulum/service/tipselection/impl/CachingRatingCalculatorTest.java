@@ -0,0 +1,70 @@
+package net.helix.pendulum.service.tipselection.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashId;
+import net.helix.pendulum.utils.collections.impl.TransformingMap;
+import net.helix.pendulum.utils.collections.interfaces.UnIterableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class CachingRatingCalculatorTest {
+
+    @Test
+    public void ratingIsSharedWithinTtlTest() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        CachingRatingCalculator calculator = new CachingRatingCalculator(entryPoint -> {
+            calculations.incrementAndGet();
+            return new TransformingMap<>(null, null);
+        }, 60_000);
+        Hash entryPoint = getTransactionHash();
+
+        UnIterableMap<HashId, Integer> rating = calculator.calculate(entryPoint);
+
+        Assert.assertSame("rating of the same entry point should be shared", rating,
+                calculator.calculate(entryPoint));
+        Assert.assertEquals("rating should only be calculated once", 1, calculations.get());
+        calculator.calculate(getTransactionHash());
+        Assert.assertEquals("rating of another entry point should be calculated", 2, calculations.get());
+    }
+
+    @Test
+    public void expiredRatingIsRecalculatedTest() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        CachingRatingCalculator calculator = new CachingRatingCalculator(entryPoint -> {
+            calculations.incrementAndGet();
+            return new TransformingMap<>(null, null);
+        }, 0);
+        Hash entryPoint = getTransactionHash();
+
+        calculator.calculate(entryPoint);
+        calculator.calculate(entryPoint);
+
+        Assert.assertEquals("expired rating should be calculated again", 2, calculations.get());
+    }
+
+    @Test
+    public void failedRatingIsNotCachedTest() throws Exception {
+        AtomicInteger calculations = new AtomicInteger();
+        CachingRatingCalculator calculator = new CachingRatingCalculator(entryPoint -> {
+            if (calculations.incrementAndGet() == 1) {
+                throw new IllegalStateException("db failure");
+            }
+            return new TransformingMap<>(null, null);
+        }, 60_000);
+        Hash entryPoint = getTransactionHash();
+
+        try {
+            calculator.calculate(entryPoint);
+            Assert.fail("error of the calculation should be passed to the caller");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("error of the calculation should be passed to the caller", "db failure",
+                    e.getMessage());
+        }
+        Assert.assertNotNull("rating should be calculated again after a failure", calculator.calculate(entryPoint));
+        Assert.assertEquals("rating should be calculated again after a failure", 2, calculations.get());
+    }
+}
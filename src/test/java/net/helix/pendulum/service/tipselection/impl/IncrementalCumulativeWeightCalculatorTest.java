@@ -0,0 +1,185 @@
+package net.helix.pendulum.service.tipselection.impl;
+
+import net.helix.pendulum.conf.MainnetConfig;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashId;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
+import net.helix.pendulum.utils.collections.interfaces.UnIterableMap;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionBytes;
+import static net.helix.pendulum.TransactionTestUtils.getTransactionBytesWithTrunkAndBranch;
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class IncrementalCumulativeWeightCalculatorTest {
+
+    private static final String TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT =
+            "tx%d cumulative weight is not as expected";
+
+    private static SnapshotProvider snapshotProvider;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        snapshotProvider = new SnapshotProviderImpl().init(new MainnetConfig());
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        snapshotProvider.shutdown();
+    }
+
+    @Test
+    public void calculateCumulativeWeightTest() throws Exception {
+        IncrementalCumulativeWeightCalculator calculator = new IncrementalCumulativeWeightCalculator(snapshotProvider,
+                entryPoint -> null, 100);
+        TransactionViewModel transaction, transaction1, transaction2, transaction3, transaction4;
+        transaction = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        transaction1 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+        transaction2 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction1.getHash(),
+                transaction1.getHash()), getTransactionHash());
+        transaction3 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction2.getHash(),
+                transaction1.getHash()), getTransactionHash());
+        transaction4 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction2.getHash(),
+                transaction3.getHash()), getTransactionHash());
+
+        // approvers are reported first, so the queued parents have to be processed before them
+        calculator.onSolidTransaction(transaction4);
+        calculator.onSolidTransaction(transaction3);
+        calculator.onSolidTransaction(transaction2);
+        calculator.onSolidTransaction(transaction1);
+        calculator.onSolidTransaction(transaction);
+        calculator.processQueuedTransactions();
+        UnIterableMap<HashId, Integer> txToCw = calculator.calculate(transaction.getHash());
+
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 4),
+                1, txToCw.get(transaction4.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 3),
+                2, txToCw.get(transaction3.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 2),
+                3, txToCw.get(transaction2.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 1),
+                4, txToCw.get(transaction1.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 0),
+                5, txToCw.get(transaction.getHash()).intValue());
+    }
+
+    @Test
+    public void ratingIsLimitedToSnapshotTest() throws Exception {
+        IncrementalCumulativeWeightCalculator calculator = new IncrementalCumulativeWeightCalculator(snapshotProvider,
+                entryPoint -> null, 100);
+        TransactionViewModel transaction, transaction1, transaction2;
+        transaction = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        transaction1 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+        transaction2 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction1.getHash(),
+                transaction1.getHash()), getTransactionHash());
+
+        calculator.onSolidTransaction(transaction);
+        calculator.onSolidTransaction(transaction1);
+        calculator.processQueuedTransactions();
+        UnIterableMap<HashId, Integer> txToCw = calculator.calculate(transaction1.getHash());
+        calculator.onSolidTransaction(transaction2);
+        calculator.processQueuedTransactions();
+
+        Assert.assertFalse("transactions older than the entry point should not be rated",
+                txToCw.containsKey(transaction.getHash()));
+        Assert.assertTrue("entry point should be rated", txToCw.containsKey(transaction1.getHash()));
+        Assert.assertFalse("transactions that were added after the calculation should not be rated",
+                txToCw.containsKey(transaction2.getHash()));
+    }
+
+    @Test
+    public void ancestorsProcessedOneByOneAreRatedTest() throws Exception {
+        IncrementalCumulativeWeightCalculator calculator = new IncrementalCumulativeWeightCalculator(snapshotProvider,
+                entryPoint -> null, 100);
+        TransactionViewModel transaction, transaction1, transaction2;
+        transaction = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        transaction1 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+        transaction2 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction1.getHash()), getTransactionHash());
+
+        // the update thread can process every transaction before the next one is reported
+        for (TransactionViewModel solidTransaction : Arrays.asList(transaction, transaction1, transaction2)) {
+            calculator.onSolidTransaction(solidTransaction);
+            calculator.processQueuedTransactions();
+        }
+        UnIterableMap<HashId, Integer> txToCw = calculator.calculate(transaction.getHash());
+
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 2),
+                1, txToCw.get(transaction2.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 1),
+                2, txToCw.get(transaction1.getHash()).intValue());
+        Assert.assertEquals(String.format(TX_CUMULATIVE_WEIGHT_IS_NOT_AS_EXPECTED_FORMAT, 0),
+                3, txToCw.get(transaction.getHash()).intValue());
+    }
+
+    @Test
+    public void ratingIsLimitedToFutureConeTest() throws Exception {
+        IncrementalCumulativeWeightCalculator calculator = new IncrementalCumulativeWeightCalculator(snapshotProvider,
+                entryPoint -> null, 100);
+        TransactionViewModel transaction, transaction1, transaction2, transaction3;
+        transaction = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        transaction1 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+        transaction2 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+        transaction3 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction1.getHash(),
+                transaction1.getHash()), getTransactionHash());
+
+        calculator.onSolidTransaction(transaction);
+        calculator.onSolidTransaction(transaction1);
+        calculator.onSolidTransaction(transaction2);
+        calculator.onSolidTransaction(transaction3);
+        calculator.processQueuedTransactions();
+        UnIterableMap<HashId, Integer> txToCw = calculator.calculate(transaction1.getHash());
+
+        Assert.assertTrue("entry point should be rated", txToCw.containsKey(transaction1.getHash()));
+        Assert.assertTrue("approvers of the entry point should be rated", txToCw.containsKey(transaction3.getHash()));
+        Assert.assertFalse("transactions outside of the future cone should not be rated",
+                txToCw.containsKey(transaction2.getHash()));
+        Assert.assertEquals("only the future cone should be rated", 2, txToCw.size());
+        Assert.assertEquals("values should be the weights of the future cone", new HashSet<>(Arrays.asList(1, 2)),
+                new HashSet<>(txToCw.values()));
+        Assert.assertTrue("weight of the entry point should be found", txToCw.containsValue(2));
+        Assert.assertFalse("weight of transactions outside of the future cone should not be found",
+                txToCw.containsValue(4));
+    }
+
+    @Test
+    public void untrackedEntryPointIsCalculatedByFallbackTest() throws Exception {
+        AtomicInteger fallbackCalls = new AtomicInteger();
+        IncrementalCumulativeWeightCalculator calculator = new IncrementalCumulativeWeightCalculator(snapshotProvider,
+                entryPoint -> {
+                    fallbackCalls.incrementAndGet();
+                    return null;
+                }, 1);
+        TransactionViewModel transaction, transaction1;
+        transaction = new TransactionViewModel(getTransactionBytes(), getTransactionHash());
+        transaction1 = new TransactionViewModel(getTransactionBytesWithTrunkAndBranch(transaction.getHash(),
+                transaction.getHash()), getTransactionHash());
+
+        calculator.onSolidTransaction(transaction);
+        calculator.onSolidTransaction(transaction1);
+        calculator.processQueuedTransactions();
+
+        Assert.assertEquals("only the newest transaction should be tracked", 1,
+                calculator.getTrackedTransactionCount());
+        calculator.calculate(transaction1.getHash());
+        Assert.assertEquals("tracked entry point should not use the fallback", 0, fallbackCalls.get());
+        calculator.calculate(transaction.getHash());
+        Assert.assertEquals("forgotten entry point should use the fallback", 1, fallbackCalls.get());
+        calculator.calculate(Hash.NULL_HASH);
+        Assert.assertEquals("unknown entry point should use the fallback", 2, fallbackCalls.get());
+    }
+}
@@ -0,0 +1,97 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.persistables.Transaction;
+import net.helix.pendulum.utils.Pair;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class GroupCommitWriterTest {
+
+    private static final int LONG_DELAY = 60_000;
+
+    private final List<List<Pair<Indexable, Persistable>>> commits = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private GroupCommitWriter writer;
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void writesDirectlyIfNotStartedTest() throws Exception {
+        writer = new GroupCommitWriter(this::commit, LONG_DELAY, 10);
+
+        Assert.assertTrue("batch should be written", writer.write(batch(TransactionTestUtils.getTransactionHash()), false));
+        Assert.assertEquals("batch should be written without waiting", 1, commits.size());
+    }
+
+    @Test
+    public void combinesConcurrentBatchesTest() throws Exception {
+        writer = new GroupCommitWriter(this::commit, LONG_DELAY, 2);
+        writer.start();
+
+        Future<Boolean> first = executor.submit(() -> writer.write(batch(TransactionTestUtils.getTransactionHash()), false));
+        Future<Boolean> second = executor.submit(() -> writer.write(batch(TransactionTestUtils.getTransactionHash()), false));
+
+        Assert.assertTrue("first batch should be written", first.get());
+        Assert.assertTrue("second batch should be written", second.get());
+        Assert.assertEquals("both batches should be written with one commit", 1, commits.size());
+        Assert.assertEquals("the commit should contain both batches", 2, commits.get(0).size());
+        Assert.assertEquals("both batches should be counted", 2, writer.getBatchCount());
+    }
+
+    @Test
+    public void flushCommitsImmediatelyTest() throws Exception {
+        writer = new GroupCommitWriter(this::commit, LONG_DELAY, 100);
+        writer.start();
+
+        Assert.assertTrue("batch should be written", writer.write(batch(TransactionTestUtils.getTransactionHash()), true));
+        Assert.assertEquals("flush should not wait for other batches", 1, writer.getCommitCount());
+    }
+
+    @Test
+    public void dropsDuplicateBatchesTest() throws Exception {
+        writer = new GroupCommitWriter(this::commit, LONG_DELAY, 2);
+        writer.start();
+        Hash hash = TransactionTestUtils.getTransactionHash();
+
+        Future<Boolean> first = executor.submit(() -> writer.write(batch(hash), false));
+        Future<Boolean> second = executor.submit(() -> writer.write(batch(hash), false));
+
+        Assert.assertTrue("exactly one of the batches should be written", first.get() ^ second.get());
+        Assert.assertEquals("the duplicate should not be written", 1, commits.get(0).size());
+    }
+
+    @Test
+    public void reportsBatchesThatWereNotStoredTest() throws Exception {
+        writer = new GroupCommitWriter(models -> false, LONG_DELAY, 100);
+        writer.start();
+
+        Assert.assertFalse("batch should be reported as not stored",
+                writer.write(batch(TransactionTestUtils.getTransactionHash()), true));
+        Assert.assertEquals("batch should not be counted as written", 0, writer.getBatchCount());
+    }
+
+    private boolean commit(List<Pair<Indexable, Persistable>> models) {
+        commits.add(models);
+        return true;
+    }
+
+    private static List<Pair<Indexable, Persistable>> batch(Hash hash) {
+        return Collections.singletonList(new Pair<>(hash, new Transaction()));
+    }
+}
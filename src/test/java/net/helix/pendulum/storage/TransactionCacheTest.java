@@ -0,0 +1,96 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.persistables.Transaction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransaction;
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class TransactionCacheTest {
+
+    @Test
+    public void cachedTransactionIsCopiedTest() {
+        TransactionCache cache = new TransactionCache(1 << 20);
+        Hash hash = getTransactionHash();
+        Transaction transaction = getTransaction();
+        transaction.solid = true;
+        cache.put(hash, transaction);
+
+        Transaction cachedTransaction = cache.get(hash);
+        Assert.assertNotNull("stored transaction should be cached", cachedTransaction);
+        Assert.assertNotSame("cache should return a new transaction object", transaction, cachedTransaction);
+        Assert.assertArrayEquals("cached transaction should have the stored bytes", transaction.bytes,
+                cachedTransaction.bytes);
+        Assert.assertArrayEquals("cached transaction should have the stored metadata", transaction.metadata(),
+                cachedTransaction.metadata());
+
+        cachedTransaction.bytes[0]++;
+        Assert.assertArrayEquals("modifications of a returned transaction should not change the cache",
+                transaction.bytes, cache.get(hash).bytes);
+        Assert.assertEquals("hits should be counted", 2, cache.getHitCount());
+        Assert.assertNull("unknown transaction should not be cached", cache.get(getTransactionHash()));
+        Assert.assertEquals("misses should be counted", 1, cache.getMissCount());
+    }
+
+    @Test
+    public void cachedMetadataIsCopiedTest() {
+        TransactionCache cache = new TransactionCache(1 << 20);
+        Hash hash = getTransactionHash();
+        Transaction transaction = getTransaction();
+        transaction.solid = true;
+        cache.put(hash, transaction);
+
+        byte[] metadata = cache.getMetadata(hash);
+        Assert.assertArrayEquals("cached metadata should be the stored metadata", transaction.metadata(), metadata);
+
+        metadata[0]++;
+        Assert.assertArrayEquals("modifications of the returned metadata should not change the cache",
+                transaction.metadata(), cache.getMetadata(hash));
+        Assert.assertTrue("cached metadata should belong to the stored transaction", cache.get(hash).solid);
+        Assert.assertNull("unknown transaction should have no cached metadata",
+                cache.getMetadata(getTransactionHash()));
+    }
+
+    @Test
+    public void sizeIsBoundedTest() {
+        TransactionCache cache = new TransactionCache(16 * 4_000);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(getTransactionHash(), getTransaction());
+        }
+
+        Assert.assertTrue("cache should not grow beyond its size", cache.getSize() <= 16 * 4_000);
+        Assert.assertTrue("cache should keep the recent transactions", cache.getSize() > 0);
+    }
+
+    @Test
+    public void outdatedLoadIsNotCachedTest() {
+        TransactionCache cache = new TransactionCache(1 << 20);
+        Hash hash = getTransactionHash();
+        long stamp = cache.stamp(hash);
+        Transaction updatedTransaction = getTransaction();
+        updatedTransaction.solid = true;
+        cache.put(hash, updatedTransaction);
+        Transaction loadedTransaction = getTransaction();
+        cache.putLoaded(hash, loadedTransaction, stamp);
+
+        Assert.assertTrue("written transaction should not be replaced by an outdated load", cache.get(hash).solid);
+
+        cache.invalidate(hash);
+        cache.putLoaded(hash, loadedTransaction, cache.stamp(hash));
+        Assert.assertArrayEquals("loaded transaction should be cached", loadedTransaction.bytes,
+                cache.get(hash).bytes);
+    }
+
+    @Test
+    public void invalidatedTransactionIsRemovedTest() {
+        TransactionCache cache = new TransactionCache(1 << 20);
+        Hash hash = getTransactionHash();
+        cache.put(hash, getTransaction());
+        cache.invalidate(hash);
+
+        Assert.assertFalse("invalidated transaction should not be cached", cache.contains(hash));
+        Assert.assertEquals("invalidated transaction should not use memory", 0, cache.getSize());
+    }
+}
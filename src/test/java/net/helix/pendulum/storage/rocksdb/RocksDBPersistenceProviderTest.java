@@ -1,7 +1,13 @@
 package net.helix.pendulum.storage.rocksdb;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -12,12 +18,17 @@ import org.junit.Test;
 import org.junit.Assert;
 import org.junit.rules.TemporaryFolder;
 
+import net.helix.pendulum.TransactionTestUtils;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.model.IntegerIndex;
+import net.helix.pendulum.model.persistables.Approvee;
 import net.helix.pendulum.model.persistables.Transaction;
 import net.helix.pendulum.utils.Pair;
+import net.helix.pendulum.utils.Serializer;
 
 
 public class RocksDBPersistenceProviderTest {
@@ -82,4 +93,127 @@ public class RocksDBPersistenceProviderTest {
         }
     }
 
+    @Test
+    public void clearTest() throws Exception {
+        Persistable tx = new Transaction();
+        byte[] bytes = new byte[Transaction.SIZE];
+        Arrays.fill(bytes, (byte) 1);
+        tx.read(bytes);
+        tx.readMetadata(bytes);
+        List<Pair<Indexable, Persistable>> models = IntStream.range(1, 100)
+                .mapToObj(i -> new Pair<>((Indexable) new IntegerIndex(i), tx))
+                .collect(Collectors.toList());
+        rocksDBPersistenceProvider.saveBatch(models);
+
+        rocksDBPersistenceProvider.clear(Transaction.class);
+        rocksDBPersistenceProvider.clearMetadata(Transaction.class);
+
+        Assert.assertNull("cleared column family should be empty",
+                rocksDBPersistenceProvider.get(Transaction.class, new IntegerIndex(1)).bytes());
+        Assert.assertNull("cleared metadata should be empty",
+                rocksDBPersistenceProvider.getMetadata(Transaction.class, new IntegerIndex(1)));
+        rocksDBPersistenceProvider.saveBatch(models);
+        Assert.assertArrayEquals("cleared column family should be writable", tx.bytes(),
+                rocksDBPersistenceProvider.get(Transaction.class, new IntegerIndex(1)).bytes());
+    }
+
+    @Test
+    public void forEachKeyTest() throws Exception {
+        Persistable tx = new Transaction();
+        byte[] bytes = new byte[Transaction.SIZE];
+        Arrays.fill(bytes, (byte) 1);
+        tx.read(bytes);
+        tx.readMetadata(bytes);
+        List<Pair<Indexable, Persistable>> models = IntStream.range(0, 600)
+                .mapToObj(i -> new Pair<>((Indexable) new IntegerIndex(i), tx))
+                .collect(Collectors.toList());
+        rocksDBPersistenceProvider.saveBatch(models);
+
+        List<Integer> keys = new ArrayList<>();
+        rocksDBPersistenceProvider.forEachKey(Transaction.class, null, key -> keys.add(Serializer.getInteger(key)));
+        Assert.assertEquals("all keys should be visited in key order",
+                IntStream.range(0, 600).boxed().collect(Collectors.toList()), keys);
+
+        keys.clear();
+        // integers from 512 to 767 start with the bytes 0, 0, 2
+        rocksDBPersistenceProvider.forEachKey(Transaction.class, new byte[]{0, 0, 2},
+                key -> keys.add(Serializer.getInteger(key)));
+        Assert.assertEquals("only keys with the prefix should be visited",
+                IntStream.range(512, 600).boxed().collect(Collectors.toList()), keys);
+
+        keys.clear();
+        rocksDBPersistenceProvider.forEachKey(Transaction.class, null,
+                key -> keys.add(Serializer.getInteger(key)) && keys.size() < 10);
+        Assert.assertEquals("visitor should be able to stop the iteration", 10, keys.size());
+    }
+
+    @Test
+    public void forEachKeyWithMissingReferenceTest() throws Exception {
+        Transaction tx = new Transaction();
+        byte[] bytes = new byte[Transaction.SIZE];
+        Arrays.fill(bytes, (byte) 1);
+        tx.read(bytes);
+        tx.readMetadata(bytes);
+        List<Pair<Indexable, Persistable>> models = new ArrayList<>();
+        Set<Hash> missingHashes = new HashSet<>();
+        // more than one batch of reference lookups
+        for (int i = 0; i < 2500; i++) {
+            Hash approvee = TransactionTestUtils.getTransactionHash();
+            models.add(new Pair<>(approvee, new Approvee(TransactionTestUtils.getTransactionHash())));
+            if (i % 7 == 0) {
+                missingHashes.add(approvee);
+            } else {
+                models.add(new Pair<>(approvee, tx));
+            }
+        }
+        rocksDBPersistenceProvider.saveBatch(models);
+
+        Set<Indexable> visitedHashes = new HashSet<>();
+        rocksDBPersistenceProvider.forEachKeyWithMissingReference(Approvee.class, Transaction.class,
+                key -> visitedHashes.add(HashFactory.TRANSACTION.create(key)));
+
+        Assert.assertEquals("only keys without a referenced entry should be visited", missingHashes, visitedHashes);
+        Assert.assertEquals("missing references should be returned as a set", missingHashes,
+                rocksDBPersistenceProvider.keysWithMissingReferences(Approvee.class, Transaction.class));
+    }
+
+    @Test
+    public void columnFamilyProfilesTest() throws Exception {
+        TemporaryFolder profileDbFolder = new TemporaryFolder();
+        profileDbFolder.create();
+        ColumnFamilyProfile transactionProfile = new ColumnFamilyProfile(512 * 1024, 1024 * 1024, "NO_COMPRESSION",
+                true);
+        ColumnFamilyProfile indexProfile = new ColumnFamilyProfile(512 * 1024, 1024 * 1024, "SNAPPY_COMPRESSION",
+                false);
+        Map<String, ColumnFamilyProfile> profiles = new HashMap<>();
+        profiles.put("transaction", transactionProfile);
+        profiles.put(Tangle.METADATA_COLUMN_FAMILY.getKey(), transactionProfile);
+        profiles.put("approvee", indexProfile);
+        RocksDBPersistenceProvider profiledProvider = new RocksDBPersistenceProvider(
+                profileDbFolder.getRoot().getAbsolutePath(), logFolder.getRoot().getAbsolutePath(),
+                1000, Tangle.COLUMN_FAMILIES, Tangle.METADATA_COLUMN_FAMILY, profiles, 4);
+        try {
+            profiledProvider.init();
+
+            Transaction tx = new Transaction();
+            byte[] bytes = new byte[Transaction.SIZE];
+            Arrays.fill(bytes, (byte) 1);
+            tx.read(bytes);
+            tx.readMetadata(bytes);
+            Hash hash = TransactionTestUtils.getTransactionHash();
+            Hash approver1 = TransactionTestUtils.getTransactionHash();
+            Hash approver2 = TransactionTestUtils.getTransactionHash();
+            profiledProvider.saveBatch(Arrays.asList(new Pair<>(hash, tx), new Pair<>(hash, new Approvee(approver1))));
+            profiledProvider.saveBatch(Collections.singletonList(new Pair<>(hash, new Approvee(approver2))));
+
+            Assert.assertArrayEquals("transaction should be stored in its column family", tx.bytes(),
+                    profiledProvider.get(Transaction.class, hash).bytes());
+            Assert.assertEquals("approvers should be merged in their column family",
+                    new HashSet<>(Arrays.asList(approver1, approver2)),
+                    ((Approvee) profiledProvider.get(Approvee.class, hash)).set);
+        } finally {
+            profiledProvider.shutdown();
+            profileDbFolder.delete();
+        }
+    }
 }
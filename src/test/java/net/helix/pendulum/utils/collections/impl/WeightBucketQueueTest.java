@@ -0,0 +1,93 @@
+package net.helix.pendulum.utils.collections.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WeightBucketQueueTest {
+
+    @Test
+    public void pollsHeaviestElementFirstTest() {
+        WeightBucketQueue<Integer> queue = new WeightBucketQueue<>(10, 10, Integer::intValue);
+        queue.offer(3);
+        queue.offer(7);
+        queue.offer(1);
+
+        Assert.assertEquals("queue doesn't have expected size", 3, queue.size());
+        Assert.assertEquals("heaviest element should be polled first", Integer.valueOf(7), queue.poll());
+        Assert.assertEquals("heaviest element should be polled first", Integer.valueOf(3), queue.poll());
+        Assert.assertEquals("heaviest element should be polled first", Integer.valueOf(1), queue.poll());
+        Assert.assertNull("empty queue should return null", queue.poll());
+        Assert.assertTrue("queue should be empty", queue.isEmpty());
+    }
+
+    @Test
+    public void keepsInsertionOrderForSameWeightTest() {
+        WeightBucketQueue<String> queue = new WeightBucketQueue<>(10);
+        queue.offer("a");
+        queue.offer("b");
+
+        Assert.assertEquals("oldest element should be polled first", "a", queue.poll());
+        Assert.assertEquals("oldest element should be polled first", "b", queue.poll());
+    }
+
+    @Test
+    public void evictsLightestElementIfFullTest() {
+        WeightBucketQueue<Integer> queue = new WeightBucketQueue<>(2, 10, Integer::intValue);
+        queue.offer(2);
+        queue.offer(5);
+
+        Assert.assertTrue("heavier element should be accepted", queue.offer(8));
+        Assert.assertEquals("queue should not grow beyond its bound", 2, queue.size());
+        Assert.assertEquals("eviction should be counted", 1, queue.getDropCount());
+        Assert.assertEquals("lightest element should have been evicted", Integer.valueOf(8), queue.poll());
+        Assert.assertEquals("lightest element should have been evicted", Integer.valueOf(5), queue.poll());
+    }
+
+    @Test
+    public void dropsLighterElementIfFullTest() {
+        WeightBucketQueue<Integer> queue = new WeightBucketQueue<>(2, 10, Integer::intValue);
+        queue.offer(4);
+        queue.offer(5);
+
+        Assert.assertFalse("lighter element should be dropped", queue.offer(1));
+        Assert.assertEquals("drop should be counted", 1, queue.getDropCount());
+        Assert.assertEquals("queue content should not change", 2, queue.size());
+    }
+
+    @Test
+    public void clampsWeightsToBucketsTest() {
+        WeightBucketQueue<Integer> queue = new WeightBucketQueue<>(10, 3, Integer::intValue);
+        queue.offer(-5);
+        queue.offer(100);
+
+        Assert.assertEquals("element with too high weight should be in heaviest bucket", Integer.valueOf(100),
+                queue.poll());
+        queue.clear();
+        Assert.assertTrue("queue should be empty after clear", queue.isEmpty());
+    }
+
+    @Test
+    public void rejectsQueuedDuplicatesTest() {
+        WeightBucketQueue<String> queue = new WeightBucketQueue<>(10, 1, element -> 0, element -> element);
+        Assert.assertTrue("first element should be queued", queue.offer("a"));
+        Assert.assertFalse("duplicate should be rejected", queue.offer("a"));
+        Assert.assertEquals("duplicate should be counted", 1, queue.getDuplicateCount());
+        Assert.assertEquals("duplicate should not take up capacity", 1, queue.size());
+
+        Assert.assertEquals("queued element should be polled", "a", queue.poll());
+        Assert.assertTrue("element should be accepted again once it was polled", queue.offer("a"));
+    }
+
+    @Test
+    public void forgetsKeysOfEvictedElementsTest() {
+        WeightBucketQueue<Integer> queue = new WeightBucketQueue<>(1, 10, Integer::intValue, Integer::valueOf);
+        queue.offer(2);
+        queue.offer(5);
+
+        Assert.assertEquals("lighter element should have been evicted", 1, queue.size());
+        Assert.assertFalse("lighter element should be dropped again", queue.offer(2));
+        Assert.assertEquals("dropped element should not be counted as duplicate", 0, queue.getDuplicateCount());
+        Assert.assertEquals("heavier element should still be queued", Integer.valueOf(5), queue.poll());
+        Assert.assertTrue("evicted element should be accepted again", queue.offer(2));
+    }
+}
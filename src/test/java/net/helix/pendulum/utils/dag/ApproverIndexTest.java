@@ -0,0 +1,120 @@
+package net.helix.pendulum.utils.dag;
+
+import net.helix.pendulum.model.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class ApproverIndexTest {
+
+    @Test
+    public void indexesApproversOfStoredTransactionsTest() throws Exception {
+        ApproverIndex approverIndex = new ApproverIndex(16, 10, hash -> new LinkedHashSet<>());
+        Hash trunk = getTransactionHash();
+        Hash branch = getTransactionHash();
+        Hash approver1 = getTransactionHash();
+        Hash approver2 = getTransactionHash();
+        approverIndex.addTransaction(approver1, trunk, branch);
+        approverIndex.addTransaction(approver2, trunk, trunk);
+
+        Assert.assertEquals("trunk should be approved by both transactions", new HashSet<>(Arrays.asList(approver1,
+                approver2)), approverIndex.getApprovers(trunk));
+        Assert.assertEquals("branch should be approved by the first transaction", Collections.singleton(approver1),
+                approverIndex.getApprovers(branch));
+        Assert.assertTrue("tip should have no approvers", approverIndex.getApprovers(approver2).isEmpty());
+        Assert.assertNull("unknown transaction should not be served by the index",
+                approverIndex.getApprovers(getTransactionHash()));
+    }
+
+    @Test
+    public void mergesStoredApproversOnceTest() throws Exception {
+        Hash trunk = getTransactionHash();
+        Hash oldApprover = getTransactionHash();
+        Hash newApprover = getTransactionHash();
+        AtomicInteger loads = new AtomicInteger();
+        ApproverIndex approverIndex = new ApproverIndex(16, 10, hash -> {
+            loads.incrementAndGet();
+            return hash.equals(trunk) ? new LinkedHashSet<>(Arrays.asList(oldApprover, newApprover))
+                    : new LinkedHashSet<>();
+        });
+        approverIndex.addTransaction(newApprover, trunk, trunk);
+
+        Set<Hash> expectedApprovers = new HashSet<>(Arrays.asList(oldApprover, newApprover));
+        Assert.assertEquals("stored approvers should be merged into the index", expectedApprovers,
+                approverIndex.getApprovers(trunk));
+        Assert.assertEquals("merged approvers should be served from the index", expectedApprovers,
+                approverIndex.getApprovers(trunk));
+        Assert.assertEquals("stored approvers should only be loaded once", 1, loads.get());
+    }
+
+    @Test
+    public void mergesStoredApproversOfRecreatedTransactionTest() throws Exception {
+        Hash transaction = getTransactionHash();
+        Hash oldApprover = getTransactionHash();
+        Hash newApprover = getTransactionHash();
+        ApproverIndex approverIndex = new ApproverIndex(16, 1, hash -> hash.equals(transaction)
+                ? new LinkedHashSet<>(Arrays.asList(oldApprover, newApprover)) : new LinkedHashSet<>());
+        approverIndex.addTransaction(transaction, Hash.NULL_HASH, Hash.NULL_HASH);
+        approverIndex.onSolidMilestone(1);
+        approverIndex.addTransaction(oldApprover, transaction, transaction);
+        // the transaction is forgotten while its approver is still indexed
+        approverIndex.onSolidMilestone(2);
+        approverIndex.addTransaction(newApprover, transaction, transaction);
+
+        Set<Hash> expectedApprovers = new HashSet<>(Arrays.asList(oldApprover, newApprover));
+        Assert.assertEquals("approvers that were stored before the transaction was indexed again should be merged",
+                expectedApprovers, approverIndex.getApprovers(transaction));
+        Assert.assertEquals("merged approvers should be served from the index", expectedApprovers,
+                approverIndex.getApprovers(transaction));
+    }
+
+    @Test
+    public void evictedApproverInvalidatesApproveeTest() throws Exception {
+        ApproverIndex approverIndex = new ApproverIndex(4, 10, hash -> new LinkedHashSet<>());
+        Hash trunk = getTransactionHash();
+        approverIndex.addTransaction(getTransactionHash(), getTransactionHash(), trunk);
+        // the new branch doesn't fit into the index anymore and evicts the first approver
+        approverIndex.addTransaction(getTransactionHash(), trunk, getTransactionHash());
+
+        Assert.assertEquals("index should not grow beyond its capacity", 4, approverIndex.size());
+        Assert.assertNull("transaction with a forgotten approver should not be served by the index",
+                approverIndex.getApprovers(trunk));
+    }
+
+    @Test
+    public void solidMilestonesEvictOldTransactionsTest() throws Exception {
+        ApproverIndex approverIndex = new ApproverIndex(16, 1, hash -> new LinkedHashSet<>());
+        Hash oldTransaction = getTransactionHash();
+        Hash newTransaction = getTransactionHash();
+        approverIndex.addTransaction(oldTransaction, Hash.NULL_HASH, Hash.NULL_HASH);
+        approverIndex.onSolidMilestone(1);
+        approverIndex.addTransaction(newTransaction, oldTransaction, oldTransaction);
+        approverIndex.onSolidMilestone(2);
+
+        Assert.assertNull("transaction stored before the retained milestones should be forgotten",
+                approverIndex.getApprovers(oldTransaction));
+        Assert.assertNotNull("transaction stored after the retained milestone should be indexed",
+                approverIndex.getApprovers(newTransaction));
+    }
+
+    @Test
+    public void additionalApproveesInvalidateApproveeTest() throws Exception {
+        ApproverIndex approverIndex = new ApproverIndex(16, 10, hash -> new LinkedHashSet<>());
+        Hash tip = getTransactionHash();
+        Hash milestone = getTransactionHash();
+        approverIndex.addTransaction(tip, Hash.NULL_HASH, Hash.NULL_HASH);
+        approverIndex.addTransaction(milestone, getTransactionHash(), getTransactionHash());
+        approverIndex.addApprover(tip, milestone);
+
+        Assert.assertNull("approvers beyond trunk and branch should be served by the database",
+                approverIndex.getApprovers(tip));
+    }
+}